@@ -1,11 +1,12 @@
 package rs.kreme.ksbot.api.game;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.Locale;
-import java.util.stream.Collectors;
+import java.util.concurrent.CopyOnWriteArrayList;
 import rs.kreme.ksbot.api.queries.NPCQuery;
+import rs.kreme.ksbot.api.stats.ReactionTracker;
+import rs.kreme.ksbot.api.trace.TraceRecorder;
+import rs.kreme.ksbot.api.world.EntityStore;
 import rs.kreme.ksbot.api.wrappers.KSNPC;
 
 /**
@@ -19,7 +20,15 @@ public class Combat {
     private int specEnergy = 0;
     private boolean specEnabled;
     private AttackStyle attackStyle = AttackStyle.ACCURATE;
-    private final List<KSNPC> attackableNpcs = new ArrayList<>();
+    private final EntityStore attackableNpcs = new EntityStore();
+    private final List<CombatListener> listeners = new CopyOnWriteArrayList<>();
+    private TraceRecorder recorder;
+    private ReactionTracker reactions;
+
+    // Resolved target filter, reused while callers pass the same name array
+    private String[] cachedTargetNames;
+    private boolean[] cachedTargetMask;
+    private int cachedNameVersion = -1;
 
     public boolean inCombat() {
         return inCombat;
@@ -27,6 +36,9 @@ public class Combat {
 
     public void setInCombat(boolean inCombat) {
         this.inCombat = inCombat;
+        if (recorder != null) {
+            recorder.inCombat(inCombat);
+        }
     }
 
     public int getHealthPercent() {
@@ -35,6 +47,12 @@ public class Combat {
 
     public void setHealthPercent(int healthPercent) {
         this.healthPercent = healthPercent;
+        if (recorder != null) {
+            recorder.healthPercent(healthPercent);
+        }
+        if (reactions != null) {
+            reactions.healthChanged();
+        }
     }
 
     public int getCurrentHealth() {
@@ -43,6 +61,71 @@ public class Combat {
 
     public void setCurrentHealth(int currentHealth) {
         this.currentHealth = currentHealth;
+        if (recorder != null) {
+            recorder.currentHealth(currentHealth);
+        }
+        if (reactions != null) {
+            reactions.healthChanged();
+        }
+    }
+
+    public void addListener(CombatListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(CombatListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Reports every state change to the recorder, or stops reporting when null.
+     */
+    public void setRecorder(TraceRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Reports health changes, hits taken, special energy changes and special
+     * attacks to the reaction tracker, or stops reporting when null.
+     */
+    public void setReactions(ReactionTracker reactions) {
+        this.reactions = reactions;
+    }
+
+    /**
+     * Reports a hit by the local player to the listeners.
+     */
+    public void hitDealt(int damage) {
+        if (recorder != null) {
+            recorder.hitDealt(damage);
+        }
+        for (CombatListener listener : listeners) {
+            listener.onHitDealt(damage);
+        }
+    }
+
+    /**
+     * Reports a hit on the local player by an unknown attacker to the listeners.
+     */
+    public void hitTaken(int damage) {
+        hitTaken(-1, damage);
+    }
+
+    /**
+     * Reports a hit on the local player to the listeners.
+     *
+     * @param attacker Slot of the attacking NPC in the entity store, or -1 if unknown
+     */
+    public void hitTaken(int attacker, int damage) {
+        if (recorder != null) {
+            recorder.hitTaken(attacker, damage);
+        }
+        for (CombatListener listener : listeners) {
+            listener.onHitTaken(attacker, damage);
+        }
+        if (reactions != null) {
+            reactions.healthChanged();
+        }
     }
 
     public boolean isAttacking(KSNPC npc) {
@@ -51,30 +134,107 @@ public class Combat {
 
     public void setAttackableNpcs(List<KSNPC> npcs) {
         attackableNpcs.clear();
+        if (recorder != null) {
+            recorder.npcsCleared();
+        }
         if (npcs != null) {
-            attackableNpcs.addAll(npcs);
+            for (KSNPC npc : npcs) {
+                addAttackableNpc(npc.getName(), npc.getCombatLevel(), npc.getX(), npc.getY(), 0);
+            }
         }
     }
 
+    /**
+     * Spawns an attackable NPC straight into the store and returns its slot.
+     */
+    public int addAttackableNpc(String name, int combatLevel, int x, int y, int hp) {
+        int slot = attackableNpcs.add(attackableNpcs.intern(name), x, y, combatLevel, hp, 0);
+        if (recorder != null) {
+            recorder.npcAdded(name, combatLevel, x, y, hp, slot);
+        }
+        return slot;
+    }
+
+    public void removeAttackableNpc(int slot) {
+        attackableNpcs.release(slot);
+        if (recorder != null) {
+            recorder.npcRemoved(slot);
+        }
+    }
+
+    /**
+     * Column store backing the attackable NPC list, for scans that want to
+     * read the primitive columns directly.
+     */
+    public EntityStore getNpcStore() {
+        return attackableNpcs;
+    }
+
     public NPCQuery getAttackableNPC(String... targetNames) {
+        List<KSNPC> matches = new ArrayList<>();
         if (targetNames == null || targetNames.length == 0) {
-            return new NPCQuery(attackableNpcs);
-        }
-        List<String> filters = Arrays.stream(targetNames)
-                .map(name -> name.toLowerCase(Locale.ROOT))
-                .collect(Collectors.toList());
-        List<KSNPC> matches = attackableNpcs.stream()
-                .filter(npc -> filters.contains(npc.getName().toLowerCase(Locale.ROOT)))
-                .collect(Collectors.toList());
+            for (int slot = 0; slot < attackableNpcs.highWater(); slot++) {
+                if (attackableNpcs.isLive(slot)) {
+                    matches.add(new KSNPC(attackableNpcs, slot));
+                }
+            }
+            return new NPCQuery(matches);
+        }
+        boolean[] mask = resolveTargetMask(targetNames);
+        for (int slot = 0; slot < attackableNpcs.highWater(); slot++) {
+            int id = attackableNpcs.id(slot);
+            if (id != EntityStore.FREE && id < mask.length && mask[id]) {
+                matches.add(new KSNPC(attackableNpcs, slot));
+            }
+        }
         return new NPCQuery(matches);
     }
 
+    /**
+     * Returns the first attackable NPC matching one of the names without
+     * building a query, or null if none is present.
+     */
+    public KSNPC findAttackableNPC(String... targetNames) {
+        int slot;
+        if (targetNames == null || targetNames.length == 0) {
+            slot = attackableNpcs.size() == 0 ? -1 : firstLiveSlot();
+        } else {
+            slot = attackableNpcs.findFirst(resolveTargetMask(targetNames));
+        }
+        return slot < 0 ? null : new KSNPC(attackableNpcs, slot);
+    }
+
+    private int firstLiveSlot() {
+        for (int slot = 0; slot < attackableNpcs.highWater(); slot++) {
+            if (attackableNpcs.isLive(slot)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private boolean[] resolveTargetMask(String[] targetNames) {
+        if (targetNames != cachedTargetNames || cachedNameVersion != attackableNpcs.nameVersion()) {
+            cachedTargetMask = attackableNpcs.idMask(targetNames);
+            cachedTargetNames = targetNames;
+            cachedNameVersion = attackableNpcs.nameVersion();
+        }
+        return cachedTargetMask;
+    }
+
     public int getSpecEnergy() {
         return specEnergy;
     }
 
     public void setSpecEnergy(int specEnergy) {
+        int oldEnergy = this.specEnergy;
         this.specEnergy = specEnergy;
+        if (recorder != null) {
+            recorder.specEnergy(specEnergy);
+        }
+        if (reactions != null) {
+            reactions.specEnergyChanged(oldEnergy, specEnergy);
+        }
     }
 
     public boolean isSpecEnabled() {
@@ -82,11 +242,17 @@ public class Combat {
     }
 
     public void enableSpecial() {
-        this.specEnabled = true;
+        setSpecEnabled(true);
+        if (reactions != null) {
+            reactions.specialEnabled();
+        }
     }
 
     public void setSpecEnabled(boolean specEnabled) {
         this.specEnabled = specEnabled;
+        if (recorder != null) {
+            recorder.specEnabled(specEnabled);
+        }
     }
 
     public AttackStyle getAttackStyle() {
@@ -95,6 +261,9 @@ public class Combat {
 
     public void setAttackStyle(AttackStyle attackStyle) {
         this.attackStyle = attackStyle;
+        if (recorder != null) {
+            recorder.attackStyle(attackStyle);
+        }
     }
 
     public enum AttackStyle {
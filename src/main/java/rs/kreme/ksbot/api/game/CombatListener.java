@@ -0,0 +1,33 @@
+package rs.kreme.ksbot.api.game;
+
+/**
+ * Receives hits as the client reports them. Callbacks run on the thread
+ * that reported the hit.
+ */
+public interface CombatListener {
+
+    /**
+     * The local player hit its target.
+     *
+     * @param damage Damage dealt, 0 for a splash or block
+     */
+    void onHitDealt(int damage);
+
+    /**
+     * The local player was hit.
+     *
+     * @param damage Damage taken, 0 for a block
+     */
+    void onHitTaken(int damage);
+
+    /**
+     * The local player was hit by a known attacker. Listeners that do not
+     * tell attackers apart receive it through {@link #onHitTaken(int)}.
+     *
+     * @param attacker Slot of the attacking NPC in the combat entity store, or -1 if unknown
+     * @param damage Damage taken, 0 for a block
+     */
+    default void onHitTaken(int attacker, int damage) {
+        onHitTaken(damage);
+    }
+}
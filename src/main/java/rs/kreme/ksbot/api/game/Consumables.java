@@ -1,7 +1,188 @@
 package rs.kreme.ksbot.api.game;
 
+import java.util.Arrays;
+import java.util.Set;
+import rs.kreme.ksbot.api.wrappers.KSItem;
+
 /**
- * Placeholder consumables API for unit testing.
+ * Registry of food and potions by item id, plus live counters of the
+ * supplies in the inventory.
+ * <p>
+ * The registry is static and shared: every consumable id maps to a dense
+ * index with its heal amount, potion family and dose count, and each
+ * potion dose knows the item it turns into when drunk ({@code (4)} to
+ * {@code (3)} and so on, the last dose leaving a {@link #VIAL}). Heal
+ * amounts come from {@link ItemDefinitions}, potion effects from
+ * {@link PotionType}.
+ * <p>
+ * An instance listens to the inventory and keeps per-item counts, the
+ * food count, the total hitpoints the food would heal and the doses left
+ * per potion family, adjusting them on every add and remove, so supply
+ * questions are answered without scanning the inventory.
  */
-public class Consumables {
+public class Consumables implements InventoryListener {
+
+    public static final int VIAL = 229;
+
+    private static final PotionType[] POTION_TYPES = PotionType.values();
+
+    // Item id -> dense consumable index, -1 for anything else
+    private static final short[] INDEX_BY_ID = new short[ItemDefinitions.MAX_ID];
+
+    // Dense consumable index -> data
+    private static final int[] IDS;
+    private static final int[] HEALS;
+    private static final PotionType[] TYPES;
+    private static final byte[] DOSES;
+
+    static {
+        Arrays.fill(INDEX_BY_ID, (short) -1);
+        int count = 0;
+        int[] ids = new int[64];
+        for (int id = 0; id < ItemDefinitions.MAX_ID; id++) {
+            if (ItemDefinitions.healOf(id) > 0) {
+                ids = append(ids, count++, id);
+            }
+        }
+        int foods = count;
+        for (PotionType type : POTION_TYPES) {
+            for (int doses = 1; doses <= PotionType.MAX_DOSES; doses++) {
+                ids = append(ids, count++, type.idFor(doses));
+            }
+        }
+
+        IDS = Arrays.copyOf(ids, count);
+        HEALS = new int[count];
+        TYPES = new PotionType[count];
+        DOSES = new byte[count];
+        for (int index = 0; index < count; index++) {
+            INDEX_BY_ID[IDS[index]] = (short) index;
+            if (index < foods) {
+                HEALS[index] = ItemDefinitions.healOf(IDS[index]);
+            } else {
+                int potion = index - foods;
+                TYPES[index] = POTION_TYPES[potion / PotionType.MAX_DOSES];
+                DOSES[index] = (byte) (potion % PotionType.MAX_DOSES + 1);
+            }
+        }
+    }
+
+    private final int[] counts = new int[IDS.length];
+    private final int[] dosesByType = new int[POTION_TYPES.length];
+    private int foodCount;
+    private int totalHeal;
+
+    private static int[] append(int[] ids, int index, int id) {
+        int[] target = index < ids.length ? ids : Arrays.copyOf(ids, ids.length * 2);
+        target[index] = id;
+        return target;
+    }
+
+    private static int indexOf(int id) {
+        return id >= 0 && id < INDEX_BY_ID.length ? INDEX_BY_ID[id] : -1;
+    }
+
+    public static boolean isConsumable(int id) {
+        return indexOf(id) >= 0;
+    }
+
+    public static boolean isFood(int id) {
+        return healOf(id) > 0;
+    }
+
+    /**
+     * Hitpoints the item heals, or 0 if it is not food.
+     */
+    public static int healOf(int id) {
+        int index = indexOf(id);
+        return index < 0 ? 0 : HEALS[index];
+    }
+
+    /**
+     * Potion family of the item, or null if it is not a potion.
+     */
+    public static PotionType potionTypeOf(int id) {
+        int index = indexOf(id);
+        return index < 0 ? null : TYPES[index];
+    }
+
+    /**
+     * Doses left in a potion, or 0 if it is not a potion.
+     */
+    public static int dosesOf(int id) {
+        int index = indexOf(id);
+        return index < 0 ? 0 : DOSES[index];
+    }
+
+    /**
+     * Item a potion becomes after one dose is drunk: the next lower dose,
+     * or a {@link #VIAL} after the last one.
+     *
+     * @return The item id, or {@link ItemDefinitions#UNKNOWN} if the item is not a potion
+     */
+    public static int nextDoseId(int id) {
+        int index = indexOf(id);
+        if (index < 0 || TYPES[index] == null) {
+            return ItemDefinitions.UNKNOWN;
+        }
+        return DOSES[index] == 1 ? VIAL : TYPES[index].idFor(DOSES[index] - 1);
+    }
+
+    @Override
+    public void onItemAdded(KSItem item) {
+        adjust(item.getId(), 1);
+    }
+
+    @Override
+    public void onItemRemoved(KSItem item) {
+        adjust(item.getId(), -1);
+    }
+
+    /**
+     * Number of items with the given id in the inventory.
+     */
+    public int getCount(int id) {
+        int index = indexOf(id);
+        return index < 0 ? 0 : counts[index];
+    }
+
+    public int getFoodCount() {
+        return foodCount;
+    }
+
+    /**
+     * Hitpoints all the food in the inventory would heal.
+     */
+    public int getTotalHeal() {
+        return totalHeal;
+    }
+
+    public int getDoses(PotionType type) {
+        return dosesByType[type.ordinal()];
+    }
+
+    /**
+     * Doses left across the given potion families.
+     */
+    public int getDoses(Set<PotionType> types) {
+        int doses = 0;
+        for (PotionType type : types) {
+            doses += dosesByType[type.ordinal()];
+        }
+        return doses;
+    }
+
+    private void adjust(int id, int delta) {
+        int index = indexOf(id);
+        if (index < 0) {
+            return;
+        }
+        counts[index] += delta;
+        if (HEALS[index] > 0) {
+            foodCount += delta;
+            totalHeal += delta * HEALS[index];
+        } else {
+            dosesByType[TYPES[index].ordinal()] += delta * DOSES[index];
+        }
+    }
 }
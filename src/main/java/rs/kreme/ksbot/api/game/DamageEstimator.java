@@ -0,0 +1,289 @@
+package rs.kreme.ksbot.api.game;
+
+import java.util.Arrays;
+
+/**
+ * Rolling model of the damage the local player is about to take, used to
+ * estimate the chance of dying before the next chance to eat.
+ * <p>
+ * Each attacker keeps a ring of its last {@value #WINDOW} hits (0 for a
+ * block) with a running damage sum and count of hits that did damage, so
+ * recording a hit is O(1). Like the {@link ProtectionScheduler}, the gap
+ * between two hits is taken as the attacker's speed; an attacker that has
+ * been quiet for longer than
+ * {@value ProtectionScheduler#MAX_ATTACK_SPEED_TICKS} ticks no longer
+ * counts.
+ * <p>
+ * An attack is modelled the way the game rolls it: it lands with some
+ * chance, and a landed attack deals between 0 and the max hit with equal
+ * odds. The max hit is the highest one under which the largest hit seen is
+ * still {@value #MAX_HIT_CONFIDENCE} likely given the hits that did damage,
+ * so it overshoots rather than undershoots while few hits are known, and the
+ * chance to land follows from the share of hits that did damage. An attacker
+ * that has not done damage yet is not predicted at all. The damage of every
+ * predicted attack in the horizon is then convolved exactly over the
+ * hitpoints that are left, which takes one pass per attack.
+ * <p>
+ * At most {@value #MAX_ATTACKERS} attackers are tracked; a new one takes
+ * the place of the attacker that has been quiet the longest.
+ */
+public final class DamageEstimator implements CombatListener {
+
+    public static final int WINDOW = 16;
+    public static final int MAX_ATTACKERS = 8;
+    public static final double MAX_HIT_CONFIDENCE = 0.75;
+
+    private static final int FREE = Integer.MIN_VALUE;
+
+    private final GameClock clock;
+
+    // Attacker columns, indexed by table position
+    private final int[] attackers = new int[MAX_ATTACKERS];
+    private final int[][] hits = new int[MAX_ATTACKERS][WINDOW];
+    private final int[] hitCount = new int[MAX_ATTACKERS];
+    private final int[] nextHit = new int[MAX_ATTACKERS];
+    private final long[] damageSum = new long[MAX_ATTACKERS];
+    private final int[] damagingHits = new int[MAX_ATTACKERS];
+    private final int[] maxHitSeen = new int[MAX_ATTACKERS];
+    private final int[] damagingHitsSeen = new int[MAX_ATTACKERS];
+    private final long[] lastHitTick = new long[MAX_ATTACKERS];
+    private final int[] attackSpeedTicks = new int[MAX_ATTACKERS];
+
+    // Scratch damage distribution for the risk calculation
+    private double[] damageOdds = new double[0];
+    private double[] nextOdds = new double[0];
+
+    public DamageEstimator(GameClock clock) {
+        this.clock = clock;
+        reset();
+    }
+
+    @Override
+    public void onHitDealt(int damage) {
+        // Only incoming damage matters
+    }
+
+    @Override
+    public void onHitTaken(int damage) {
+        onHitTaken(-1, damage);
+    }
+
+    @Override
+    public void onHitTaken(int attacker, int damage) {
+        long tick = clock.currentTick();
+        int index = indexOf(attacker, tick);
+        long gap = tick - lastHitTick[index];
+        if (hitCount[index] > 0 && gap > 0 && gap <= ProtectionScheduler.MAX_ATTACK_SPEED_TICKS) {
+            attackSpeedTicks[index] = (int) gap;
+        }
+        lastHitTick[index] = tick;
+
+        int[] ring = hits[index];
+        if (hitCount[index] == WINDOW) {
+            int old = ring[nextHit[index]];
+            damageSum[index] -= old;
+            if (old > 0) {
+                damagingHits[index]--;
+            }
+        } else {
+            hitCount[index]++;
+        }
+        ring[nextHit[index]] = damage;
+        damageSum[index] += damage;
+        if (damage > 0) {
+            damagingHits[index]++;
+            damagingHitsSeen[index]++;
+        }
+        maxHitSeen[index] = Math.max(maxHitSeen[index], damage);
+        nextHit[index] = (nextHit[index] + 1) % WINDOW;
+    }
+
+    /**
+     * Whether some attacker has hit recently enough to still count.
+     */
+    public boolean isUnderAttack() {
+        long tick = clock.currentTick();
+        for (int i = 0; i < MAX_ATTACKERS; i++) {
+            if (isActive(i, tick)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Chance that the predicted attacks in the next ticks deal at least the
+     * given hitpoints.
+     *
+     * @param hitpoints Current hitpoints
+     * @param horizonTicks Ticks to look ahead
+     * @return Probability between 0 and 1
+     */
+    public double deathRisk(int hitpoints, int horizonTicks) {
+        if (hitpoints <= 0) {
+            return 1;
+        }
+        if (damageOdds.length < hitpoints) {
+            damageOdds = new double[hitpoints];
+            nextOdds = new double[hitpoints];
+        }
+        // Odds of each total below the hitpoints; whatever is missing is death
+        double[] odds = damageOdds;
+        Arrays.fill(odds, 0, hitpoints, 0);
+        odds[0] = 1;
+        long tick = clock.currentTick();
+        for (int i = 0; i < MAX_ATTACKERS; i++) {
+            if (!isActive(i, tick) || damagingHits[i] == 0) {
+                continue;
+            }
+            int maxHit = estimateMaxHit(i);
+            double landChance = Math.min(1, (double) damagingHits[i] / hitCount[i] * (maxHit + 1) / maxHit);
+            double perDamage = landChance / (maxHit + 1);
+            for (int attack = attacksWithin(i, tick, horizonTicks); attack > 0; attack--) {
+                // Sliding sum over the totals one attack can come from
+                double window = 0;
+                for (int total = 0; total < hitpoints; total++) {
+                    window += odds[total];
+                    if (total > maxHit) {
+                        window -= odds[total - maxHit - 1];
+                    }
+                    nextOdds[total] = (1 - landChance) * odds[total] + perDamage * window;
+                }
+                double[] swap = odds;
+                odds = nextOdds;
+                nextOdds = swap;
+            }
+        }
+        double survive = 0;
+        for (int total = 0; total < hitpoints; total++) {
+            survive += odds[total];
+        }
+        damageOdds = odds;
+        return Math.max(0, 1 - survive);
+    }
+
+    /**
+     * Ticks until the expected damage of the predicted attacks reaches the
+     * given hitpoints.
+     *
+     * @param hitpoints Current hitpoints
+     * @param maxTicks Ticks to look ahead
+     * @return Ticks until death, or {@code maxTicks} if it does not happen within them
+     */
+    public int ticksUntilDeath(int hitpoints, int maxTicks) {
+        long tick = clock.currentTick();
+        for (int ahead = 1; ahead < maxTicks; ahead++) {
+            double expected = 0;
+            for (int i = 0; i < MAX_ATTACKERS; i++) {
+                if (isActive(i, tick)) {
+                    expected += attacksWithin(i, tick, ahead) * meanOf(i);
+                }
+            }
+            if (expected >= hitpoints) {
+                return ahead;
+            }
+        }
+        return maxTicks;
+    }
+
+    /**
+     * Forgets every attacker.
+     */
+    public void reset() {
+        Arrays.fill(attackers, FREE);
+        Arrays.fill(hitCount, 0);
+        Arrays.fill(nextHit, 0);
+        Arrays.fill(damageSum, 0);
+        Arrays.fill(damagingHits, 0);
+        Arrays.fill(maxHitSeen, 0);
+        Arrays.fill(damagingHitsSeen, 0);
+        Arrays.fill(lastHitTick, Long.MIN_VALUE / 2);
+        Arrays.fill(attackSpeedTicks, ProtectionScheduler.DEFAULT_ATTACK_SPEED_TICKS);
+    }
+
+    /**
+     * Mean damage per attack of an attacker, or 0 if it is not tracked.
+     */
+    public double getMeanDamage(int attacker) {
+        int index = find(attacker);
+        return index < 0 ? 0 : meanOf(index);
+    }
+
+    /**
+     * Estimated max hit of an attacker, or 0 if it is not tracked or has not done damage yet.
+     */
+    public int getMaxHitEstimate(int attacker) {
+        int index = find(attacker);
+        return index < 0 || damagingHits[index] == 0 ? 0 : estimateMaxHit(index);
+    }
+
+    /**
+     * Attack speed of an attacker in ticks, or 0 if it is not tracked.
+     */
+    public int getAttackSpeedTicks(int attacker) {
+        int index = find(attacker);
+        return index < 0 ? 0 : attackSpeedTicks[index];
+    }
+
+    private boolean isActive(int index, long tick) {
+        return hitCount[index] > 0 && tick - lastHitTick[index] <= ProtectionScheduler.MAX_ATTACK_SPEED_TICKS;
+    }
+
+    /**
+     * Number of the attacker's predicted attacks in the ticks after {@code tick}.
+     */
+    private int attacksWithin(int index, long tick, int horizonTicks) {
+        int speed = attackSpeedTicks[index];
+        long next = lastHitTick[index] + ((tick - lastHitTick[index]) / speed + 1) * speed;
+        long end = tick + horizonTicks;
+        return next > end ? 0 : (int) ((end - next) / speed + 1);
+    }
+
+    private double meanOf(int index) {
+        return (double) damageSum[index] / hitCount[index];
+    }
+
+    /**
+     * Highest max hit under which the largest hit seen so far is still a
+     * likely outcome of the hits that did damage.
+     */
+    private int estimateMaxHit(int index) {
+        int seen = maxHitSeen[index];
+        double ceiling = (seen + 1) / Math.pow(1 - MAX_HIT_CONFIDENCE, 1.0 / damagingHitsSeen[index]);
+        return Math.max(seen, (int) Math.ceil(ceiling) - 1);
+    }
+
+    private int find(int attacker) {
+        for (int i = 0; i < MAX_ATTACKERS; i++) {
+            if (attackers[i] == attacker) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Table position of an attacker, claiming the longest-quiet position for a new one.
+     */
+    private int indexOf(int attacker, long tick) {
+        int index = find(attacker);
+        if (index >= 0) {
+            return index;
+        }
+        int oldest = 0;
+        for (int i = 1; i < MAX_ATTACKERS; i++) {
+            if (lastHitTick[i] < lastHitTick[oldest]) {
+                oldest = i;
+            }
+        }
+        attackers[oldest] = attacker;
+        hitCount[oldest] = 0;
+        nextHit[oldest] = 0;
+        damageSum[oldest] = 0;
+        damagingHits[oldest] = 0;
+        maxHitSeen[oldest] = 0;
+        damagingHitsSeen[oldest] = 0;
+        attackSpeedTicks[oldest] = ProtectionScheduler.DEFAULT_ATTACK_SPEED_TICKS;
+        return oldest;
+    }
+}
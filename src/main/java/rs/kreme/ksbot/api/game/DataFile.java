@@ -0,0 +1,60 @@
+package rs.kreme.ksbot.api.game;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the comma-separated data files bundled next to the definition
+ * classes: one record per line, fields trimmed, blank lines and lines
+ * starting with {@code #} skipped.
+ */
+final class DataFile {
+
+    private DataFile() {
+    }
+
+    /**
+     * Reads every record of a bundled data file.
+     *
+     * @param owner Class the file sits next to
+     * @param name File name
+     * @param fields Number of fields every record must have
+     * @throws UncheckedIOException If the file is missing, unreadable or malformed
+     */
+    static List<String[]> read(Class<?> owner, String name, int fields) {
+        List<String[]> records = new ArrayList<>();
+        try (InputStream in = owner.getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IOException("Missing data file " + name);
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            int number = 0;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] record = line.split(",", -1);
+                if (record.length != fields) {
+                    throw new IOException(name + " line " + number + ": expected " + fields + " fields, found "
+                            + record.length);
+                }
+                for (int i = 0; i < record.length; i++) {
+                    record[i] = record[i].trim();
+                }
+                records.add(record);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,19 @@
+package rs.kreme.ksbot.api.game;
+
+import rs.kreme.ksbot.api.wrappers.KSItem;
+
+/**
+ * Receives degradation warnings from a {@link DegradationTracker}.
+ */
+public interface DegradationListener {
+
+    /**
+     * A worn item's remaining charges dropped below the tracker's threshold.
+     * Fired once per crossing, not on every hit below it.
+     *
+     * @param slot The slot the item is worn in
+     * @param item The degrading item
+     * @param percentRemaining Charges left as a percentage of a full item
+     */
+    void onThresholdCrossed(EquipmentSlot slot, KSItem item, int percentRemaining);
+}
@@ -0,0 +1,310 @@
+package rs.kreme.ksbot.api.game;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import rs.kreme.ksbot.api.wrappers.KSItem;
+
+/**
+ * Counts down the charges of worn degradable equipment from combat events.
+ * <p>
+ * Every degradable item has a rule saying which hits wear it down and how
+ * many charges a full item has: weapons lose a charge per hit dealt, armour
+ * per hit taken. Barrows items use 15,000 hits as a per-hit approximation of
+ * their 15 hours of combat; crystal items have their real 2,500 charges.
+ * The tracker is registered as a {@link CombatListener} and an
+ * {@link EquipmentListener}, so counters only change when something happens
+ * and a hit costs one pass over the eleven slots.
+ * <p>
+ * Charges are counted per worn slot, so two pieces with the same id wear
+ * down separately and a new wrapper for the same worn item keeps its count.
+ * A piece taken off is carried with its charges until it is put on again;
+ * {@link #retainCarried(List)} drops carried charges once the inventory no
+ * longer holds that many items of the id. Several carried pieces of one id
+ * cannot be told apart, so the lowest charges are put on first and kept
+ * longest, and warnings come early rather than late.
+ * <p>
+ * Remaining charges can be saved to and restored from a small file: a
+ * {@code KSDC} magic, a version, the entry count and then one item id /
+ * charges pair per item held, worn items in slot order and then carried
+ * items by id. Several pairs may share an id; version 1 files, one pair per
+ * id, read the same way. Loaded charges are carried until put on.
+ */
+public final class DegradationTracker implements CombatListener, EquipmentListener {
+
+    public enum Trigger {
+        HIT_DEALT,
+        HIT_TAKEN
+    }
+
+    private static final int MAGIC = 0x4B534443; // "KSDC"
+    private static final int VERSION = 2;
+    private static final int BARROWS_CHARGES = 15_000;
+    private static final int CRYSTAL_CHARGES = 2_500;
+    private static final int NO_RULE = -1;
+
+    private static final EquipmentSlot[] SLOTS = EquipmentSlot.values();
+
+    // Degradation rules, indexed by rule number
+    private static final int[] RULE_ITEM_IDS = {
+        4716, 4718, 4720, 4722, // Dharok's
+        4734, 4736, 4738,       // Karil's
+        4212, 4224              // Crystal bow, crystal shield
+    };
+    private static final Trigger[] RULE_TRIGGERS = {
+        Trigger.HIT_TAKEN, Trigger.HIT_DEALT, Trigger.HIT_TAKEN, Trigger.HIT_TAKEN,
+        Trigger.HIT_DEALT, Trigger.HIT_TAKEN, Trigger.HIT_TAKEN,
+        Trigger.HIT_DEALT, Trigger.HIT_TAKEN
+    };
+    private static final int[] RULE_MAX_CHARGES = {
+        BARROWS_CHARGES, BARROWS_CHARGES, BARROWS_CHARGES, BARROWS_CHARGES,
+        BARROWS_CHARGES, BARROWS_CHARGES, BARROWS_CHARGES,
+        CRYSTAL_CHARGES, CRYSTAL_CHARGES
+    };
+
+    private final int thresholdPercent;
+    private final int[] wornRules = new int[SLOTS.length];
+    private final KSItem[] wornItems = new KSItem[SLOTS.length];
+    private final int[] wornCharges = new int[SLOTS.length];
+    // Charges of degradable pieces taken off or loaded, per item id, lowest first
+    private final Map<Integer, List<Integer>> carriedCharges = new TreeMap<>();
+    private final List<DegradationListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param thresholdPercent Remaining percentage below which listeners are warned
+     */
+    public DegradationTracker(int thresholdPercent) {
+        this.thresholdPercent = thresholdPercent;
+        Arrays.fill(wornRules, NO_RULE);
+    }
+
+    /**
+     * Checks whether an item id has a degradation rule.
+     */
+    public static boolean isDegradable(int itemId) {
+        return ruleOf(itemId) != NO_RULE;
+    }
+
+    public void addListener(DegradationListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(DegradationListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public void onHitDealt(int damage) {
+        degrade(Trigger.HIT_DEALT);
+    }
+
+    @Override
+    public void onHitTaken(int damage) {
+        degrade(Trigger.HIT_TAKEN);
+    }
+
+    @Override
+    public void onEquip(EquipmentSlot slot, KSItem item) {
+        int rule = ruleOf(item.getId());
+        wornRules[slot.ordinal()] = rule;
+        wornItems[slot.ordinal()] = item;
+        wornCharges[slot.ordinal()] = rule == NO_RULE ? 0 : takeCarried(item.getId(), rule);
+    }
+
+    @Override
+    public void onUnequip(EquipmentSlot slot, KSItem item) {
+        int rule = wornRules[slot.ordinal()];
+        if (rule != NO_RULE) {
+            carry(RULE_ITEM_IDS[rule], wornCharges[slot.ordinal()]);
+        }
+        wornRules[slot.ordinal()] = NO_RULE;
+        wornItems[slot.ordinal()] = null;
+        wornCharges[slot.ordinal()] = 0;
+    }
+
+    /**
+     * Drops carried charges of items that left the inventory: per item id,
+     * only as many carried entries are kept as the inventory holds items,
+     * the lowest charges first.
+     *
+     * @param inventory The items now in the inventory
+     */
+    public void retainCarried(List<KSItem> inventory) {
+        Iterator<Map.Entry<Integer, List<Integer>>> entries = carriedCharges.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Integer, List<Integer>> entry = entries.next();
+            int held = 0;
+            for (KSItem item : inventory) {
+                if (item.getId() == entry.getKey()) {
+                    held++;
+                }
+            }
+            List<Integer> charges = entry.getValue();
+            if (held == 0) {
+                entries.remove();
+            } else if (charges.size() > held) {
+                charges.subList(held, charges.size()).clear();
+            }
+        }
+    }
+
+    /**
+     * Gets the charges left on the item worn in a slot, or -1 if it does not degrade.
+     */
+    public int getCharges(EquipmentSlot slot) {
+        int rule = wornRules[slot.ordinal()];
+        return rule == NO_RULE ? -1 : wornCharges[slot.ordinal()];
+    }
+
+    /**
+     * Gets the charges left on the item worn in a slot as a percentage, or
+     * -1 if it does not degrade.
+     */
+    public int getPercentRemaining(EquipmentSlot slot) {
+        int rule = wornRules[slot.ordinal()];
+        return rule == NO_RULE ? -1 : percent(rule, wornCharges[slot.ordinal()]);
+    }
+
+    /**
+     * Checks whether the item worn in a slot is already below the threshold.
+     */
+    public boolean isBelowThreshold(EquipmentSlot slot) {
+        int rule = wornRules[slot.ordinal()];
+        return rule != NO_RULE && isBelow(rule, wornCharges[slot.ordinal()]);
+    }
+
+    /**
+     * Sets the item worn in a slot back to full charges, e.g. after it has been repaired.
+     */
+    public void repair(EquipmentSlot slot) {
+        int rule = wornRules[slot.ordinal()];
+        if (rule != NO_RULE) {
+            wornCharges[slot.ordinal()] = RULE_MAX_CHARGES[rule];
+        }
+    }
+
+    /**
+     * Restores saved charges. They are carried until the items are put on;
+     * items already worn keep their current charges.
+     */
+    public void load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a charges file: " + file);
+            }
+            int version = in.readInt();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported charges file version " + version + " in " + file);
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                int itemId = in.readInt();
+                int remaining = in.readInt();
+                int rule = ruleOf(itemId);
+                if (rule != NO_RULE) {
+                    carry(itemId, Math.max(0, Math.min(RULE_MAX_CHARGES[rule], remaining)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Saves the charges of the items worn and carried.
+     */
+    public void save(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            int count = 0;
+            for (int rule : wornRules) {
+                if (rule != NO_RULE) {
+                    count++;
+                }
+            }
+            for (List<Integer> charges : carriedCharges.values()) {
+                count += charges.size();
+            }
+            out.writeInt(count);
+            for (int slot = 0; slot < SLOTS.length; slot++) {
+                if (wornRules[slot] != NO_RULE) {
+                    out.writeInt(RULE_ITEM_IDS[wornRules[slot]]);
+                    out.writeInt(wornCharges[slot]);
+                }
+            }
+            for (Map.Entry<Integer, List<Integer>> entry : carriedCharges.entrySet()) {
+                for (int remaining : entry.getValue()) {
+                    out.writeInt(entry.getKey());
+                    out.writeInt(remaining);
+                }
+            }
+        }
+    }
+
+    private void degrade(Trigger trigger) {
+        for (int slot = 0; slot < SLOTS.length; slot++) {
+            int rule = wornRules[slot];
+            if (rule == NO_RULE || RULE_TRIGGERS[rule] != trigger || wornCharges[slot] == 0) {
+                continue;
+            }
+            int before = wornCharges[slot]--;
+            if (!isBelow(rule, before) && isBelow(rule, before - 1)) {
+                for (DegradationListener listener : listeners) {
+                    listener.onThresholdCrossed(SLOTS[slot], wornItems[slot], percent(rule, before - 1));
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds carried charges for an item id, keeping the list lowest first.
+     */
+    private void carry(int itemId, int remaining) {
+        List<Integer> charges = carriedCharges.computeIfAbsent(itemId, id -> new ArrayList<>());
+        int index = Collections.binarySearch(charges, remaining);
+        charges.add(index < 0 ? -index - 1 : index, remaining);
+    }
+
+    /**
+     * Takes the lowest carried charges of an item id, or full charges if none are carried.
+     */
+    private int takeCarried(int itemId, int rule) {
+        List<Integer> charges = carriedCharges.get(itemId);
+        if (charges == null) {
+            return RULE_MAX_CHARGES[rule];
+        }
+        int remaining = charges.remove(0);
+        if (charges.isEmpty()) {
+            carriedCharges.remove(itemId);
+        }
+        return remaining;
+    }
+
+    private boolean isBelow(int rule, int remaining) {
+        return (long) remaining * 100 < (long) thresholdPercent * RULE_MAX_CHARGES[rule];
+    }
+
+    private static int percent(int rule, int remaining) {
+        return (int) ((long) remaining * 100 / RULE_MAX_CHARGES[rule]);
+    }
+
+    private static int ruleOf(int itemId) {
+        for (int rule = 0; rule < RULE_ITEM_IDS.length; rule++) {
+            if (RULE_ITEM_IDS[rule] == itemId) {
+                return rule;
+            }
+        }
+        return NO_RULE;
+    }
+}
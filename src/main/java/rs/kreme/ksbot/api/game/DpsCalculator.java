@@ -0,0 +1,206 @@
+package rs.kreme.ksbot.api.game;
+
+import rs.kreme.ksbot.api.game.Combat.AttackStyle;
+import rs.kreme.ksbot.api.game.GearSet.AttackType;
+
+import java.util.Objects;
+
+/**
+ * Damage per second and expected kill time of a gear set against an NPC,
+ * with the game's max hit and accuracy formulas for the player's levels,
+ * attack style and Piety.
+ * <p>
+ * The attack type follows the weapon: ranged weapons shoot, weapons typed
+ * magic autocast {@value #SPELL_MAX_HIT}-damage Fire Blast every
+ * {@value #SPELL_SPEED_TICKS} ticks, and everything else, bare hands
+ * included, is melee of the weapon's type. The {@code CASTING} style casts
+ * with any weapon. Styles add their invisible level bonus where they fit
+ * the weapon: accurate +3 attack (or ranged), aggressive +3 strength,
+ * controlled +1 to both, and {@code RANGING} shoots rapid, a tick faster.
+ * Styles that do not fit the weapon add nothing.
+ * <p>
+ * A calculator holds no mutable state and can be shared between threads;
+ * calculators with the same inputs are equal.
+ */
+public final class DpsCalculator {
+
+    public static final int SPELL_MAX_HIT = 16;
+    public static final int SPELL_SPEED_TICKS = 5;
+
+    private static final double PIETY_ATTACK = 1.20;
+    private static final double PIETY_STRENGTH = 1.23;
+
+    private final int attackLevel;
+    private final int strengthLevel;
+    private final int rangedLevel;
+    private final int magicLevel;
+    private final AttackStyle style;
+    private final boolean piety;
+
+    /**
+     * @param attackLevel Current (boosted) attack level, likewise for the others
+     * @param style The selected attack style
+     * @param piety Whether Piety is active
+     */
+    public DpsCalculator(int attackLevel, int strengthLevel, int rangedLevel, int magicLevel,
+                         AttackStyle style, boolean piety) {
+        this.attackLevel = attackLevel;
+        this.strengthLevel = strengthLevel;
+        this.rangedLevel = rangedLevel;
+        this.magicLevel = magicLevel;
+        this.style = style;
+        this.piety = piety;
+    }
+
+    public AttackType attackType(GearSet gear) {
+        AttackType weapon = gear.getWeaponType();
+        if (style == AttackStyle.CASTING || weapon == AttackType.MAGIC) {
+            return AttackType.MAGIC;
+        }
+        return weapon == null ? AttackType.CRUSH : weapon;
+    }
+
+    public int speedTicks(GearSet gear) {
+        switch (attackType(gear)) {
+            case MAGIC:
+                return SPELL_SPEED_TICKS;
+            case RANGED:
+                return style == AttackStyle.RANGING ? Math.max(1, gear.getSpeedTicks() - 1) : gear.getSpeedTicks();
+            default:
+                return gear.getSpeedTicks();
+        }
+    }
+
+    public int maxHit(GearSet gear) {
+        switch (attackType(gear)) {
+            case MAGIC:
+                return SPELL_MAX_HIT * (100 + gear.getMagicDamagePercent()) / 100;
+            case RANGED:
+                int ranged = rangedLevel + (style == AttackStyle.ACCURATE ? 3 : 0) + 8;
+                return maxHit(ranged, gear.getRangedStrengthBonus());
+            default:
+                int strength = (int) (strengthLevel * (piety ? PIETY_STRENGTH : 1)) + meleeStrengthBonus() + 8;
+                return maxHit(strength, gear.getStrengthBonus());
+        }
+    }
+
+    public long attackRoll(GearSet gear) {
+        AttackType type = attackType(gear);
+        int effective;
+        switch (type) {
+            case MAGIC:
+                effective = magicLevel + 9;
+                break;
+            case RANGED:
+                effective = rangedLevel + (style == AttackStyle.ACCURATE ? 3 : 0) + 8;
+                break;
+            default:
+                effective = (int) (attackLevel * (piety ? PIETY_ATTACK : 1)) + meleeAttackBonus() + 8;
+                break;
+        }
+        return (long) effective * (gear.getAttackBonus(type) + 64);
+    }
+
+    /**
+     * Defence roll of an NPC against an attack type.
+     */
+    public static long defenceRoll(int npcId, AttackType type) {
+        int level = type == AttackType.MAGIC ? NpcCombatStats.magicLevelOf(npcId) : NpcCombatStats.defenceLevelOf(npcId);
+        return (long) (level + 9) * (NpcCombatStats.defenceBonusOf(npcId, type) + 64);
+    }
+
+    /**
+     * Chance that an attack hits, from the attack and defence rolls.
+     */
+    public double accuracy(GearSet gear, int npcId) {
+        long attack = Math.max(0, attackRoll(gear));
+        long defence = Math.max(0, defenceRoll(npcId, attackType(gear)));
+        if (attack > defence) {
+            return 1 - (defence + 2.0) / (2.0 * (attack + 1));
+        }
+        return attack / (2.0 * (defence + 1));
+    }
+
+    /**
+     * Average damage per second, with hits spread evenly from 0 to the max hit.
+     */
+    public double dps(GearSet gear, int npcId) {
+        double seconds = speedTicks(gear) * GameClock.TICK_MILLIS / 1000.0;
+        return accuracy(gear, npcId) * maxHit(gear) / 2.0 / seconds;
+    }
+
+    /**
+     * Expected ticks from the first attack to the kill, counting overkill.
+     * <p>
+     * Works out the expected number of attacks to take every hitpoint value
+     * down to zero, lowest first; with prefix sums each value costs O(1), so
+     * the whole NPC costs O(hitpoints).
+     *
+     * @return Expected ticks, or {@link Double#POSITIVE_INFINITY} if the gear cannot damage the NPC
+     */
+    public double expectedKillTicks(GearSet gear, int npcId) {
+        int hitpoints = NpcDefinitions.hitpointsOf(npcId);
+        int maxHit = maxHit(gear);
+        double accuracy = accuracy(gear, npcId);
+        if (hitpoints <= 0 || maxHit <= 0 || accuracy <= 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        // Every damage from 0 to the max hit is equally likely on a hit
+        double perDamage = accuracy / (maxHit + 1);
+        double noDamage = 1 - accuracy + perDamage;
+        // prefix[h] = sum of expected attacks for hitpoints 1..h
+        double[] prefix = new double[hitpoints + 1];
+        double attacks = 0;
+        for (int h = 1; h <= hitpoints; h++) {
+            double remaining = prefix[h - 1] - prefix[Math.max(0, h - 1 - maxHit)];
+            attacks = (1 + perDamage * remaining) / (1 - noDamage);
+            prefix[h] = prefix[h - 1] + attacks;
+        }
+        return attacks * speedTicks(gear);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DpsCalculator)) {
+            return false;
+        }
+        DpsCalculator other = (DpsCalculator) o;
+        return attackLevel == other.attackLevel && strengthLevel == other.strengthLevel
+                && rangedLevel == other.rangedLevel && magicLevel == other.magicLevel
+                && style == other.style && piety == other.piety;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(attackLevel, strengthLevel, rangedLevel, magicLevel, style, piety);
+    }
+
+    private static int maxHit(int effectiveLevel, int strengthBonus) {
+        return (int) (0.5 + effectiveLevel * (strengthBonus + 64) / 640.0);
+    }
+
+    private int meleeAttackBonus() {
+        switch (style) {
+            case ACCURATE:
+                return 3;
+            case CONTROLLED:
+                return 1;
+            default:
+                return 0;
+        }
+    }
+
+    private int meleeStrengthBonus() {
+        switch (style) {
+            case AGGRESSIVE:
+                return 3;
+            case CONTROLLED:
+                return 1;
+            default:
+                return 0;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package rs.kreme.ksbot.api.game;
+
+import rs.kreme.ksbot.api.wrappers.KSItem;
+
+/**
+ * Receives equipment changes. Both callbacks run on the thread that changed
+ * the equipment, after the change has been applied.
+ */
+public interface EquipmentListener {
+
+    /**
+     * An item was put on.
+     */
+    void onEquip(EquipmentSlot slot, KSItem item);
+
+    /**
+     * An item was taken off, either directly or because another item replaced it.
+     */
+    void onUnequip(EquipmentSlot slot, KSItem item);
+}
@@ -0,0 +1,18 @@
+package rs.kreme.ksbot.api.game;
+
+/**
+ * Worn equipment slots, in equipment tab order.
+ */
+public enum EquipmentSlot {
+    HEAD,
+    CAPE,
+    NECK,
+    WEAPON,
+    BODY,
+    SHIELD,
+    LEGS,
+    HANDS,
+    FEET,
+    RING,
+    AMMO
+}
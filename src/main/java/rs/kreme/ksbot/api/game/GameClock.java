@@ -0,0 +1,54 @@
+package rs.kreme.ksbot.api.game;
+
+/**
+ * Source of time for scripts. By default it follows the system clock; tests
+ * and scripted runs can switch it to virtual time and advance it manually.
+ */
+public class GameClock {
+    public static final long TICK_MILLIS = 600;
+
+    private boolean virtual;
+    private long virtualTime;
+
+    public long currentTimeMillis() {
+        return virtual ? virtualTime : System.currentTimeMillis();
+    }
+
+    /**
+     * Index of the current game tick.
+     */
+    public long currentTick() {
+        return currentTimeMillis() / TICK_MILLIS;
+    }
+
+    /**
+     * Milliseconds left until the next tick starts.
+     */
+    public long millisUntilNextTick() {
+        return TICK_MILLIS - currentTimeMillis() % TICK_MILLIS;
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Freezes the clock at the given time; it only moves through
+     * {@link #advance(long)} afterwards.
+     */
+    public void setVirtualTime(long timeMillis) {
+        this.virtual = true;
+        this.virtualTime = timeMillis;
+    }
+
+    public void advance(long millis) {
+        if (!virtual) {
+            throw new IllegalStateException("Only a virtual clock can be advanced");
+        }
+        virtualTime += millis;
+    }
+
+    public void useSystemTime() {
+        this.virtual = false;
+    }
+}
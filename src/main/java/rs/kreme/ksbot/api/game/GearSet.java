@@ -0,0 +1,177 @@
+package rs.kreme.ksbot.api.game;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import rs.kreme.ksbot.api.wrappers.KSItem;
+
+/**
+ * The summed equipment bonuses of a set of items, with the attack speed and
+ * attack type of its weapon. Without a weapon the set punches: crush at
+ * {@value #UNARMED_SPEED_TICKS} ticks.
+ * <p>
+ * Item bonuses are read once per JVM from the {@code item-bonuses.csv} data
+ * file bundled next to this class; items missing from it add nothing.
+ * Weapons typed magic autocast a spell; see {@link DpsCalculator}.
+ */
+public final class GearSet {
+
+    /**
+     * Attack types, in the order bonuses are listed in the data files.
+     */
+    public enum AttackType {
+        STAB,
+        SLASH,
+        CRUSH,
+        MAGIC,
+        RANGED
+    }
+
+    public static final int UNARMED_SPEED_TICKS = 4;
+
+    private static final AttackType[] TYPES = AttackType.values();
+    private static final int STRENGTH = TYPES.length;
+    private static final int RANGED_STRENGTH = STRENGTH + 1;
+    private static final int MAGIC_DAMAGE = STRENGTH + 2;
+    private static final int SPEED = STRENGTH + 3;
+    private static final int TYPE = STRENGTH + 4;
+    private static final int COLUMNS = TYPE + 1;
+    private static final int NONE = -1;
+
+    // Bonus columns per item id, null for items without bonuses
+    private static final int[][] BONUSES = new int[ItemDefinitions.MAX_ID][];
+    private static final int[] ITEM_IDS;
+
+    static {
+        List<String[]> records = DataFile.read(GearSet.class, "item-bonuses.csv", 2 + COLUMNS);
+        ITEM_IDS = new int[records.size()];
+        for (int i = 0; i < records.size(); i++) {
+            String[] record = records.get(i);
+            int id = Integer.parseInt(record[0]);
+            int[] bonuses = new int[COLUMNS];
+            for (int column = 0; column < TYPE; column++) {
+                String field = record[2 + column];
+                bonuses[column] = field.equals("-") ? NONE : Integer.parseInt(field);
+            }
+            String type = record[2 + TYPE];
+            bonuses[TYPE] = type.equals("-") ? NONE : AttackType.valueOf(type.toUpperCase(Locale.ROOT)).ordinal();
+            BONUSES[id] = bonuses;
+            ITEM_IDS[i] = id;
+        }
+    }
+
+    private final String name;
+    private final int[] attackBonuses = new int[TYPES.length];
+    private int strengthBonus;
+    private int rangedStrengthBonus;
+    private int magicDamagePercent;
+    private int speedTicks = UNARMED_SPEED_TICKS;
+    private AttackType weaponType;
+
+    private GearSet(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Sums the bonuses of the given items.
+     */
+    public static GearSet of(String name, int... itemIds) {
+        GearSet gear = new GearSet(name);
+        for (int id : itemIds) {
+            gear.add(id);
+        }
+        return gear;
+    }
+
+    /**
+     * Sums the bonuses of worn items, e.g. {@code equipment.getItems().results()}.
+     */
+    public static GearSet ofItems(String name, Collection<KSItem> items) {
+        GearSet gear = new GearSet(name);
+        for (KSItem item : items) {
+            gear.add(item.getId());
+        }
+        return gear;
+    }
+
+    /**
+     * Sums the bonuses of the first named item for each equipment slot, the
+     * way a switch set lists alternatives for the same slot.
+     */
+    public static GearSet ofNames(String name, String... itemNames) {
+        GearSet gear = new GearSet(name);
+        boolean[] filled = new boolean[EquipmentSlot.values().length];
+        for (String itemName : itemNames) {
+            int id = ItemDefinitions.idOf(itemName);
+            EquipmentSlot slot = ItemDefinitions.slotOf(id);
+            if (slot == null || filled[slot.ordinal()]) {
+                continue;
+            }
+            filled[slot.ordinal()] = true;
+            gear.add(id);
+        }
+        return gear;
+    }
+
+    public static boolean hasBonuses(int itemId) {
+        return itemId >= 0 && itemId < BONUSES.length && BONUSES[itemId] != null;
+    }
+
+    /**
+     * Ids of every item with bonuses, in data file order.
+     */
+    public static int[] itemIds() {
+        return ITEM_IDS.clone();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getAttackBonus(AttackType type) {
+        return attackBonuses[type.ordinal()];
+    }
+
+    public int getStrengthBonus() {
+        return strengthBonus;
+    }
+
+    public int getRangedStrengthBonus() {
+        return rangedStrengthBonus;
+    }
+
+    public int getMagicDamagePercent() {
+        return magicDamagePercent;
+    }
+
+    /**
+     * Ticks between attacks with the weapon, before any style adjustment.
+     */
+    public int getSpeedTicks() {
+        return speedTicks;
+    }
+
+    /**
+     * Attack type of the weapon, or null when unarmed.
+     */
+    public AttackType getWeaponType() {
+        return weaponType;
+    }
+
+    private void add(int itemId) {
+        if (!hasBonuses(itemId)) {
+            return;
+        }
+        int[] bonuses = BONUSES[itemId];
+        for (int type = 0; type < TYPES.length; type++) {
+            attackBonuses[type] += bonuses[type];
+        }
+        strengthBonus += bonuses[STRENGTH];
+        rangedStrengthBonus += bonuses[RANGED_STRENGTH];
+        magicDamagePercent += bonuses[MAGIC_DAMAGE];
+        if (bonuses[TYPE] != NONE) {
+            weaponType = TYPES[bonuses[TYPE]];
+            speedTicks = bonuses[SPEED];
+        }
+    }
+}
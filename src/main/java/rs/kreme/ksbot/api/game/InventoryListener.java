@@ -0,0 +1,20 @@
+package rs.kreme.ksbot.api.game;
+
+import rs.kreme.ksbot.api.wrappers.KSItem;
+
+/**
+ * Receives inventory changes. Both callbacks run on the thread that changed
+ * the inventory, after the change has been applied.
+ */
+public interface InventoryListener {
+
+    /**
+     * An item entered the inventory.
+     */
+    void onItemAdded(KSItem item);
+
+    /**
+     * An item left the inventory, either directly or because another item replaced it.
+     */
+    void onItemRemoved(KSItem item);
+}
@@ -0,0 +1,193 @@
+package rs.kreme.ksbot.api.game;
+
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Static item definitions for the items the example scripts know about:
+ * id, name, where the item is worn, its approximate Grand Exchange price,
+ * how much it heals and whether it stacks in one inventory slot. Ids follow
+ * the live game and are below {@link #MAX_ID}.
+ * <p>
+ * The table is built once per JVM and shared by every bot. The numeric
+ * columns live off-heap in one read-only direct buffer with an 8-byte
+ * record per id (price, heal amount, slot, flags), so they add nothing to
+ * the heap however many item ids exist; only the names are heap objects.
+ */
+public final class ItemDefinitions {
+
+    public static final int UNKNOWN = -1;
+    public static final int MAX_ID = 32768;
+
+    private static final int RECORD_BYTES = 8;
+    private static final int PRICE_OFFSET = 0;
+    private static final int HEAL_OFFSET = 4;
+    private static final int SLOT_OFFSET = 6;
+    private static final int FLAGS_OFFSET = 7;
+    private static final int FLAG_DEFINED = 1;
+    private static final int FLAG_TWO_HANDED = 2;
+    private static final int FLAG_COMBO_FOOD = 4;
+    private static final int FLAG_STACKABLE = 8;
+
+    private static final EquipmentSlot[] SLOT_VALUES = EquipmentSlot.values();
+    private static final String[] NAMES = new String[MAX_ID];
+    private static final Map<String, Integer> IDS_BY_NAME = new HashMap<>();
+    private static final ByteBuffer RECORDS;
+
+    static {
+        ByteBuffer records = ByteBuffer.allocateDirect(MAX_ID * RECORD_BYTES);
+        // Melee
+        define(records, 4587, "Dragon scimitar", EquipmentSlot.WEAPON, false, 60_000);
+        define(records, 4151, "Abyssal whip", EquipmentSlot.WEAPON, false, 1_500_000);
+        define(records, 1333, "Rune scimitar", EquipmentSlot.WEAPON, false, 15_000);
+        define(records, 12954, "Dragon defender", EquipmentSlot.SHIELD, false, 0);
+        // Ranged
+        define(records, 861, "Magic shortbow", EquipmentSlot.WEAPON, true, 1_000);
+        define(records, 9185, "Rune crossbow", EquipmentSlot.WEAPON, false, 10_000);
+        define(records, 2503, "Black d'hide body", EquipmentSlot.BODY, false, 7_000);
+        // Magic
+        define(records, 1387, "Staff of fire", EquipmentSlot.WEAPON, false, 1_500);
+        define(records, 4091, "Mystic robe top", EquipmentSlot.BODY, false, 20_000);
+        define(records, 4093, "Mystic robe bottom", EquipmentSlot.LEGS, false, 10_000);
+        // Special attack weapons
+        define(records, 1215, "Dragon dagger", EquipmentSlot.WEAPON, false, 17_000);
+        define(records, 4153, "Granite maul", EquipmentSlot.WEAPON, true, 14_000);
+        define(records, 13652, "Dragon claws", EquipmentSlot.WEAPON, true, 40_000_000);
+        // Defensive
+        define(records, 1127, "Rune platebody", EquipmentSlot.BODY, false, 38_000);
+        define(records, 1079, "Rune platelegs", EquipmentSlot.LEGS, false, 38_000);
+        define(records, 1163, "Rune full helm", EquipmentSlot.HEAD, false, 20_000);
+        // Barrows
+        define(records, 4716, "Dharok's helm", EquipmentSlot.HEAD, false, 200_000);
+        define(records, 4718, "Dharok's greataxe", EquipmentSlot.WEAPON, true, 250_000);
+        define(records, 4720, "Dharok's platebody", EquipmentSlot.BODY, false, 150_000);
+        define(records, 4722, "Dharok's platelegs", EquipmentSlot.LEGS, false, 200_000);
+        define(records, 4734, "Karil's crossbow", EquipmentSlot.WEAPON, true, 100_000);
+        define(records, 4736, "Karil's leathertop", EquipmentSlot.BODY, false, 500_000);
+        define(records, 4738, "Karil's leatherskirt", EquipmentSlot.LEGS, false, 100_000);
+        // Crystal
+        define(records, 4212, "Crystal bow", EquipmentSlot.WEAPON, true, 0);
+        define(records, 4224, "Crystal shield", EquipmentSlot.SHIELD, false, 0);
+        // Loot (not equipable)
+        defineStackable(records, 995, "Coins", 1);
+        defineStackable(records, 561, "Nature rune", 150);
+        defineStackable(records, 560, "Death rune", 200);
+        define(records, 526, "Bones", null, false, 100);
+        define(records, 532, "Big bones", null, false, 300);
+        define(records, 536, "Dragon bones", null, false, 2_500);
+        // Food
+        defineFood(records, 379, "Lobster", 12, 150);
+        defineFood(records, 373, "Swordfish", 14, 250);
+        defineFood(records, 7946, "Monkfish", 16, 400);
+        defineFood(records, 385, "Shark", 20, 800);
+        defineFood(records, 3144, "Cooked karambwan", 18, 600);
+        records.put(3144 * RECORD_BYTES + FLAGS_OFFSET, (byte) (FLAG_DEFINED | FLAG_COMBO_FOOD));
+        // Potions, every dose, and the vial the last dose leaves
+        for (PotionType type : PotionType.values()) {
+            for (int doses = 1; doses <= PotionType.MAX_DOSES; doses++) {
+                define(records, type.idFor(doses), type.nameFor(doses), null, false, type.getPricePerDose() * doses);
+            }
+        }
+        define(records, 229, "Vial", null, false, 2);
+        RECORDS = records.asReadOnlyBuffer();
+    }
+
+    private ItemDefinitions() {
+    }
+
+    private static void define(ByteBuffer records, int id, String name, EquipmentSlot slot,
+                               boolean twoHanded, int price) {
+        int base = id * RECORD_BYTES;
+        records.putInt(base + PRICE_OFFSET, price);
+        records.put(base + SLOT_OFFSET, (byte) (slot == null ? 0 : slot.ordinal() + 1));
+        records.put(base + FLAGS_OFFSET, (byte) (FLAG_DEFINED | (twoHanded ? FLAG_TWO_HANDED : 0)));
+        NAMES[id] = name;
+        IDS_BY_NAME.put(name.toLowerCase(Locale.ROOT), id);
+    }
+
+    private static void defineFood(ByteBuffer records, int id, String name, int heal, int price) {
+        define(records, id, name, null, false, price);
+        records.putShort(id * RECORD_BYTES + HEAL_OFFSET, (short) heal);
+    }
+
+    private static void defineStackable(ByteBuffer records, int id, String name, int price) {
+        define(records, id, name, null, false, price);
+        records.put(id * RECORD_BYTES + FLAGS_OFFSET, (byte) (FLAG_DEFINED | FLAG_STACKABLE));
+    }
+
+    /**
+     * Returns the id for an item name, or {@link #UNKNOWN}.
+     */
+    public static int idOf(String name) {
+        Integer id = IDS_BY_NAME.get(name.toLowerCase(Locale.ROOT));
+        return id == null ? UNKNOWN : id;
+    }
+
+    public static String nameOf(int id) {
+        return isDefined(id) ? NAMES[id] : null;
+    }
+
+    /**
+     * Slot the item is worn in, or null if it cannot be equipped.
+     */
+    public static EquipmentSlot slotOf(int id) {
+        if (!isDefined(id)) {
+            return null;
+        }
+        int slot = RECORDS.get(id * RECORD_BYTES + SLOT_OFFSET);
+        return slot == 0 ? null : SLOT_VALUES[slot - 1];
+    }
+
+    public static boolean isTwoHanded(int id) {
+        return isDefined(id) && (RECORDS.get(id * RECORD_BYTES + FLAGS_OFFSET) & FLAG_TWO_HANDED) != 0;
+    }
+
+    /**
+     * Approximate Grand Exchange price in gp; 0 for unknown or untradeable items.
+     */
+    public static int priceOf(int id) {
+        return isDefined(id) ? RECORDS.getInt(id * RECORD_BYTES + PRICE_OFFSET) : 0;
+    }
+
+    /**
+     * Hitpoints healed by eating the item; 0 if it is not food.
+     */
+    public static int healOf(int id) {
+        return isDefined(id) ? RECORDS.getShort(id * RECORD_BYTES + HEAL_OFFSET) : 0;
+    }
+
+    /**
+     * Whether the item can be eaten in the same tick as other food (karambwan).
+     */
+    public static boolean isComboFood(int id) {
+        return isDefined(id) && (RECORDS.get(id * RECORD_BYTES + FLAGS_OFFSET) & FLAG_COMBO_FOOD) != 0;
+    }
+
+    /**
+     * Whether any number of the item share one inventory slot.
+     */
+    public static boolean isStackable(int id) {
+        return isDefined(id) && (RECORDS.get(id * RECORD_BYTES + FLAGS_OFFSET) & FLAG_STACKABLE) != 0;
+    }
+
+    public static boolean isDefined(int id) {
+        return id >= 0 && id < MAX_ID && (RECORDS.get(id * RECORD_BYTES + FLAGS_OFFSET) & FLAG_DEFINED) != 0;
+    }
+
+    /**
+     * Builds a set of item ids for fast membership tests. Unknown names are skipped.
+     */
+    public static BitSet idSet(String... names) {
+        BitSet ids = new BitSet();
+        for (String name : names) {
+            int id = idOf(name);
+            if (id != UNKNOWN) {
+                ids.set(id);
+            }
+        }
+        return ids;
+    }
+}
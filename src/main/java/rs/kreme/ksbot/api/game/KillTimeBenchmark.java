@@ -0,0 +1,134 @@
+package rs.kreme.ksbot.api.game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Command-line benchmark for bulk {@link KillTimeTable}s: thousands of
+ * random gear sets, each a random item per equipment slot with no shield beside a two-handed
+ * weapon, against every
+ * NPC with combat stats. Fills the table on one thread and then over a
+ * {@link ForkJoinPool}, checks that both agree and reports pairs per
+ * second, then times O(1) lookups.
+ * <p>
+ * Run with {@code ./gradlew benchmarkKillTime}.
+ */
+public final class KillTimeBenchmark {
+
+    private static final int GEAR_SETS = 20_000;
+    private static final int ROUNDS = 3;
+    private static final int LOOKUPS = 10_000_000;
+
+    private KillTimeBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        List<GearSet> gearSets = randomGearSets(new SplittableRandom(50L), GEAR_SETS);
+        int[] npcIds = NpcCombatStats.ids();
+        DpsCalculator calculator = new DpsCalculator(70, 70, 70, 70, Combat.AttackStyle.AGGRESSIVE, false);
+        long pairs = (long) gearSets.size() * npcIds.length;
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        System.out.printf(Locale.ROOT, "=== Kill time benchmark (%,d gear sets x %d NPCs, %d threads) ===%n",
+                gearSets.size(), npcIds.length, pool.getParallelism());
+
+        // Warm up both paths
+        KillTimeTable.compute(calculator, gearSets, npcIds);
+        KillTimeTable.compute(calculator, gearSets, npcIds, pool);
+
+        KillTimeTable serial = null;
+        KillTimeTable parallel = null;
+        long serialNanos = Long.MAX_VALUE;
+        long parallelNanos = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            serial = KillTimeTable.compute(calculator, gearSets, npcIds);
+            serialNanos = Math.min(serialNanos, System.nanoTime() - start);
+            start = System.nanoTime();
+            parallel = KillTimeTable.compute(calculator, gearSets, npcIds, pool);
+            parallelNanos = Math.min(parallelNanos, System.nanoTime() - start);
+        }
+        report("Serial", pairs, serialNanos);
+        report("Fork/join", pairs, parallelNanos);
+
+        int mismatches = 0;
+        for (int gear = 0; gear < gearSets.size(); gear++) {
+            for (int npcId : npcIds) {
+                if (Double.compare(serial.killTicks(gear, npcId), parallel.killTicks(gear, npcId)) != 0) {
+                    mismatches++;
+                }
+            }
+        }
+        System.out.println("Tables agree: " + (mismatches == 0) + " (" + mismatches + " mismatches)");
+
+        SplittableRandom random = new SplittableRandom(51L);
+        double sum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            double ticks = parallel.killTicks(random.nextInt(gearSets.size()), npcIds[random.nextInt(npcIds.length)]);
+            if (ticks != KillTimeTable.NEVER) {
+                sum += ticks;
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        System.out.printf(Locale.ROOT, "Lookups: %,d in %.1f ms, %.1f ns each (checksum %.0f)%n",
+                LOOKUPS, nanos / 1e6, (double) nanos / LOOKUPS, sum);
+
+        for (int npcId : npcIds) {
+            int best = parallel.fastestGear(npcId);
+            if (best >= 0) {
+                System.out.printf(Locale.ROOT, "Fastest vs %s: %.1f ticks with %s%n",
+                        NpcDefinitions.nameOf(npcId), parallel.killTicks(best, npcId), parallel.getGear(best).getName());
+            }
+        }
+    }
+
+    /**
+     * Gear sets of one random item per equipment slot, possibly empty.
+     */
+    private static List<GearSet> randomGearSets(SplittableRandom random, int count) {
+        EquipmentSlot[] slots = EquipmentSlot.values();
+        List<List<Integer>> bySlot = new ArrayList<>();
+        for (int i = 0; i < slots.length; i++) {
+            bySlot.add(new ArrayList<>());
+        }
+        for (int id : GearSet.itemIds()) {
+            EquipmentSlot slot = ItemDefinitions.slotOf(id);
+            if (slot != null) {
+                bySlot.get(slot.ordinal()).add(id);
+            }
+        }
+        List<GearSet> gearSets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int[] ids = new int[slots.length];
+            int n = 0;
+            boolean twoHanded = false;
+            for (int slot = 0; slot < slots.length; slot++) {
+                List<Integer> items = bySlot.get(slot);
+                // One pick past the end leaves the slot empty
+                int pick = random.nextInt(items.size() + 1);
+                if (pick == items.size() || (twoHanded && slots[slot] == EquipmentSlot.SHIELD)) {
+                    continue;
+                }
+                ids[n] = items.get(pick);
+                twoHanded |= ItemDefinitions.isTwoHanded(ids[n]);
+                n++;
+            }
+            ids = Arrays.copyOf(ids, n);
+            List<String> names = new ArrayList<>();
+            for (int id : ids) {
+                names.add(ItemDefinitions.nameOf(id));
+            }
+            gearSets.add(GearSet.of(String.join(", ", names), ids));
+        }
+        return gearSets;
+    }
+
+    private static void report(String label, long pairs, long nanos) {
+        System.out.printf(Locale.ROOT, "%-10s %,d pairs in %.1f ms, %,.0f pairs/s%n",
+                label + ":", pairs, nanos / 1e6, pairs / (nanos / 1e9));
+    }
+}
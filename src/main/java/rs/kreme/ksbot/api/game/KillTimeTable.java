@@ -0,0 +1,161 @@
+package rs.kreme.ksbot.api.game;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Expected kill times of a list of gear sets against a list of NPCs,
+ * computed once so that target selection, equipment switching and special
+ * attack timing can look them up in O(1) while the bot runs.
+ * <p>
+ * Filling the table costs O(hitpoints) per pair with
+ * {@link DpsCalculator#expectedKillTicks}; {@link #compute(DpsCalculator, List, int[], ForkJoinPool)}
+ * splits the gear sets over a {@link ForkJoinPool} for bulk tables of
+ * thousands of pairs. Once built a table is read-only and can be shared
+ * between threads.
+ */
+public final class KillTimeTable {
+
+    /**
+     * Kill time of a pair that cannot be killed, or of an NPC not in the table.
+     */
+    public static final double NEVER = Double.POSITIVE_INFINITY;
+
+    // Gear sets per task before a range is split further
+    private static final int SPLIT_THRESHOLD = 16;
+
+    private final List<GearSet> gearSets;
+    private final int[] npcIds;
+    // Column of each NPC id, -1 for NPCs not in the table
+    private final int[] columns;
+    // Expected kill ticks, one row per gear set
+    private final double[] ticks;
+
+    private KillTimeTable(List<GearSet> gearSets, int[] npcIds) {
+        this.gearSets = List.copyOf(gearSets);
+        this.npcIds = npcIds.clone();
+        int maxId = -1;
+        for (int id : npcIds) {
+            maxId = Math.max(maxId, id);
+        }
+        columns = new int[maxId + 1];
+        Arrays.fill(columns, -1);
+        for (int column = 0; column < npcIds.length; column++) {
+            columns[npcIds[column]] = column;
+        }
+        ticks = new double[gearSets.size() * npcIds.length];
+    }
+
+    /**
+     * Fills a table on the calling thread.
+     */
+    public static KillTimeTable compute(DpsCalculator calculator, List<GearSet> gearSets, int[] npcIds) {
+        KillTimeTable table = new KillTimeTable(gearSets, npcIds);
+        table.fill(calculator, 0, gearSets.size());
+        return table;
+    }
+
+    /**
+     * Fills a table with the gear sets split over a pool.
+     */
+    public static KillTimeTable compute(DpsCalculator calculator, List<GearSet> gearSets, int[] npcIds,
+                                        ForkJoinPool pool) {
+        KillTimeTable table = new KillTimeTable(gearSets, npcIds);
+        pool.invoke(table.new GearRange(calculator, 0, gearSets.size()));
+        return table;
+    }
+
+    public int gearCount() {
+        return gearSets.size();
+    }
+
+    public GearSet getGear(int gearIndex) {
+        return gearSets.get(gearIndex);
+    }
+
+    public int[] getNpcIds() {
+        return npcIds.clone();
+    }
+
+    public boolean contains(int npcId) {
+        return column(npcId) >= 0;
+    }
+
+    /**
+     * Expected ticks for a gear set to kill an NPC.
+     *
+     * @return The ticks, or {@link #NEVER} if it cannot or the NPC is not in the table
+     */
+    public double killTicks(int gearIndex, int npcId) {
+        int column = column(npcId);
+        return column < 0 ? NEVER : ticks[gearIndex * npcIds.length + column];
+    }
+
+    public double killMillis(int gearIndex, int npcId) {
+        return killTicks(gearIndex, npcId) * GameClock.TICK_MILLIS;
+    }
+
+    /**
+     * Index of the gear set that kills an NPC fastest.
+     *
+     * @return The index, or -1 if no gear set can kill it
+     */
+    public int fastestGear(int npcId) {
+        int column = column(npcId);
+        if (column < 0) {
+            return -1;
+        }
+        int best = -1;
+        double bestTicks = NEVER;
+        for (int gear = 0; gear < gearSets.size(); gear++) {
+            double t = ticks[gear * npcIds.length + column];
+            if (t < bestTicks) {
+                best = gear;
+                bestTicks = t;
+            }
+        }
+        return best;
+    }
+
+    private int column(int npcId) {
+        return npcId >= 0 && npcId < columns.length ? columns[npcId] : -1;
+    }
+
+    private void fill(DpsCalculator calculator, int from, int to) {
+        for (int gear = from; gear < to; gear++) {
+            GearSet set = gearSets.get(gear);
+            for (int column = 0; column < npcIds.length; column++) {
+                ticks[gear * npcIds.length + column] = calculator.expectedKillTicks(set, npcIds[column]);
+            }
+        }
+    }
+
+    /**
+     * Fills a range of rows, splitting until ranges are small.
+     */
+    private final class GearRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient DpsCalculator calculator;
+        private final int from;
+        private final int to;
+
+        GearRange(DpsCalculator calculator, int from, int to) {
+            this.calculator = calculator;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                fill(calculator, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new GearRange(calculator, from, mid), new GearRange(calculator, mid, to));
+        }
+    }
+}
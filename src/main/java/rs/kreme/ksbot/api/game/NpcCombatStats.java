@@ -0,0 +1,69 @@
+package rs.kreme.ksbot.api.game;
+
+import java.util.List;
+import rs.kreme.ksbot.api.game.GearSet.AttackType;
+
+/**
+ * Defensive NPC stats for combat calculations: defence and magic level and
+ * a defence bonus per {@link AttackType}. Hitpoints, max hit and attack
+ * speed stay in {@link NpcDefinitions}; ids are shared with it.
+ * <p>
+ * The stats are read once per JVM from the {@code npc-stats.csv} data file
+ * bundled next to this class and are read-only afterwards.
+ */
+public final class NpcCombatStats {
+
+    private static final int MAX_ID = 16384;
+    private static final int DEFENCE_LEVEL = 0;
+    private static final int MAGIC_LEVEL = 1;
+    private static final int FIRST_BONUS = 2;
+    private static final int COLUMNS = FIRST_BONUS + AttackType.values().length;
+
+    // Stat columns per NPC id, null for NPCs without stats
+    private static final int[][] STATS = new int[MAX_ID][];
+    private static final int[] IDS;
+
+    static {
+        List<String[]> records = DataFile.read(NpcCombatStats.class, "npc-stats.csv", 2 + COLUMNS);
+        IDS = new int[records.size()];
+        for (int i = 0; i < records.size(); i++) {
+            String[] record = records.get(i);
+            int id = Integer.parseInt(record[0]);
+            int[] stats = new int[COLUMNS];
+            for (int column = 0; column < COLUMNS; column++) {
+                stats[column] = Integer.parseInt(record[2 + column]);
+            }
+            STATS[id] = stats;
+            IDS[i] = id;
+        }
+    }
+
+    private NpcCombatStats() {
+    }
+
+    public static boolean isDefined(int id) {
+        return id >= 0 && id < MAX_ID && STATS[id] != null;
+    }
+
+    /**
+     * Ids of every NPC with stats, in data file order.
+     */
+    public static int[] ids() {
+        return IDS.clone();
+    }
+
+    public static int defenceLevelOf(int id) {
+        return isDefined(id) ? STATS[id][DEFENCE_LEVEL] : 0;
+    }
+
+    public static int magicLevelOf(int id) {
+        return isDefined(id) ? STATS[id][MAGIC_LEVEL] : 0;
+    }
+
+    /**
+     * Defence bonus against one attack type, 0 for NPCs without stats.
+     */
+    public static int defenceBonusOf(int id, AttackType type) {
+        return isDefined(id) ? STATS[id][FIRST_BONUS + type.ordinal()] : 0;
+    }
+}
@@ -0,0 +1,92 @@
+package rs.kreme.ksbot.api.game;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Static NPC definitions for the monsters the example scripts fight: name,
+ * combat level, hitpoints, max hit and attack speed. Ids follow the live game.
+ * <p>
+ * Like {@link ItemDefinitions}, the table is built once per JVM and its
+ * numeric columns live off-heap in a read-only direct buffer with an 8-byte
+ * record per id, shared by every bot.
+ */
+public final class NpcDefinitions {
+
+    public static final int UNKNOWN = -1;
+
+    private static final int MAX_ID = 16384;
+    private static final int RECORD_BYTES = 8;
+    private static final int LEVEL_OFFSET = 0;
+    private static final int HITPOINTS_OFFSET = 2;
+    private static final int MAX_HIT_OFFSET = 4;
+    private static final int SPEED_OFFSET = 6;
+    private static final int FLAGS_OFFSET = 7;
+    private static final int FLAG_DEFINED = 1;
+
+    private static final String[] NAMES = new String[MAX_ID];
+    private static final Map<String, Integer> IDS_BY_NAME = new HashMap<>();
+    private static final ByteBuffer RECORDS;
+
+    static {
+        ByteBuffer records = ByteBuffer.allocateDirect(MAX_ID * RECORD_BYTES);
+        define(records, 3029, "Goblin", 2, 5, 1, 4);
+        define(records, 2790, "Cow", 2, 8, 1, 4);
+        define(records, 1173, "Chicken", 1, 3, 1, 4);
+        define(records, 2098, "Hill Giant", 28, 35, 4, 6);
+        define(records, 2005, "Lesser demon", 82, 79, 8, 4);
+        RECORDS = records.asReadOnlyBuffer();
+    }
+
+    private NpcDefinitions() {
+    }
+
+    private static void define(ByteBuffer records, int id, String name, int combatLevel,
+                               int hitpoints, int maxHit, int attackSpeedTicks) {
+        int base = id * RECORD_BYTES;
+        records.putShort(base + LEVEL_OFFSET, (short) combatLevel);
+        records.putShort(base + HITPOINTS_OFFSET, (short) hitpoints);
+        records.putShort(base + MAX_HIT_OFFSET, (short) maxHit);
+        records.put(base + SPEED_OFFSET, (byte) attackSpeedTicks);
+        records.put(base + FLAGS_OFFSET, (byte) FLAG_DEFINED);
+        NAMES[id] = name;
+        IDS_BY_NAME.putIfAbsent(name.toLowerCase(Locale.ROOT), id);
+    }
+
+    /**
+     * Returns the id for an NPC name, or {@link #UNKNOWN}.
+     */
+    public static int idOf(String name) {
+        Integer id = IDS_BY_NAME.get(name.toLowerCase(Locale.ROOT));
+        return id == null ? UNKNOWN : id;
+    }
+
+    public static String nameOf(int id) {
+        return isDefined(id) ? NAMES[id] : null;
+    }
+
+    public static int combatLevelOf(int id) {
+        return isDefined(id) ? RECORDS.getShort(id * RECORD_BYTES + LEVEL_OFFSET) : 0;
+    }
+
+    public static int hitpointsOf(int id) {
+        return isDefined(id) ? RECORDS.getShort(id * RECORD_BYTES + HITPOINTS_OFFSET) : 0;
+    }
+
+    public static int maxHitOf(int id) {
+        return isDefined(id) ? RECORDS.getShort(id * RECORD_BYTES + MAX_HIT_OFFSET) : 0;
+    }
+
+    /**
+     * Ticks between the NPC's attacks.
+     */
+    public static int attackSpeedOf(int id) {
+        return isDefined(id) ? RECORDS.get(id * RECORD_BYTES + SPEED_OFFSET) : 0;
+    }
+
+    public static boolean isDefined(int id) {
+        return id >= 0 && id < MAX_ID && (RECORDS.get(id * RECORD_BYTES + FLAGS_OFFSET) & FLAG_DEFINED) != 0;
+    }
+}
@@ -0,0 +1,118 @@
+package rs.kreme.ksbot.api.game;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Potion families with their item ids per dose and their effect.
+ * <p>
+ * A potion boosts (or, for restores, tops up) each of its skills by
+ * {@code base + level * percent / 100} levels. Drinking a dose turns an
+ * {@code (n)} potion into the {@code (n-1)} item of the same family, and
+ * the last dose leaves a {@link Consumables#VIAL}. Ids follow the live game.
+ */
+public enum PotionType {
+    ATTACK("Attack potion", new int[]{125, 123, 121, 2428}, 3, 10, 40, Skill.ATTACK),
+    STRENGTH("Strength potion", new int[]{119, 117, 115, 113}, 3, 10, 150, Skill.STRENGTH),
+    DEFENCE("Defence potion", new int[]{137, 135, 133, 2432}, 3, 10, 60, Skill.DEFENCE),
+    COMBAT("Combat potion", new int[]{9745, 9743, 9741, 9739}, 3, 10, 60, Skill.ATTACK, Skill.STRENGTH),
+    SUPER_ATTACK("Super attack", new int[]{149, 147, 145, 2436}, 5, 15, 100, Skill.ATTACK),
+    SUPER_STRENGTH("Super strength", new int[]{161, 159, 157, 2440}, 5, 15, 300, Skill.STRENGTH),
+    SUPER_DEFENCE("Super defence", new int[]{167, 165, 163, 2442}, 5, 15, 150, Skill.DEFENCE),
+    SUPER_COMBAT("Super combat potion", new int[]{12701, 12699, 12697, 12695}, 5, 15, 3_000,
+            Skill.ATTACK, Skill.STRENGTH, Skill.DEFENCE),
+    RANGING("Ranging potion", new int[]{173, 171, 169, 2444}, 4, 10, 200, Skill.RANGED),
+    BASTION("Bastion potion", new int[]{22470, 22467, 22464, 22461}, 4, 10, 2_000, Skill.RANGED, Skill.DEFENCE),
+    MAGIC("Magic potion", new int[]{3046, 3044, 3042, 3040}, 4, 0, 250, Skill.MAGIC),
+    BATTLEMAGE("Battlemage potion", new int[]{22458, 22455, 22452, 22449}, 4, 0, 2_000, Skill.MAGIC, Skill.DEFENCE),
+    PRAYER("Prayer potion", new int[]{143, 141, 139, 2434}, 7, 25, 2_500, true, Skill.PRAYER);
+
+    public static final int MAX_DOSES = 4;
+
+    private static final Map<String, PotionType> BY_NAME = new HashMap<>();
+
+    static {
+        for (PotionType type : values()) {
+            BY_NAME.put(type.familyName.toLowerCase(Locale.ROOT), type);
+        }
+    }
+
+    private final String familyName;
+    private final int[] doseIds;
+    private final int base;
+    private final int percent;
+    private final int pricePerDose;
+    private final boolean restore;
+    private final Skill[] skills;
+
+    PotionType(String familyName, int[] doseIds, int base, int percent, int pricePerDose, Skill... skills) {
+        this(familyName, doseIds, base, percent, pricePerDose, false, skills);
+    }
+
+    PotionType(String familyName, int[] doseIds, int base, int percent, int pricePerDose, boolean restore,
+               Skill... skills) {
+        this.familyName = familyName;
+        this.doseIds = doseIds;
+        this.base = base;
+        this.percent = percent;
+        this.pricePerDose = pricePerDose;
+        this.restore = restore;
+        this.skills = skills;
+    }
+
+    /**
+     * Name without the dose suffix, such as {@code "Super attack"}.
+     */
+    public String getFamilyName() {
+        return familyName;
+    }
+
+    /**
+     * In-game name of the potion with the given number of doses.
+     */
+    public String nameFor(int doses) {
+        return familyName + "(" + doses + ")";
+    }
+
+    /**
+     * Item id of the potion with the given number of doses (1 to {@value #MAX_DOSES}).
+     */
+    public int idFor(int doses) {
+        return doseIds[doses - 1];
+    }
+
+    public int getPricePerDose() {
+        return pricePerDose;
+    }
+
+    /**
+     * Whether the potion tops up a drained skill instead of boosting above the base level.
+     */
+    public boolean isRestore() {
+        return restore;
+    }
+
+    public boolean affects(Skill skill) {
+        for (Skill affected : skills) {
+            if (affected == skill) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Levels one dose adds at the given base level, or 0 if the skill is not affected.
+     */
+    public int boostFor(Skill skill, int level) {
+        return affects(skill) ? base + level * percent / 100 : 0;
+    }
+
+    /**
+     * Looks a family up by its name without the dose suffix, ignoring case, or returns null.
+     */
+    public static PotionType byName(String familyName) {
+        return BY_NAME.get(familyName.toLowerCase(Locale.ROOT));
+    }
+}
@@ -1,14 +1,29 @@
 package rs.kreme.ksbot.api.game;
 
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import rs.kreme.ksbot.api.trace.TraceRecorder;
 
 /**
  * Simplified representation of the prayer API.
+ * <p>
+ * Points drain as in the game: every tick the drain effects of the active
+ * prayers are added to a counter, and a point is lost each time the counter
+ * passes the drain resistance (60 plus twice the prayer bonus). The same
+ * model predicts how long the points last; {@link #tick()} applies one tick
+ * of it for scripted runs.
  */
 public class Prayer {
     private int prayerPoints = 99;
+    private int prayerBonus;
+    private int drainCounter;
     private final Set<Prayers> activePrayers = EnumSet.noneOf(Prayers.class);
+    private final Set<Prayers> activeView = Collections.unmodifiableSet(activePrayers);
+    private TraceRecorder recorder;
 
     public int getPrayerPoints() {
         return prayerPoints;
@@ -16,24 +31,206 @@ public class Prayer {
 
     public void setPrayerPoints(int prayerPoints) {
         this.prayerPoints = prayerPoints;
+        if (recorder != null) {
+            recorder.prayerPoints(prayerPoints);
+        }
+    }
+
+    public int getPrayerBonus() {
+        return prayerBonus;
+    }
+
+    public void setPrayerBonus(int prayerBonus) {
+        this.prayerBonus = prayerBonus;
     }
 
     public boolean isPrayerActive(Prayers prayer) {
         return activePrayers.contains(prayer);
     }
 
+    /**
+     * Live read-only view of the active prayers.
+     */
+    public Set<Prayers> getActivePrayers() {
+        return activeView;
+    }
+
     public void activatePrayer(Prayers prayer) {
-        activePrayers.add(prayer);
+        if (activePrayers.add(prayer) && recorder != null) {
+            recorder.prayerActivated(prayer);
+        }
     }
 
     public void deactivatePrayer(Prayers prayer) {
-        activePrayers.remove(prayer);
+        if (activePrayers.remove(prayer) && recorder != null) {
+            recorder.prayerDeactivated(prayer);
+        }
+    }
+
+    /**
+     * Turns on every prayer in the set that is not already on.
+     *
+     * @return The number of prayers switched on
+     */
+    public int activate(Set<Prayers> prayers) {
+        int changed = 0;
+        for (Prayers prayer : prayers) {
+            if (activePrayers.add(prayer)) {
+                changed++;
+                if (recorder != null) {
+                    recorder.prayerActivated(prayer);
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Turns off every prayer in the set that is on.
+     *
+     * @return The number of prayers switched off
+     */
+    public int deactivate(Set<Prayers> prayers) {
+        int changed = 0;
+        for (Prayers prayer : prayers) {
+            if (activePrayers.remove(prayer)) {
+                changed++;
+                if (recorder != null) {
+                    recorder.prayerDeactivated(prayer);
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Sum of the drain effects of the active prayers.
+     */
+    public int getDrainRate() {
+        return drainRate(activePrayers);
+    }
+
+    /**
+     * Drain counter value at which a point is lost.
+     */
+    public int getDrainResistance() {
+        return 60 + 2 * prayerBonus;
+    }
+
+    /**
+     * Ticks until the active prayers run the points out, or
+     * {@link Long#MAX_VALUE} when nothing drains.
+     */
+    public long ticksUntilEmpty() {
+        return ticksUntilEmpty(activePrayers);
+    }
+
+    /**
+     * Ticks the current points would last with the given prayers on, or
+     * {@link Long#MAX_VALUE} when they do not drain.
+     */
+    public long ticksUntilEmpty(Set<Prayers> prayers) {
+        int rate = drainRate(prayers);
+        if (rate == 0) {
+            return Long.MAX_VALUE;
+        }
+        // The last point goes once the counter has passed the resistance that many times
+        long needed = (long) prayerPoints * getDrainResistance() + 1 - drainCounter;
+        return Math.max(0, (needed + rate - 1) / rate);
+    }
+
+    public long millisUntilEmpty() {
+        long ticks = ticksUntilEmpty();
+        return ticks == Long.MAX_VALUE ? Long.MAX_VALUE : ticks * GameClock.TICK_MILLIS;
+    }
+
+    /**
+     * Applies one game tick of drain. Every prayer goes off when the points
+     * run out.
+     */
+    public void tick() {
+        int rate = getDrainRate();
+        if (rate == 0 || prayerPoints <= 0) {
+            return;
+        }
+        drainCounter += rate;
+        int resistance = getDrainResistance();
+        int points = prayerPoints;
+        while (drainCounter > resistance && points > 0) {
+            drainCounter -= resistance;
+            points--;
+        }
+        if (points != prayerPoints) {
+            setPrayerPoints(points);
+        }
+        if (points == 0) {
+            drainCounter = 0;
+            deactivate(EnumSet.copyOf(activePrayers));
+        }
+    }
+
+    /**
+     * Reports every state change to the recorder, or stops reporting when null.
+     */
+    public void setRecorder(TraceRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    private static int drainRate(Set<Prayers> prayers) {
+        int rate = 0;
+        for (Prayers prayer : prayers) {
+            rate += prayer.getDrainEffect();
+        }
+        return rate;
     }
 
     public enum Prayers {
-        PROTECT_FROM_MELEE,
-        PROTECT_FROM_MAGIC,
-        PROTECT_FROM_MISSILES,
-        PIETY
+        PROTECT_FROM_MELEE("Protect from Melee", 12, true),
+        PROTECT_FROM_MAGIC("Protect from Magic", 12, true),
+        PROTECT_FROM_MISSILES("Protect from Missiles", 12, true),
+        PIETY("Piety", 24, false);
+
+        private static final Map<String, Prayers> BY_NAME = new HashMap<>();
+
+        static {
+            for (Prayers prayer : values()) {
+                BY_NAME.put(prayer.displayName.toLowerCase(Locale.ROOT), prayer);
+            }
+        }
+
+        private final String displayName;
+        private final int drainEffect;
+        private final boolean protection;
+
+        Prayers(String displayName, int drainEffect, boolean protection) {
+            this.displayName = displayName;
+            this.drainEffect = drainEffect;
+            this.protection = protection;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        /**
+         * Drain effect added to the drain counter every tick the prayer is on.
+         */
+        public int getDrainEffect() {
+            return drainEffect;
+        }
+
+        /**
+         * Whether the prayer protects from an attack style.
+         */
+        public boolean isProtection() {
+            return protection;
+        }
+
+        /**
+         * Looks a prayer up by its in-game name, ignoring case, or returns null.
+         */
+        public static Prayers byName(String name) {
+            return BY_NAME.get(name.toLowerCase(Locale.ROOT));
+        }
     }
 }
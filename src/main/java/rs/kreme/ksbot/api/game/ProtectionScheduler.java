@@ -0,0 +1,112 @@
+package rs.kreme.ksbot.api.game;
+
+/**
+ * Predicts the ticks on which the current attacker will hit, so protection
+ * prayers only need to be on around those ticks.
+ * <p>
+ * Every hit taken (including a 0 for a block) marks an attack tick, and the
+ * gap between two attacks is taken as the attacker's speed. Protection is
+ * wanted on each predicted attack tick and the lead ticks before it, and
+ * always while the timing is unknown: until two hits of a fight have
+ * measured the speed, or once the attacker has been quiet for longer than
+ * {@value #MAX_ATTACK_SPEED_TICKS} ticks. Guessing a speed after the first
+ * hit would leave the second hit from any slower attacker unprotected.
+ * The schedule follows one attacker.
+ */
+public final class ProtectionScheduler implements CombatListener {
+
+    public static final int DEFAULT_ATTACK_SPEED_TICKS = 4;
+    public static final int MAX_ATTACK_SPEED_TICKS = 10;
+
+    private final GameClock clock;
+    private final Prayer prayer;
+    private final int leadTicks;
+    private long lastAttackTick = -1;
+    private int attackSpeedTicks = DEFAULT_ATTACK_SPEED_TICKS;
+    private boolean speedMeasured;
+    private int attacks;
+    private int unprotectedAttacks;
+
+    /**
+     * @param leadTicks Ticks before a predicted attack to have protection on,
+     *                  covering the tick it takes a prayer switch to register
+     */
+    public ProtectionScheduler(GameClock clock, Prayer prayer, int leadTicks) {
+        this.clock = clock;
+        this.prayer = prayer;
+        this.leadTicks = leadTicks;
+    }
+
+    @Override
+    public void onHitDealt(int damage) {
+        // Only incoming attacks matter
+    }
+
+    @Override
+    public void onHitTaken(int damage) {
+        long tick = clock.currentTick();
+        if (lastAttackTick >= 0) {
+            long gap = tick - lastAttackTick;
+            if (gap > 0 && gap <= MAX_ATTACK_SPEED_TICKS) {
+                attackSpeedTicks = (int) gap;
+                speedMeasured = true;
+            }
+        }
+        lastAttackTick = tick;
+        attacks++;
+        if (!isProtected()) {
+            unprotectedAttacks++;
+        }
+    }
+
+    /**
+     * Whether protection should be on during the given tick.
+     */
+    public boolean shouldProtect(long tick) {
+        if (lastAttackTick < 0 || !speedMeasured) {
+            return true;
+        }
+        long since = tick - lastAttackTick;
+        if (since < 0 || since > MAX_ATTACK_SPEED_TICKS) {
+            return true;
+        }
+        long untilNext = (attackSpeedTicks - since % attackSpeedTicks) % attackSpeedTicks;
+        return untilNext <= leadTicks;
+    }
+
+    /**
+     * Forgets the attack timing, at the end of a fight.
+     */
+    public void reset() {
+        lastAttackTick = -1;
+        attackSpeedTicks = DEFAULT_ATTACK_SPEED_TICKS;
+        speedMeasured = false;
+    }
+
+    /**
+     * Measured attack speed, or {@value #DEFAULT_ATTACK_SPEED_TICKS} until two hits have measured it.
+     */
+    public int getAttackSpeedTicks() {
+        return attackSpeedTicks;
+    }
+
+    public int getAttacks() {
+        return attacks;
+    }
+
+    /**
+     * Attacks that landed while no protection prayer was on.
+     */
+    public int getUnprotectedAttacks() {
+        return unprotectedAttacks;
+    }
+
+    private boolean isProtected() {
+        for (Prayer.Prayers active : prayer.getActivePrayers()) {
+            if (active.isProtection()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
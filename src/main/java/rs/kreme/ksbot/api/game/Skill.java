@@ -0,0 +1,45 @@
+package rs.kreme.ksbot.api.game;
+
+/**
+ * Skills, in the game's skill id order.
+ */
+public enum Skill {
+    ATTACK,
+    DEFENCE,
+    STRENGTH,
+    HITPOINTS,
+    RANGED,
+    PRAYER,
+    MAGIC,
+    COOKING,
+    WOODCUTTING,
+    FLETCHING,
+    FISHING,
+    FIREMAKING,
+    CRAFTING,
+    SMITHING,
+    MINING,
+    HERBLORE,
+    AGILITY,
+    THIEVING,
+    SLAYER,
+    FARMING,
+    RUNECRAFT,
+    HUNTER,
+    CONSTRUCTION;
+
+    /**
+     * Whether the skill counts towards combat level.
+     */
+    public boolean isCombat() {
+        return ordinal() <= MAGIC.ordinal();
+    }
+
+    /**
+     * Whether boosts and drains of the skill wear off over time. Hitpoints
+     * and prayer points are restored by other means instead.
+     */
+    public boolean decays() {
+        return this != HITPOINTS && this != PRAYER;
+    }
+}
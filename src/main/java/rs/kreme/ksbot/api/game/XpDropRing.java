@@ -0,0 +1,123 @@
+package rs.kreme.ksbot.api.game;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free ring of XP drops with one writer and any number of readers.
+ * <p>
+ * The client thread publishes each drop by writing its slot and then
+ * bumping the published sequence, with a store-store fence ahead of the
+ * slot writes so they stay ordered after the previous bump. Every reader
+ * owns a {@link Reader} with its own position and drains the drops it has
+ * not seen yet; readers never block the writer or each other. A reader
+ * that falls more than the ring capacity behind skips the overwritten
+ * drops and counts them as lost.
+ */
+public final class XpDropRing {
+
+    /**
+     * Receives drained drops.
+     */
+    public interface Handler {
+        void onXpDrop(Skill skill, int delta, long timeMillis);
+    }
+
+    private static final Skill[] SKILLS = Skill.values();
+
+    private final int mask;
+    private final long[] times;
+    private final int[] skills;
+    private final int[] deltas;
+    private final AtomicLong published = new AtomicLong();
+
+    /**
+     * @param capacity Number of drops kept, rounded up to a power of two
+     */
+    public XpDropRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.times = new long[size];
+        this.skills = new int[size];
+        this.deltas = new int[size];
+    }
+
+    /**
+     * Publishes a drop. Must only be called from the writer thread.
+     */
+    public void publish(Skill skill, int delta, long timeMillis) {
+        long sequence = published.get();
+        int slot = (int) sequence & mask;
+        // Keep the slot writes from becoming visible before the previous
+        // sequence bump, or a reader validating against it could accept a
+        // half-overwritten slot
+        VarHandle.storeStoreFence();
+        times[slot] = timeMillis;
+        skills[slot] = skill.ordinal();
+        deltas[slot] = delta;
+        published.lazySet(sequence + 1);
+    }
+
+    /**
+     * Total number of drops published so far.
+     */
+    public long publishedCount() {
+        return published.get();
+    }
+
+    /**
+     * Creates a reader that sees drops published from now on.
+     */
+    public Reader newReader() {
+        return new Reader(published.get());
+    }
+
+    public final class Reader {
+        private long position;
+        private long lost;
+
+        private Reader(long position) {
+            this.position = position;
+        }
+
+        /**
+         * Hands every drop published since the last drain to the handler.
+         *
+         * @return The number of drops delivered
+         */
+        public int drain(Handler handler) {
+            // A slot may be rewritten as soon as the writer is a full ring
+            // ahead, so only the last capacity - 1 drops are safe to read
+            long window = mask;
+            int delivered = 0;
+            long available = published.get();
+            while (position < available) {
+                if (available - position > window) {
+                    lost += available - window - position;
+                    position = available - window;
+                }
+                int slot = (int) position & mask;
+                long time = times[slot];
+                int skill = skills[slot];
+                int delta = deltas[slot];
+                // Discard the read if the writer reached the slot meanwhile
+                VarHandle.loadLoadFence();
+                available = published.get();
+                if (available - position > window) {
+                    continue;
+                }
+                position++;
+                delivered++;
+                handler.onXpDrop(SKILLS[skill], delta, time);
+            }
+            return delivered;
+        }
+
+        /**
+         * Drops this reader missed because it fell too far behind.
+         */
+        public long getLost() {
+            return lost;
+        }
+    }
+}
@@ -9,17 +9,28 @@ import rs.kreme.ksbot.api.wrappers.KSItem;
  * Represents the result of querying inventory/equipment.
  */
 public class ItemQuery {
-    private final List<KSItem> items;
+    // Assigned once, by a constructor or by adopt()
+    private List<KSItem> items;
 
     public ItemQuery() {
-        this(Collections.emptyList());
+        this.items = Collections.emptyList();
     }
 
     public ItemQuery(List<KSItem> items) {
-        this.items = new ArrayList<>(items);
+        this.items = Collections.unmodifiableList(new ArrayList<>(items));
+    }
+
+    /**
+     * Creates a query over a list without copying it. The caller hands the
+     * list over and must not change it afterwards.
+     */
+    public static ItemQuery adopt(List<KSItem> items) {
+        ItemQuery query = new ItemQuery();
+        query.items = Collections.unmodifiableList(items);
+        return query;
     }
 
     public List<KSItem> results() {
-        return Collections.unmodifiableList(items);
+        return items;
     }
 }
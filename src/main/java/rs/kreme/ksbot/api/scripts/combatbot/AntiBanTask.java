@@ -21,13 +21,13 @@ public class AntiBanTask extends Task {
     private long lastActionTime;
     
     // Minimum time between anti-ban actions (in milliseconds)
-    private final long MIN_ACTION_INTERVAL = 45000; // 45 seconds
+    private static final long MIN_ACTION_INTERVAL = 45000; // 45 seconds
     
     // Maximum time between anti-ban actions (in milliseconds)
-    private final long MAX_ACTION_INTERVAL = 180000; // 3 minutes
+    private static final long MAX_ACTION_INTERVAL = 180000; // 3 minutes
     
     // Probability weights for different anti-ban actions
-    private final int[] ACTION_WEIGHTS = {
+    private static final int[] ACTION_WEIGHTS = {
         25, // Move camera
         20, // Check inventory
         15, // Check equipment
@@ -38,8 +38,8 @@ public class AntiBanTask extends Task {
     
     public AntiBanTask(CombatBot bot) {
         this.bot = bot;
-        this.random = new Random();
-        this.lastActionTime = System.currentTimeMillis();
+        this.random = bot.ctx.random;
+        this.lastActionTime = bot.ctx.clock.currentTimeMillis();
     }
     
     @Override
@@ -49,7 +49,7 @@ public class AntiBanTask extends Task {
         // 2. Enough time has passed since the last anti-ban action
         // 3. We're not in immediate danger (not eating)
         return bot.isUseAntiBan() && 
-               System.currentTimeMillis() - lastActionTime >= getNextActionInterval() &&
+               bot.ctx.clock.currentTimeMillis() - lastActionTime >= getNextActionInterval() &&
                bot.ctx.combat.getHealthPercent() > bot.getEatAtHealthPercent();
     }
     
@@ -81,7 +81,7 @@ public class AntiBanTask extends Task {
         }
         
         // Update the last action time
-        lastActionTime = System.currentTimeMillis();
+        lastActionTime = bot.ctx.clock.currentTimeMillis();
         
         // Return a random sleep time
         return 500 + random.nextInt(1000);
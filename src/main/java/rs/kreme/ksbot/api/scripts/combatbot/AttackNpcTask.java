@@ -2,8 +2,13 @@ package rs.kreme.ksbot.api.scripts.combatbot;
 
 import rs.kreme.ksbot.api.scripts.task.Task;
 import rs.kreme.ksbot.api.game.Combat;
+import rs.kreme.ksbot.api.game.KillTimeTable;
+import rs.kreme.ksbot.api.game.NpcDefinitions;
+import rs.kreme.ksbot.api.world.EntityStore;
 import rs.kreme.ksbot.api.wrappers.KSNPC;
-import rs.kreme.ksbot.api.queries.NPCQuery;
+
+import java.util.Arrays;
+import java.util.Comparator;
 
 /**
  * AttackNpcTask - Responsible for finding and attacking NPCs
@@ -13,12 +18,29 @@ import rs.kreme.ksbot.api.queries.NPCQuery;
  * 2. Attacking NPCs if not already in combat
  * 3. Waiting while in combat
  * 4. Tracking kills for statistics
+ * 
+ * Attacks and kills are reported to the context's drop table estimator,
+ * which credits the loot that appears to the NPC that died.
+ * 
+ * With fastest-kill targeting on, the target names are tried in order of
+ * the worn gear's expected kill time from the bot's kill time table, so
+ * the cheapest kill in sight is attacked first. The order is worked out
+ * again whenever the target list or the table changes, and the best
+ * ranked NPC in sight is found in one scan of the NPC columns.
  */
 public class AttackNpcTask extends Task {
     
     private final CombatBot bot;
     private final Combat combat;
     private KSNPC lastTarget;
+    private String lastTargetName; // Kept because the view cannot be read once the NPC despawns
+    private long lastAttackTime;
+    
+    // Kill time rank of each NPC store name id, -1 for non-targets, for the list, table and names it came from
+    private String[] rankedFrom;
+    private KillTimeTable rankedBy;
+    private int rankedNameVersion;
+    private int[] rankOfId;
     
     public AttackNpcTask(CombatBot bot) {
         this.bot = bot;
@@ -39,8 +61,9 @@ public class AttackNpcTask extends Task {
     public int execute() {
         // Check if our last target died (was non-null but now we're not in combat)
         if (lastTarget != null && !combat.isAttacking(lastTarget)) {
-            System.out.println("Target defeated: " + lastTarget.getName());
+            System.out.println("Target defeated: " + lastTargetName);
             bot.incrementKillCount();
+            bot.ctx.dropTable.killed(lastTargetName, bot.ctx.clock.currentTimeMillis() - lastAttackTime);
             lastTarget = null;
         }
         
@@ -52,6 +75,9 @@ public class AttackNpcTask extends Task {
             System.out.println("Attacking: " + target.getName() + " (Level: " + target.getCombatLevel() + ")");
             target.interact("Attack");
             lastTarget = target;
+            lastTargetName = target.getName();
+            lastAttackTime = bot.ctx.clock.currentTimeMillis();
+            bot.ctx.dropTable.engaged(lastTargetName);
             
             // Wait a moment for the attack to begin
             return 1200; // Return sleep time in milliseconds
@@ -70,10 +96,51 @@ public class AttackNpcTask extends Task {
         // Get the list of target NPC names
         String[] targetNames = bot.getTargetNpcNames();
         
-        // Try to find an attackable NPC with one of our target names
-        NPCQuery query = combat.getAttackableNPC(targetNames);
+        if (!bot.isPreferFastestKill() || targetNames == null || targetNames.length < 2) {
+            // Scan the NPC columns for the first NPC with one of our target names
+            return combat.findAttackableNPC(targetNames);
+        }
+        KillTimeTable killTimes = bot.getKillTimes();
         
-        // Return the first NPC found, or null if none found
-        return query.results().isEmpty() ? null : query.results().get(0);
+        // Take the NPC in sight with the fastest kill, the first one on ties
+        EntityStore npcs = combat.getNpcStore();
+        if (targetNames != rankedFrom || killTimes != rankedBy || npcs.nameVersion() != rankedNameVersion) {
+            rankTargets(targetNames, killTimes, npcs);
+        }
+        int bestSlot = -1;
+        int bestRank = Integer.MAX_VALUE;
+        for (int slot = 0; slot < npcs.highWater() && bestRank > 0; slot++) {
+            int id = npcs.id(slot);
+            int rank = id != EntityStore.FREE && id < rankOfId.length ? rankOfId[id] : -1;
+            if (rank >= 0 && rank < bestRank) {
+                bestSlot = slot;
+                bestRank = rank;
+            }
+        }
+        return bestSlot < 0 ? null : new KSNPC(npcs, bestSlot);
+    }
+    
+    /**
+     * Ranks target names by expected kill time, indexed by NPC store name id;
+     * names without combat stats go last
+     * 
+     * @param targetNames The configured target names
+     * @param killTimes Kill times of the worn gear
+     * @param npcs The store the ranks index into
+     */
+    private void rankTargets(String[] targetNames, KillTimeTable killTimes, EntityStore npcs) {
+        String[] names = targetNames.clone();
+        Arrays.sort(names, Comparator.comparingDouble(name -> killTimes.killTicks(0, NpcDefinitions.idOf(name))));
+        rankOfId = new int[npcs.nameCount()];
+        Arrays.fill(rankOfId, -1);
+        for (int rank = names.length - 1; rank >= 0; rank--) {
+            int id = npcs.idOf(names[rank]);
+            if (id != EntityStore.FREE) {
+                rankOfId[id] = rank;
+            }
+        }
+        rankedFrom = targetNames;
+        rankedBy = killTimes;
+        rankedNameVersion = npcs.nameVersion();
     }
 }
@@ -0,0 +1,74 @@
+package rs.kreme.ksbot.api.scripts.combatbot;
+
+import rs.kreme.ksbot.api.game.ItemDefinitions;
+import rs.kreme.ksbot.api.game.NpcDefinitions;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Command-line measurement of the heap one started {@link CombatBot} retains
+ * when many bots share a JVM. A fleet of bots is started with their output
+ * silenced and the heap in use after a full collection is compared with the
+ * heap before; the direct and mapped buffer pools, which hold the shared
+ * off-heap tables, are reported alongside.
+ * <p>
+ * Run with {@code ./gradlew benchmarkBotFootprint}; the optional argument is
+ * the fleet size.
+ */
+public final class BotFootprintBenchmark {
+
+    private static final int DEFAULT_BOTS = 2000;
+
+    private BotFootprintBenchmark() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int bots = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_BOTS;
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        PrintStream out = System.out;
+
+        // Start one bot first so class loading and shared tables are not counted per bot
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        List<CombatBot> fleet = new ArrayList<>(bots + 1);
+        fleet.add(startBot());
+        ItemDefinitions.isDefined(0);
+        NpcDefinitions.isDefined(0);
+        long before = usedHeapAfterGc(memory);
+
+        for (int i = 0; i < bots; i++) {
+            fleet.add(startBot());
+        }
+        long after = usedHeapAfterGc(memory);
+        System.setOut(out);
+
+        System.out.println("=== Bot footprint (" + bots + " bots) ===");
+        System.out.printf(Locale.ROOT, "Retained heap per bot: %,d bytes%n", (after - before) / bots);
+        System.out.printf(Locale.ROOT, "Retained heap, fleet:  %,d KB%n", (after - before) / 1024);
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            System.out.printf(Locale.ROOT, "Off-heap %-8s %,6d buffers %,10d KB%n",
+                    pool.getName() + ":", pool.getCount(), pool.getMemoryUsed() / 1024);
+        }
+        System.out.println("Bots alive: " + fleet.size());
+    }
+
+    private static CombatBot startBot() {
+        CombatBot bot = new CombatBot();
+        bot.onStart();
+        return bot;
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memory) throws InterruptedException {
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
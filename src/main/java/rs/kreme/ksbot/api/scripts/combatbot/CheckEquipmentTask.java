@@ -1,8 +1,17 @@
 package rs.kreme.ksbot.api.scripts.combatbot;
 
+import rs.kreme.ksbot.api.game.DegradationTracker;
+import rs.kreme.ksbot.api.game.EquipmentSlot;
+import rs.kreme.ksbot.api.game.InventoryListener;
 import rs.kreme.ksbot.api.scripts.task.Task;
 import rs.kreme.ksbot.api.wrappers.KSItem;
-import rs.kreme.ksbot.api.queries.ItemQuery;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Queue;
 
 /**
  * CheckEquipmentTask - Responsible for monitoring equipment durability
@@ -11,14 +20,56 @@ import rs.kreme.ksbot.api.queries.ItemQuery;
  * 1. Checking equipment for low durability
  * 2. Warning when equipment needs repair
  * 3. Preventing equipment breakage
+ * 
+ * Charges are counted by a {@link DegradationTracker} listening to combat
+ * and equipment events, so nothing is polled: the task only runs when the
+ * tracker reports an item crossing the durability threshold. Charges are
+ * restored from and saved to the bot's charges file between sessions. Once
+ * per tick after an item has left the inventory, the charges carried for
+ * pieces no longer held are dropped.
  */
 public class CheckEquipmentTask extends Task {
     
     private final CombatBot bot;
-    private final int DURABILITY_THRESHOLD = 10; // Percentage threshold for durability warnings
+    private static final int DURABILITY_THRESHOLD = 10; // Percentage threshold for durability warnings
+    
+    // Charge counters for worn degradable items
+    private final DegradationTracker tracker = new DegradationTracker(DURABILITY_THRESHOLD);
+    
+    // Warnings reported by the tracker and not printed yet
+    private final Queue<String> pendingWarnings = new ArrayDeque<>();
+    
+    // Set when an item leaves the inventory, so carried charges are checked on the next tick
+    private boolean inventoryShrank;
+    private final InventoryListener inventoryListener = new InventoryListener() {
+        @Override
+        public void onItemAdded(KSItem item) {
+        }
+        
+        @Override
+        public void onItemRemoved(KSItem item) {
+            inventoryShrank = true;
+        }
+    };
     
     public CheckEquipmentTask(CombatBot bot) {
         this.bot = bot;
+        loadCharges();
+        
+        // Pick up what is already worn, then follow changes and hits
+        for (EquipmentSlot slot : EquipmentSlot.values()) {
+            KSItem item = bot.ctx.equipment.getSlot(slot);
+            if (item != null) {
+                tracker.onEquip(slot, item);
+                if (tracker.isBelowThreshold(slot)) {
+                    queueWarning(item, tracker.getPercentRemaining(slot));
+                }
+            }
+        }
+        bot.ctx.equipment.addListener(tracker);
+        bot.ctx.combat.addListener(tracker);
+        bot.ctx.inventory.addListener(inventoryListener);
+        tracker.addListener((slot, item, percentRemaining) -> queueWarning(item, percentRemaining));
     }
     
     @Override
@@ -26,64 +77,92 @@ public class CheckEquipmentTask extends Task {
         // This task should run when:
         // 1. Equipment checking is enabled in configuration
         // 2. We're not in immediate danger (not eating)
+        // 3. An item has crossed the durability threshold since the last run
+        retainCarried();
         return bot.isCheckEquipment() && 
+               !pendingWarnings.isEmpty() && 
                bot.ctx.combat.getHealthPercent() > bot.getEatAtHealthPercent();
     }
     
     @Override
     public int execute() {
-        // Check equipment slots for durability
-        checkEquipmentDurability();
+        // Report the items that crossed the threshold
+        while (!pendingWarnings.isEmpty()) {
+            System.out.println(pendingWarnings.poll());
+        }
         
-        // This task doesn't need to run frequently
-        return 30000; // Check every 30 seconds
+        return 600;
+    }
+    
+    @Override
+    public void onStop() {
+        // Stop counting once the bot stops
+        bot.ctx.equipment.removeListener(tracker);
+        bot.ctx.combat.removeListener(tracker);
+        bot.ctx.inventory.removeListener(inventoryListener);
     }
     
     /**
-     * Checks all equipment slots for low durability items
+     * Gets the charge tracker for worn degradable items
+     * 
+     * @return The degradation tracker
      */
-    private void checkEquipmentDurability() {
-        // Get all equipped items
-        ItemQuery equippedItems = bot.ctx.equipment.getItems();
-        
-        for (KSItem item : equippedItems.results()) {
-            // Check if item has durability property
-            if (hasDurability(item)) {
-                int durability = getDurability(item);
-                
-                // Warn if durability is below threshold
-                if (durability < DURABILITY_THRESHOLD) {
-                    System.out.println("WARNING: " + item.getName() + " has low durability (" + durability + "%)");
-                }
-            }
+    public DegradationTracker getTracker() {
+        return tracker;
+    }
+    
+    /**
+     * Saves the remaining charges to the bot's charges file, if one is configured
+     */
+    public void saveCharges() {
+        Path file = chargesFile();
+        if (file == null) {
+            return;
+        }
+        retainCarried();
+        try {
+            tracker.save(file);
+        } catch (IOException e) {
+            System.out.println("WARNING: Could not save equipment charges to " + file + ": " + e.getMessage());
         }
     }
     
     /**
-     * Checks if an item has a durability property
-     * 
-     * @param item The item to check
-     * @return true if the item has durability, false otherwise
+     * Restores charges saved by an earlier session, if there are any
      */
-    private boolean hasDurability(KSItem item) {
-        // This is a simplified implementation
-        // In a real bot, you would check item properties or IDs
-        String name = item.getName().toLowerCase();
-        return name.contains("degraded") || 
-               name.contains("barrows") || 
-               name.contains("crystal");
+    private void loadCharges() {
+        Path file = chargesFile();
+        if (file == null || !Files.exists(file)) {
+            return;
+        }
+        try {
+            tracker.load(file);
+        } catch (IOException e) {
+            System.out.println("WARNING: Could not load equipment charges from " + file + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Drops charges carried for items that left the inventory since the last check
+     */
+    private void retainCarried() {
+        if (inventoryShrank) {
+            tracker.retainCarried(bot.ctx.inventory.getItems().results());
+            inventoryShrank = false;
+        }
+    }
+    
+    private Path chargesFile() {
+        return bot.getChargesFile() == null ? null : Paths.get(bot.getChargesFile());
     }
     
     /**
-     * Gets the durability percentage of an item
+     * Queues a low durability warning for the next run
      * 
-     * @param item The item to check
-     * @return The durability percentage (0-100)
+     * @param item The degrading item
+     * @param durability The remaining durability percentage
      */
-    private int getDurability(KSItem item) {
-        // This is a simplified implementation
-        // In a real bot, you would get the actual durability from item properties
-        // For demonstration purposes, we'll return a random value
-        return 20 + (int)(Math.random() * 80);
+    private void queueWarning(KSItem item, int durability) {
+        pendingWarnings.add("WARNING: " + item.getName() + " has low durability (" + durability + "%)");
     }
 }
@@ -5,11 +5,27 @@ import rs.kreme.ksbot.api.scripts.Category;
 import rs.kreme.ksbot.api.scripts.task.TaskScript;
 import rs.kreme.ksbot.api.game.Combat;
 import rs.kreme.ksbot.api.game.Consumables;
+import rs.kreme.ksbot.api.game.DpsCalculator;
+import rs.kreme.ksbot.api.game.GearSet;
+import rs.kreme.ksbot.api.game.KillTimeTable;
+import rs.kreme.ksbot.api.game.NpcCombatStats;
+import rs.kreme.ksbot.api.game.Prayer;
+import rs.kreme.ksbot.api.game.Skill;
 import rs.kreme.ksbot.api.wrappers.KSNPC;
+import rs.kreme.ksbot.api.queries.ItemQuery;
 import rs.kreme.ksbot.api.queries.NPCQuery;
+import rs.kreme.ksbot.api.stats.DropTableEstimator;
+import rs.kreme.ksbot.api.stats.RateTracker;
+import rs.kreme.ksbot.api.stats.ReactionTracker;
+import rs.kreme.ksbot.api.trace.TraceRecorder;
+import rs.kreme.ksbot.api.world.RegionStore;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * CombatBot - A comprehensive combat bot for ReasonRSPS
@@ -30,42 +46,142 @@ public class CombatBot extends TaskScript {
     
     // Configuration variables - modify these to customize the bot
     private String[] targetNpcNames = {"Goblin", "Cow", "Chicken"}; // NPCs to attack
+    private boolean preferFastestKill = true; // Attack the target the worn gear kills fastest instead of the first listed
     private int eatAtHealthPercent = 50; // Eat food when health is below this percentage
+    private boolean predictiveEating = true; // While under attack, eat on predicted death risk instead of health
+    private double maxDeathRisk = 0.005; // Eat once the chance of dying within the risk horizon exceeds this
+    private int deathRiskTicks = 6; // Ticks ahead the death risk covers; at least the eat delay plus one attack
     private boolean useSpecialAttack = true; // Whether to use special attacks
     private int specialAttackEnergyThreshold = 50; // Use special attack when energy is above this percentage
     private String[] foodNames = {"Lobster", "Swordfish", "Shark"}; // Food items to eat
+    private boolean minimizeOverheal = true; // Eat the food that heals closest to full instead of the first found
+    private boolean routeLoot = true; // Plan one pickup route over all drops instead of looting by value alone
+    private boolean manageInventorySpace = true; // Drop, bury or eat the least valuable item to make room for better loot
     private boolean usePrayer = false; // Whether to use prayer
     private String[] prayerNames = {"Protect from Melee"}; // Prayers to activate
+    private boolean prayerFlicking = true; // Only keep protection prayers on around expected attacks
     private boolean checkEquipment = true; // Whether to check equipment durability
     private boolean useAntiBan = true; // Whether to use anti-ban measures
+    private String safeSpotIndexFile = null; // Precomputed safe spot index (null uses built-in spots)
+    private String regionDataFile = null; // Region collision store for pathing (null treats the map as open)
+    private int potionBoostMargin = 2; // Drink a potion once the boost falls below this many levels
+    private String chargesFile = null; // Degradable equipment charges kept between sessions (null disables)
+    private String traceFile = null; // State trace written when the bot stops, for replays (null disables)
+    private String dropTableFile = null; // Per-NPC drop statistics kept between sessions (null disables)
     
     // Runtime variables
     private long startTime;
     private int killCount;
+    private RateTracker rates = new RateTracker(ctx.clock);
+    private ProgressTrackingTask progressTrackingTask;
+    private EatFoodTask eatFoodTask;
+    private LootItemsTask lootItemsTask;
+    private CheckEquipmentTask checkEquipmentTask;
+    private TraceRecorder recorder;
+    private RegionStore regionStore;
+    private KillTimeTable killTimes;
+    private ItemQuery killTimesGear; // Worn gear snapshot the kill times were computed for
+    private DpsCalculator killTimesCalculator; // Levels, style and Piety they were computed with
     
     @Override
     public boolean onStart() {
         // Initialize the bot and add tasks
         System.out.println("Starting Advanced Combat Bot");
-        startTime = System.currentTimeMillis();
+        startTime = ctx.clock.currentTimeMillis();
         killCount = 0;
+        rates = new RateTracker(ctx.clock);
+        progressTrackingTask = new ProgressTrackingTask(this);
+        ctx.reactions.setSpecThreshold(useSpecialAttack ? specialAttackEnergyThreshold : ReactionTracker.DISABLED);
         
-        // Add tasks in order of priority (highest priority first)
-        addTask(new EatFoodTask(this));
-        addTask(new CheckEquipmentTask(this));
+        // Continue the drop statistics of earlier sessions
+        if (dropTableFile != null && Files.exists(Paths.get(dropTableFile))) {
+            try {
+                ctx.dropTable.load(Paths.get(dropTableFile));
+            } catch (IOException e) {
+                System.out.println("WARNING: Could not load drop table from " + dropTableFile + ": " + e.getMessage());
+            }
+        }
+        
+        // Precompute kill times of the worn gear against every NPC with combat stats
+        killTimes = null;
+        getKillTimes();
+        
+        // Path over the shared region collision data if configured
+        if (regionDataFile != null) {
+            try {
+                regionStore = RegionStore.open(Paths.get(regionDataFile));
+                ctx.movement.setCollisionMap(regionStore);
+            } catch (IOException e) {
+                System.out.println("WARNING: Could not open region data " + regionDataFile + ": " + e.getMessage());
+            }
+        }
+        
+        // Add tasks in order of priority (highest priority first). Progress
+        // tracking is validated every step so it takes in XP drops as they
+        // happen; it only runs for the periodic report
+        addTask(progressTrackingTask);
+        eatFoodTask = new EatFoodTask(this);
+        addTask(eatFoodTask);
+        ctx.reactions.setEatCondition(eatFoodTask::needsFood);
+        checkEquipmentTask = new CheckEquipmentTask(this);
+        addTask(checkEquipmentTask);
         addTask(new PrayerTask(this));
         addTask(new SpecialAttackTask(this));
-        addTask(new LootItemsTask(this));
+        lootItemsTask = new LootItemsTask(this);
+        if (manageInventorySpace) {
+            addTask(new InventorySpaceTask(this, lootItemsTask));
+        }
+        addTask(lootItemsTask);
         addTask(new AttackNpcTask(this));
         addTask(new AntiBanTask(this));
         
+        // Record the session for replays if configured
+        if (traceFile != null) {
+            recorder = new TraceRecorder();
+            recorder.attach(ctx, System.nanoTime());
+        }
+        
         return true;
     }
     
     @Override
     public void onStop() {
+        // Keep degradable equipment charges for the next session
+        if (checkEquipmentTask != null) {
+            checkEquipmentTask.saveCharges();
+        }
+        
+        // Release our hold on the shared region data
+        if (regionStore != null) {
+            try {
+                regionStore.close();
+            } catch (IOException e) {
+                System.out.println("WARNING: Could not close region data " + regionDataFile + ": " + e.getMessage());
+            }
+            regionStore = null;
+        }
+        
+        // Keep the drop statistics for the next session
+        if (dropTableFile != null) {
+            try {
+                ctx.dropTable.save(Paths.get(dropTableFile));
+            } catch (IOException e) {
+                System.out.println("WARNING: Could not save drop table to " + dropTableFile + ": " + e.getMessage());
+            }
+        }
+        
+        // Write the session trace
+        if (recorder != null) {
+            recorder.detach(ctx);
+            try {
+                recorder.save(Paths.get(traceFile));
+            } catch (IOException e) {
+                System.out.println("WARNING: Could not save state trace to " + traceFile + ": " + e.getMessage());
+            }
+        }
+        
         // Calculate runtime
-        long runtime = System.currentTimeMillis() - startTime;
+        long runtime = ctx.clock.currentTimeMillis() - startTime;
         long seconds = runtime / 1000;
         long minutes = seconds / 60;
         long hours = minutes / 60;
@@ -74,8 +190,33 @@ public class CombatBot extends TaskScript {
         System.out.println("=== Advanced Combat Bot Summary ===");
         System.out.println("Runtime: " + hours + ":" + (minutes % 60) + ":" + (seconds % 60));
         System.out.println("NPCs killed: " + killCount);
-        System.out.println("Kills per hour: " + (killCount * 3600000L / runtime));
+        for (RateTracker.Metric metric : RateTracker.Metric.values()) {
+            if (rates.getTotal(metric) > 0) {
+                System.out.println(rates.format(metric));
+            }
+        }
+        for (ReactionTracker.Trigger trigger : ReactionTracker.Trigger.values()) {
+            if (ctx.reactions.getHistogram(trigger).getCount() > 0) {
+                System.out.println(ctx.reactions.format(trigger));
+            }
+        }
+        for (DropTableEstimator.NpcDrops npc : ctx.dropTable.getNpcs()) {
+            if (npc.getKills() > 0) {
+                System.out.println(ctx.dropTable.format(npc));
+            }
+        }
+        if (lootItemsTask != null && lootItemsTask.getPilesLooted() > 0) {
+            System.out.println(String.format(Locale.ROOT, "Loot: %d piles, %.1f ticks per pile",
+                    lootItemsTask.getPilesLooted(), lootItemsTask.getTicksPerPile()));
+        }
+        if (eatFoodTask != null && eatFoodTask.getMarginSamples() > 0) {
+            System.out.println(eatFoodTask.formatMargins());
+        }
         System.out.println("================================");
+        
+        // Let the tasks unregister from the context
+        ctx.reactions.setEatCondition(null);
+        super.onStop();
     }
     
     /**
@@ -83,17 +224,79 @@ public class CombatBot extends TaskScript {
      */
     public void incrementKillCount() {
         killCount++;
+        rates.record(RateTracker.Metric.KILLS, 1);
     }
 
     public int getKillCount() {
         return killCount;
     }
+
+    /**
+     * Gets the rolling rate tracker for kills, XP, loot and supplies
+     * 
+     * @return The rate tracker, never null; reset when the bot starts
+     */
+    public RateTracker getRates() {
+        return rates;
+    }
+    
+    /**
+     * Gets the task that records XP, supplies and loot for the progress report
+     * 
+     * @return The progress tracking task, never null; created on first use
+     *         and again when the bot starts
+     */
+    public ProgressTrackingTask getProgressTracking() {
+        if (progressTrackingTask == null) {
+            progressTrackingTask = new ProgressTrackingTask(this);
+        }
+        return progressTrackingTask;
+    }
+    
+    /**
+     * Creates a DPS calculator for the current levels, attack style and Piety
+     * 
+     * @return A calculator reflecting the player right now
+     */
+    public DpsCalculator createDpsCalculator() {
+        return new DpsCalculator(
+            ctx.skills.getBoostedLevel(Skill.ATTACK),
+            ctx.skills.getBoostedLevel(Skill.STRENGTH),
+            ctx.skills.getBoostedLevel(Skill.RANGED),
+            ctx.skills.getBoostedLevel(Skill.MAGIC),
+            ctx.combat.getAttackStyle(),
+            ctx.prayer.isPrayerActive(Prayer.Prayers.PIETY));
+    }
+    
+    /**
+     * Gets the expected kill times of the worn gear, one row, against every
+     * NPC with combat stats; also the place to time special attacks from
+     * 
+     * @return The table, computed again once the worn gear, levels, style
+     *         or Piety change
+     */
+    public KillTimeTable getKillTimes() {
+        ItemQuery worn = ctx.equipment.getItems();
+        DpsCalculator calculator = createDpsCalculator();
+        if (killTimes == null || worn != killTimesGear || !calculator.equals(killTimesCalculator)) {
+            killTimes = KillTimeTable.compute(calculator,
+                List.of(GearSet.ofItems("Worn", worn.results())),
+                NpcCombatStats.ids());
+            killTimesGear = worn;
+            killTimesCalculator = calculator;
+        }
+        return killTimes;
+    }
     
     // Getter methods for configuration variables
     public String[] getTargetNpcNames() {
         return targetNpcNames;
     }
     
+    public boolean isPreferFastestKill() {
+        return preferFastestKill;
+    }
+    
     public int getEatAtHealthPercent() {
         return eatAtHealthPercent;
     }
@@ -110,6 +313,30 @@ public class CombatBot extends TaskScript {
         return foodNames;
     }
     
+    public boolean isMinimizeOverheal() {
+        return minimizeOverheal;
+    }
+    
+    public boolean isPredictiveEating() {
+        return predictiveEating;
+    }
+    
+    public double getMaxDeathRisk() {
+        return maxDeathRisk;
+    }
+    
+    public int getDeathRiskTicks() {
+        return deathRiskTicks;
+    }
+    
+    public boolean isRouteLoot() {
+        return routeLoot;
+    }
+    
+    public boolean isManageInventorySpace() {
+        return manageInventorySpace;
+    }
+    
     public boolean isUsePrayer() {
         return usePrayer;
     }
@@ -118,6 +345,10 @@ public class CombatBot extends TaskScript {
         return prayerNames;
     }
     
+    public boolean isPrayerFlicking() {
+        return prayerFlicking;
+    }
+    
     public boolean isCheckEquipment() {
         return checkEquipment;
     }
@@ -125,28 +356,82 @@ public class CombatBot extends TaskScript {
     public boolean isUseAntiBan() {
         return useAntiBan;
     }
+    
+    public String getSafeSpotIndexFile() {
+        return safeSpotIndexFile;
+    }
+    
+    public String getRegionDataFile() {
+        return regionDataFile;
+    }
+    
+    public int getPotionBoostMargin() {
+        return potionBoostMargin;
+    }
+    
+    public String getChargesFile() {
+        return chargesFile;
+    }
+    
+    public String getTraceFile() {
+        return traceFile;
+    }
+    
+    public String getDropTableFile() {
+        return dropTableFile;
+    }
 
     // Setter methods to allow runtime customization
     public void setTargetNpcNames(String[] targetNpcNames) {
         this.targetNpcNames = targetNpcNames;
     }
 
+    public void setPreferFastestKill(boolean preferFastestKill) {
+        this.preferFastestKill = preferFastestKill;
+    }
+
     public void setEatAtHealthPercent(int eatAtHealthPercent) {
         this.eatAtHealthPercent = eatAtHealthPercent;
     }
 
     public void setUseSpecialAttack(boolean useSpecialAttack) {
         this.useSpecialAttack = useSpecialAttack;
+        ctx.reactions.setSpecThreshold(useSpecialAttack ? specialAttackEnergyThreshold : ReactionTracker.DISABLED);
     }
 
     public void setSpecialAttackEnergyThreshold(int specialAttackEnergyThreshold) {
         this.specialAttackEnergyThreshold = specialAttackEnergyThreshold;
+        ctx.reactions.setSpecThreshold(useSpecialAttack ? specialAttackEnergyThreshold : ReactionTracker.DISABLED);
     }
 
     public void setFoodNames(String[] foodNames) {
         this.foodNames = foodNames;
     }
 
+    public void setMinimizeOverheal(boolean minimizeOverheal) {
+        this.minimizeOverheal = minimizeOverheal;
+    }
+
+    public void setPredictiveEating(boolean predictiveEating) {
+        this.predictiveEating = predictiveEating;
+    }
+
+    public void setMaxDeathRisk(double maxDeathRisk) {
+        this.maxDeathRisk = maxDeathRisk;
+    }
+
+    public void setDeathRiskTicks(int deathRiskTicks) {
+        this.deathRiskTicks = deathRiskTicks;
+    }
+
+    public void setRouteLoot(boolean routeLoot) {
+        this.routeLoot = routeLoot;
+    }
+
+    public void setManageInventorySpace(boolean manageInventorySpace) {
+        this.manageInventorySpace = manageInventorySpace;
+    }
+
     public void setUsePrayer(boolean usePrayer) {
         this.usePrayer = usePrayer;
     }
@@ -155,6 +440,10 @@ public class CombatBot extends TaskScript {
         this.prayerNames = prayerNames;
     }
 
+    public void setPrayerFlicking(boolean prayerFlicking) {
+        this.prayerFlicking = prayerFlicking;
+    }
+
     public void setCheckEquipment(boolean checkEquipment) {
         this.checkEquipment = checkEquipment;
     }
@@ -162,4 +451,28 @@ public class CombatBot extends TaskScript {
     public void setUseAntiBan(boolean useAntiBan) {
         this.useAntiBan = useAntiBan;
     }
+
+    public void setSafeSpotIndexFile(String safeSpotIndexFile) {
+        this.safeSpotIndexFile = safeSpotIndexFile;
+    }
+
+    public void setRegionDataFile(String regionDataFile) {
+        this.regionDataFile = regionDataFile;
+    }
+
+    public void setPotionBoostMargin(int potionBoostMargin) {
+        this.potionBoostMargin = potionBoostMargin;
+    }
+
+    public void setChargesFile(String chargesFile) {
+        this.chargesFile = chargesFile;
+    }
+
+    public void setTraceFile(String traceFile) {
+        this.traceFile = traceFile;
+    }
+
+    public void setDropTableFile(String dropTableFile) {
+        this.dropTableFile = dropTableFile;
+    }
 }
@@ -2,7 +2,7 @@ package rs.kreme.ksbot.api.scripts.combatbot;
 
 import java.util.List;
 import rs.kreme.ksbot.api.game.Combat;
-import rs.kreme.ksbot.api.wrappers.KSGroundItem;
+import rs.kreme.ksbot.api.game.Skill;
 import rs.kreme.ksbot.api.wrappers.KSItem;
 import rs.kreme.ksbot.api.wrappers.KSNPC;
 
@@ -41,10 +41,8 @@ public final class CombatBotRunner {
         bot.runLoop(2);
 
         // Stage 4: drop loot and let the looting task handle it
-        bot.ctx.groundItems.setItems(List.of(
-                new KSGroundItem("Rune scimitar"),
-                new KSGroundItem("Dragon bones")
-        ));
+        bot.ctx.groundItems.addItem("Rune scimitar", 3202, 3201, 1);
+        bot.ctx.groundItems.addItem("Dragon bones", 3204, 3198, 1);
         bot.runLoop(1);
 
         bot.onStop();
@@ -66,6 +64,11 @@ public final class CombatBotRunner {
                 new KSNPC("Cow", 3)
         ));
 
+        bot.ctx.skills.setLevel(Skill.ATTACK, 70);
+        bot.ctx.skills.setLevel(Skill.STRENGTH, 75);
+        bot.ctx.skills.setLevel(Skill.DEFENCE, 70);
+        bot.ctx.skills.setLevel(Skill.HITPOINTS, 72);
+
         bot.ctx.inventory.setItems(List.of(
                 new KSItem("Lobster"),
                 new KSItem("Lobster"),
@@ -74,7 +77,7 @@ public final class CombatBotRunner {
         ));
 
         bot.ctx.equipment.setItems(List.of(
-                new KSItem("Barrows chestplate degraded")
+                new KSItem("Dharok's platebody")
         ));
         bot.ctx.groundItems.setItems(List.of());
     }
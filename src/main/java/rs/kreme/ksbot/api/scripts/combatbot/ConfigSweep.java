@@ -0,0 +1,748 @@
+package rs.kreme.ksbot.api.scripts.combatbot;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import rs.kreme.ksbot.api.game.Combat;
+import rs.kreme.ksbot.api.game.GameClock;
+import rs.kreme.ksbot.api.game.ItemDefinitions;
+import rs.kreme.ksbot.api.game.NpcDefinitions;
+import rs.kreme.ksbot.api.game.Prayer;
+import rs.kreme.ksbot.api.game.Skill;
+import rs.kreme.ksbot.api.scripts.task.Task;
+import rs.kreme.ksbot.api.scripts.task.TaskScript.GroundItemsClient;
+import rs.kreme.ksbot.api.scripts.task.TaskScript.InventoryClient;
+import rs.kreme.ksbot.api.wrappers.KSGroundItem;
+import rs.kreme.ksbot.api.wrappers.KSItem;
+import rs.kreme.ksbot.api.wrappers.KSNPC;
+
+/**
+ * Offline tool that searches {@link CombatBot} settings for the best preset.
+ * <p>
+ * Every configuration runs the real bot, with all of its tasks, through the
+ * same seeded sessions of a headless world in virtual time. The world moves
+ * a tick at a time: NPCs of every {@link NpcDefinitions} type spawn in a
+ * field, fight back at their attack speed and max hit, drop loot from a
+ * small table when they die and respawn; the player hits on a four-tick
+ * weapon, with a double-hit special attack for 25% energy. The bot steps
+ * whenever its last task's delay has passed, and the world applies what
+ * the task did: attacks engage the NPC, meals heal and leave the
+ * inventory, loot moves into the inventory. Protection prayers block NPC
+ * hits while points last. Once the food is gone and health is down to the
+ * eating threshold the player banks, which takes {@value #BANK_TRIP_TICKS}
+ * ticks and restores food, health and prayer. A session ends at death or
+ * after its ticks; the rest of a session counts for nothing, so dying is
+ * expensive.
+ * <p>
+ * Configurations come from a full grid over eating threshold, special
+ * attack use and threshold, prayer, food and targets, or from a seeded
+ * random search over the same ranges. They are evaluated in parallel on a
+ * {@link ForkJoinPool}, one configuration per leaf task, and ranked by net
+ * gp per hour (loot minus the food eaten), kills per hour, gp per hour or
+ * supplies per hour; the best one is printed as setter calls.
+ * <p>
+ * Usage: {@code ConfigSweep [--random <configs>] [--sessions <n>]
+ * [--rank net|kills|gp|supplies] [--seed <seed>]}.
+ */
+public final class ConfigSweep {
+
+    public enum Rank {
+        NET,
+        KILLS,
+        GP,
+        SUPPLIES
+    }
+
+    /**
+     * One combination of the swept settings.
+     */
+    public static final class Config {
+        private final int eatAtHealthPercent;
+        private final boolean useSpecialAttack;
+        private final int specialAttackEnergyThreshold;
+        private final boolean usePrayer;
+        private final String[] foodNames;
+        private final String[] targetNpcNames;
+
+        public Config(int eatAtHealthPercent, boolean useSpecialAttack, int specialAttackEnergyThreshold,
+                      boolean usePrayer, String[] foodNames, String[] targetNpcNames) {
+            this.eatAtHealthPercent = eatAtHealthPercent;
+            this.useSpecialAttack = useSpecialAttack;
+            this.specialAttackEnergyThreshold = specialAttackEnergyThreshold;
+            this.usePrayer = usePrayer;
+            this.foodNames = foodNames;
+            this.targetNpcNames = targetNpcNames;
+        }
+
+        /**
+         * Applies the settings to a bot that has not started yet.
+         */
+        public void apply(CombatBot bot) {
+            bot.setEatAtHealthPercent(eatAtHealthPercent);
+            bot.setUseSpecialAttack(useSpecialAttack);
+            bot.setSpecialAttackEnergyThreshold(specialAttackEnergyThreshold);
+            bot.setUsePrayer(usePrayer);
+            bot.setFoodNames(foodNames);
+            bot.setTargetNpcNames(targetNpcNames);
+        }
+
+        /**
+         * The settings as setter calls on a {@code bot} variable.
+         */
+        public String toPreset() {
+            return "bot.setTargetNpcNames(" + arrayLiteral(targetNpcNames) + ");\n"
+                    + "bot.setFoodNames(" + arrayLiteral(foodNames) + ");\n"
+                    + "bot.setEatAtHealthPercent(" + eatAtHealthPercent + ");\n"
+                    + "bot.setUseSpecialAttack(" + useSpecialAttack + ");\n"
+                    + "bot.setSpecialAttackEnergyThreshold(" + specialAttackEnergyThreshold + ");\n"
+                    + "bot.setUsePrayer(" + usePrayer + ");";
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "eat %2d%% | spec %-4s | prayer %-3s | food %-17s | %s",
+                    eatAtHealthPercent, useSpecialAttack ? specialAttackEnergyThreshold + "%" : "off",
+                    usePrayer ? "on" : "off", String.join("/", foodNames), String.join("/", targetNpcNames));
+        }
+
+        private static String arrayLiteral(String[] values) {
+            StringBuilder literal = new StringBuilder("new String[]{");
+            for (int i = 0; i < values.length; i++) {
+                literal.append(i == 0 ? "\"" : ", \"").append(values[i]).append('"');
+            }
+            return literal.append('}').toString();
+        }
+    }
+
+    /**
+     * What a configuration achieved, per hour of session time.
+     */
+    public static final class Result {
+        private final Config config;
+        private final double killsPerHour;
+        private final double gpPerHour;
+        private final double suppliesPerHour;
+        private final int deaths;
+
+        Result(Config config, double killsPerHour, double gpPerHour, double suppliesPerHour, int deaths) {
+            this.config = config;
+            this.killsPerHour = killsPerHour;
+            this.gpPerHour = gpPerHour;
+            this.suppliesPerHour = suppliesPerHour;
+            this.deaths = deaths;
+        }
+
+        public Config getConfig() {
+            return config;
+        }
+
+        public double getKillsPerHour() {
+            return killsPerHour;
+        }
+
+        public double getGpPerHour() {
+            return gpPerHour;
+        }
+
+        /**
+         * Gp value of the food eaten per hour.
+         */
+        public double getSuppliesPerHour() {
+            return suppliesPerHour;
+        }
+
+        public double getNetGpPerHour() {
+            return gpPerHour - suppliesPerHour;
+        }
+
+        public int getDeaths() {
+            return deaths;
+        }
+    }
+
+    private static final int DEFAULT_SESSIONS = 4;
+    private static final int SESSION_TICKS = 3_000;
+    private static final long DEFAULT_SEED = 49L;
+    private static final int TOP_RESULTS = 10;
+
+    // The player
+    private static final int PLAYER_LEVEL = 60;
+    private static final int PRAYER_POINTS = 60;
+    private static final int FOOD_SLOTS = 20;
+    private static final int WEAPON_SPEED_TICKS = 4;
+    private static final int SPEC_COST = 25;
+    private static final int SPEC_REGEN_TICKS = 50;
+    private static final int SPEC_REGEN = 10;
+    private static final int BANK_TRIP_TICKS = 300;
+
+    // The field
+    private static final int FIELD_X = 3200;
+    private static final int FIELD_Y = 3200;
+    private static final int SPAWNS_PER_TYPE = 3;
+    private static final int RESPAWN_TICKS = 25;
+    private static final int DESPAWN_TICKS = 100;
+    private static final String[] NPC_NAMES = {"Chicken", "Cow", "Goblin", "Hill Giant", "Lesser demon"};
+
+    // Drop tables per NPC name: item, chance in percent, smallest and largest stack
+    private static final Object[][][] DROPS = {
+        {{"Bones", 100, 1, 1}},
+        {{"Bones", 100, 1, 1}},
+        {{"Bones", 100, 1, 1}, {"Coins", 50, 1, 20}},
+        {{"Big bones", 100, 1, 1}, {"Coins", 5, 500, 1_500}, {"Nature rune", 5, 5, 10}},
+        {{"Coins", 40, 200, 2_000}, {"Death rune", 10, 5, 10}, {"Rune full helm", 2, 1, 1},
+            {"Rune scimitar", 1, 1, 1}},
+    };
+
+    // Grid axes; random search draws from the same ranges
+    private static final int[] EAT_AT = {30, 40, 50, 60, 70};
+    private static final int[] SPEC_AT = {25, 50, 75, 100};
+    private static final String[][] FOODS = {{"Lobster"}, {"Swordfish"}, {"Shark"}};
+    private static final String[][] TARGETS = {{"Goblin"}, {"Hill Giant"}, {"Lesser demon"}, {"Goblin", "Hill Giant"}};
+
+    private final List<Config> configs;
+    private final int sessions;
+    private final long seed;
+
+    public ConfigSweep(List<Config> configs, int sessions, long seed) {
+        this.configs = configs;
+        this.sessions = sessions;
+        this.seed = seed;
+    }
+
+    /**
+     * Every combination of the grid axes; special attack thresholds only with special attacks on.
+     */
+    public static List<Config> grid() {
+        List<Config> grid = new ArrayList<>();
+        for (String[] targets : TARGETS) {
+            for (String[] food : FOODS) {
+                for (int eatAt : EAT_AT) {
+                    for (boolean prayer : new boolean[]{false, true}) {
+                        grid.add(new Config(eatAt, false, 100, prayer, food, targets));
+                        for (int specAt : SPEC_AT) {
+                            grid.add(new Config(eatAt, true, specAt, prayer, food, targets));
+                        }
+                    }
+                }
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Configurations drawn at random from the grid ranges, with any eating
+     * threshold from 20% to 80% and special attack thresholds in steps of 5%.
+     */
+    public static List<Config> randomSearch(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Config> configs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            configs.add(new Config(20 + random.nextInt(61), random.nextBoolean(), 25 + 5 * random.nextInt(16),
+                    random.nextBoolean(), FOODS[random.nextInt(FOODS.length)],
+                    TARGETS[random.nextInt(TARGETS.length)]));
+        }
+        return configs;
+    }
+
+    /**
+     * Evaluates every configuration on the common fork-join pool.
+     *
+     * @return Results in configuration order
+     */
+    public Result[] run() {
+        return run(ForkJoinPool.commonPool());
+    }
+
+    public Result[] run(ForkJoinPool pool) {
+        Result[] results = new Result[configs.size()];
+        pool.invoke(new ConfigRange(results, 0, configs.size()));
+        return results;
+    }
+
+    /**
+     * Sorts results best first.
+     */
+    public static void rank(Result[] results, Rank rank) {
+        Comparator<Result> order;
+        switch (rank) {
+            case KILLS:
+                order = Comparator.comparingDouble(Result::getKillsPerHour).reversed();
+                break;
+            case GP:
+                order = Comparator.comparingDouble(Result::getGpPerHour).reversed();
+                break;
+            case SUPPLIES:
+                order = Comparator.comparingDouble(Result::getSuppliesPerHour);
+                break;
+            default:
+                order = Comparator.comparingDouble(Result::getNetGpPerHour).reversed();
+                break;
+        }
+        Arrays.sort(results, Comparator.comparingInt(Result::getDeaths).thenComparing(order));
+    }
+
+    /**
+     * Runs one configuration through every session.
+     */
+    private Result evaluate(Config config) {
+        long kills = 0;
+        long loot = 0;
+        long supplies = 0;
+        int deaths = 0;
+        for (int session = 0; session < sessions; session++) {
+            Session world = new Session(config, seed + session);
+            world.play();
+            kills += world.kills;
+            loot += world.loot;
+            supplies += world.supplies;
+            deaths += world.dead ? 1 : 0;
+        }
+        double hours = (double) sessions * SESSION_TICKS * GameClock.TICK_MILLIS / 3_600_000;
+        return new Result(config, kills / hours, loot / hours, supplies / hours, deaths);
+    }
+
+    /**
+     * One seeded session of one configuration.
+     */
+    private static final class Session {
+        private final CombatBot bot = new CombatBot();
+        private final SplittableRandom random;
+        private final Combat combat;
+        private final Prayer prayer;
+        private final InventoryClient inventory;
+        private final GroundItemsClient ground;
+        private final Config config;
+
+        // NPC hitpoints by store slot, and respawns as tick / type pairs
+        private int[] npcHealth = new int[16];
+        private final List<int[]> respawns = new ArrayList<>();
+        private final List<int[]> drops = new ArrayList<>();
+        private int targetSlot = -1;
+        private int nextPlayerHit;
+        private int nextNpcHit;
+
+        private EatFoodTask eatFoodTask;
+        private LootItemsTask lootItemsTask;
+        private InventorySpaceTask inventorySpaceTask;
+
+        private long kills;
+        private long loot;
+        private long supplies;
+        private boolean dead;
+
+        Session(Config config, long seed) {
+            this.random = new SplittableRandom(seed);
+            this.combat = bot.ctx.combat;
+            this.prayer = bot.ctx.prayer;
+            this.inventory = bot.ctx.inventory;
+            this.ground = bot.ctx.groundItems;
+            this.config = config;
+            config.apply(bot);
+            bot.setCheckEquipment(false);
+            bot.setUseAntiBan(false);
+            bot.ctx.random.setSeed(seed);
+            bot.ctx.clock.setVirtualTime(0);
+            for (Skill skill : new Skill[]{Skill.ATTACK, Skill.STRENGTH, Skill.DEFENCE, Skill.HITPOINTS}) {
+                bot.ctx.skills.setLevel(skill, PLAYER_LEVEL);
+            }
+            combat.setSpecEnergy(100);
+            restock();
+            combat.setAttackableNpcs(List.of());
+            for (int type = 0; type < NPC_NAMES.length; type++) {
+                for (int i = 0; i < SPAWNS_PER_TYPE; i++) {
+                    spawn(type);
+                }
+            }
+        }
+
+        void play() {
+            bot.onStart();
+            for (Task task : bot.getTasks()) {
+                if (task instanceof EatFoodTask) {
+                    eatFoodTask = (EatFoodTask) task;
+                } else if (task instanceof LootItemsTask) {
+                    lootItemsTask = (LootItemsTask) task;
+                } else if (task instanceof InventorySpaceTask) {
+                    inventorySpaceTask = (InventorySpaceTask) task;
+                }
+            }
+            int nextStep = 0;
+            for (int tick = 0; tick < SESSION_TICKS && !dead; tick++) {
+                fight(tick);
+                if (dead) {
+                    break;
+                }
+                respawn(tick);
+                despawn(tick);
+                if (tick % SPEC_REGEN_TICKS == 0 && combat.getSpecEnergy() < 100) {
+                    combat.setSpecEnergy(Math.min(100, combat.getSpecEnergy() + SPEC_REGEN));
+                }
+                prayer.tick();
+                if (tick >= nextStep) {
+                    nextStep = tick + step();
+                }
+                if (!combat.inCombat() && bot.ctx.consumables.getFoodCount() == 0
+                        && combat.getHealthPercent() <= config.eatAtHealthPercent) {
+                    restock();
+                    tick += BANK_TRIP_TICKS;
+                    nextStep = tick + 1;
+                    bot.ctx.clock.advance(BANK_TRIP_TICKS * GameClock.TICK_MILLIS);
+                }
+                bot.ctx.clock.advance(GameClock.TICK_MILLIS);
+            }
+        }
+
+        /**
+         * Fills the inventory with food and restores health and prayer, as a bank trip does.
+         */
+        private void restock() {
+            setHealth(PLAYER_LEVEL);
+            prayer.setPrayerPoints(PRAYER_POINTS);
+            List<KSItem> food = new ArrayList<>(FOOD_SLOTS);
+            for (int i = 0; i < FOOD_SLOTS; i++) {
+                food.add(new KSItem(config.foodNames[i % config.foodNames.length]));
+            }
+            inventory.setItems(food);
+            ground.setItems(List.of());
+            drops.clear();
+        }
+
+        /**
+         * Lets the bot decide once and applies the outcome.
+         *
+         * @return Ticks until the bot decides again
+         */
+        private int step() {
+            boolean wasInCombat = combat.inCombat();
+            int looted = lootItemsTask.getPilesLooted();
+            int evictions = inventorySpaceTask == null ? 0 : inventorySpaceTask.getEvictions();
+            KSItem lastFood = eatFoodTask.getLastFood();
+            int delay = bot.step();
+            int decision = bot.getLastDecision();
+            Task task = decision < 0 ? null : bot.getTasks().get(decision);
+
+            if (task instanceof AttackNpcTask && !wasInCombat) {
+                KSNPC target = combat.findAttackableNPC(bot.getTargetNpcNames());
+                if (target != null) {
+                    targetSlot = target.getSlot();
+                    combat.setInCombat(true);
+                    nextPlayerHit = 1;
+                    nextNpcHit = 1 + random.nextInt(speedOf(targetSlot));
+                }
+            } else if (task == eatFoodTask && eatFoodTask.getLastFood() != lastFood) {
+                eat(eatFoodTask.getLastFood());
+                eat(eatFoodTask.getLastCombo());
+            } else if (task == lootItemsTask && lootItemsTask.getPilesLooted() != looted) {
+                KSGroundItem pile = lootItemsTask.getLastLooted();
+                if (pile.isValid() && inventory.canHold(ItemDefinitions.idOf(pile.getName()))) {
+                    inventory.addItem(new KSItem(pile.getName(), pile.getQuantity()));
+                    loot += (long) ItemDefinitions.priceOf(ItemDefinitions.idOf(pile.getName()))
+                            * Math.max(1, pile.getQuantity());
+                    ground.removeItem(pile.getSlot());
+                }
+            } else if (task != null && task == inventorySpaceTask && inventorySpaceTask.getEvictions() != evictions) {
+                KSItem evicted = inventorySpaceTask.getLastEvicted();
+                if ("Eat".equals(inventorySpaceTask.getLastAction())) {
+                    eat(evicted);
+                } else {
+                    inventory.removeItem(inventory.indexOf(evicted));
+                }
+            }
+            return delay < 0 ? 1 : Math.max(1, (int) ((delay + GameClock.TICK_MILLIS - 1) / GameClock.TICK_MILLIS));
+        }
+
+        /**
+         * Trades hits with the engaged NPC.
+         */
+        private void fight(int tick) {
+            if (targetSlot < 0) {
+                return;
+            }
+            int id = NpcDefinitions.idOf(nameOf(targetSlot));
+            if (--nextPlayerHit <= 0) {
+                nextPlayerHit = WEAPON_SPEED_TICKS;
+                int level = NpcDefinitions.combatLevelOf(id);
+                int damage;
+                if (combat.isSpecEnabled() && combat.getSpecEnergy() >= SPEC_COST) {
+                    combat.setSpecEnergy(combat.getSpecEnergy() - SPEC_COST);
+                    combat.setSpecEnabled(false);
+                    damage = playerHit(level, 0.25, 1.15) + playerHit(level, 0.25, 1.15);
+                } else {
+                    combat.setSpecEnabled(false);
+                    damage = playerHit(level, 0, 1);
+                }
+                combat.hitDealt(damage);
+                npcHealth[targetSlot] -= damage;
+                if (npcHealth[targetSlot] <= 0) {
+                    kill(tick);
+                    return;
+                }
+            }
+            if (--nextNpcHit <= 0) {
+                nextNpcHit = speedOf(targetSlot);
+                int damage = chance(0.5 + (NpcDefinitions.combatLevelOf(id) - PLAYER_LEVEL) / 200.0)
+                        ? random.nextInt(NpcDefinitions.maxHitOf(id) + 1) : 0;
+                if (prayer.isPrayerActive(Prayer.Prayers.PROTECT_FROM_MELEE)) {
+                    damage = 0;
+                }
+                combat.hitTaken(targetSlot, damage);
+                setHealth(combat.getCurrentHealth() - damage);
+                dead = combat.getCurrentHealth() <= 0;
+            }
+        }
+
+        private int playerHit(int npcLevel, double accuracyBonus, double damageBonus) {
+            if (!chance(0.5 + accuracyBonus + (PLAYER_LEVEL - npcLevel) / 200.0)) {
+                return 0;
+            }
+            return (int) (random.nextInt(1 + PLAYER_LEVEL / 5 + 1) * damageBonus);
+        }
+
+        private void kill(int tick) {
+            int slot = targetSlot;
+            int type = typeOf(slot);
+            KSNPC npc = new KSNPC(combat.getNpcStore(), slot);
+            for (Object[] drop : DROPS[type]) {
+                if (random.nextInt(100) < (int) drop[1]) {
+                    int quantity = random.nextInt((int) drop[2], (int) drop[3] + 1);
+                    int pile = ground.addItem((String) drop[0], npc.getX(), npc.getY(), quantity);
+                    drops.add(new int[]{pile, ground.getStore().generation(pile), tick});
+                }
+            }
+            combat.removeAttackableNpc(slot);
+            combat.setInCombat(false);
+            combat.setSpecEnabled(false);
+            targetSlot = -1;
+            respawns.add(new int[]{tick + RESPAWN_TICKS, type});
+            kills++;
+        }
+
+        private void spawn(int type) {
+            String name = NPC_NAMES[type];
+            int id = NpcDefinitions.idOf(name);
+            int slot = combat.addAttackableNpc(name, NpcDefinitions.combatLevelOf(id),
+                    FIELD_X + random.nextInt(-6, 7), FIELD_Y + random.nextInt(-6, 7), NpcDefinitions.hitpointsOf(id));
+            if (slot >= npcHealth.length) {
+                npcHealth = Arrays.copyOf(npcHealth, Math.max(slot + 1, npcHealth.length * 2));
+            }
+            npcHealth[slot] = NpcDefinitions.hitpointsOf(id);
+        }
+
+        private void respawn(int tick) {
+            while (!respawns.isEmpty() && respawns.get(0)[0] <= tick) {
+                spawn(respawns.remove(0)[1]);
+            }
+        }
+
+        private void despawn(int tick) {
+            while (!drops.isEmpty() && drops.get(0)[2] + DESPAWN_TICKS <= tick) {
+                int[] drop = drops.remove(0);
+                if (ground.getStore().isLive(drop[0]) && ground.getStore().generation(drop[0]) == drop[1]) {
+                    ground.removeItem(drop[0]);
+                }
+            }
+        }
+
+        private void eat(KSItem food) {
+            if (food == null) {
+                return;
+            }
+            int index = inventory.indexOf(food);
+            if (index < 0) {
+                return;
+            }
+            inventory.removeItem(index);
+            supplies += ItemDefinitions.priceOf(food.getId());
+            setHealth(Math.min(PLAYER_LEVEL, combat.getCurrentHealth() + ItemDefinitions.healOf(food.getId())));
+        }
+
+        private void setHealth(int health) {
+            combat.setCurrentHealth(health);
+            combat.setHealthPercent(Math.max(0, health) * 100 / PLAYER_LEVEL);
+        }
+
+        private boolean chance(double probability) {
+            return random.nextDouble() < Math.max(0.05, Math.min(0.95, probability));
+        }
+
+        private String nameOf(int slot) {
+            return combat.getNpcStore().nameOf(combat.getNpcStore().id(slot));
+        }
+
+        private int typeOf(int slot) {
+            String name = nameOf(slot);
+            for (int type = 0; type < NPC_NAMES.length; type++) {
+                if (NPC_NAMES[type].equals(name)) {
+                    return type;
+                }
+            }
+            throw new IllegalStateException("No drop table for " + name);
+        }
+
+        private int speedOf(int slot) {
+            return Math.max(1, NpcDefinitions.attackSpeedOf(NpcDefinitions.idOf(nameOf(slot))));
+        }
+    }
+
+    /**
+     * Evaluates a range of configurations, splitting down to one per task.
+     */
+    private final class ConfigRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Result[] results;
+        private final int from;
+        private final int to;
+
+        ConfigRange(Result[] results, int from, int to) {
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (from < to) {
+                    results[from] = evaluate(configs.get(from));
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ConfigRange(results, from, mid), new ConfigRange(results, mid, to));
+        }
+    }
+
+    /**
+     * Discards everything printed to it without taking the stream lock, so
+     * the bots' console output does not serialize the pool's workers.
+     */
+    private static final class DiscardingPrintStream extends PrintStream {
+
+        DiscardingPrintStream() {
+            super(OutputStream.nullOutputStream());
+        }
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] buf, int off, int len) {
+        }
+
+        @Override
+        public void print(String s) {
+        }
+
+        @Override
+        public void print(Object obj) {
+        }
+
+        @Override
+        public void println() {
+        }
+
+        @Override
+        public void println(String x) {
+        }
+
+        @Override
+        public void println(Object x) {
+        }
+
+        @Override
+        public PrintStream printf(String format, Object... args) {
+            return this;
+        }
+
+        @Override
+        public PrintStream printf(Locale l, String format, Object... args) {
+            return this;
+        }
+
+        @Override
+        public PrintStream format(String format, Object... args) {
+            return this;
+        }
+
+        @Override
+        public PrintStream format(Locale l, String format, Object... args) {
+            return this;
+        }
+    }
+
+    public static void main(String[] args) {
+        int randomConfigs = 0;
+        int sessions = DEFAULT_SESSIONS;
+        long seed = DEFAULT_SEED;
+        Rank rank = Rank.NET;
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException("Missing value for " + args[i]);
+                }
+                switch (args[i]) {
+                    case "--random":
+                        randomConfigs = Integer.parseInt(args[i + 1]);
+                        break;
+                    case "--sessions":
+                        sessions = Integer.parseInt(args[i + 1]);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(args[i + 1]);
+                        break;
+                    case "--rank":
+                        rank = Rank.valueOf(args[i + 1].toUpperCase(Locale.ROOT));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            System.out.println("Usage: ConfigSweep [--random <configs>] [--sessions <n>] "
+                    + "[--rank net|kills|gp|supplies] [--seed <seed>]");
+            System.exit(1);
+            return;
+        }
+
+        List<Config> configs = randomConfigs > 0 ? randomSearch(randomConfigs, seed) : grid();
+        ConfigSweep sweep = new ConfigSweep(configs, sessions, seed);
+        // The bots print as they go; silence them for the sweep
+        PrintStream out = System.out;
+        System.setOut(new DiscardingPrintStream());
+        long start = System.nanoTime();
+        Result[] results;
+        try {
+            results = sweep.run();
+        } finally {
+            System.setOut(out);
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        rank(results, rank);
+
+        System.out.printf(Locale.ROOT, "=== Config sweep: %,d %s configs x %d sessions of %,d ticks, %,d ms on %d threads ===%n",
+                configs.size(), randomConfigs > 0 ? "random" : "grid", sessions, SESSION_TICKS, millis,
+                ForkJoinPool.commonPool().getParallelism());
+        System.out.println("Ranked by " + rank.name().toLowerCase(Locale.ROOT) + ", configs that died last");
+        for (int i = 0; i < Math.min(TOP_RESULTS, results.length); i++) {
+            Result result = results[i];
+            System.out.printf(Locale.ROOT, "%2d. %,8.0f net gp/hr | %,8.0f gp/hr | %,7.0f supplies/hr | %5.1f kills/hr "
+                            + "| %d deaths | %s%n",
+                    i + 1, result.getNetGpPerHour(), result.getGpPerHour(), result.getSuppliesPerHour(),
+                    result.getKillsPerHour(), result.getDeaths(), result.getConfig());
+        }
+        System.out.println("Best preset:");
+        for (String line : results[0].getConfig().toPreset().split("\n")) {
+            System.out.println("    " + line);
+        }
+    }
+}
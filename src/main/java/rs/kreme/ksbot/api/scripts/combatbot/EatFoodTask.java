@@ -3,51 +3,120 @@ package rs.kreme.ksbot.api.scripts.combatbot;
 import rs.kreme.ksbot.api.scripts.task.Task;
 import rs.kreme.ksbot.api.game.Combat;
 import rs.kreme.ksbot.api.game.Consumables;
+import rs.kreme.ksbot.api.game.DamageEstimator;
+import rs.kreme.ksbot.api.game.ItemDefinitions;
+import rs.kreme.ksbot.api.game.Skill;
 import rs.kreme.ksbot.api.wrappers.KSItem;
 import rs.kreme.ksbot.api.queries.ItemQuery;
 
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * EatFoodTask - Responsible for monitoring health and eating food when necessary
  * 
  * This task handles:
- * 1. Monitoring player health
+ * 1. Monitoring player health and the damage coming in
  * 2. Finding food in the inventory
  * 3. Eating food when health is below the configured threshold
  * 4. Providing warnings when food supply is low
+ * 
+ * The configured food names are resolved to item ids once; how much food
+ * is left is read from the {@link Consumables} counters, which follow the
+ * inventory, so checking for food never scans the inventory.
+ * 
+ * Which food to eat comes from a {@link FoodSelector} table over the foods
+ * present and the hitpoints missing: the meal that heals closest to full
+ * without overhealing, a karambwan combo included. With overheal
+ * minimization turned off the first configured food found is eaten.
+ * 
+ * While under attack, the task eats when a {@link DamageEstimator} puts the
+ * chance of dying within the next few ticks above the bot's limit rather
+ * than at a fixed health percentage; out of combat the percentage applies.
+ * For every meal eaten under attack the ticks the expected damage would
+ * take to kill us are counted, giving a histogram of the margin eating
+ * left.
  */
 public class EatFoodTask extends Task {
     
     private final CombatBot bot;
     private final Combat combat;
     private final Consumables consumables;
+    private final DamageEstimator damage;
+    
+    // Longest time-to-death margin the histogram tells apart, in ticks
+    private static final int MAX_MARGIN_TICKS = 16;
+    
+    // Meals eaten under attack by ticks to expected death (last bucket: that many or more)
+    private final int[] marginCounts = new int[MAX_MARGIN_TICKS + 1];
+    private int marginSamples;
+    
+    // Configured foods, resolved while the bot keeps the same name array
+    private String[] resolvedNames;
+    private int[] foodIds = new int[0];
+    private FoodSelector selector = FoodSelector.of(foodIds);
+    
+    // What the last execution ate (combo is null for a single food)
+    private KSItem lastFood;
+    private KSItem lastCombo;
     
     public EatFoodTask(CombatBot bot) {
         this.bot = bot;
         this.combat = bot.ctx.combat;
         this.consumables = bot.ctx.consumables;
+        this.damage = new DamageEstimator(bot.ctx.clock);
+        combat.addListener(damage);
     }
     
     @Override
     public boolean validate() {
         // This task should run when:
-        // 1. Our health is below the eating threshold
+        // 1. Under attack, the chance of dying before we could eat again is too high;
+        //    otherwise, our health is below the eating threshold
         // 2. We have food in our inventory
-        return combat.getHealthPercent() <= bot.getEatAtHealthPercent() && 
+        return needsFood() && 
                hasFood();
     }
     
     @Override
     public int execute() {
-        // Find food in our inventory
-        KSItem food = findFood();
+        // Pick what to eat and find it in our inventory
+        KSItem food = null;
+        KSItem combo = null;
+        if (bot.isMinimizeOverheal()) {
+            resolveFoodIds();
+            int deficit = bot.ctx.skills.getLevel(Skill.HITPOINTS) - combat.getCurrentHealth();
+            int meal = selector.select(presentFoodMask(), deficit);
+            food = findFood(selector.firstId(meal));
+            combo = findFood(selector.comboId(meal));
+        }
+        if (food == null) {
+            food = findFood();
+            combo = null;
+        }
+        lastFood = food;
+        lastCombo = combo;
+        
+        // Remember how much time we had left
+        if (food != null && damage.isUnderAttack()) {
+            marginCounts[damage.ticksUntilDeath(combat.getCurrentHealth(), MAX_MARGIN_TICKS)]++;
+            marginSamples++;
+        }
         
         if (food != null) {
             // If we found food, eat it
-            System.out.println("Eating: " + food.getName() + " - Current health: " + 
+            System.out.println("Eating: " + food.getName() + (combo != null ? " + " + combo.getName() : "") + 
+                              " - Current health: " + 
                               combat.getCurrentHealth() + " (" + combat.getHealthPercent() + "%)");
             
-            // Interact with the food item to eat it
+            // Interact with the food item to eat it, and the combo food in the same tick
             food.interact("Eat");
+            bot.ctx.reactions.mealEaten();
+            bot.getProgressTracking().recordFoodConsumed();
+            if (combo != null) {
+                combo.interact("Eat");
+                bot.getProgressTracking().recordFoodConsumed();
+            }
             
             // Check if we're running low on food (less than 3 pieces left)
             int foodCount = countFood();
@@ -64,13 +133,25 @@ public class EatFoodTask extends Task {
         return 600;
     }
     
+    /**
+     * Checks if it is time to eat; also the bot's eat condition for reaction times
+     * 
+     * @return true if we should eat, false otherwise
+     */
+    boolean needsFood() {
+        if (bot.isPredictiveEating() && damage.isUnderAttack()) {
+            return damage.deathRisk(combat.getCurrentHealth(), bot.getDeathRiskTicks()) > bot.getMaxDeathRisk();
+        }
+        return combat.getHealthPercent() <= bot.getEatAtHealthPercent();
+    }
+    
     /**
      * Checks if we have any food in our inventory
      * 
      * @return true if food is found, false otherwise
      */
     private boolean hasFood() {
-        return findFood() != null;
+        return countFood() > 0;
     }
     
     /**
@@ -79,14 +160,129 @@ public class EatFoodTask extends Task {
      * @return The number of food items
      */
     private int countFood() {
-        // Get the list of food names
+        int[] ids = resolveFoodIds();
+        int count = 0;
+        for (int id : ids) {
+            count += consumables.getCount(id);
+        }
+        return count;
+    }
+    
+    /**
+     * Resolves the configured food names to item ids, again only when the
+     * bot's name array changes
+     * 
+     * @return The configured food ids
+     */
+    private int[] resolveFoodIds() {
         String[] foodNames = bot.getFoodNames();
-        
-        // Search inventory for items matching our food names
-        ItemQuery query = bot.ctx.inventory.getItems(foodNames);
-        
-        // Return the count of food items
-        return query.results().size();
+        if (foodNames != resolvedNames) {
+            int[] ids = new int[foodNames.length];
+            int count = 0;
+            for (String foodName : foodNames) {
+                int id = ItemDefinitions.idOf(foodName);
+                if (!Consumables.isFood(id)) {
+                    System.out.println("WARNING: Unrecognized food name: " + foodName);
+                } else {
+                    ids[count++] = id;
+                }
+            }
+            foodIds = Arrays.copyOf(ids, count);
+            selector = FoodSelector.of(foodIds);
+            resolvedNames = foodNames;
+        }
+        return foodIds;
+    }
+    
+    /**
+     * Builds the mask of the selector's foods currently in the inventory
+     * 
+     * @return Bit i set when food i of the selector is present
+     */
+    private int presentFoodMask() {
+        int mask = 0;
+        for (int i = 0; i < selector.size(); i++) {
+            if (consumables.getCount(selector.getFoodId(i)) > 0) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+    
+    /**
+     * Finds an item with the given id in the inventory
+     * 
+     * @param id The item id, or {@link ItemDefinitions#UNKNOWN}
+     * @return The item, or null if none found
+     */
+    private KSItem findFood(int id) {
+        if (id == ItemDefinitions.UNKNOWN) {
+            return null;
+        }
+        List<KSItem> items = bot.ctx.inventory.getItems().results();
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i).getId() == id) {
+                return items.get(i);
+            }
+        }
+        return null;
+    }
+    
+    @Override
+    public void onStop() {
+        // Stop sampling damage once the bot stops
+        combat.removeListener(damage);
+    }
+    
+    /**
+     * Gets the food eaten by the last execution
+     * 
+     * @return The food, or null if nothing was eaten
+     */
+    public KSItem getLastFood() {
+        return lastFood;
+    }
+    
+    /**
+     * Gets the combo food eaten in the same tick by the last execution
+     * 
+     * @return The combo food, or null if none was eaten
+     */
+    public KSItem getLastCombo() {
+        return lastCombo;
+    }
+    
+    public DamageEstimator getDamageEstimator() {
+        return damage;
+    }
+    
+    /**
+     * Gets the time-to-death margins of the meals eaten under attack
+     * 
+     * @return Meal counts by ticks to expected death; the last bucket counts that many ticks or more
+     */
+    public int[] getMarginCounts() {
+        return marginCounts.clone();
+    }
+    
+    public int getMarginSamples() {
+        return marginSamples;
+    }
+    
+    /**
+     * Formats the margin histogram on one line
+     * 
+     * @return The non-empty buckets as ticks: meals
+     */
+    public String formatMargins() {
+        StringBuilder line = new StringBuilder("Eat margins (ticks to expected death):");
+        for (int ticks = 1; ticks <= MAX_MARGIN_TICKS; ticks++) {
+            if (marginCounts[ticks] > 0) {
+                line.append(' ').append(ticks).append(ticks == MAX_MARGIN_TICKS ? "+" : "")
+                    .append(": ").append(marginCounts[ticks]);
+            }
+        }
+        return line.toString();
     }
     
     /**
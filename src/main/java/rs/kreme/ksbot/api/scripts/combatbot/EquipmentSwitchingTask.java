@@ -1,31 +1,74 @@
 package rs.kreme.ksbot.api.scripts.combatbot;
 
+import rs.kreme.ksbot.api.game.GearSet;
+import rs.kreme.ksbot.api.game.KillTimeTable;
+import rs.kreme.ksbot.api.game.NpcCombatStats;
+import rs.kreme.ksbot.api.game.NpcDefinitions;
 import rs.kreme.ksbot.api.scripts.task.Task;
-import rs.kreme.ksbot.api.wrappers.KSItem;
-import rs.kreme.ksbot.api.queries.ItemQuery;
+
+import java.util.BitSet;
+import java.util.List;
 
 /**
  * EquipmentSwitchingTask - Responsible for switching equipment based on combat situations
  * 
  * This task handles:
- * 1. Switching between different weapon types based on enemy weaknesses
+ * 1. Switching to the melee, ranged or magic set that kills the enemy fastest
  * 2. Equipping special attack weapons when special attack is available
  * 3. Switching to defensive equipment when health is low
+ * 
+ * The target set is decided at most once per game tick and the switch is
+ * planned by a {@link GearSwitchPlanner}, which only equips the pieces that
+ * are not already worn. All equip actions of a switch are issued in the
+ * same tick. Switch latency (ticks from deciding on a new set until it is
+ * fully worn) is tracked for the progress report. A switch that ends with
+ * pieces the planner could not find is counted as abandoned instead.
+ * 
+ * Kill times of the three combat sets against every NPC with combat stats
+ * are computed once when the task is created, for the levels, attack style
+ * and prayers at that moment, so choosing a set is a table lookup.
  */
 public class EquipmentSwitchingTask extends Task {
     
     private final CombatBot bot;
     
     // Equipment sets (item names)
-    private final String[] MELEE_EQUIPMENT = {"Dragon scimitar", "Abyssal whip", "Dragon defender"};
-    private final String[] RANGED_EQUIPMENT = {"Magic shortbow", "Rune crossbow", "Black d'hide"};
-    private final String[] MAGIC_EQUIPMENT = {"Staff of fire", "Mystic robe top", "Mystic robe bottom"};
-    private final String[] SPECIAL_WEAPONS = {"Dragon dagger", "Granite maul", "Dragon claws"};
-    private final String[] DEFENSIVE_EQUIPMENT = {"Rune platebody", "Rune platelegs", "Rune full helm"};
+    private static final String[] MELEE_EQUIPMENT = {"Dragon scimitar", "Abyssal whip", "Dragon defender"};
+    private static final String[] RANGED_EQUIPMENT = {"Magic shortbow", "Rune crossbow", "Black d'hide body"};
+    private static final String[] MAGIC_EQUIPMENT = {"Staff of fire", "Mystic robe top", "Mystic robe bottom"};
+    private static final String[] SPECIAL_WEAPONS = {"Dragon dagger", "Granite maul", "Dragon claws"};
+    private static final String[] DEFENSIVE_EQUIPMENT = {"Rune platebody", "Rune platelegs", "Rune full helm"};
+    
+    // The sets above resolved to slot tables once for all bots, indexed by EquipmentSet ordinal
+    private static final int[][][] GEAR_SETS = GearSwitchPlanner.resolveSets(new String[][]{
+        MELEE_EQUIPMENT, RANGED_EQUIPMENT, MAGIC_EQUIPMENT, SPECIAL_WEAPONS, DEFENSIVE_EQUIPMENT
+    });
+    
+    // Every item id any of the sets can use
+    private static final BitSet GEAR_ITEM_IDS = gearItemIds();
+    
+    // Plans switches between the sets
+    private final GearSwitchPlanner planner = new GearSwitchPlanner(GEAR_SETS);
+    
+    // Expected kill times of the MELEE, RANGED and MAGIC sets, rows in EquipmentSet order
+    private final KillTimeTable killTimes;
     
     // Current equipment set
     private EquipmentSet currentSet = EquipmentSet.MELEE;
     
+    // Decision for the current tick
+    private long decidedTick = -1;
+    private EquipmentSet decidedSet = EquipmentSet.MELEE;
+    private int plannedSwitches;
+    
+    // Switch latency tracking (in game ticks)
+    private EquipmentSet pendingSet;
+    private long pendingSinceTick;
+    private int completedSwitches;
+    private int abandonedSwitches;
+    private long totalSwitchTicks;
+    private long maxSwitchTicks;
+    
     // Equipment set enum
     private enum EquipmentSet {
         MELEE,
@@ -37,67 +80,152 @@ public class EquipmentSwitchingTask extends Task {
     
     public EquipmentSwitchingTask(CombatBot bot) {
         this.bot = bot;
+        this.killTimes = KillTimeTable.compute(bot.createDpsCalculator(), List.of(
+            GearSet.ofNames(EquipmentSet.MELEE.name(), MELEE_EQUIPMENT),
+            GearSet.ofNames(EquipmentSet.RANGED.name(), RANGED_EQUIPMENT),
+            GearSet.ofNames(EquipmentSet.MAGIC.name(), MAGIC_EQUIPMENT)),
+            NpcCombatStats.ids());
+    }
+    
+    /**
+     * Checks if any of the equipment sets uses an item, so it must stay in the inventory
+     * 
+     * @param itemId The item id
+     * @return true for gear of a set
+     */
+    static boolean usesItem(int itemId) {
+        return itemId >= 0 && GEAR_ITEM_IDS.get(itemId);
+    }
+    
+    private static BitSet gearItemIds() {
+        BitSet ids = new BitSet();
+        for (int[][] set : GEAR_SETS) {
+            for (int[] candidates : set) {
+                if (candidates == null) {
+                    continue;
+                }
+                for (int id : candidates) {
+                    if (id >= 0) {
+                        ids.set(id);
+                    }
+                }
+            }
+        }
+        return ids;
     }
     
     @Override
     public boolean validate() {
         // This task should run when:
         // 1. We're not in immediate danger (not eating)
-        // 2. We need to switch equipment based on the situation
+        // 2. The set chosen for this tick still has pieces to equip
+        decide();
         return bot.ctx.combat.getHealthPercent() > bot.getEatAtHealthPercent() && 
-               shouldSwitchEquipment();
+               plannedSwitches > 0;
     }
     
     @Override
     public int execute() {
-        // Determine which equipment set to switch to
-        EquipmentSet targetSet = determineTargetEquipmentSet();
+        decide();
+        if (plannedSwitches == 0) {
+            // No equipment switch needed
+            return 1000;
+        }
         
-        if (targetSet != currentSet) {
-            // Switch to the target equipment set
-            System.out.println("Switching equipment to: " + targetSet);
-            switchEquipment(targetSet);
-            currentSet = targetSet;
-            
-            // Wait for equipment switching
-            return 1800; // Return sleep time in milliseconds
+        // Issue the whole batch in this tick
+        System.out.println("Switching equipment to: " + decidedSet + " (" + plannedSwitches + " items)");
+        for (int i = 0; i < plannedSwitches; i++) {
+            System.out.println("Equipping: " + planner.getBatchItem(i).getName());
+            planner.getBatchItem(i).interact("Wield", "Wear", "Equip");
         }
+        currentSet = decidedSet;
         
-        // No equipment switch needed
-        return 1000;
+        // The batch counts as issued for this tick; wait for the next one
+        plannedSwitches = 0;
+        return (int) bot.ctx.clock.millisUntilNextTick();
     }
     
     /**
-     * Determines if we should switch equipment
-     * 
-     * @return true if equipment switch is needed, false otherwise
+     * Decides on the target set and plans the switch, once per game tick
      */
-    private boolean shouldSwitchEquipment() {
-        // Check if health is low (switch to defensive)
-        if (bot.ctx.combat.getHealthPercent() < 30 && currentSet != EquipmentSet.DEFENSIVE) {
-            return true;
+    private void decide() {
+        long tick = bot.ctx.clock.currentTick();
+        if (tick == decidedTick) {
+            return;
         }
+        decidedTick = tick;
+        decidedSet = determineTargetEquipmentSet();
+        plannedSwitches = planner.plan(decidedSet.ordinal(),
+            bot.ctx.equipment,
+            bot.ctx.inventory.getItems().results());
+        trackLatency(tick);
+    }
+    
+    /**
+     * Updates switch latency tracking with this tick's decision
+     * 
+     * @param tick The current game tick
+     */
+    private void trackLatency(long tick) {
+        // Nothing left to equip: the switch is as done as the planner can make it
+        boolean settled = plannedSwitches == 0;
         
-        // Check if special attack is ready (switch to special weapon)
-        if (bot.isUseSpecialAttack() && 
-            bot.ctx.combat.getSpecEnergy() >= bot.getSpecialAttackEnergyThreshold() && 
-            currentSet != EquipmentSet.SPECIAL) {
-            return true;
+        if (pendingSet != null && pendingSet != decidedSet) {
+            // Superseded before it finished; start timing the new target
+            pendingSet = null;
         }
         
-        // Check enemy weakness (simplified implementation)
-        String enemyName = getCurrentEnemyName();
-        if (enemyName != null) {
-            if (isWeakToMagic(enemyName) && currentSet != EquipmentSet.MAGIC) {
-                return true;
-            } else if (isWeakToRanged(enemyName) && currentSet != EquipmentSet.RANGED) {
-                return true;
-            } else if (isWeakToMelee(enemyName) && currentSet != EquipmentSet.MELEE) {
-                return true;
+        if (pendingSet == null && !settled) {
+            pendingSet = decidedSet;
+            pendingSinceTick = tick;
+        } else if (pendingSet != null && settled) {
+            if (planner.getMissingSlots() == 0) {
+                long ticks = tick - pendingSinceTick;
+                completedSwitches++;
+                totalSwitchTicks += ticks;
+                maxSwitchTicks = Math.max(maxSwitchTicks, ticks);
+            } else {
+                // Pieces are missing from the inventory; the set can never be fully worn
+                abandonedSwitches++;
             }
+            pendingSet = null;
         }
-        
-        return false;
+    }
+    
+    /**
+     * Gets the average number of ticks a completed switch took
+     * 
+     * @return Average switch latency in ticks, or 0 if no switch has completed
+     */
+    public double getAverageSwitchTicks() {
+        return completedSwitches == 0 ? 0 : (double) totalSwitchTicks / completedSwitches;
+    }
+    
+    public int getCompletedSwitches() {
+        return completedSwitches;
+    }
+    
+    public long getMaxSwitchTicks() {
+        return maxSwitchTicks;
+    }
+    
+    /**
+     * Gets the number of switches that ended with pieces missing
+     * 
+     * @return Abandoned switches, not counted in the latency statistics
+     */
+    public int getAbandonedSwitches() {
+        return abandonedSwitches;
+    }
+    
+    /**
+     * Prints the switch latency statistics
+     */
+    public void printSwitchLatency() {
+        System.out.println("Equipment switches: " + completedSwitches + 
+                           " (avg " + String.format("%.1f", getAverageSwitchTicks()) + 
+                           " ticks, max " + maxSwitchTicks + " ticks, " +
+                           abandonedSwitches + " abandoned)");
     }
     
     /**
@@ -117,15 +245,12 @@ public class EquipmentSwitchingTask extends Task {
             return EquipmentSet.SPECIAL;
         }
         
-        // Check enemy weakness (simplified implementation)
+        // Use the combat set that kills the enemy fastest
         String enemyName = getCurrentEnemyName();
         if (enemyName != null) {
-            if (isWeakToMagic(enemyName)) {
-                return EquipmentSet.MAGIC;
-            } else if (isWeakToRanged(enemyName)) {
-                return EquipmentSet.RANGED;
-            } else if (isWeakToMelee(enemyName)) {
-                return EquipmentSet.MELEE;
+            EquipmentSet fastest = findFastestSet(enemyName);
+            if (fastest != null) {
+                return fastest;
             }
         }
         
@@ -133,62 +258,6 @@ public class EquipmentSwitchingTask extends Task {
         return currentSet;
     }
     
-    /**
-     * Switches to the specified equipment set
-     * 
-     * @param targetSet The equipment set to switch to
-     */
-    private void switchEquipment(EquipmentSet targetSet) {
-        // Get the equipment items for the target set
-        String[] equipmentItems = getEquipmentItems(targetSet);
-        
-        // Equip each item
-        for (String itemName : equipmentItems) {
-            KSItem item = findItem(itemName);
-            if (item != null) {
-                System.out.println("Equipping: " + item.getName());
-                item.interact("Wield", "Wear", "Equip");
-            }
-        }
-    }
-    
-    /**
-     * Gets the equipment items for the specified set
-     * 
-     * @param set The equipment set
-     * @return Array of item names for the set
-     */
-    private String[] getEquipmentItems(EquipmentSet set) {
-        switch (set) {
-            case MELEE:
-                return MELEE_EQUIPMENT;
-            case RANGED:
-                return RANGED_EQUIPMENT;
-            case MAGIC:
-                return MAGIC_EQUIPMENT;
-            case SPECIAL:
-                return SPECIAL_WEAPONS;
-            case DEFENSIVE:
-                return DEFENSIVE_EQUIPMENT;
-            default:
-                return MELEE_EQUIPMENT;
-        }
-    }
-    
-    /**
-     * Finds an item in the inventory by name
-     * 
-     * @param itemName The name of the item to find
-     * @return The item, or null if not found
-     */
-    private KSItem findItem(String itemName) {
-        // Search inventory for the item
-        ItemQuery query = bot.ctx.inventory.getItems(itemName);
-        
-        // Return the first item found, or null if none found
-        return query.results().isEmpty() ? null : query.results().get(0);
-    }
-    
     /**
      * Gets the name of the current enemy
      * 
@@ -205,50 +274,21 @@ public class EquipmentSwitchingTask extends Task {
     }
     
     /**
-     * Checks if an enemy is weak to magic
-     * 
-     * @param enemyName The name of the enemy
-     * @return true if weak to magic, false otherwise
-     */
-    private boolean isWeakToMagic(String enemyName) {
-        // This is a simplified implementation
-        // In a real bot, you would use a database of enemy weaknesses
-        
-        String name = enemyName.toLowerCase();
-        return name.contains("dragon") || 
-               name.contains("demon") || 
-               name.contains("tzhaar");
-    }
-    
-    /**
-     * Checks if an enemy is weak to ranged
+     * Finds the combat set with the shortest expected kill time against an enemy
      * 
      * @param enemyName The name of the enemy
-     * @return true if weak to ranged, false otherwise
+     * @return The fastest set, the current one on a tie, or null if the enemy has no combat stats
      */
-    private boolean isWeakToRanged(String enemyName) {
-        // This is a simplified implementation
-        // In a real bot, you would use a database of enemy weaknesses
-        
-        String name = enemyName.toLowerCase();
-        return name.contains("mage") || 
-               name.contains("wizard") || 
-               name.contains("aviansie");
-    }
-    
-    /**
-     * Checks if an enemy is weak to melee
-     * 
-     * @param enemyName The name of the enemy
-     * @return true if weak to melee, false otherwise
-     */
-    private boolean isWeakToMelee(String enemyName) {
-        // This is a simplified implementation
-        // In a real bot, you would use a database of enemy weaknesses
-        
-        String name = enemyName.toLowerCase();
-        return name.contains("ranger") || 
-               name.contains("archer") || 
-               name.contains("bat");
+    private EquipmentSet findFastestSet(String enemyName) {
+        int npcId = NpcDefinitions.idOf(enemyName);
+        int fastest = killTimes.fastestGear(npcId);
+        if (fastest < 0) {
+            return null;
+        }
+        int current = currentSet.ordinal();
+        if (current < killTimes.gearCount() && killTimes.killTicks(current, npcId) <= killTimes.killTicks(fastest, npcId)) {
+            return currentSet;
+        }
+        return EquipmentSet.values()[fastest];
     }
 }
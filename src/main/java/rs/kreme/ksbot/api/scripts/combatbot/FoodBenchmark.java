@@ -0,0 +1,142 @@
+package rs.kreme.ksbot.api.scripts.combatbot;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import rs.kreme.ksbot.api.game.Combat;
+import rs.kreme.ksbot.api.game.GameClock;
+import rs.kreme.ksbot.api.game.ItemDefinitions;
+import rs.kreme.ksbot.api.game.Skill;
+import rs.kreme.ksbot.api.scripts.task.TaskScript.InventoryClient;
+import rs.kreme.ksbot.api.wrappers.KSItem;
+
+/**
+ * Command-line comparison of heal efficiency and trip length with the first
+ * food found eaten and with overheal-minimizing food selection. Both runs
+ * take the same seeded trips in virtual ticks: a mixed inventory of food is
+ * shuffled, an NPC hits on its attack ticks, and the eat task decides once
+ * the last meal has gone down. Eaten food leaves the inventory and heals up
+ * to the hitpoints level; a trip ends when the food runs out. A low-level
+ * scenario shows the overheal saved, a hard-hitting one the karambwan combos.
+ * <p>
+ * Run with {@code ./gradlew benchmarkFood}.
+ */
+public final class FoodBenchmark {
+
+    private static final int TRIPS = 500;
+    private static final int ATTACK_SPEED_TICKS = 4;
+    private static final int EAT_DELAY_TICKS = 3;
+    private static final String[] FOOD_NAMES = {"Shark", "Lobster", "Cooked karambwan"};
+    private static final int[] FOOD_COUNTS = {10, 10, 8};
+
+    private FoodBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        scenario(45, 70, 8);
+        scenario(70, 65, 18);
+    }
+
+    private static void scenario(int hitpoints, int eatAtPercent, int maxHit) {
+        System.out.println("=== Food selection benchmark (" + TRIPS + " trips, " + hitpoints
+                + " hitpoints, eating at " + eatAtPercent + "%, max hit " + maxHit + ") ===");
+        run("First found", hitpoints, eatAtPercent, maxHit, false);
+        run("Selected", hitpoints, eatAtPercent, maxHit, true);
+    }
+
+    private static void run(String label, int hitpoints, int eatAtPercent, int maxHit, boolean minimizeOverheal) {
+        CombatBot bot = new CombatBot();
+        bot.setFoodNames(FOOD_NAMES);
+        bot.setEatAtHealthPercent(eatAtPercent);
+        bot.setMinimizeOverheal(minimizeOverheal);
+        bot.setPredictiveEating(false);
+        bot.ctx.clock.setVirtualTime(0);
+        bot.ctx.skills.setLevel(Skill.HITPOINTS, hitpoints);
+        EatFoodTask task = new EatFoodTask(bot);
+        Combat combat = bot.ctx.combat;
+        InventoryClient inventory = bot.ctx.inventory;
+
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        long ticks = 0;
+        long healed = 0;
+        long nominal = 0;
+        long meals = 0;
+        long combos = 0;
+        int deaths = 0;
+        for (int trip = 0; trip < TRIPS; trip++) {
+            SplittableRandom random = new SplittableRandom(11L + trip);
+            inventory.setItems(shuffledFood(random));
+            setHealth(combat, hitpoints, hitpoints);
+            int nextEatTick = 0;
+            for (int tick = 0; bot.ctx.consumables.getFoodCount() > 0; tick++) {
+                if (tick % ATTACK_SPEED_TICKS == 0) {
+                    int damage = random.nextInt(maxHit + 1);
+                    combat.hitTaken(damage);
+                    setHealth(combat, combat.getCurrentHealth() - damage, hitpoints);
+                    if (combat.getCurrentHealth() <= 0) {
+                        deaths++;
+                        break;
+                    }
+                }
+                if (tick >= nextEatTick && task.validate()) {
+                    task.execute();
+                    int heal = eat(inventory, task.getLastFood()) + eat(inventory, task.getLastCombo());
+                    int before = combat.getCurrentHealth();
+                    setHealth(combat, Math.min(hitpoints, before + heal), hitpoints);
+                    healed += combat.getCurrentHealth() - before;
+                    nominal += heal;
+                    meals++;
+                    if (task.getLastCombo() != null) {
+                        combos++;
+                    }
+                    nextEatTick = tick + EAT_DELAY_TICKS;
+                }
+                bot.ctx.clock.advance(GameClock.TICK_MILLIS);
+                ticks++;
+            }
+        }
+        System.setOut(out);
+
+        System.out.printf(Locale.ROOT, "%-12s %5.1f%% heal efficiency, %6.1f ticks/trip, %,6d meals "
+                        + "(%,d combos), %d deaths%n",
+                label, 100.0 * healed / nominal, (double) ticks / TRIPS, meals, combos, deaths);
+    }
+
+    /**
+     * Removes an eaten item from the inventory.
+     *
+     * @return Hitpoints the item heals, 0 for null
+     */
+    private static int eat(InventoryClient inventory, KSItem item) {
+        if (item == null) {
+            return 0;
+        }
+        inventory.removeItem(inventory.indexOf(item));
+        return ItemDefinitions.healOf(item.getId());
+    }
+
+    private static void setHealth(Combat combat, int health, int hitpoints) {
+        combat.setCurrentHealth(health);
+        combat.setHealthPercent(health * 100 / hitpoints);
+    }
+
+    private static List<KSItem> shuffledFood(SplittableRandom random) {
+        List<KSItem> items = new ArrayList<>();
+        for (int food = 0; food < FOOD_NAMES.length; food++) {
+            for (int i = 0; i < FOOD_COUNTS[food]; i++) {
+                items.add(new KSItem(FOOD_NAMES[food]));
+            }
+        }
+        for (int i = items.size() - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            KSItem swap = items.get(i);
+            items.set(i, items.get(j));
+            items.set(j, swap);
+        }
+        return items;
+    }
+}
@@ -0,0 +1,162 @@
+package rs.kreme.ksbot.api.scripts.combatbot;
+
+import rs.kreme.ksbot.api.game.ItemDefinitions;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * FoodSelector - Picks the food that heals closest to full without overhealing
+ *
+ * For a list of configured foods the selector precomputes, for every subset
+ * of foods present in the inventory and every hitpoint deficit, the meal to
+ * eat: a single food, or a food together with a combo food (karambwan) eaten
+ * in the same tick. The meal with the largest heal that fits in the deficit
+ * wins; ties go to the single food, then to the food listed first. When every
+ * meal would overheal, the smallest single food is eaten instead. Selecting a
+ * meal is then one array read.
+ *
+ * Tables are immutable and shared by every bot configured with the same foods.
+ */
+public final class FoodSelector {
+
+    // Most foods a selector distinguishes; more configured foods are ignored
+    public static final int MAX_FOODS = 6;
+
+    // Deficits above this are treated as this (hitpoints never exceed 99)
+    public static final int MAX_DEFICIT = 127;
+
+    // Meal encoding: first food index + 1 in the low nibble, combo food index + 1 in the high nibble
+    private static final int NONE = 0;
+
+    private static final Map<String, FoodSelector> SHARED = new ConcurrentHashMap<>();
+
+    private final int[] foodIds;
+    private final int[] heals;
+
+    // present-food mask * (MAX_DEFICIT + 1) + deficit -> meal
+    private final byte[] meals;
+
+    private FoodSelector(int[] foodIds) {
+        this.foodIds = foodIds;
+        this.heals = new int[foodIds.length];
+        for (int i = 0; i < foodIds.length; i++) {
+            heals[i] = ItemDefinitions.healOf(foodIds[i]);
+        }
+        this.meals = new byte[(1 << foodIds.length) * (MAX_DEFICIT + 1)];
+        for (int mask = 1; mask < 1 << foodIds.length; mask++) {
+            for (int deficit = 0; deficit <= MAX_DEFICIT; deficit++) {
+                meals[mask * (MAX_DEFICIT + 1) + deficit] = (byte) plan(mask, deficit);
+            }
+        }
+    }
+
+    /**
+     * Returns the shared selector for a list of food ids, building its table
+     * on first use
+     *
+     * @param foodIds Food item ids in preference order; only the first {@link #MAX_FOODS} are used
+     * @return The selector
+     */
+    public static FoodSelector of(int[] foodIds) {
+        int[] ids = Arrays.copyOf(foodIds, Math.min(foodIds.length, MAX_FOODS));
+        return SHARED.computeIfAbsent(Arrays.toString(ids), key -> new FoodSelector(ids));
+    }
+
+    /**
+     * Number of foods the selector distinguishes
+     */
+    public int size() {
+        return foodIds.length;
+    }
+
+    /**
+     * Item id of a food by its index in the selector
+     */
+    public int getFoodId(int index) {
+        return foodIds[index];
+    }
+
+    /**
+     * Picks the meal for the current state
+     *
+     * @param presentMask Bit i set when food i is in the inventory
+     * @param deficit Hitpoints missing to full health
+     * @return The meal, or 0 if there is nothing to eat
+     */
+    public int select(int presentMask, int deficit) {
+        if (presentMask == 0 || deficit <= 0) {
+            return NONE;
+        }
+        int clamped = Math.min(deficit, MAX_DEFICIT);
+        return meals[(presentMask & ((1 << foodIds.length) - 1)) * (MAX_DEFICIT + 1) + clamped] & 0xFF;
+    }
+
+    /**
+     * Item id of the food a meal starts with, or {@link ItemDefinitions#UNKNOWN} for no meal
+     */
+    public int firstId(int meal) {
+        return (meal & 0xF) == 0 ? ItemDefinitions.UNKNOWN : foodIds[(meal & 0xF) - 1];
+    }
+
+    /**
+     * Item id of the combo food eaten in the same tick, or {@link ItemDefinitions#UNKNOWN} if none
+     */
+    public int comboId(int meal) {
+        return (meal >>> 4) == 0 ? ItemDefinitions.UNKNOWN : foodIds[(meal >>> 4) - 1];
+    }
+
+    /**
+     * Hitpoints the meal heals in total
+     */
+    public int healOf(int meal) {
+        int heal = 0;
+        if ((meal & 0xF) != 0) {
+            heal += heals[(meal & 0xF) - 1];
+        }
+        if ((meal >>> 4) != 0) {
+            heal += heals[(meal >>> 4) - 1];
+        }
+        return heal;
+    }
+
+    /**
+     * Works out the best meal for one table entry
+     */
+    private int plan(int mask, int deficit) {
+        int best = NONE;
+        int bestHeal = -1;
+        int smallest = NONE;
+        int smallestHeal = Integer.MAX_VALUE;
+        for (int first = 0; first < foodIds.length; first++) {
+            if ((mask & 1 << first) == 0) {
+                continue;
+            }
+            int single = first + 1;
+            if (heals[first] <= deficit
+                    && (heals[first] > bestHeal || heals[first] == bestHeal && (best >>> 4) != 0)) {
+                best = single;
+                bestHeal = heals[first];
+            }
+            if (heals[first] < smallestHeal) {
+                smallest = single;
+                smallestHeal = heals[first];
+            }
+            if (ItemDefinitions.isComboFood(foodIds[first])) {
+                continue;
+            }
+            for (int combo = 0; combo < foodIds.length; combo++) {
+                if ((mask & 1 << combo) == 0 || !ItemDefinitions.isComboFood(foodIds[combo])) {
+                    continue;
+                }
+                int heal = heals[first] + heals[combo];
+                if (heal <= deficit && heal > bestHeal) {
+                    best = single | (combo + 1) << 4;
+                    bestHeal = heal;
+                }
+            }
+        }
+        return best != NONE ? best : smallest;
+    }
+}
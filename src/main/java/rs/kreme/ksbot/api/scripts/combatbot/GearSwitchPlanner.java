@@ -0,0 +1,199 @@
+package rs.kreme.ksbot.api.scripts.combatbot;
+
+import rs.kreme.ksbot.api.game.EquipmentSlot;
+import rs.kreme.ksbot.api.game.ItemDefinitions;
+import rs.kreme.ksbot.api.scripts.task.TaskScript.EquipmentClient;
+import rs.kreme.ksbot.api.wrappers.KSItem;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * GearSwitchPlanner - Plans the equip actions needed to wear a gear set
+ *
+ * Each set is resolved once into a slot -> candidate item id table. Several
+ * items for the same slot are alternatives in preference order (for example
+ * the special attack weapons). Planning diffs the table against the worn
+ * slots in one pass, finds the missing pieces in one pass over the inventory
+ * and emits the smallest batch of equip actions, weapon first so a two-handed
+ * weapon clears the shield slot before anything else is put on.
+ *
+ * Resolved set tables are immutable and can be shared by any number of
+ * planners; a planner itself reuses its buffers and is not thread-safe.
+ */
+public class GearSwitchPlanner {
+
+    private static final EquipmentSlot[] SLOTS = EquipmentSlot.values();
+
+    // Slots in the order equip actions are issued
+    private static final EquipmentSlot[] EQUIP_ORDER = buildEquipOrder();
+
+    // set -> slot ordinal -> candidate item ids (null when the set leaves the slot alone)
+    private final int[][][] sets;
+
+    // Scratch state for the current plan
+    private final boolean[] satisfied = new boolean[SLOTS.length];
+    private final KSItem[] found = new KSItem[SLOTS.length];
+    private final int[] foundRank = new int[SLOTS.length];
+    private final KSItem[] batch = new KSItem[SLOTS.length];
+    private int batchSize;
+    private int missingSlots;
+
+    /**
+     * Creates a planner for the given sets
+     *
+     * @param setItemNames Item names per set, indexed by set number
+     */
+    public GearSwitchPlanner(String[][] setItemNames) {
+        this(resolveSets(setItemNames));
+    }
+
+    /**
+     * Creates a planner over sets resolved with {@link #resolveSets(String[][])}
+     *
+     * @param sets Resolved sets; shared, never modified
+     */
+    public GearSwitchPlanner(int[][][] sets) {
+        this.sets = sets;
+    }
+
+    /**
+     * Resolves item names per set into slot -> candidate id tables
+     *
+     * @param setItemNames Item names per set, indexed by set number
+     * @return Candidate ids per set and slot ordinal
+     */
+    public static int[][][] resolveSets(String[][] setItemNames) {
+        int[][][] sets = new int[setItemNames.length][][];
+        for (int set = 0; set < setItemNames.length; set++) {
+            sets[set] = resolveSet(setItemNames[set]);
+        }
+        return sets;
+    }
+
+    /**
+     * Plans the switch to a set
+     *
+     * @param set The set number
+     * @param equipment The worn equipment
+     * @param inventory Items currently in the inventory
+     * @return The number of equip actions in the batch
+     */
+    public int plan(int set, EquipmentClient equipment, List<KSItem> inventory) {
+        int[][] target = sets[set];
+
+        // Work out which slots already hold an acceptable item
+        int unsatisfied = 0;
+        for (int slot = 0; slot < SLOTS.length; slot++) {
+            found[slot] = null;
+            foundRank[slot] = Integer.MAX_VALUE;
+            satisfied[slot] = target[slot] == null
+                    || indexOf(target[slot], equipment.getSlotId(SLOTS[slot])) >= 0;
+            if (!satisfied[slot]) {
+                unsatisfied++;
+            }
+        }
+
+        // Pick the most preferred candidate for each open slot from the inventory
+        if (unsatisfied > 0) {
+            for (int i = 0; i < inventory.size(); i++) {
+                KSItem item = inventory.get(i);
+                EquipmentSlot slot = ItemDefinitions.slotOf(item.getId());
+                if (slot == null || satisfied[slot.ordinal()]) {
+                    continue;
+                }
+                int rank = indexOf(target[slot.ordinal()], item.getId());
+                if (rank >= 0 && rank < foundRank[slot.ordinal()]) {
+                    found[slot.ordinal()] = item;
+                    foundRank[slot.ordinal()] = rank;
+                }
+            }
+        }
+
+        // Emit the batch in equip order
+        batchSize = 0;
+        missingSlots = 0;
+        for (EquipmentSlot slot : EQUIP_ORDER) {
+            int ordinal = slot.ordinal();
+            if (satisfied[ordinal]) {
+                continue;
+            }
+            if (found[ordinal] != null) {
+                batch[batchSize++] = found[ordinal];
+            } else {
+                missingSlots++;
+            }
+        }
+
+        return batchSize;
+    }
+
+    /**
+     * Gets an item from the last planned batch
+     *
+     * @param index Position in the batch
+     * @return The item to equip
+     */
+    public KSItem getBatchItem(int index) {
+        return batch[index];
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Number of set slots in the last plan that are neither worn nor in the inventory
+     */
+    public int getMissingSlots() {
+        return missingSlots;
+    }
+
+    /**
+     * Resolves item names into a slot -> candidate id table
+     *
+     * @param itemNames The item names of the set
+     * @return Candidate ids per slot ordinal
+     */
+    private static int[][] resolveSet(String[] itemNames) {
+        int[][] table = new int[SLOTS.length][];
+        for (String name : itemNames) {
+            int id = ItemDefinitions.idOf(name);
+            EquipmentSlot slot = ItemDefinitions.slotOf(id);
+            if (slot == null) {
+                System.out.println("WARNING: Unknown equipment item in gear set: " + name);
+                continue;
+            }
+            int[] candidates = table[slot.ordinal()];
+            if (candidates == null) {
+                table[slot.ordinal()] = new int[]{id};
+            } else {
+                int[] extended = Arrays.copyOf(candidates, candidates.length + 1);
+                extended[candidates.length] = id;
+                table[slot.ordinal()] = extended;
+            }
+        }
+        return table;
+    }
+
+    private static int indexOf(int[] candidates, int id) {
+        for (int i = 0; i < candidates.length; i++) {
+            if (candidates[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static EquipmentSlot[] buildEquipOrder() {
+        EquipmentSlot[] order = new EquipmentSlot[SLOTS.length];
+        order[0] = EquipmentSlot.WEAPON;
+        int index = 1;
+        for (EquipmentSlot slot : SLOTS) {
+            if (slot != EquipmentSlot.WEAPON) {
+                order[index++] = slot;
+            }
+        }
+        return order;
+    }
+}
@@ -0,0 +1,153 @@
+package rs.kreme.ksbot.api.scripts.combatbot;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import rs.kreme.ksbot.api.game.GameClock;
+import rs.kreme.ksbot.api.game.ItemDefinitions;
+import rs.kreme.ksbot.api.scripts.task.TaskScript.GroundItemsClient;
+import rs.kreme.ksbot.api.scripts.task.TaskScript.InventoryClient;
+import rs.kreme.ksbot.api.wrappers.KSGroundItem;
+import rs.kreme.ksbot.api.wrappers.KSItem;
+
+/**
+ * Command-line comparison of banked gp per hour with and without the
+ * inventory space manager. Both runs play the same seeded hour in virtual
+ * ticks on the demo runner's kind of stub data: a kill every
+ * {@value #KILL_TICKS} ticks drops a pile of loot next to the player,
+ * which despawns after {@value #DESPAWN_TICKS} ticks. Looted piles move
+ * into the inventory, evicted items leave it. Once the inventory is full
+ * and worthwhile loot is left on the ground that the bot cannot make room
+ * for, it banks, which takes {@value #BANK_TRIP_TICKS} ticks; only banked
+ * loot counts.
+ * <p>
+ * Run with {@code ./gradlew benchmarkInventorySpace}.
+ */
+public final class InventorySpaceBenchmark {
+
+    private static final int SESSIONS = 20;
+    private static final int SESSION_TICKS = 6_000;
+    private static final int KILL_TICKS = 12;
+    private static final int DESPAWN_TICKS = 100;
+    private static final int BANK_TRIP_TICKS = 250;
+    private static final String[] SUPPLIES = {"Lobster", "Lobster", "Lobster", "Lobster"};
+
+    // Drop table: item, chance in percent, smallest and largest stack
+    private static final Object[][] DROPS = {
+        {"Dragon bones", 100, 1, 1},
+        {"Coins", 60, 300, 3_000},
+        {"Nature rune", 30, 8, 25},
+        {"Staff of fire", 20, 1, 1},
+        {"Magic shortbow", 20, 1, 1},
+        {"Black d'hide body", 10, 1, 1},
+        {"Mystic robe bottom", 8, 1, 1},
+        {"Rune scimitar", 6, 1, 1},
+        {"Dragon dagger", 4, 1, 1},
+        {"Rune platebody", 2, 1, 1},
+    };
+
+    private InventorySpaceBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        System.out.println("=== Inventory space benchmark (" + SESSIONS + " one-hour sessions, a kill every "
+                + KILL_TICKS + " ticks, " + BANK_TRIP_TICKS + "-tick bank trips) ===");
+        run("Stop when full", false);
+        run("Space manager", true);
+    }
+
+    private static void run(String label, boolean manageSpace) {
+        CombatBot bot = new CombatBot();
+        bot.ctx.clock.setVirtualTime(0);
+        LootItemsTask loot = new LootItemsTask(bot);
+        InventorySpaceTask space = new InventorySpaceTask(bot, loot);
+        InventoryClient inventory = bot.ctx.inventory;
+        GroundItemsClient ground = bot.ctx.groundItems;
+
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        long banked = 0;
+        int trips = 0;
+        int evictions = 0;
+        for (int session = 0; session < SESSIONS; session++) {
+            SplittableRandom random = new SplittableRandom(47L + session);
+            inventory.setItems(supplies());
+            ground.setItems(List.of());
+            List<int[]> spawns = new ArrayList<>();
+            int busyUntil = 0;
+            for (int tick = 0; tick < SESSION_TICKS; tick++) {
+                if (tick % KILL_TICKS == 0) {
+                    dropLoot(random, ground, bot.ctx.players.getLocal().getX(), bot.ctx.players.getLocal().getY(),
+                            tick, spawns);
+                }
+                despawn(ground, tick, spawns);
+                if (tick >= busyUntil) {
+                    if (manageSpace && space.validate()) {
+                        busyUntil = tick + Math.max(1, space.execute() / (int) GameClock.TICK_MILLIS);
+                        inventory.removeItem(inventory.indexOf(space.getLastEvicted()));
+                        evictions++;
+                    } else if (loot.validate()) {
+                        busyUntil = tick + Math.max(1, loot.execute() / (int) GameClock.TICK_MILLIS);
+                        KSGroundItem pile = loot.getLastLooted();
+                        inventory.addItem(new KSItem(pile.getName(), pile.getQuantity()));
+                        ground.removeItem(pile.getSlot());
+                    } else if (inventory.isFull() && loot.hasBlockedPileWorthMore(-1)) {
+                        banked += lootValue(inventory.getItems().results());
+                        trips++;
+                        inventory.setItems(supplies());
+                        ground.setItems(List.of());
+                        spawns.clear();
+                        tick += BANK_TRIP_TICKS;
+                    }
+                }
+                bot.ctx.clock.setVirtualTime(tick * GameClock.TICK_MILLIS);
+            }
+        }
+        System.setOut(out);
+
+        System.out.printf(Locale.ROOT, "%-15s %,11.0f gp/hr banked, %5.1f bank trips/hr, %6.1f evictions/hr%n",
+                label, (double) banked / SESSIONS, (double) trips / SESSIONS, (double) evictions / SESSIONS);
+    }
+
+    private static void dropLoot(SplittableRandom random, GroundItemsClient ground, int x, int y, int tick,
+                                 List<int[]> spawns) {
+        for (Object[] drop : DROPS) {
+            if (random.nextInt(100) < (int) drop[1]) {
+                int quantity = random.nextInt((int) drop[2], (int) drop[3] + 1);
+                int slot = ground.addItem((String) drop[0], x + random.nextInt(-2, 3), y + random.nextInt(-2, 3),
+                        quantity);
+                spawns.add(new int[]{slot, ground.getStore().generation(slot), tick});
+            }
+        }
+    }
+
+    private static void despawn(GroundItemsClient ground, int tick, List<int[]> spawns) {
+        while (!spawns.isEmpty() && spawns.get(0)[2] + DESPAWN_TICKS <= tick) {
+            int[] spawn = spawns.remove(0);
+            if (ground.getStore().isLive(spawn[0]) && ground.getStore().generation(spawn[0]) == spawn[1]) {
+                ground.removeItem(spawn[0]);
+            }
+        }
+    }
+
+    private static long lootValue(List<KSItem> items) {
+        long value = 0;
+        for (KSItem item : items) {
+            if (ItemDefinitions.healOf(item.getId()) == 0) {
+                value += (long) ItemDefinitions.priceOf(item.getId()) * item.getQuantity();
+            }
+        }
+        return value;
+    }
+
+    private static List<KSItem> supplies() {
+        List<KSItem> items = new ArrayList<>();
+        for (String name : SUPPLIES) {
+            items.add(new KSItem(name));
+        }
+        return items;
+    }
+}
@@ -0,0 +1,176 @@
+package rs.kreme.ksbot.api.scripts.combatbot;
+
+import rs.kreme.ksbot.api.game.Consumables;
+import rs.kreme.ksbot.api.game.ItemDefinitions;
+import rs.kreme.ksbot.api.scripts.task.Task;
+import rs.kreme.ksbot.api.wrappers.KSItem;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * InventorySpaceTask - Makes room in a full inventory for more valuable loot
+ *
+ * This task handles:
+ * 1. Noticing loot worth picking up that does not fit in the inventory
+ * 2. Finding the item that holds the least gold per inventory slot
+ * 3. Getting rid of it the cheapest way: eating food, burying bones,
+ *    dropping anything else
+ *
+ * An item is only evicted for a pile worth more than the whole slot it
+ * takes, so every eviction raises the value carried back to the bank and
+ * the bank trip comes later. Items without a known price are never evicted,
+ * and neither are potions (prayer potions included) or gear that one of the
+ * equipment sets uses. The configured food is usually the cheapest slot, so
+ * it is kept until health is already below the eating threshold and is then
+ * eaten to make room.
+ */
+public class InventorySpaceTask extends Task {
+
+    private final CombatBot bot;
+    private final LootItemsTask lootItemsTask;
+
+    // What the last execution got rid of, and how
+    private KSItem lastEvicted;
+    private String lastAction;
+    private int evictions;
+
+    public InventorySpaceTask(CombatBot bot, LootItemsTask lootItemsTask) {
+        this.bot = bot;
+        this.lootItemsTask = lootItemsTask;
+    }
+
+    @Override
+    public boolean validate() {
+        // This task should run when:
+        // 1. We're not in combat
+        // 2. Our inventory is full
+        // 3. A pile that does not fit is worth more than our least valuable slot
+        if (bot.ctx.combat.inCombat() || !bot.ctx.inventory.isFull()) {
+            return false;
+        }
+        KSItem cheapest = findCheapestSlot();
+        return cheapest != null && lootItemsTask.hasBlockedPileWorthMore(slotValue(cheapest));
+    }
+
+    @Override
+    public int execute() {
+        KSItem item = findCheapestSlot();
+        if (item == null) {
+            return 600;
+        }
+
+        String action = evictionAction(item);
+        System.out.println("Making room: " + action + " " + item.getName() + " (" + slotValue(item) + " gp)");
+        item.interact(action);
+        lastEvicted = item;
+        lastAction = action;
+        evictions++;
+
+        // Eating takes the longest, dropping is a single click
+        switch (action) {
+            case "Eat":
+                return 1800;
+            case "Bury":
+                return 1200;
+            default:
+                return 600;
+        }
+    }
+
+    /**
+     * Finds the inventory slot holding the least gold, skipping potions and
+     * gear, and food unless health is below the eating threshold
+     *
+     * @return The item in that slot, or null if no evictable item has a known price
+     */
+    private KSItem findCheapestSlot() {
+        List<KSItem> items = bot.ctx.inventory.getItems().results();
+        boolean keepFood = bot.ctx.combat.getHealthPercent() >= bot.getEatAtHealthPercent();
+        KSItem cheapest = null;
+        long cheapestValue = Long.MAX_VALUE;
+        for (int i = 0; i < items.size(); i++) {
+            KSItem item = items.get(i);
+            if (isKept(item, keepFood)) {
+                continue;
+            }
+            long value = slotValue(item);
+            if (value > 0 && value < cheapestValue) {
+                cheapest = item;
+                cheapestValue = value;
+            }
+        }
+        return cheapest;
+    }
+
+    /**
+     * Checks if an item must not be evicted: a potion, gear of an equipment
+     * set, or configured food while it is not needed yet
+     *
+     * @param item The item to check
+     * @param keepFood Whether configured food is kept too
+     * @return true for items the trip depends on
+     */
+    private boolean isKept(KSItem item, boolean keepFood) {
+        if (Consumables.potionTypeOf(item.getId()) != null || EquipmentSwitchingTask.usesItem(item.getId())) {
+            return true;
+        }
+        if (!keepFood) {
+            return false;
+        }
+        for (String food : bot.getFoodNames()) {
+            if (food.equalsIgnoreCase(item.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the gold held by an inventory slot
+     *
+     * @param item The item or stack in the slot
+     * @return The value of the whole stack, 0 if the price is unknown
+     */
+    private static long slotValue(KSItem item) {
+        return (long) ItemDefinitions.priceOf(item.getId()) * Math.max(1, item.getQuantity());
+    }
+
+    /**
+     * Picks how to get rid of an item
+     *
+     * @param item The item to evict
+     * @return "Eat" for food, "Bury" for bones, otherwise "Drop"
+     */
+    private static String evictionAction(KSItem item) {
+        if (ItemDefinitions.healOf(item.getId()) > 0) {
+            return "Eat";
+        }
+        if (item.getName().toLowerCase(Locale.ROOT).endsWith("bones")) {
+            return "Bury";
+        }
+        return "Drop";
+    }
+
+    /**
+     * Gets the item the last execution got rid of
+     *
+     * @return The item, or null if nothing was evicted yet
+     */
+    public KSItem getLastEvicted() {
+        return lastEvicted;
+    }
+
+    /**
+     * Gets how the last execution got rid of its item
+     *
+     * @return "Eat", "Bury" or "Drop", or null if nothing was evicted yet
+     */
+    public String getLastAction() {
+        return lastAction;
+    }
+
+    public int getEvictions() {
+        return evictions;
+    }
+}
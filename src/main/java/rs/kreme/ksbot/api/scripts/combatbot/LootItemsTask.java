@@ -1,8 +1,11 @@
 package rs.kreme.ksbot.api.scripts.combatbot;
 
+import rs.kreme.ksbot.api.game.GameClock;
+import rs.kreme.ksbot.api.game.ItemDefinitions;
 import rs.kreme.ksbot.api.scripts.task.Task;
+import rs.kreme.ksbot.api.world.EntityStore;
 import rs.kreme.ksbot.api.wrappers.KSGroundItem;
-import rs.kreme.ksbot.api.queries.GroundItemQuery;
+import rs.kreme.ksbot.api.wrappers.KSPlayer;
 
 import java.util.Arrays;
 import java.util.List;
@@ -14,18 +17,59 @@ import java.util.List;
  * 1. Finding valuable items on the ground
  * 2. Looting items based on priority
  * 3. Managing inventory space
+ * 
+ * A pile is worth looting when its item is high priority or the whole
+ * stack is worth at least the minimum value, and it is only looted when
+ * the inventory has a free slot or already holds a stack it joins. Piles
+ * that are worth looting but do not fit are left to the
+ * {@link InventorySpaceTask}.
+ * 
+ * With loot routing on, every item worth looting is planned into one
+ * pickup route by a {@link LootRoutePlanner}, and each execution takes the
+ * next stop of the route without scanning the ground again; stops whose
+ * item has gone are skipped. A new route is planned once the last one is
+ * done. Without routing the most valuable item is looted, one scan per
+ * pickup. Either way the ticks spent walking to and picking up each pile
+ * are counted.
  */
 public class LootItemsTask extends Task {
     
     private final CombatBot bot;
     
     // Items to always loot regardless of value
-    private final List<String> highPriorityItems = Arrays.asList(
+    private static final List<String> HIGH_PRIORITY_ITEMS = List.of(
         "Dragon bones", "Ensouled head", "Clue scroll", "Key", "Totem"
     );
     
     // Minimum value for items to loot (in gold)
-    private final int MIN_VALUE_TO_LOOT = 1000;
+    private static final int MIN_VALUE_TO_LOOT = 1000;
+    
+    // Item values per ground item id, filled lazily as new names appear,
+    // with whether the item is high priority and its item definition id
+    private static final int LOOT_UNKNOWN = -2;
+    private static final int LOOT_SKIP = -1;
+    private int[] lootValueById = new int[0];
+    private boolean[] highPriorityById = new boolean[0];
+    private int[] itemIdById = new int[0];
+    
+    // Whether each ground item id fits in the inventory, refreshed before every scan
+    private boolean[] fitsById = new boolean[0];
+    
+    // Most piles one route visits (an inventory's worth); the most valuable are planned first
+    private static final int MAX_ROUTE_PILES = 28;
+    
+    // Current pickup route and the next stop to take
+    private final LootRoutePlanner planner = new LootRoutePlanner();
+    private final int[] routeSlots = new int[MAX_ROUTE_PILES];
+    private final long[] routeValues = new long[MAX_ROUTE_PILES];
+    private final KSGroundItem[] route = new KSGroundItem[MAX_ROUTE_PILES];
+    private int routeLength;
+    private int nextStop;
+    
+    // Piles picked up and the ticks spent walking to and taking them
+    private KSGroundItem lastLooted;
+    private int pilesLooted;
+    private long lootTicks;
     
     public LootItemsTask(CombatBot bot) {
         this.bot = bot;
@@ -35,22 +79,34 @@ public class LootItemsTask extends Task {
     public boolean validate() {
         // This task should run when:
         // 1. We're not in combat (to avoid interrupting combat)
-        // 2. We have inventory space
-        // 3. There are items to loot nearby
+        // 2. The current route has stops left, or there are items to loot nearby
+        //    that fit in our inventory
         return !bot.ctx.combat.inCombat() && 
-               !bot.ctx.inventory.isFull() &&
-               hasItemsToLoot();
+               (hasRouteStops() || hasItemsToLoot());
     }
     
     @Override
     public int execute() {
+        if (bot.isRouteLoot()) {
+            // Take the next stop of the route, planning a new route when it is done
+            if (!hasRouteStops()) {
+                planRoute();
+            }
+            if (hasRouteStops()) {
+                int ticks = take(route[nextStop++]);
+                
+                // Go straight on to the next stop once this pile is picked up
+                return ticks * (int) GameClock.TICK_MILLIS;
+            }
+            return 600;
+        }
+        
         // Find the best item to loot
         KSGroundItem itemToLoot = findBestItemToLoot();
         
         if (itemToLoot != null) {
             // If we found an item, loot it
-            System.out.println("Looting: " + itemToLoot.getName());
-            itemToLoot.interact("Take");
+            take(itemToLoot);
             
             // Wait for the looting action
             return 1500; // Return sleep time in milliseconds
@@ -61,17 +117,146 @@ public class LootItemsTask extends Task {
     }
     
     /**
-     * Checks if there are items worth looting nearby
+     * Walks to an item and picks it up
+     * 
+     * @param item The item to loot
+     * @return The ticks spent walking to the item and taking it
+     */
+    private int take(KSGroundItem item) {
+        KSPlayer local = bot.ctx.players.getLocal();
+        int ticks = LootRoutePlanner.travelTicks(local.getX(), local.getY(), item.getX(), item.getY())
+                + LootRoutePlanner.PICKUP_TICKS;
+        if (local.getX() != item.getX() || local.getY() != item.getY()) {
+            bot.ctx.movement.walkTo(item.getX(), item.getY());
+        }
+        
+        System.out.println("Looting: " + item.getName());
+        int itemId = ItemDefinitions.idOf(item.getName());
+        int quantity = item.getQuantity();
+        item.interact("Take");
+        bot.getProgressTracking().recordItemLooted(itemId, quantity,
+                (long) ItemDefinitions.priceOf(itemId) * quantity);
+        lastLooted = item;
+        pilesLooted++;
+        lootTicks += ticks;
+        return ticks;
+    }
+    
+    /**
+     * Checks if the current route still has a stop to take, skipping stops
+     * whose item has gone or no longer fits in the inventory
+     * 
+     * @return true if there is a stop to take, false otherwise
+     */
+    private boolean hasRouteStops() {
+        EntityStore groundItems = bot.ctx.groundItems.getStore();
+        if (nextStop < routeLength) {
+            refreshFits(groundItems);
+        }
+        while (nextStop < routeLength
+                && !(route[nextStop].isValid() && fitsById[groundItems.id(route[nextStop].getSlot())])) {
+            nextStop++;
+        }
+        return nextStop < routeLength;
+    }
+    
+    /**
+     * Plans a route over the most valuable piles worth looting that fit in
+     * the inventory, starting where we stand
+     */
+    private void planRoute() {
+        EntityStore groundItems = bot.ctx.groundItems.getStore();
+        
+        // Keep the most valuable piles, replacing the cheapest kept one when full
+        refreshFits(groundItems);
+        int piles = 0;
+        int cheapest = 0;
+        for (int slot = 0; slot < groundItems.highWater(); slot++) {
+            int id = groundItems.id(slot);
+            if (id == EntityStore.FREE || !fitsById[id]) {
+                continue;
+            }
+            long pileValue = pileValue(groundItems, slot, id);
+            if (pileValue == LOOT_SKIP) {
+                continue;
+            }
+            if (piles < MAX_ROUTE_PILES) {
+                routeSlots[piles] = slot;
+                routeValues[piles++] = pileValue;
+            } else if (pileValue > routeValues[cheapest]) {
+                routeSlots[cheapest] = slot;
+                routeValues[cheapest] = pileValue;
+            } else {
+                continue;
+            }
+            if (piles == MAX_ROUTE_PILES) {
+                for (int i = 0; i < piles; i++) {
+                    if (routeValues[i] < routeValues[cheapest]) {
+                        cheapest = i;
+                    }
+                }
+            }
+        }
+        
+        planner.clear();
+        for (int i = 0; i < piles; i++) {
+            planner.add(groundItems.x(routeSlots[i]), groundItems.y(routeSlots[i]), routeValues[i]);
+        }
+        KSPlayer local = bot.ctx.players.getLocal();
+        routeLength = planner.plan(local.getX(), local.getY(), LootRoutePlanner.DEFAULT_BUDGET_NANOS);
+        for (int i = 0; i < routeLength; i++) {
+            route[i] = bot.ctx.groundItems.itemAt(routeSlots[planner.stop(i)]);
+        }
+        nextStop = 0;
+    }
+    
+    /**
+     * Gets the item picked up by the last execution
+     * 
+     * @return The item, or null if nothing was looted yet
+     */
+    public KSGroundItem getLastLooted() {
+        return lastLooted;
+    }
+    
+    /**
+     * Gets the number of piles picked up
+     */
+    public int getPilesLooted() {
+        return pilesLooted;
+    }
+    
+    /**
+     * Gets the ticks spent walking to and picking up piles
+     */
+    public long getLootTicks() {
+        return lootTicks;
+    }
+    
+    /**
+     * Gets the average ticks spent walking to and picking up a pile
+     * 
+     * @return Ticks per pile, or 0 if nothing was looted
+     */
+    public double getTicksPerPile() {
+        return pilesLooted == 0 ? 0 : (double) lootTicks / pilesLooted;
+    }
+    
+    /**
+     * Checks if there are items worth looting nearby that fit in our inventory
      * 
      * @return true if there are items to loot, false otherwise
      */
     private boolean hasItemsToLoot() {
-        // Get all ground items
-        GroundItemQuery groundItems = bot.ctx.groundItems.getItems();
+        // Scan the ground item id column for anything worth looting
+        EntityStore groundItems = bot.ctx.groundItems.getStore();
+        if (!refreshFits(groundItems)) {
+            return false;
+        }
         
-        // Check if any items meet our looting criteria
-        for (KSGroundItem item : groundItems.results()) {
-            if (shouldLoot(item)) {
+        for (int slot = 0; slot < groundItems.highWater(); slot++) {
+            int id = groundItems.id(slot);
+            if (id != EntityStore.FREE && fitsById[id] && pileValue(groundItems, slot, id) != LOOT_SKIP) {
                 return true;
             }
         }
@@ -85,55 +270,127 @@ public class LootItemsTask extends Task {
      * @return The best item to loot, or null if none found
      */
     private KSGroundItem findBestItemToLoot() {
-        // Get all ground items
-        GroundItemQuery groundItems = bot.ctx.groundItems.getItems();
+        // Scan the ground item id column directly
+        EntityStore groundItems = bot.ctx.groundItems.getStore();
+        refreshFits(groundItems);
         
-        KSGroundItem bestItem = null;
-        int bestValue = 0;
+        int bestSlot = -1;
+        long bestValue = 0;
         
         // Find the highest value item that meets our criteria
-        for (KSGroundItem item : groundItems.results()) {
-            if (shouldLoot(item)) {
-                int itemValue = getItemValue(item);
-                
-                // Check if this item is better than our current best
-                if (bestItem == null || itemValue > bestValue) {
-                    bestItem = item;
-                    bestValue = itemValue;
-                }
+        for (int slot = 0; slot < groundItems.highWater(); slot++) {
+            int id = groundItems.id(slot);
+            if (id == EntityStore.FREE || !fitsById[id]) {
+                continue;
+            }
+            long pileValue = pileValue(groundItems, slot, id);
+            
+            // Check if this item is better than our current best
+            if (pileValue != LOOT_SKIP && (bestSlot < 0 || pileValue > bestValue)) {
+                bestSlot = slot;
+                bestValue = pileValue;
             }
         }
         
-        return bestItem;
+        return bestSlot < 0 ? null : bot.ctx.groundItems.itemAt(bestSlot);
+    }
+    
+    /**
+     * Checks if a pile worth looting that does not fit in our inventory is
+     * worth more than the given value
+     * 
+     * @param value Value in gold the pile has to beat
+     * @return true if such a pile is on the ground, false otherwise
+     */
+    public boolean hasBlockedPileWorthMore(long value) {
+        EntityStore groundItems = bot.ctx.groundItems.getStore();
+        refreshFits(groundItems);
+        for (int slot = 0; slot < groundItems.highWater(); slot++) {
+            int id = groundItems.id(slot);
+            if (id != EntityStore.FREE && !fitsById[id] && pileValue(groundItems, slot, id) > value) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Gets the value of the pile in a ground item slot if it is worth looting
+     * 
+     * @param groundItems The ground item store
+     * @param slot The slot to check, not free
+     * @param id The ground item id in the slot
+     * @return The value of the whole stack in gold, or LOOT_SKIP if the pile
+     *         is not worth looting
+     */
+    private long pileValue(EntityStore groundItems, int slot, int id) {
+        long pileValue = (long) lootValue(groundItems, id) * Math.max(1, groundItems.hp(slot));
+        return highPriorityById[id] || pileValue >= MIN_VALUE_TO_LOOT ? pileValue : LOOT_SKIP;
+    }
+    
+    /**
+     * Works out for every ground item id whether it would fit in our
+     * inventory: there is a free slot, or a stack to join. Checking once per
+     * id keeps the slot scans to array reads.
+     * 
+     * @param groundItems The ground item store
+     * @return true if any id fits, false if no ground item could be looted
+     */
+    private boolean refreshFits(EntityStore groundItems) {
+        int names = groundItems.nameCount();
+        if (names > 0) {
+            lootValue(groundItems, names - 1);
+        }
+        if (fitsById.length < lootValueById.length) {
+            fitsById = new boolean[lootValueById.length];
+        }
+        boolean anyFits = false;
+        for (int id = 0; id < names; id++) {
+            fitsById[id] = bot.ctx.inventory.canHold(itemIdById[id]);
+            anyFits |= fitsById[id];
+        }
+        return anyFits;
     }
     
     /**
-     * Determines if an item should be looted
+     * Gets the cached value of one item for a ground item id, evaluating
+     * the item name the first time the id is seen
      * 
-     * @param item The item to check
-     * @return true if the item should be looted, false otherwise
+     * @param groundItems The store the id belongs to
+     * @param id The ground item id
+     * @return The value of one item in gold
      */
-    private boolean shouldLoot(KSGroundItem item) {
-        // Always loot high priority items
-        if (isHighPriorityItem(item)) {
-            return true;
+    private int lootValue(EntityStore groundItems, int id) {
+        if (id >= lootValueById.length) {
+            int oldLength = lootValueById.length;
+            int length = Math.max(groundItems.nameCount(), id + 1);
+            lootValueById = Arrays.copyOf(lootValueById, length);
+            highPriorityById = Arrays.copyOf(highPriorityById, length);
+            itemIdById = Arrays.copyOf(itemIdById, length);
+            Arrays.fill(lootValueById, oldLength, length, LOOT_UNKNOWN);
+        }
+        
+        int value = lootValueById[id];
+        if (value == LOOT_UNKNOWN) {
+            String name = groundItems.nameOf(id);
+            value = getItemValue(name);
+            lootValueById[id] = value;
+            highPriorityById[id] = isHighPriorityItem(name);
+            itemIdById[id] = ItemDefinitions.idOf(name);
         }
         
-        // Loot items above the minimum value
-        return getItemValue(item) >= MIN_VALUE_TO_LOOT;
+        return value;
     }
     
     /**
      * Checks if an item is in the high priority list
      * 
-     * @param item The item to check
+     * @param itemName The name of the item to check
      * @return true if the item is high priority, false otherwise
      */
-    private boolean isHighPriorityItem(KSGroundItem item) {
-        String itemName = item.getName();
-        
+    private boolean isHighPriorityItem(String itemName) {
         // Check if the item name contains any of our high priority keywords
-        for (String highPriorityItem : highPriorityItems) {
+        for (String highPriorityItem : HIGH_PRIORITY_ITEMS) {
             if (itemName.contains(highPriorityItem)) {
                 return true;
             }
@@ -145,16 +402,18 @@ public class LootItemsTask extends Task {
     /**
      * Gets the value of an item
      * 
-     * @param item The item to check
+     * @param itemName The name of the item to check
      * @return The value of the item in gold
      */
-    private int getItemValue(KSGroundItem item) {
-        // This is a simplified implementation
-        // In a real bot, you would use a price database or API
+    private int getItemValue(String itemName) {
+        // Use the shared price table when the item is in it
+        int price = ItemDefinitions.priceOf(ItemDefinitions.idOf(itemName));
+        if (price > 0) {
+            return price;
+        }
         
-        // For demonstration purposes, we'll use a simple heuristic
-        // based on the item name
-        String name = item.getName().toLowerCase();
+        // Otherwise fall back to a simple heuristic based on the item name
+        String name = itemName.toLowerCase();
         
         if (name.contains("dragon")) return 20000;
         if (name.contains("rune")) return 10000;
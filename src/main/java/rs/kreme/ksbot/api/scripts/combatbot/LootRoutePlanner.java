@@ -0,0 +1,220 @@
+package rs.kreme.ksbot.api.scripts.combatbot;
+
+import java.util.Arrays;
+
+/**
+ * LootRoutePlanner - Orders a pile of ground items into one pickup route
+ *
+ * A route is scored by its value-weighted pickup time: the sum over the
+ * piles of value times the tick the pile is picked up. Minimizing that
+ * takes valuable piles close by first and leaves cheap, far ones for last,
+ * so if the route is cut short (combat, a full inventory) the value lost is
+ * small. Walking is counted in running ticks over Chebyshev distance, the
+ * way the player moves diagonally, plus a tick per pickup.
+ *
+ * The route starts from a nearest-neighbour pass that always goes to the
+ * pile with the best value per tick away, then 2-opt reverses segments
+ * while that lowers the score. 2-opt stops at a local optimum or when the
+ * time budget runs out, whichever is first, keeping the best route so far.
+ *
+ * A planner reuses its buffers and is not thread-safe.
+ */
+public class LootRoutePlanner {
+
+    // Tiles covered per tick while running
+    public static final int RUN_TILES_PER_TICK = 2;
+
+    // Ticks spent picking an item up
+    public static final int PICKUP_TICKS = 1;
+
+    // Default limit on the time spent improving a route
+    public static final long DEFAULT_BUDGET_NANOS = 500_000;
+
+    // Piles added since the last clear
+    private int[] xs = new int[16];
+    private int[] ys = new int[16];
+    private long[] values = new long[16];
+    private int count;
+
+    // Pile indices in pickup order
+    private int[] order = new int[16];
+
+    // Outcome of the last plan
+    private int improvements;
+    private boolean budgetExhausted;
+
+    /**
+     * Forgets every pile
+     */
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * Adds a pile to the next plan
+     *
+     * @param x Tile x
+     * @param y Tile y
+     * @param value Value of the pile in gold
+     * @return Index of the pile
+     */
+    public int add(int x, int y, long value) {
+        if (count == xs.length) {
+            int capacity = count * 2;
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            values = Arrays.copyOf(values, capacity);
+            order = Arrays.copyOf(order, capacity);
+        }
+        xs[count] = x;
+        ys[count] = y;
+        values[count] = value;
+        return count++;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Plans the route over the added piles
+     *
+     * @param startX Tile x the route starts from
+     * @param startY Tile y the route starts from
+     * @param budgetNanos Longest time to spend improving the route
+     * @return The number of stops, one per pile
+     */
+    public int plan(int startX, int startY, long budgetNanos) {
+        long deadline = System.nanoTime() + budgetNanos;
+        nearestNeighbour(startX, startY);
+        improvements = 0;
+        budgetExhausted = false;
+        long best = score(startX, startY);
+        boolean improved = true;
+        while (improved && !budgetExhausted) {
+            improved = false;
+            for (int i = 0; i < count - 1 && !budgetExhausted; i++) {
+                for (int j = i + 1; j < count; j++) {
+                    reverse(i, j);
+                    long candidate = score(startX, startY);
+                    if (candidate < best) {
+                        best = candidate;
+                        improvements++;
+                        improved = true;
+                    } else {
+                        reverse(i, j);
+                    }
+                }
+                budgetExhausted = System.nanoTime() > deadline;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Pile index of a stop in the planned route
+     */
+    public int stop(int index) {
+        return order[index];
+    }
+
+    public int getX(int pile) {
+        return xs[pile];
+    }
+
+    public int getY(int pile) {
+        return ys[pile];
+    }
+
+    /**
+     * Ticks the planned route takes from start to the last pickup
+     */
+    public long routeTicks(int startX, int startY) {
+        long ticks = 0;
+        int x = startX;
+        int y = startY;
+        for (int i = 0; i < count; i++) {
+            int pile = order[i];
+            ticks += travelTicks(x, y, xs[pile], ys[pile]) + PICKUP_TICKS;
+            x = xs[pile];
+            y = ys[pile];
+        }
+        return ticks;
+    }
+
+    /**
+     * Number of 2-opt moves the last plan made
+     */
+    public int getImprovements() {
+        return improvements;
+    }
+
+    /**
+     * Whether the last plan stopped on its time budget rather than at a local optimum
+     */
+    public boolean isBudgetExhausted() {
+        return budgetExhausted;
+    }
+
+    /**
+     * Running ticks between two tiles
+     */
+    public static int travelTicks(int fromX, int fromY, int toX, int toY) {
+        int tiles = Math.max(Math.abs(toX - fromX), Math.abs(toY - fromY));
+        return (tiles + RUN_TILES_PER_TICK - 1) / RUN_TILES_PER_TICK;
+    }
+
+    /**
+     * Seeds the order by always going to the pile with the most value per tick away
+     */
+    private void nearestNeighbour(int startX, int startY) {
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        int x = startX;
+        int y = startY;
+        for (int i = 0; i < count; i++) {
+            int best = i;
+            double bestDensity = -1;
+            for (int k = i; k < count; k++) {
+                int pile = order[k];
+                double density = (double) values[pile] / (travelTicks(x, y, xs[pile], ys[pile]) + PICKUP_TICKS);
+                if (density > bestDensity) {
+                    best = k;
+                    bestDensity = density;
+                }
+            }
+            int pile = order[best];
+            order[best] = order[i];
+            order[i] = pile;
+            x = xs[pile];
+            y = ys[pile];
+        }
+    }
+
+    /**
+     * Value-weighted pickup time of the current order
+     */
+    private long score(int startX, int startY) {
+        long score = 0;
+        long tick = 0;
+        int x = startX;
+        int y = startY;
+        for (int i = 0; i < count; i++) {
+            int pile = order[i];
+            tick += travelTicks(x, y, xs[pile], ys[pile]) + PICKUP_TICKS;
+            score += values[pile] * tick;
+            x = xs[pile];
+            y = ys[pile];
+        }
+        return score;
+    }
+
+    private void reverse(int from, int to) {
+        for (int i = from, j = to; i < j; i++, j--) {
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+    }
+}
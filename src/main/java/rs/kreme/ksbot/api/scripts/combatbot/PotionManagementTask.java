@@ -2,8 +2,16 @@ package rs.kreme.ksbot.api.scripts.combatbot;
 
 import rs.kreme.ksbot.api.scripts.task.Task;
 import rs.kreme.ksbot.api.game.Combat;
+import rs.kreme.ksbot.api.game.PotionType;
+import rs.kreme.ksbot.api.game.Skill;
 import rs.kreme.ksbot.api.wrappers.KSItem;
-import rs.kreme.ksbot.api.queries.ItemQuery;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * PotionManagementTask - Responsible for using combat potions
@@ -12,6 +20,16 @@ import rs.kreme.ksbot.api.queries.ItemQuery;
  * 1. Detecting when stat boosts are needed
  * 2. Using appropriate potions for different combat styles
  * 3. Managing potion doses efficiently
+ * 
+ * Instead of drinking on a fixed cooldown, the task watches the boost of
+ * the skill the current style relies on. Boosts wear off one level per
+ * minute, so the task drinks as soon as the boost drops below the bot's
+ * margin and otherwise sleeps until the next decay step. Potion names are
+ * compiled once into rank tables; picking a potion is a single pass over
+ * the inventory that prefers the fewest doses, so (1) potions are used up
+ * before a fresh (4) is started. Whether any suitable dose is left at all
+ * is read from the {@link rs.kreme.ksbot.api.game.Consumables} counters, so
+ * the check itself never scans the inventory.
  */
 public class PotionManagementTask extends Task {
     
@@ -19,18 +37,34 @@ public class PotionManagementTask extends Task {
     private final Combat combat;
     
     // Potion types for different combat styles
-    private final String[] STRENGTH_POTIONS = {"Super strength", "Strength potion"};
-    private final String[] ATTACK_POTIONS = {"Super attack", "Attack potion"};
-    private final String[] DEFENSE_POTIONS = {"Super defense", "Defense potion"};
-    private final String[] RANGE_POTIONS = {"Ranging potion", "Bastion potion"};
-    private final String[] MAGIC_POTIONS = {"Magic potion", "Battlemage potion"};
-    private final String[] COMBAT_POTIONS = {"Super combat potion", "Combat potion"};
+    private static final String[] STRENGTH_POTIONS = {"Super strength", "Strength potion"};
+    private static final String[] ATTACK_POTIONS = {"Super attack", "Attack potion"};
+    private static final String[] DEFENSE_POTIONS = {"Super defence", "Defence potion"};
+    private static final String[] RANGE_POTIONS = {"Ranging potion", "Bastion potion"};
+    private static final String[] MAGIC_POTIONS = {"Magic potion", "Battlemage potion"};
+    private static final String[] COMBAT_POTIONS = {"Super combat potion", "Combat potion"};
+    
+    // Highest dose a potion comes in
+    private static final int MAX_DOSES = 4;
     
-    // Minimum time between potion uses (in milliseconds)
-    private final long POTION_COOLDOWN = 60000; // 1 minute
+    // Ticks to wait after drinking before the boost shows up
+    private static final int DRINK_DELAY_TICKS = 3;
     
-    // Last time potions were used
-    private long lastPotionTime = 0;
+    // Precompiled potion name -> rank tables per combat style (lower rank is drunk first),
+    // holding only the families that boost the style's skill; shared read-only by every bot
+    private static final Map<String, Integer> MELEE_POTION_RANKS =
+        compileRanks(Skill.STRENGTH, COMBAT_POTIONS, STRENGTH_POTIONS, ATTACK_POTIONS, DEFENSE_POTIONS);
+    private static final Map<String, Integer> RANGED_POTION_RANKS = compileRanks(Skill.RANGED, RANGE_POTIONS);
+    private static final Map<String, Integer> MAGIC_POTION_RANKS = compileRanks(Skill.MAGIC, MAGIC_POTIONS);
+    
+    // The same families per combat style as potion types, for the dose counters
+    private static final Set<PotionType> MELEE_POTION_TYPES =
+        compileTypes(Skill.STRENGTH, COMBAT_POTIONS, STRENGTH_POTIONS, ATTACK_POTIONS, DEFENSE_POTIONS);
+    private static final Set<PotionType> RANGED_POTION_TYPES = compileTypes(Skill.RANGED, RANGE_POTIONS);
+    private static final Set<PotionType> MAGIC_POTION_TYPES = compileTypes(Skill.MAGIC, MAGIC_POTIONS);
+    
+    // Tick of the last drink
+    private long lastDrinkTick = -DRINK_DELAY_TICKS;
     
     public PotionManagementTask(CombatBot bot) {
         this.bot = bot;
@@ -41,151 +75,193 @@ public class PotionManagementTask extends Task {
     public boolean validate() {
         // This task should run when:
         // 1. We're in combat
-        // 2. Enough time has passed since last potion use
-        // 3. We have potions in our inventory
-        // 4. Our stats could use a boost
+        // 2. The last potion has had time to take effect
+        // 3. Our boost has worn down below the margin
+        // 4. We have a suitable potion in our inventory
         return combat.inCombat() && 
-               System.currentTimeMillis() - lastPotionTime > POTION_COOLDOWN &&
-               hasPotions() &&
-               needsStatBoost();
+               bot.ctx.clock.currentTick() - lastDrinkTick >= DRINK_DELAY_TICKS &&
+               needsStatBoost() &&
+               bot.ctx.consumables.getDoses(determinePotionTypes()) > 0;
     }
     
     @Override
     public int execute() {
         // Determine which potion to use based on combat style
-        String[] potionsToUse = determinePotionsToUse();
+        Map<String, Integer> potionsToUse = determinePotionsToUse();
         
         // Find a potion in our inventory
         KSItem potion = findPotion(potionsToUse);
         
         if (potion != null) {
             // Use the potion
-            System.out.println("Using potion: " + potion.getName());
+            System.out.println("Using potion: " + potion.getName() + 
+                               " (" + determineBoostSkill() + " boost " + 
+                               bot.ctx.skills.getBoost(determineBoostSkill()) + ")");
             potion.interact("Drink");
+            bot.getProgressTracking().recordPotionConsumed();
             
-            // Update the last potion time
-            lastPotionTime = System.currentTimeMillis();
+            // Remember when we drank
+            lastDrinkTick = bot.ctx.clock.currentTick();
             
             // Wait for the drinking animation
             return 1800; // Return sleep time in milliseconds
         }
         
-        // No suitable potion found
-        return 1000;
+        // No suitable potion found; check again when the boost next changes
+        return (int) bot.ctx.skills.millisUntilDecay();
     }
     
     /**
-     * Checks if we have any potions in our inventory
+     * Checks if our boost has decayed below the configured margin
      * 
-     * @return true if potions are found, false otherwise
+     * @return true if a stat boost is needed, false otherwise
      */
-    private boolean hasPotions() {
-        // Get all possible potion types
-        String[] allPotions = getAllPotionTypes();
-        
-        // Check if we have any of these potions
-        ItemQuery query = bot.ctx.inventory.getItems(allPotions);
-        return !query.results().isEmpty();
+    private boolean needsStatBoost() {
+        return bot.ctx.skills.getBoost(determineBoostSkill()) < bot.getPotionBoostMargin();
     }
     
     /**
-     * Checks if our stats could use a boost
+     * Determines the skill whose boost matters for the current combat style
      * 
-     * @return true if a stat boost would be beneficial, false otherwise
+     * @return The skill to keep boosted
      */
-    private boolean needsStatBoost() {
-        // This is a simplified implementation
-        // In a real bot, you would check current vs. base stats
-        
-        // For demonstration purposes, we'll assume we need a boost
-        // if we've been in combat for a while
-        return combat.inCombat();
+    private Skill determineBoostSkill() {
+        Combat.AttackStyle attackStyle = combat.getAttackStyle();
+        if (attackStyle == Combat.AttackStyle.RANGING) {
+            return Skill.RANGED;
+        } else if (attackStyle == Combat.AttackStyle.CASTING) {
+            return Skill.MAGIC;
+        }
+        return Skill.STRENGTH;
     }
     
     /**
      * Determines which potions to use based on combat style
      * 
-     * @return Array of potion names to use
+     * @return Potion rank table for the style
      */
-    private String[] determinePotionsToUse() {
+    private Map<String, Integer> determinePotionsToUse() {
         // Get the current attack style
         Combat.AttackStyle attackStyle = combat.getAttackStyle();
         
         // Choose potions based on attack style
-        if (attackStyle == Combat.AttackStyle.ACCURATE || 
-            attackStyle == Combat.AttackStyle.AGGRESSIVE || 
-            attackStyle == Combat.AttackStyle.CONTROLLED) {
-            // Melee combat - try combat potion first, then individual potions
-            return COMBAT_POTIONS;
-        } else if (attackStyle == Combat.AttackStyle.RANGING) {
+        if (attackStyle == Combat.AttackStyle.RANGING) {
             // Ranged combat
-            return RANGE_POTIONS;
+            return RANGED_POTION_RANKS;
         } else if (attackStyle == Combat.AttackStyle.CASTING) {
             // Magic combat
-            return MAGIC_POTIONS;
+            return MAGIC_POTION_RANKS;
         }
         
-        // Default to combat potions if style is unknown
-        return COMBAT_POTIONS;
+        // Melee combat, or unknown style - combat potions first, then individual potions
+        return MELEE_POTION_RANKS;
     }
     
     /**
-     * Finds a potion in the inventory based on the provided potion names
+     * Determines which potion families count for the current combat style
      * 
-     * @param potionNames The names of potions to look for
-     * @return The potion item, or null if none found
+     * @return Potion types for the style
      */
-    private KSItem findPotion(String[] potionNames) {
-        // Search inventory for items matching our potion names
-        ItemQuery query = bot.ctx.inventory.getItems(potionNames);
-        
-        // Return the first potion found, or null if none found
-        return query.results().isEmpty() ? null : query.results().get(0);
+    private Set<PotionType> determinePotionTypes() {
+        Combat.AttackStyle attackStyle = combat.getAttackStyle();
+        if (attackStyle == Combat.AttackStyle.RANGING) {
+            return RANGED_POTION_TYPES;
+        } else if (attackStyle == Combat.AttackStyle.CASTING) {
+            return MAGIC_POTION_TYPES;
+        }
+        return MELEE_POTION_TYPES;
     }
     
     /**
-     * Gets all possible potion types
+     * Finds the potion to drink next, preferring the fewest doses
      * 
-     * @return Array of all potion names
+     * @param potionRanks Rank table of the potions to look for
+     * @return The potion item, or null if none found
      */
-    private String[] getAllPotionTypes() {
-        // Combine all potion arrays
-        String[] allPotions = new String[
-            STRENGTH_POTIONS.length + 
-            ATTACK_POTIONS.length + 
-            DEFENSE_POTIONS.length + 
-            RANGE_POTIONS.length + 
-            MAGIC_POTIONS.length + 
-            COMBAT_POTIONS.length
-        ];
-        
-        // Copy all potion names into the combined array
-        int index = 0;
-        
-        for (String potion : STRENGTH_POTIONS) {
-            allPotions[index++] = potion;
+    private KSItem findPotion(Map<String, Integer> potionRanks) {
+        List<KSItem> items = bot.ctx.inventory.getItems().results();
+        KSItem best = null;
+        int bestRank = Integer.MAX_VALUE;
+        for (int i = 0; i < items.size(); i++) {
+            Integer rank = potionRanks.get(items.get(i).getName());
+            if (rank != null && rank < bestRank) {
+                best = items.get(i);
+                bestRank = rank;
+            }
         }
-        
-        for (String potion : ATTACK_POTIONS) {
-            allPotions[index++] = potion;
-        }
-        
-        for (String potion : DEFENSE_POTIONS) {
-            allPotions[index++] = potion;
+        return best;
+    }
+    
+    /**
+     * Compiles the potion families that boost a skill into a name -> rank
+     * table. Ranks order by dose first (1 dose lowest) and by family
+     * preference second. Only names with a dose suffix are ranked, the same
+     * items the dose counters see. Families that do not
+     * boost the skill are left out, since drinking them would never lift the
+     * boost the task watches.
+     * 
+     * @param skill The skill the style keeps boosted
+     * @param groups Potion families in preference order
+     * @return The rank table
+     */
+    private static Map<String, Integer> compileRanks(Skill skill, String[]... groups) {
+        int families = 0;
+        for (String[] group : groups) {
+            for (String potion : group) {
+                if (potionType(potion).affects(skill)) {
+                    families++;
+                }
+            }
         }
         
-        for (String potion : RANGE_POTIONS) {
-            allPotions[index++] = potion;
+        Map<String, Integer> ranks = new HashMap<>();
+        int family = 0;
+        for (String[] group : groups) {
+            for (String potion : group) {
+                if (!potionType(potion).affects(skill)) {
+                    continue;
+                }
+                for (int dose = 1; dose <= MAX_DOSES; dose++) {
+                    ranks.put(potion + "(" + dose + ")", (dose - 1) * families + family);
+                }
+                family++;
+            }
         }
-        
-        for (String potion : MAGIC_POTIONS) {
-            allPotions[index++] = potion;
+        return Collections.unmodifiableMap(ranks);
+    }
+    
+    /**
+     * Compiles the potion families that boost a skill into the set of their potion types
+     * 
+     * @param skill The skill the style keeps boosted
+     * @param groups Potion family names
+     * @return The potion types, read-only
+     */
+    private static Set<PotionType> compileTypes(Skill skill, String[]... groups) {
+        EnumSet<PotionType> types = EnumSet.noneOf(PotionType.class);
+        for (String[] group : groups) {
+            for (String potion : group) {
+                PotionType type = potionType(potion);
+                if (type.affects(skill)) {
+                    types.add(type);
+                }
+            }
         }
-        
-        for (String potion : COMBAT_POTIONS) {
-            allPotions[index++] = potion;
+        return Collections.unmodifiableSet(types);
+    }
+    
+    /**
+     * Looks up the potion type of a family name
+     * 
+     * @param potion Potion family name
+     * @return The potion type
+     * @throws IllegalStateException if the family is unknown
+     */
+    private static PotionType potionType(String potion) {
+        PotionType type = PotionType.byName(potion);
+        if (type == null) {
+            throw new IllegalStateException("Unknown potion family: " + potion);
         }
-        
-        return allPotions;
+        return type;
     }
 }
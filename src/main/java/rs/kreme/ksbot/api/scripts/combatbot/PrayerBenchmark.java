@@ -0,0 +1,97 @@
+package rs.kreme.ksbot.api.scripts.combatbot;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import rs.kreme.ksbot.api.game.GameClock;
+import rs.kreme.ksbot.api.game.Prayer;
+import rs.kreme.ksbot.api.game.Prayer.Prayers;
+
+/**
+ * Command-line comparison of prayer point spend per kill with protection
+ * kept on for the whole fight and with protection scheduled around the
+ * predicted attack ticks. Both runs fight the same seeded sequence of
+ * melee NPCs in virtual time, tick by tick: the prayer task decides, the
+ * NPC attacks on its attack ticks, then a tick of prayer drain is applied.
+ * Each NPC attacks every 4, 5 or 6 ticks, picked at random per kill.
+ * <p>
+ * Run with {@code ./gradlew benchmarkPrayer}.
+ */
+public final class PrayerBenchmark {
+
+    private static final int KILLS = 500;
+    private static final int[] ATTACK_SPEEDS_TICKS = {4, 5, 6};
+    private static final int IDLE_TICKS = 3;
+    private static final int PRAYER_BONUS = 30;
+    private static final int RESTORE_BELOW = 20;
+    private static final String[] PRAYERS = {"Protect from Melee", "Piety"};
+
+    private PrayerBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        System.out.println("=== Prayer benchmark (" + KILLS + " kills, attacker speeds "
+                + Arrays.toString(ATTACK_SPEEDS_TICKS) + " ticks) ===");
+        Prayer model = new Prayer();
+        model.setPrayerBonus(PRAYER_BONUS);
+        System.out.printf(Locale.ROOT, "Drain model: full points last %,d ticks with both prayers, "
+                        + "%,d ticks with protection alone%n",
+                model.ticksUntilEmpty(EnumSet.of(Prayers.PROTECT_FROM_MELEE, Prayers.PIETY)),
+                model.ticksUntilEmpty(EnumSet.of(Prayers.PROTECT_FROM_MELEE)));
+        run("Always on", false);
+        run("Scheduled", true);
+    }
+
+    private static void run(String label, boolean flicking) {
+        CombatBot bot = new CombatBot();
+        bot.ctx.clock.setVirtualTime(0);
+        bot.setUsePrayer(true);
+        bot.setPrayerNames(PRAYERS);
+        bot.setPrayerFlicking(flicking);
+        bot.ctx.prayer.setPrayerBonus(PRAYER_BONUS);
+        PrayerTask task = new PrayerTask(bot);
+        Prayer prayer = bot.ctx.prayer;
+        SplittableRandom random = new SplittableRandom(7L);
+
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        long spent = 0;
+        long ticks = 0;
+        int switches = 0;
+        for (int kill = 0; kill < KILLS; kill++) {
+            bot.ctx.combat.setInCombat(true);
+            int attackSpeed = ATTACK_SPEEDS_TICKS[random.nextInt(ATTACK_SPEEDS_TICKS.length)];
+            int firstAttack = 1 + random.nextInt(attackSpeed);
+            int fightTicks = 12 + random.nextInt(16);
+            for (int tick = 0; tick < fightTicks + IDLE_TICKS; tick++) {
+                if (tick == fightTicks) {
+                    bot.ctx.combat.setInCombat(false);
+                }
+                if (task.validate()) {
+                    task.execute();
+                    switches++;
+                }
+                if (tick < fightTicks && tick >= firstAttack && (tick - firstAttack) % attackSpeed == 0) {
+                    bot.ctx.combat.hitTaken(random.nextInt(12));
+                }
+                int before = prayer.getPrayerPoints();
+                prayer.tick();
+                spent += before - prayer.getPrayerPoints();
+                if (prayer.getPrayerPoints() < RESTORE_BELOW) {
+                    prayer.setPrayerPoints(99);
+                }
+                bot.ctx.clock.advance(GameClock.TICK_MILLIS);
+                ticks++;
+            }
+        }
+        System.setOut(out);
+
+        System.out.printf(Locale.ROOT, "%-10s %6.2f points/kill, %,6d points over %,d ticks, "
+                        + "%,5d switches, %d/%d attacks unprotected%n",
+                label, (double) spent / KILLS, spent, ticks, switches,
+                task.getScheduler().getUnprotectedAttacks(), task.getScheduler().getAttacks());
+    }
+}
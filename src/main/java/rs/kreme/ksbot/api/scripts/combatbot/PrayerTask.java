@@ -3,6 +3,9 @@ package rs.kreme.ksbot.api.scripts.combatbot;
 import rs.kreme.ksbot.api.scripts.task.Task;
 import rs.kreme.ksbot.api.game.Prayer;
 import rs.kreme.ksbot.api.game.Prayer.Prayers;
+import rs.kreme.ksbot.api.game.ProtectionScheduler;
+
+import java.util.EnumSet;
 
 /**
  * PrayerTask - Responsible for managing prayer usage
@@ -10,16 +13,36 @@ import rs.kreme.ksbot.api.game.Prayer.Prayers;
  * This task handles:
  * 1. Activating configured prayers when in combat
  * 2. Deactivating prayers when not in combat to conserve prayer points
- * 3. Monitoring prayer points
+ * 3. Keeping protection prayers on only around the ticks an attack is expected
+ * 4. Monitoring prayer points
+ * 
+ * The configured prayer names are resolved once into a set. Each check
+ * works out the wanted set for the current tick and switches the
+ * difference in one batch, so the task only runs when something changes.
  */
 public class PrayerTask extends Task {
     
+    // Ticks before a predicted attack to switch protection on
+    private static final int PROTECTION_LEAD_TICKS = 1;
+    
     private final CombatBot bot;
     private final Prayer prayer;
+    private final ProtectionScheduler scheduler;
+    
+    // Configured prayers, resolved while the bot keeps the same name array
+    private String[] resolvedNames;
+    private final EnumSet<Prayers> configured = EnumSet.noneOf(Prayers.class);
+    
+    // Scratch sets for the current check
+    private final EnumSet<Prayers> wanted = EnumSet.noneOf(Prayers.class);
+    private final EnumSet<Prayers> toActivate = EnumSet.noneOf(Prayers.class);
+    private final EnumSet<Prayers> toDeactivate = EnumSet.noneOf(Prayers.class);
     
     public PrayerTask(CombatBot bot) {
         this.bot = bot;
         this.prayer = bot.ctx.prayer;
+        this.scheduler = new ProtectionScheduler(bot.ctx.clock, prayer, PROTECTION_LEAD_TICKS);
+        bot.ctx.combat.addListener(scheduler);
     }
     
     @Override
@@ -27,94 +50,102 @@ public class PrayerTask extends Task {
         // This task should run when:
         // 1. Prayer usage is enabled in configuration
         // 2. We have prayer points available
+        // 3. The prayers that should be on this tick differ from the active ones
         return bot.isUsePrayer() && 
-               prayer.getPrayerPoints() > 0;
+               prayer.getPrayerPoints() > 0 &&
+               planSwitch();
     }
     
     @Override
     public int execute() {
-        // Check if we're in combat
-        boolean inCombat = bot.ctx.combat.inCombat();
-        
-        // Get configured prayers
-        String[] prayerNames = bot.getPrayerNames();
-        
-        // Manage prayers based on combat state
-        if (inCombat) {
-            // Activate prayers when in combat
-            activatePrayers(prayerNames);
-        } else {
-            // Deactivate prayers when not in combat to save points
-            deactivatePrayers(prayerNames);
+        // Switch the whole difference at once
+        for (Prayers prayerEnum : toActivate) {
+            System.out.println("Activating prayer: " + prayerEnum.getDisplayName());
         }
+        for (Prayers prayerEnum : toDeactivate) {
+            System.out.println("Deactivating prayer: " + prayerEnum.getDisplayName());
+        }
+        prayer.deactivate(toDeactivate);
+        prayer.activate(toActivate);
         
         // Log prayer points status if running low
         int prayerPoints = prayer.getPrayerPoints();
         if (prayerPoints < 20) {
-            System.out.println("WARNING: Prayer points low: " + prayerPoints);
+            System.out.println("WARNING: Prayer points low: " + prayerPoints
+                    + " (" + prayer.millisUntilEmpty() / 1000 + "s left at this drain)");
         }
         
-        // Check prayer status periodically
-        return 5000; // Check every 5 seconds
+        // Switches register on the next tick
+        return (int) bot.ctx.clock.millisUntilNextTick();
+    }
+    
+    @Override
+    public void onStop() {
+        // Stop following attacks once the bot stops
+        bot.ctx.combat.removeListener(scheduler);
     }
     
     /**
-     * Activates the specified prayers if they're not already active
+     * Gets the scheduler that predicts incoming attacks
      * 
-     * @param prayerNames The names of prayers to activate
+     * @return The protection scheduler
      */
-    private void activatePrayers(String[] prayerNames) {
-        for (String prayerName : prayerNames) {
-            // Convert name to prayer enum (simplified implementation)
-            Prayers prayerEnum = getPrayerByName(prayerName);
-            
-            if (prayerEnum != null && !prayer.isPrayerActive(prayerEnum)) {
-                System.out.println("Activating prayer: " + prayerName);
-                prayer.activatePrayer(prayerEnum);
-            }
-        }
+    public ProtectionScheduler getScheduler() {
+        return scheduler;
     }
     
     /**
-     * Deactivates the specified prayers if they're active
+     * Works out which configured prayers should be on this tick and what
+     * has to change
      * 
-     * @param prayerNames The names of prayers to deactivate
+     * @return true if any prayer has to be switched
      */
-    private void deactivatePrayers(String[] prayerNames) {
-        for (String prayerName : prayerNames) {
-            // Convert name to prayer enum (simplified implementation)
-            Prayers prayerEnum = getPrayerByName(prayerName);
-            
-            if (prayerEnum != null && prayer.isPrayerActive(prayerEnum)) {
-                System.out.println("Deactivating prayer: " + prayerName);
-                prayer.deactivatePrayer(prayerEnum);
+    private boolean planSwitch() {
+        EnumSet<Prayers> prayers = resolveConfigured();
+        wanted.clear();
+        if (bot.ctx.combat.inCombat()) {
+            long tick = bot.ctx.clock.currentTick();
+            boolean protect = !bot.isPrayerFlicking() || scheduler.shouldProtect(tick);
+            for (Prayers prayerEnum : prayers) {
+                if (protect || !prayerEnum.isProtection()) {
+                    wanted.add(prayerEnum);
+                }
             }
+        } else {
+            // The fight is over, so the next attacker's timing is unknown
+            scheduler.reset();
         }
+        
+        toActivate.clear();
+        toActivate.addAll(wanted);
+        toActivate.removeAll(prayer.getActivePrayers());
+        toDeactivate.clear();
+        toDeactivate.addAll(prayers);
+        toDeactivate.removeAll(wanted);
+        toDeactivate.retainAll(prayer.getActivePrayers());
+        return !toActivate.isEmpty() || !toDeactivate.isEmpty();
     }
     
     /**
-     * Converts a prayer name to its corresponding enum value
+     * Resolves the configured prayer names, again only when the bot's name
+     * array changes
      * 
-     * @param prayerName The name of the prayer
-     * @return The corresponding Prayers enum value, or null if not found
+     * @return The configured prayers
      */
-    private Prayers getPrayerByName(String prayerName) {
-        // This is a simplified implementation
-        // In a real bot, you would match the name to the actual enum values
-        
-        // Example mapping for common prayers
-        if (prayerName.equalsIgnoreCase("Protect from Melee")) {
-            return Prayers.PROTECT_FROM_MELEE;
-        } else if (prayerName.equalsIgnoreCase("Protect from Magic")) {
-            return Prayers.PROTECT_FROM_MAGIC;
-        } else if (prayerName.equalsIgnoreCase("Protect from Missiles")) {
-            return Prayers.PROTECT_FROM_MISSILES;
-        } else if (prayerName.equalsIgnoreCase("Piety")) {
-            return Prayers.PIETY;
+    private EnumSet<Prayers> resolveConfigured() {
+        String[] prayerNames = bot.getPrayerNames();
+        if (prayerNames != resolvedNames) {
+            configured.clear();
+            for (String prayerName : prayerNames) {
+                Prayers prayerEnum = Prayers.byName(prayerName);
+                if (prayerEnum == null) {
+                    System.out.println("WARNING: Unrecognized prayer name: " + prayerName);
+                } else {
+                    configured.add(prayerEnum);
+                }
+            }
+            resolvedNames = prayerNames;
         }
-        
-        // Default case if prayer name not recognized
-        System.out.println("WARNING: Unrecognized prayer name: " + prayerName);
-        return null;
+        return configured;
     }
 }
@@ -0,0 +1,133 @@
+package rs.kreme.ksbot.api.scripts.combatbot;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import rs.kreme.ksbot.api.game.Combat;
+import rs.kreme.ksbot.api.game.GameClock;
+import rs.kreme.ksbot.api.game.ItemDefinitions;
+import rs.kreme.ksbot.api.game.Skill;
+import rs.kreme.ksbot.api.scripts.task.TaskScript.InventoryClient;
+import rs.kreme.ksbot.api.wrappers.KSItem;
+
+/**
+ * Command-line comparison of eating at fixed health percentages and eating
+ * on the predicted death risk, against a pack of weak attackers and against
+ * a slow, hard hitter with a fast, weak helper. Every run takes the same seeded trips in
+ * virtual ticks; hits land first, then the eat task decides once the last
+ * meal has gone down. A trip ends at death, when the food runs out or after
+ * {@value #TRIP_TICKS} ticks. The margin histogram counts meals by the
+ * ticks the expected damage would have taken to kill.
+ * <p>
+ * Run with {@code ./gradlew benchmarkPredictiveEating}.
+ */
+public final class PredictiveEatingBenchmark {
+
+    private static final int TRIPS = 1_000;
+    private static final int TRIP_TICKS = 1_000;
+    private static final int HITPOINTS = 80;
+    private static final int FOOD = 28;
+    private static final int EAT_DELAY_TICKS = 3;
+
+    // Attackers per scenario: max hit, attack speed in ticks, accuracy in percent
+    private static final int[][] WEAK_PACK = {{8, 4, 70}, {8, 4, 70}, {6, 5, 70}};
+    private static final int[][] HARD_HITTER = {{44, 6, 60}, {10, 4, 80}};
+
+    private PredictiveEatingBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        scenario("weak pack", WEAK_PACK);
+        scenario("hard hitter", HARD_HITTER);
+    }
+
+    private static void scenario(String name, int[][] attackers) {
+        System.out.println("=== Predictive eating benchmark, " + name + " (" + TRIPS + " trips, " + HITPOINTS
+                + " hitpoints, " + FOOD + " sharks) ===");
+        run("Health 50%", attackers, 50, false);
+        run("Health 80%", attackers, 80, false);
+        run("Risk 0.5%", attackers, 50, true);
+    }
+
+    private static void run(String label, int[][] scenario, int eatAtPercent, boolean predictive) {
+        CombatBot bot = new CombatBot();
+        bot.setFoodNames(new String[]{"Shark"});
+        bot.setEatAtHealthPercent(eatAtPercent);
+        bot.setPredictiveEating(predictive);
+        bot.ctx.skills.setLevel(Skill.HITPOINTS, HITPOINTS);
+        bot.ctx.clock.setVirtualTime(0);
+        EatFoodTask task = new EatFoodTask(bot);
+        Combat combat = bot.ctx.combat;
+        InventoryClient inventory = bot.ctx.inventory;
+        int[] attackers = new int[scenario.length];
+        for (int i = 0; i < scenario.length; i++) {
+            attackers[i] = combat.addAttackableNpc("Attacker " + i, 100, 3200 + i, 3200, 100);
+        }
+
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        long ticks = 0;
+        long healed = 0;
+        long nominal = 0;
+        long meals = 0;
+        int deaths = 0;
+        for (int trip = 0; trip < TRIPS; trip++) {
+            SplittableRandom random = new SplittableRandom(23L + trip);
+            List<KSItem> food = new ArrayList<>();
+            for (int i = 0; i < FOOD; i++) {
+                food.add(new KSItem("Shark"));
+            }
+            inventory.setItems(food);
+            task.getDamageEstimator().reset();
+            setHealth(combat, HITPOINTS);
+            int[] firstAttack = new int[scenario.length];
+            for (int i = 0; i < scenario.length; i++) {
+                firstAttack[i] = random.nextInt(scenario[i][1]);
+            }
+            int nextEatTick = 0;
+            for (int tick = 0; tick < TRIP_TICKS && bot.ctx.consumables.getFoodCount() > 0; tick++) {
+                boolean dead = false;
+                for (int i = 0; i < scenario.length && !dead; i++) {
+                    int[] attacker = scenario[i];
+                    if (tick >= firstAttack[i] && (tick - firstAttack[i]) % attacker[1] == 0) {
+                        int damage = random.nextInt(100) < attacker[2] ? random.nextInt(attacker[0] + 1) : 0;
+                        combat.hitTaken(attackers[i], damage);
+                        setHealth(combat, combat.getCurrentHealth() - damage);
+                        dead = combat.getCurrentHealth() <= 0;
+                    }
+                }
+                if (dead) {
+                    deaths++;
+                    break;
+                }
+                if (tick >= nextEatTick && task.validate()) {
+                    task.execute();
+                    int heal = ItemDefinitions.healOf(task.getLastFood().getId());
+                    inventory.removeItem(inventory.indexOf(task.getLastFood()));
+                    int before = combat.getCurrentHealth();
+                    setHealth(combat, Math.min(HITPOINTS, before + heal));
+                    healed += combat.getCurrentHealth() - before;
+                    nominal += heal;
+                    meals++;
+                    nextEatTick = tick + EAT_DELAY_TICKS;
+                }
+                bot.ctx.clock.advance(GameClock.TICK_MILLIS);
+                ticks++;
+            }
+        }
+        System.setOut(out);
+
+        System.out.printf(Locale.ROOT, "%-11s %,4d deaths, %6.1f ticks/trip, %5.1f%% heal efficiency, "
+                        + "%,6d meals%n",
+                label, deaths, (double) ticks / TRIPS, 100.0 * healed / Math.max(1, nominal), meals);
+        System.out.println("            " + task.formatMargins());
+    }
+
+    private static void setHealth(Combat combat, int health) {
+        combat.setCurrentHealth(health);
+        combat.setHealthPercent(Math.max(0, health) * 100 / HITPOINTS);
+    }
+}
@@ -1,11 +1,11 @@
 package rs.kreme.ksbot.api.scripts.combatbot;
 
+import rs.kreme.ksbot.api.game.ItemDefinitions;
+import rs.kreme.ksbot.api.game.Skill;
+import rs.kreme.ksbot.api.game.XpDropRing;
 import rs.kreme.ksbot.api.scripts.task.Task;
-import rs.kreme.ksbot.api.wrappers.KSItem;
-import rs.kreme.ksbot.api.queries.ItemQuery;
-
-import java.util.HashMap;
-import java.util.Map;
+import rs.kreme.ksbot.api.stats.LootLedger;
+import rs.kreme.ksbot.api.stats.RateTracker;
 
 /**
  * ProgressTrackingTask - Responsible for tracking and reporting bot progress
@@ -15,6 +15,14 @@ import java.util.Map;
  * 2. Monitoring resource consumption (food, potions)
  * 3. Providing periodic progress reports
  * 4. Estimating efficiency metrics (kills per hour, XP per hour)
+ * 
+ * XP is counted from the XP drops the skills client publishes: the task
+ * holds its own reader on the drop ring and drains whatever arrived on
+ * every validation, instead of polling XP totals, so each drop reaches the
+ * rate tracker in the second it happened. Food, potions and loot are
+ * recorded by the tasks that use them. Rates come from the bot's
+ * {@link RateTracker}, so the report shows recent 1/5/15/60 minute rates
+ * next to the lifetime average.
  */
 public class ProgressTrackingTask extends Task {
     
@@ -24,33 +32,39 @@ public class ProgressTrackingTask extends Task {
     private final long startTime;
     private int startingCombatXp;
     private int currentCombatXp;
-    private int foodConsumed;
-    private int potionsConsumed;
-    private int totalLootValue;
-    private Map<String, Integer> itemsLooted;
+    private final LootLedger lootLedger = new LootLedger();
+    
+    // Number of items listed in the loot section of the report
+    private static final int TOP_LOOT_ITEMS = 5;
+    private final int[] topLootIds = new int[TOP_LOOT_ITEMS];
+    
+    // XP drops since the task started
+    private final XpDropRing.Reader xpDrops;
+    private final XpDropRing.Handler xpDropHandler = this::recordXpDrop;
+    private final int[] xpGainedBySkill = new int[Skill.values().length];
     
     // Reporting interval (in milliseconds)
-    private final long REPORT_INTERVAL = 300000; // 5 minutes
+    private static final long REPORT_INTERVAL = 300000; // 5 minutes
     private long lastReportTime;
     
     public ProgressTrackingTask(CombatBot bot) {
         this.bot = bot;
-        this.startTime = System.currentTimeMillis();
+        this.startTime = bot.ctx.clock.currentTimeMillis();
         this.lastReportTime = startTime;
+        this.xpDrops = bot.ctx.skills.getXpDrops().newReader();
         this.startingCombatXp = getTotalCombatXp();
         this.currentCombatXp = startingCombatXp;
-        this.foodConsumed = 0;
-        this.potionsConsumed = 0;
-        this.totalLootValue = 0;
-        this.itemsLooted = new HashMap<>();
     }
     
     @Override
     public boolean validate() {
+        // Take in the XP drops since the last check
+        updateTrackingData();
+        
         // This task should run when:
         // 1. It's time for a progress report
         // 2. We're not in immediate danger (not eating)
-        return (System.currentTimeMillis() - lastReportTime >= REPORT_INTERVAL) && 
+        return (bot.ctx.clock.currentTimeMillis() - lastReportTime >= REPORT_INTERVAL) && 
                bot.ctx.combat.getHealthPercent() > bot.getEatAtHealthPercent();
     }
     
@@ -63,7 +77,7 @@ public class ProgressTrackingTask extends Task {
         generateProgressReport();
         
         // Update last report time
-        lastReportTime = System.currentTimeMillis();
+        lastReportTime = bot.ctx.clock.currentTimeMillis();
         
         // This task doesn't need to run frequently
         return 1000; // Return sleep time in milliseconds
@@ -73,8 +87,23 @@ public class ProgressTrackingTask extends Task {
      * Updates tracking data with current values
      */
     private void updateTrackingData() {
-        // Update XP
-        currentCombatXp = getTotalCombatXp();
+        // Take in the XP drops since the last update
+        xpDrops.drain(xpDropHandler);
+    }
+    
+    /**
+     * Records one XP drop
+     * 
+     * @param skill The skill that gained XP
+     * @param delta The XP gained
+     * @param timeMillis When the drop happened
+     */
+    private void recordXpDrop(Skill skill, int delta, long timeMillis) {
+        xpGainedBySkill[skill.ordinal()] += delta;
+        if (skill.isCombat()) {
+            currentCombatXp += delta;
+            bot.getRates().record(RateTracker.Metric.XP, delta, timeMillis);
+        }
     }
     
     /**
@@ -82,7 +111,7 @@ public class ProgressTrackingTask extends Task {
      */
     private void generateProgressReport() {
         // Calculate runtime
-        long runtime = System.currentTimeMillis() - startTime;
+        long runtime = bot.ctx.clock.currentTimeMillis() - startTime;
         long seconds = runtime / 1000;
         long minutes = seconds / 60;
         long hours = minutes / 60;
@@ -90,18 +119,32 @@ public class ProgressTrackingTask extends Task {
         // Calculate XP gained
         int xpGained = currentCombatXp - startingCombatXp;
         
-        // Calculate rates
-        int xpPerHour = (int)(xpGained * 3600000L / runtime);
-        int killsPerHour = (int)(bot.getKillCount() * 3600000L / runtime);
-        
         // Display report
+        RateTracker rates = bot.getRates();
         System.out.println("=== Progress Report ===");
         System.out.println("Runtime: " + hours + ":" + (minutes % 60) + ":" + (seconds % 60));
-        System.out.println("Kills: " + bot.getKillCount() + " (" + killsPerHour + " per hour)");
-        System.out.println("XP gained: " + xpGained + " (" + xpPerHour + " per hour)");
-        System.out.println("Food consumed: " + foodConsumed);
-        System.out.println("Potions consumed: " + potionsConsumed);
-        System.out.println("Total loot value: " + totalLootValue + " gp");
+        System.out.println(rates.format(RateTracker.Metric.KILLS));
+        System.out.println(rates.format(RateTracker.Metric.XP));
+        for (Skill skill : Skill.values()) {
+            if (xpGainedBySkill[skill.ordinal()] > 0) {
+                System.out.println("  " + skill + ": " + xpGainedBySkill[skill.ordinal()]);
+            }
+        }
+        if (xpDrops.getLost() > 0) {
+            System.out.println("  (" + xpDrops.getLost() + " XP drops missed)");
+        }
+        System.out.println("Combat XP: " + currentCombatXp + " (+" + xpGained + ")");
+        System.out.println(rates.format(RateTracker.Metric.FOOD));
+        System.out.println(rates.format(RateTracker.Metric.POTIONS));
+        System.out.println(rates.format(RateTracker.Metric.LOOT_VALUE));
+        System.out.println("Total loot value: " + lootLedger.getTotalValue() + " gp");
+        int topItems = lootLedger.topByValue(TOP_LOOT_ITEMS, topLootIds);
+        for (int i = 0; i < topItems; i++) {
+            int itemId = topLootIds[i];
+            String name = ItemDefinitions.nameOf(itemId);
+            System.out.println("  " + (name != null ? name : "Item " + itemId) + ": " + 
+                               lootLedger.getCount(itemId) + " (" + lootLedger.getValue(itemId) + " gp)");
+        }
         System.out.println("=====================");
     }
     
@@ -111,44 +154,48 @@ public class ProgressTrackingTask extends Task {
      * @return The total combat XP
      */
     private int getTotalCombatXp() {
-        // In a real implementation, you would use the API to get actual XP values
-        // For example:
-        // return bot.ctx.skills.getXP(Skill.ATTACK) +
-        //        bot.ctx.skills.getXP(Skill.STRENGTH) +
-        //        bot.ctx.skills.getXP(Skill.DEFENSE) +
-        //        bot.ctx.skills.getXP(Skill.HITPOINTS) +
-        //        bot.ctx.skills.getXP(Skill.RANGED) +
-        //        bot.ctx.skills.getXP(Skill.MAGIC);
-        
-        // For demonstration purposes, we'll use a simulated value
-        return 1000000 + (int)(bot.getKillCount() * 100);
+        int total = 0;
+        for (Skill skill : Skill.values()) {
+            if (skill.isCombat()) {
+                total += bot.ctx.skills.getExperience(skill);
+            }
+        }
+        return total;
     }
     
     /**
      * Records food consumption
      */
     public void recordFoodConsumed() {
-        foodConsumed++;
+        bot.getRates().record(RateTracker.Metric.FOOD, 1);
     }
     
     /**
      * Records potion consumption
      */
     public void recordPotionConsumed() {
-        potionsConsumed++;
+        bot.getRates().record(RateTracker.Metric.POTIONS, 1);
     }
     
     /**
      * Records an item being looted
      * 
-     * @param itemName The name of the looted item
-     * @param value The value of the looted item
+     * @param itemId The id of the looted item
+     * @param quantity The number of items picked up
+     * @param value The combined value of the items
      */
-    public void recordItemLooted(String itemName, int value) {
-        // Update total loot value
-        totalLootValue += value;
-        
-        // Update item count
-        itemsLooted.put(itemName, itemsLooted.getOrDefault(itemName, 0) + 1);
+    public void recordItemLooted(int itemId, int quantity, long value) {
+        // Update the loot ledger and the loot rate
+        lootLedger.record(itemId, quantity, value);
+        bot.getRates().record(RateTracker.Metric.LOOT_VALUE, value);
+    }
+    
+    /**
+     * Gets the loot picked up so far, e.g. to merge into a multi-bot total
+     * 
+     * @return The loot ledger
+     */
+    public LootLedger getLootLedger() {
+        return lootLedger;
     }
 }
@@ -2,8 +2,11 @@ package rs.kreme.ksbot.api.scripts.combatbot;
 
 import rs.kreme.ksbot.api.game.Combat;
 import rs.kreme.ksbot.api.scripts.task.Task;
-import rs.kreme.ksbot.api.wrappers.KSObject;
-import rs.kreme.ksbot.api.queries.ObjectQuery;
+import rs.kreme.ksbot.api.world.SafeSpotIndex;
+import rs.kreme.ksbot.api.world.Tiles;
+
+import java.io.IOException;
+import java.nio.file.Paths;
 
 /**
  * SafeSpotTask - Responsible for finding and using safe spots during combat
@@ -18,18 +21,25 @@ public class SafeSpotTask extends Task {
     private final CombatBot bot;
     private boolean inSafeSpot = false;
     
-    // Coordinates of known safe spots (simplified implementation)
-    private final int[][] SAFE_SPOTS = {
+    // Fallback safe spots used when no precomputed index is configured
+    private static final int[][] DEFAULT_SAFE_SPOTS = {
         {3200, 3200}, // Example coordinates
         {3210, 3205},
         {3195, 3210}
     };
     
+    // Index over the fallback spots, shared by every bot
+    private static final SafeSpotIndex DEFAULT_INDEX = buildDefaultIndex();
+    
     // Distance threshold for considering player in a safe spot
-    private final int SAFE_SPOT_THRESHOLD = 3;
+    private static final int SAFE_SPOT_THRESHOLD = 3;
+    
+    // Safe spots queried by nearest neighbour
+    private final SafeSpotIndex safeSpots;
     
     public SafeSpotTask(CombatBot bot) {
         this.bot = bot;
+        this.safeSpots = loadSafeSpots(bot.getSafeSpotIndexFile());
     }
     
     @Override
@@ -51,11 +61,15 @@ public class SafeSpotTask extends Task {
         if (safeSpot != null) {
             // Move to the safe spot
             System.out.println("Moving to safe spot at: " + safeSpot[0] + ", " + safeSpot[1]);
-            moveToSafeSpot(safeSpot);
-            inSafeSpot = true;
+            if (moveToSafeSpot(safeSpot)) {
+                inSafeSpot = true;
+                
+                // Wait for movement to complete
+                return 3000; // Return sleep time in milliseconds
+            }
             
-            // Wait for movement to complete
-            return 3000; // Return sleep time in milliseconds
+            System.out.println("No path to safe spot at: " + safeSpot[0] + ", " + safeSpot[1]);
+            return 1000;
         }
         
         // No suitable safe spot found
@@ -78,56 +92,65 @@ public class SafeSpotTask extends Task {
     }
     
     /**
-     * Finds the nearest safe spot to the player
+     * Loads the precomputed safe spot index, falling back to the built-in spots
      * 
-     * @return Coordinates of the nearest safe spot, or null if none found
+     * @param indexFile Path of the index written by SafeSpotFinder, or null
+     * @return The safe spot index to query
      */
-    private int[] findNearestSafeSpot() {
-        // Get player position
-        int playerX = bot.ctx.players.getLocal().getX();
-        int playerY = bot.ctx.players.getLocal().getY();
-        
-        int[] nearestSpot = null;
-        double nearestDistance = Double.MAX_VALUE;
-        
-        // Find the nearest safe spot
-        for (int[] spot : SAFE_SPOTS) {
-            double distance = calculateDistance(playerX, playerY, spot[0], spot[1]);
-            
-            if (distance < nearestDistance) {
-                nearestDistance = distance;
-                nearestSpot = spot;
+    private static SafeSpotIndex loadSafeSpots(String indexFile) {
+        if (indexFile != null) {
+            try {
+                SafeSpotIndex index = SafeSpotIndex.open(Paths.get(indexFile));
+                System.out.println("Loaded " + index.size() + " safe spots from " + indexFile);
+                return index;
+            } catch (IOException e) {
+                System.out.println("WARNING: Could not load safe spots from " + indexFile + ": " + e.getMessage());
             }
         }
         
-        return nearestSpot;
+        return DEFAULT_INDEX;
     }
     
     /**
-     * Calculates the distance between two points
+     * Builds the index over the fallback safe spots
      * 
-     * @param x1 First point x coordinate
-     * @param y1 First point y coordinate
-     * @param x2 Second point x coordinate
-     * @param y2 Second point y coordinate
-     * @return The distance between the points
+     * @return The fallback index
      */
-    private double calculateDistance(int x1, int y1, int x2, int y2) {
-        return Math.sqrt(Math.pow(x2 - x1, 2) + Math.pow(y2 - y1, 2));
+    private static SafeSpotIndex buildDefaultIndex() {
+        int[] packed = new int[DEFAULT_SAFE_SPOTS.length];
+        for (int i = 0; i < DEFAULT_SAFE_SPOTS.length; i++) {
+            packed[i] = Tiles.pack(DEFAULT_SAFE_SPOTS[i][0], DEFAULT_SAFE_SPOTS[i][1], 0);
+        }
+        return new SafeSpotIndex(packed);
+    }
+    
+    /**
+     * Finds the nearest safe spot to the player
+     * 
+     * @return Coordinates of the nearest safe spot, or null if none found
+     */
+    private int[] findNearestSafeSpot() {
+        // Get player position
+        int playerX = bot.ctx.players.getLocal().getX();
+        int playerY = bot.ctx.players.getLocal().getY();
+        int plane = bot.ctx.players.getLocal().getPlane();
+        
+        // Query the k-d tree for the nearest spot on our plane
+        int nearest = safeSpots.nearest(playerX, playerY, plane);
+        
+        return nearest < 0 ? null : new int[]{Tiles.x(nearest), Tiles.y(nearest)};
     }
     
     /**
      * Moves the player to a safe spot
      * 
      * @param safeSpot Coordinates of the safe spot
+     * @return true if a path to the safe spot was found, false otherwise
      */
-    private void moveToSafeSpot(int[] safeSpot) {
-        // In a real implementation, you would use the API to move to the location
-        // For example:
-        // bot.ctx.movement.walkTo(new Tile(safeSpot[0], safeSpot[1]));
-        
-        // For demonstration purposes, we'll just log the action
+    private boolean moveToSafeSpot(int[] safeSpot) {
+        // Path over the loaded collision map and walk there
         System.out.println("Walking to safe spot at: " + safeSpot[0] + ", " + safeSpot[1]);
+        return bot.ctx.movement.walkTo(safeSpot[0], safeSpot[1]);
     }
     
     /**
@@ -140,13 +163,9 @@ public class SafeSpotTask extends Task {
         int playerX = bot.ctx.players.getLocal().getX();
         int playerY = bot.ctx.players.getLocal().getY();
         
-        // Check if player is near any safe spot
-        for (int[] spot : SAFE_SPOTS) {
-            double distance = calculateDistance(playerX, playerY, spot[0], spot[1]);
-            
-            if (distance <= SAFE_SPOT_THRESHOLD) {
-                return true;
-            }
+        // Check if player is near the closest safe spot
+        if (safeSpots.isWithin(playerX, playerY, bot.ctx.players.getLocal().getPlane(), SAFE_SPOT_THRESHOLD)) {
+            return true;
         }
         
         // Not in a safe spot
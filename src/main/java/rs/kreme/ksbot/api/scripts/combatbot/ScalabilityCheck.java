@@ -0,0 +1,216 @@
+package rs.kreme.ksbot.api.scripts.combatbot;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import rs.kreme.ksbot.api.game.GameClock;
+import rs.kreme.ksbot.api.scripts.task.Task;
+import rs.kreme.ksbot.api.world.SyntheticWorlds;
+
+/**
+ * Build check that runs every combat task's {@code validate} and
+ * {@code execute} against synthetic worlds of 10 to 100,000 NPCs and ground
+ * items, fits how the cost grows with the world size and fails when a path
+ * grows faster than linearly or blows the per-call budget.
+ * <p>
+ * Every size is warmed up on its own worlds before anything is timed, so
+ * the JIT has seen the paths with that size's data. {@code validate} does
+ * not change the world and is timed in repeated batches on one world, taking
+ * the fastest. {@code execute} consumes loot and food as it goes, so it is
+ * timed for {@value #EXECUTE_CALLS} calls on each of
+ * {@value #EXECUTE_SAMPLES} freshly built copies of the world, taking the
+ * fastest copy; the world stays the size being measured.
+ * <p>
+ * The growth exponent is the least-squares slope of log(cost) against
+ * log(size) over the sizes from {@value #FIT_FROM_SIZE} up, with costs
+ * raised to at least {@value #NOISE_FLOOR_NANOS} ns first, so timer noise
+ * at small costs cannot produce steep or negative slopes. Paths that stay
+ * under that floor at the largest size are treated as constant. The budget
+ * is a share of a game tick, since one JVM hosts many bots.
+ * <p>
+ * Runs as part of {@code ./gradlew check}, or alone with
+ * {@code ./gradlew scalabilityCheck}. Exits with status 1 on a failure.
+ */
+public final class ScalabilityCheck {
+
+    private static final int[] SIZES = {10, 100, 1_000, 10_000, 100_000};
+    private static final int FIT_FROM_SIZE = 1_000;
+    private static final double MAX_EXPONENT = 1.3;
+    private static final long NOISE_FLOOR_NANOS = 20_000;
+    private static final long BUDGET_NANOS = GameClock.TICK_MILLIS * 1_000_000L / 100;
+    private static final long MIN_BATCH_NANOS = 1_000_000;
+    private static final int MAX_BATCH_CALLS = 1 << 20;
+    private static final int BATCHES = 5;
+    private static final int WARM_UP_ROUNDS = 3;
+    private static final long WARM_UP_NANOS = 30_000_000;
+    private static final int WARM_UP_CALLS = 10_000;
+    private static final int EXECUTE_CALLS = 4;
+    private static final int EXECUTE_SAMPLES = 5;
+    private static final long SEED = 40L;
+
+    private ScalabilityCheck() {
+    }
+
+    public static void main(String[] args) {
+        PrintStream out = System.out;
+        PrintStream silent = new PrintStream(OutputStream.nullOutputStream());
+
+        List<String> names = new ArrayList<>();
+        List<long[]> costs = new ArrayList<>();
+        for (int s = 0; s < SIZES.length; s++) {
+            System.setOut(silent);
+
+            // Let the JIT compile the task paths against worlds of this size
+            for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+                for (Task task : buildTasks(SIZES[s])) {
+                    warmUp(task::validate);
+                    warmUp(task::execute);
+                }
+            }
+
+            // validate leaves the world as it is, so batches can share one
+            List<Task> tasks = buildTasks(SIZES[s]);
+            for (int t = 0; t < tasks.size(); t++) {
+                Task task = tasks.get(t);
+                if (s == 0) {
+                    names.add(task.getClass().getSimpleName() + ".validate");
+                    names.add(task.getClass().getSimpleName() + ".execute");
+                    costs.add(new long[SIZES.length]);
+                    costs.add(new long[SIZES.length]);
+                }
+                costs.get(2 * t)[s] = nanosPerCall(task::validate);
+            }
+
+            // execute consumes the world, so every sample gets a fresh copy
+            for (int t = 0; t < tasks.size(); t++) {
+                costs.get(2 * t + 1)[s] = Long.MAX_VALUE;
+            }
+            for (int sample = 0; sample < EXECUTE_SAMPLES; sample++) {
+                tasks = buildTasks(SIZES[s]);
+                for (int t = 0; t < tasks.size(); t++) {
+                    long[] cost = costs.get(2 * t + 1);
+                    cost[s] = Math.min(cost[s], timeBatch(tasks.get(t)::execute, EXECUTE_CALLS) / EXECUTE_CALLS);
+                }
+            }
+            System.setOut(out);
+        }
+
+        System.out.println("=== Task scalability (ns per call) ===");
+        StringBuilder header = new StringBuilder(String.format(Locale.ROOT, "%-34s", "path"));
+        for (int size : SIZES) {
+            header.append(String.format(Locale.ROOT, "%12s", "n=" + size));
+        }
+        System.out.println(header.append(String.format(Locale.ROOT, "%10s  %s", "exponent", "verdict")));
+
+        int failures = 0;
+        for (int i = 0; i < names.size(); i++) {
+            long[] cost = costs.get(i);
+            long largest = cost[SIZES.length - 1];
+            double exponent = fitExponent(cost);
+            String verdict = "ok";
+            if (largest > BUDGET_NANOS) {
+                verdict = "FAIL over budget of " + BUDGET_NANOS / 1000 + " us";
+                failures++;
+            } else if (largest >= NOISE_FLOOR_NANOS && exponent > MAX_EXPONENT) {
+                verdict = "FAIL super-linear";
+                failures++;
+            } else if (largest < NOISE_FLOOR_NANOS) {
+                verdict = "ok (constant)";
+            }
+            StringBuilder row = new StringBuilder(String.format(Locale.ROOT, "%-34s", names.get(i)));
+            for (long nanos : cost) {
+                row.append(String.format(Locale.ROOT, "%,12d", nanos));
+            }
+            System.out.println(row.append(String.format(Locale.ROOT, "%10.2f  %s", exponent, verdict)));
+        }
+
+        if (failures > 0) {
+            System.out.println(failures + " task path(s) failed the scalability check");
+            System.exit(1);
+        }
+        System.out.println("All task paths scale within limits");
+    }
+
+    /**
+     * Creates a bot over a world of the given size with every combat task,
+     * including those the bot does not register by default.
+     */
+    private static List<Task> buildTasks(int size) {
+        CombatBot bot = new CombatBot();
+        bot.ctx.clock.setVirtualTime(0);
+        bot.setUsePrayer(true);
+        bot.onStart();
+        SyntheticWorlds.populate(bot.ctx, SEED + size, size, size);
+
+        List<Task> tasks = new ArrayList<>(bot.getTasks());
+        tasks.add(new EquipmentSwitchingTask(bot));
+        tasks.add(new PotionManagementTask(bot));
+        tasks.add(new SafeSpotTask(bot));
+        return tasks;
+    }
+
+    /**
+     * Runs a call untimed until it has had enough time or calls for the JIT.
+     */
+    private static void warmUp(Runnable call) {
+        long deadline = System.nanoTime() + WARM_UP_NANOS / WARM_UP_ROUNDS;
+        for (int i = 0; i < WARM_UP_CALLS && System.nanoTime() < deadline; i++) {
+            call.run();
+        }
+    }
+
+    /**
+     * Fastest average over several batches, each long enough to time reliably.
+     */
+    private static long nanosPerCall(Runnable call) {
+        int calls = 1;
+        long elapsed;
+        do {
+            calls *= 2;
+            elapsed = timeBatch(call, calls);
+        } while (elapsed < MIN_BATCH_NANOS && calls < MAX_BATCH_CALLS);
+
+        long best = elapsed / calls;
+        for (int batch = 1; batch < BATCHES; batch++) {
+            best = Math.min(best, timeBatch(call, calls) / calls);
+        }
+        return best;
+    }
+
+    private static long timeBatch(Runnable call, int calls) {
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            call.run();
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Least-squares slope of log(cost) against log(size) over the larger
+     * sizes, with costs below the noise floor counted at the floor.
+     */
+    private static double fitExponent(long[] cost) {
+        double sumX = 0;
+        double sumY = 0;
+        double sumXY = 0;
+        double sumXX = 0;
+        int points = 0;
+        for (int s = 0; s < SIZES.length; s++) {
+            if (SIZES[s] < FIT_FROM_SIZE) {
+                continue;
+            }
+            double x = Math.log(SIZES[s]);
+            double y = Math.log(Math.max(cost[s], NOISE_FLOOR_NANOS));
+            sumX += x;
+            sumY += y;
+            sumXY += x * y;
+            sumXX += x * x;
+            points++;
+        }
+        double slope = (points * sumXY - sumX * sumY) / (points * sumXX - sumX * sumX);
+        // Rounding leaves a tiny slope when every cost sits on the floor
+        return Math.abs(slope) < 1e-9 ? 0 : slope;
+    }
+}
@@ -0,0 +1,155 @@
+package rs.kreme.ksbot.api.scripts.combatbot;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import rs.kreme.ksbot.api.game.Combat;
+import rs.kreme.ksbot.api.game.GameClock;
+import rs.kreme.ksbot.api.trace.TraceReplayer;
+import rs.kreme.ksbot.api.wrappers.KSItem;
+
+/**
+ * Command-line benchmark for state trace replays. A combat bot is driven
+ * through a seeded session in virtual time with its trace recording on;
+ * the trace is then replayed into fresh bots as fast as possible, checking
+ * that every decision matches and reporting decisions per second.
+ * <p>
+ * Run with {@code ./gradlew benchmarkTraceReplay}; with a trace file as the
+ * argument, that trace is replayed into a default-configured bot instead.
+ */
+public final class TraceReplayBenchmark {
+
+    private static final long START_MILLIS = 1_000_000L;
+    private static final int STEPS = 200_000;
+    private static final int ROUNDS = 5;
+    private static final String[] NPC_NAMES = {"Goblin", "Cow", "Chicken"};
+    private static final String[] LOOT_NAMES = {"Coins", "Bones", "Rune scimitar", "Dragon bones", "Iron dagger"};
+
+    private TraceReplayBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        PrintStream out = System.out;
+        PrintStream silent = new PrintStream(OutputStream.nullOutputStream());
+        boolean recorded = args.length == 0;
+        Path file = recorded ? Files.createTempFile("session", ".kstr") : Path.of(args[0]);
+        try {
+            if (recorded) {
+                System.setOut(silent);
+                long start = System.nanoTime();
+                record(file);
+                long nanos = System.nanoTime() - start;
+                System.setOut(out);
+                System.out.printf(Locale.ROOT, "Recorded %,d steps in %d ms%n", STEPS, nanos / 1_000_000);
+            }
+
+            TraceReplayer replayer = TraceReplayer.load(file);
+            long bytes = Files.size(file);
+            System.out.println("=== Trace replay benchmark ===");
+            System.out.printf(Locale.ROOT, "Trace: %,d events, %,d KB (%.1f bytes/event)%n",
+                    replayer.eventCount(), bytes / 1024, (double) bytes / Math.max(1, replayer.eventCount()));
+
+            for (int round = 1; round <= ROUNDS; round++) {
+                CombatBot bot = newBot(recorded);
+                System.setOut(silent);
+                bot.onStart();
+                TraceReplayer.Result result = replayer.replay(bot);
+                System.setOut(out);
+                System.out.printf(Locale.ROOT, "Round %d: %,d decisions, %,d mismatches, %,14.0f decisions/s%n",
+                        round, result.getDecisions(), result.getMismatches(), result.decisionsPerSecond());
+                if (!result.isIdentical()) {
+                    System.out.println("Replay diverged at decision " + result.getFirstMismatch());
+                }
+            }
+        } finally {
+            System.setOut(out);
+            if (recorded) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Runs a seeded session: the world changes between steps and the clock
+     * advances a tick per step.
+     */
+    private static void record(Path file) {
+        CombatBot bot = newBot(true);
+        bot.setTraceFile(file.toString());
+        bot.onStart();
+
+        SplittableRandom random = new SplittableRandom(42L);
+        List<Integer> npcs = new ArrayList<>();
+        List<Integer> loot = new ArrayList<>();
+        Combat combat = bot.ctx.combat;
+        for (int step = 0; step < STEPS; step++) {
+            int changes = random.nextInt(3);
+            for (int i = 0; i < changes; i++) {
+                switch (random.nextInt(8)) {
+                    case 0:
+                        int health = 10 + random.nextInt(91);
+                        combat.setHealthPercent(health);
+                        combat.setCurrentHealth(health * 99 / 100);
+                        break;
+                    case 1:
+                        combat.setInCombat(!combat.inCombat());
+                        break;
+                    case 2:
+                        if (npcs.size() < 20) {
+                            npcs.add(combat.addAttackableNpc(NPC_NAMES[random.nextInt(NPC_NAMES.length)],
+                                    2 + random.nextInt(10), 3200 + random.nextInt(20), 3200 + random.nextInt(20), 10));
+                        }
+                        break;
+                    case 3:
+                        if (!npcs.isEmpty()) {
+                            combat.removeAttackableNpc(npcs.remove(random.nextInt(npcs.size())));
+                        }
+                        break;
+                    case 4:
+                        if (loot.size() < 10) {
+                            loot.add(bot.ctx.groundItems.addItem(LOOT_NAMES[random.nextInt(LOOT_NAMES.length)],
+                                    3200 + random.nextInt(10), 3200 + random.nextInt(10), 1 + random.nextInt(5)));
+                        }
+                        break;
+                    case 5:
+                        if (!loot.isEmpty()) {
+                            bot.ctx.groundItems.removeItem(loot.remove(random.nextInt(loot.size())));
+                        }
+                        break;
+                    case 6:
+                        combat.hitTaken(npcs.isEmpty() ? -1 : npcs.get(random.nextInt(npcs.size())),
+                                random.nextInt(15));
+                        combat.hitDealt(random.nextInt(20));
+                        break;
+                    default:
+                        combat.setSpecEnergy(random.nextInt(101));
+                        break;
+                }
+            }
+            bot.step();
+            bot.ctx.clock.advance(GameClock.TICK_MILLIS);
+        }
+        bot.onStop();
+    }
+
+    private static CombatBot newBot(boolean scripted) {
+        CombatBot bot = new CombatBot();
+        if (scripted) {
+            bot.ctx.clock.setVirtualTime(START_MILLIS);
+            bot.setUsePrayer(true);
+            bot.ctx.inventory.setItems(List.of(
+                    new KSItem("Lobster"),
+                    new KSItem("Swordfish"),
+                    new KSItem("Shark")
+            ));
+            bot.ctx.equipment.setItems(List.of(new KSItem("Dharok's platebody")));
+        }
+        return bot;
+    }
+}
@@ -0,0 +1,207 @@
+package rs.kreme.ksbot.api.scripts.task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Alternative to the flat {@link TaskScript} loop for bots that move
+ * through a few phases (targeting, fighting, looting, recovering...).
+ * <p>
+ * Each state declares the tasks active in it and the transitions leaving
+ * it. A {@link #step()} first checks the global transitions (those that
+ * apply from any state, such as "health is low"), then the current state's
+ * own transitions, and moves at most once; it then validates only the
+ * current state's tasks in the order they were added and executes the
+ * first one that is ready. Tasks of other states are never looked at, so
+ * the cost of a decision depends on the size of one state, not on the
+ * total number of tasks in the script.
+ * <p>
+ * Time spent in each state is measured with the script's
+ * {@link rs.kreme.ksbot.api.game.GameClock}.
+ *
+ * @param <S> The enum of states
+ */
+public abstract class StateMachineScript<S extends Enum<S>> extends TaskScript {
+
+    private final S[] states;
+    private final List<List<Task>> stateTasks;
+    private final int[][] stateTaskIndices;
+    private final List<List<Transition<S>>> stateTransitions;
+    private final List<Transition<S>> globalTransitions = new ArrayList<>();
+    private final long[] stateMillis;
+    private final int[] stateEntries;
+
+    private S state;
+    private long enteredAt = -1;
+
+    protected StateMachineScript(Class<S> stateType, S initialState) {
+        this.states = stateType.getEnumConstants();
+        this.stateTasks = new ArrayList<>(states.length);
+        this.stateTransitions = new ArrayList<>(states.length);
+        this.stateTaskIndices = new int[states.length][0];
+        for (int i = 0; i < states.length; i++) {
+            stateTasks.add(new ArrayList<>());
+            stateTransitions.add(new ArrayList<>());
+        }
+        this.stateMillis = new long[states.length];
+        this.stateEntries = new int[states.length];
+        this.state = initialState;
+    }
+
+    /**
+     * Adds a task that is active in the given states, in priority order
+     * within each state
+     */
+    @SafeVarargs
+    protected final void addTask(Task task, S... activeStates) {
+        int index = tasks.indexOf(task);
+        if (index < 0) {
+            index = tasks.size();
+            tasks.add(task);
+        }
+        for (S activeState : activeStates) {
+            int ordinal = activeState.ordinal();
+            stateTasks.get(ordinal).add(task);
+            int[] indices = Arrays.copyOf(stateTaskIndices[ordinal], stateTaskIndices[ordinal].length + 1);
+            indices[indices.length - 1] = index;
+            stateTaskIndices[ordinal] = indices;
+        }
+    }
+
+    /**
+     * Moves from one state to another when the condition holds. Transitions
+     * of a state are checked in the order they were added.
+     */
+    protected void addTransition(S from, S to, BooleanSupplier condition) {
+        stateTransitions.get(from.ordinal()).add(new Transition<>(to, condition));
+    }
+
+    /**
+     * Moves to a state from any other state when the condition holds. Global
+     * transitions are checked before the current state's own transitions.
+     */
+    protected void addGlobalTransition(S to, BooleanSupplier condition) {
+        globalTransitions.add(new Transition<>(to, condition));
+    }
+
+    /**
+     * Applies the first transition whose condition holds, then picks the
+     * first ready task of the current state.
+     */
+    @Override
+    protected int selectTask() {
+        long now = ctx.clock.currentTimeMillis();
+        if (enteredAt < 0) {
+            enteredAt = now;
+            stateEntries[state.ordinal()]++;
+        }
+
+        S next = firstTarget(globalTransitions);
+        if (next == null) {
+            next = firstTarget(stateTransitions.get(state.ordinal()));
+        }
+        if (next != null) {
+            changeState(next, now);
+        }
+
+        List<Task> active = stateTasks.get(state.ordinal());
+        for (int i = 0; i < active.size(); i++) {
+            if (active.get(i).validate()) {
+                return stateTaskIndices[state.ordinal()][i];
+            }
+        }
+        return -1;
+    }
+
+    public S getState() {
+        return state;
+    }
+
+    /**
+     * Forces a state change, for tasks that know the phase is over
+     */
+    public void setState(S newState) {
+        long now = ctx.clock.currentTimeMillis();
+        if (enteredAt < 0) {
+            enteredAt = now;
+            stateEntries[state.ordinal()]++;
+        }
+        changeState(newState, now);
+    }
+
+    /**
+     * Total time spent in a state, including the current stay
+     */
+    public long getTimeInState(S queried) {
+        long millis = stateMillis[queried.ordinal()];
+        if (queried == state && enteredAt >= 0) {
+            millis += ctx.clock.currentTimeMillis() - enteredAt;
+        }
+        return millis;
+    }
+
+    /**
+     * Number of times the state has been entered
+     */
+    public int getEntries(S queried) {
+        return stateEntries[queried.ordinal()];
+    }
+
+    public List<Task> getTasks(S queried) {
+        return Collections.unmodifiableList(stateTasks.get(queried.ordinal()));
+    }
+
+    /**
+     * Prints the time spent in every state that was entered
+     */
+    public void printStateTimes() {
+        for (S each : states) {
+            if (stateEntries[each.ordinal()] > 0) {
+                System.out.println(each + ": " + getTimeInState(each) / 1000 + "s over "
+                        + stateEntries[each.ordinal()] + " entries");
+            }
+        }
+    }
+
+    /**
+     * Called after the state changes
+     */
+    protected void onStateChange(S from, S to) {
+        // no-op
+    }
+
+    private S firstTarget(List<Transition<S>> transitions) {
+        for (int i = 0; i < transitions.size(); i++) {
+            Transition<S> transition = transitions.get(i);
+            if (transition.target != state && transition.condition.getAsBoolean()) {
+                return transition.target;
+            }
+        }
+        return null;
+    }
+
+    private void changeState(S next, long now) {
+        if (next == state) {
+            return;
+        }
+        S previous = state;
+        stateMillis[previous.ordinal()] += now - enteredAt;
+        state = next;
+        enteredAt = now;
+        stateEntries[next.ordinal()]++;
+        onStateChange(previous, next);
+    }
+
+    private static final class Transition<S> {
+        private final S target;
+        private final BooleanSupplier condition;
+
+        Transition(S target, BooleanSupplier condition) {
+            this.target = target;
+            this.condition = condition;
+        }
+    }
+}
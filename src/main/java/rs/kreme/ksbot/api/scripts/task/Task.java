@@ -13,4 +13,12 @@ public abstract class Task {
      * Executes the task and returns the desired delay (ms) before the next tick.
      */
     public abstract int execute();
+
+    /**
+     * Called when the script stops. Tasks that registered listeners on the
+     * script's context remove them here.
+     */
+    public void onStop() {
+        // no-op
+    }
 }
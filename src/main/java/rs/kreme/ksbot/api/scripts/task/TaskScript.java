@@ -2,16 +2,33 @@ package rs.kreme.ksbot.api.scripts.task;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 import rs.kreme.ksbot.api.game.Combat;
 import rs.kreme.ksbot.api.game.Consumables;
+import rs.kreme.ksbot.api.game.EquipmentListener;
+import rs.kreme.ksbot.api.game.EquipmentSlot;
+import rs.kreme.ksbot.api.game.GameClock;
+import rs.kreme.ksbot.api.game.InventoryListener;
+import rs.kreme.ksbot.api.game.ItemDefinitions;
 import rs.kreme.ksbot.api.game.Prayer;
+import rs.kreme.ksbot.api.game.Skill;
+import rs.kreme.ksbot.api.game.XpDropRing;
 import rs.kreme.ksbot.api.queries.GroundItemQuery;
 import rs.kreme.ksbot.api.queries.ItemQuery;
 import rs.kreme.ksbot.api.queries.ObjectQuery;
+import rs.kreme.ksbot.api.stats.DropTableEstimator;
+import rs.kreme.ksbot.api.stats.ReactionTracker;
+import rs.kreme.ksbot.api.trace.TraceRecorder;
+import rs.kreme.ksbot.api.world.CollisionMap;
+import rs.kreme.ksbot.api.world.EntityStore;
+import rs.kreme.ksbot.api.world.PathFinder;
+import rs.kreme.ksbot.api.wrappers.InteractionListener;
 import rs.kreme.ksbot.api.wrappers.KSGroundItem;
 import rs.kreme.ksbot.api.wrappers.KSItem;
 import rs.kreme.ksbot.api.wrappers.KSObject;
@@ -26,6 +43,7 @@ public abstract class TaskScript {
 
     protected final List<Task> tasks = new ArrayList<>();
     public final ScriptContext ctx = new ScriptContext();
+    private int lastDecision = -1;
 
     protected void addTask(Task task) {
         tasks.add(task);
@@ -35,29 +53,58 @@ public abstract class TaskScript {
         return Collections.unmodifiableList(tasks);
     }
 
+    /**
+     * Runs one decision without sleeping: executes the task chosen by
+     * {@link #selectTask()}, reporting the decision to the context's trace
+     * recorder if one is attached.
+     *
+     * @return The delay the task asked for, or -1 if no task was ready
+     */
+    public int step() {
+        TraceRecorder recorder = ctx.getRecorder();
+        if (recorder != null) {
+            recorder.beginStep();
+        }
+        int index = selectTask();
+        int delay = index < 0 ? -1 : Math.max(tasks.get(index).execute(), 0);
+        lastDecision = index;
+        if (recorder != null) {
+            recorder.endStep(index);
+        }
+        return delay;
+    }
+
+    /**
+     * Picks the task to run this step: the first one in the list that validates.
+     *
+     * @return Index of the task in {@link #getTasks()}, or -1 if none is ready
+     */
+    protected int selectTask() {
+        for (int i = 0; i < tasks.size(); i++) {
+            if (tasks.get(i).validate()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Index in {@link #getTasks()} of the task executed by the last step, or -1.
+     */
+    public int getLastDecision() {
+        return lastDecision;
+    }
+
     /**
      * Very small event loop that runs the task list a fixed number of times.
      */
     public void runLoop(int iterations) {
         for (int i = 0; i < iterations; i++) {
-            boolean executed = false;
-            for (Task task : tasks) {
-                if (task.validate()) {
-                    int delay = Math.max(task.execute(), 0);
-                    executed = true;
-                    if (delay > 0) {
-                        try {
-                            Thread.sleep(Math.min(delay, 2000));
-                        } catch (InterruptedException ignored) {
-                            Thread.currentThread().interrupt();
-                        }
-                    }
-                    break;
-                }
-            }
-            if (!executed) {
+            int delay = step();
+            long sleep = delay < 0 ? 250 : Math.min(delay, 2000);
+            if (sleep > 0) {
                 try {
-                    Thread.sleep(250);
+                    Thread.sleep(sleep);
                 } catch (InterruptedException ignored) {
                     Thread.currentThread().interrupt();
                 }
@@ -72,44 +119,363 @@ public abstract class TaskScript {
         return true;
     }
 
+    /**
+     * Stops the tasks; scripts that override this call it when they are done.
+     */
     public void onStop() {
-        // no-op
+        for (Task task : tasks) {
+            task.onStop();
+        }
     }
 
     /**
      * Tiny DTO representing all API entry points the script relies on.
      */
     public static class ScriptContext {
+        public final GameClock clock = new GameClock();
+        public final SkillsClient skills = new SkillsClient(clock);
         public final Combat combat = new Combat();
         public final Consumables consumables = new Consumables();
         public final InventoryClient inventory = new InventoryClient();
         public final EquipmentClient equipment = new EquipmentClient();
         public final GroundItemsClient groundItems = new GroundItemsClient();
         public final PlayersClient players = new PlayersClient();
+        public final MovementClient movement = new MovementClient(players);
         public final ObjectsClient objects = new ObjectsClient();
         public final Prayer prayer = new Prayer();
+        public final Random random = new Random();
+        public final ReactionTracker reactions = new ReactionTracker(clock);
+        public final DropTableEstimator dropTable = new DropTableEstimator(clock);
+        private TraceRecorder recorder;
+
+        public ScriptContext() {
+            // Supply counters follow the inventory
+            inventory.addListener(consumables);
+
+            // Triggers come from the clients, actions from the wrappers they hand out
+            combat.setReactions(reactions);
+            groundItems.setReactions(reactions);
+            inventory.setInteractionListener(reactions);
+
+            // Drops are credited to the kills the combat tasks report
+            groundItems.setDropTable(dropTable);
+        }
+
+        /**
+         * Hooks a trace recorder into every recorded client, or unhooks it when null.
+         */
+        public void setRecorder(TraceRecorder recorder) {
+            this.recorder = recorder;
+            combat.setRecorder(recorder);
+            prayer.setRecorder(recorder);
+            inventory.setRecorder(recorder);
+            equipment.setRecorder(recorder);
+            groundItems.setRecorder(recorder);
+            players.setRecorder(recorder);
+        }
+
+        public TraceRecorder getRecorder() {
+            return recorder;
+        }
     }
 
+    /**
+     * Base level, boosted level and XP per skill. Boosts and drains move one
+     * level back towards the base level every {@link #DECAY_INTERVAL_MILLIS},
+     * as in the game; decay is applied lazily from the context clock when
+     * levels are read. XP gains are published as drops to a lock-free
+     * {@link XpDropRing} that any number of readers can drain.
+     */
+    public static class SkillsClient {
+        public static final long DECAY_INTERVAL_MILLIS = 60_000;
+        public static final int XP_DROP_CAPACITY = 1024;
+
+        private static final Skill[] SKILLS = Skill.values();
+        private static final int MAX_LEVEL = 99;
+
+        // XP needed for each level, indexed by level
+        private static final int[] XP_FOR_LEVEL = buildXpTable();
+
+        private final GameClock clock;
+        private final int[] levels = new int[SKILLS.length];
+        private final int[] boostedLevels = new int[SKILLS.length];
+        private final int[] experience = new int[SKILLS.length];
+        private final XpDropRing xpDrops = new XpDropRing(XP_DROP_CAPACITY);
+        private long decayAnchor = -1;
+
+        public SkillsClient(GameClock clock) {
+            this.clock = clock;
+            Arrays.fill(levels, 1);
+            levels[Skill.HITPOINTS.ordinal()] = 10;
+            experience[Skill.HITPOINTS.ordinal()] = XP_FOR_LEVEL[10];
+            System.arraycopy(levels, 0, boostedLevels, 0, levels.length);
+        }
+
+        public int getExperience(Skill skill) {
+            return experience[skill.ordinal()];
+        }
+
+        /**
+         * Sets a skill's XP and base level without publishing a drop, for
+         * setting up a scenario. Any boost is kept.
+         */
+        public void setExperience(Skill skill, int xp) {
+            applyDecay();
+            int i = skill.ordinal();
+            int newLevel = levelForXp(xp);
+            boostedLevels[i] += newLevel - levels[i];
+            levels[i] = newLevel;
+            experience[i] = xp;
+        }
+
+        /**
+         * Records an XP gain: updates XP and level and publishes an XP drop.
+         * Must be called from the single client thread that owns the skills.
+         */
+        public void addExperience(Skill skill, int delta) {
+            setExperience(skill, experience[skill.ordinal()] + delta);
+            xpDrops.publish(skill, delta, clock.currentTimeMillis());
+        }
+
+        /**
+         * Ring the XP drops are published to; create a reader to consume them.
+         */
+        public XpDropRing getXpDrops() {
+            return xpDrops;
+        }
+
+        /**
+         * Gets the level reached with the given XP.
+         */
+        public static int levelForXp(int xp) {
+            int index = Arrays.binarySearch(XP_FOR_LEVEL, 1, MAX_LEVEL + 1, xp);
+            return index >= 0 ? index : -index - 2;
+        }
+
+        private static int[] buildXpTable() {
+            int[] table = new int[MAX_LEVEL + 1];
+            double points = 0;
+            for (int level = 1; level < MAX_LEVEL; level++) {
+                points += Math.floor(level + 300 * Math.pow(2, level / 7.0));
+                table[level + 1] = (int) Math.floor(points / 4);
+            }
+            return table;
+        }
+
+        public int getLevel(Skill skill) {
+            return levels[skill.ordinal()];
+        }
+
+        public int getBoostedLevel(Skill skill) {
+            applyDecay();
+            return boostedLevels[skill.ordinal()];
+        }
+
+        /**
+         * Boosted minus base level; negative while the skill is drained.
+         */
+        public int getBoost(Skill skill) {
+            applyDecay();
+            return boostedLevels[skill.ordinal()] - levels[skill.ordinal()];
+        }
+
+        /**
+         * Sets the base level and clears any boost or drain. XP moves to the
+         * start of the level unless it already lies within it.
+         */
+        public void setLevel(Skill skill, int level) {
+            applyDecay();
+            int i = skill.ordinal();
+            levels[i] = level;
+            boostedLevels[i] = level;
+            if (level >= 1 && level <= MAX_LEVEL && levelForXp(experience[i]) != level) {
+                experience[i] = XP_FOR_LEVEL[level];
+            }
+        }
+
+        public void setBoostedLevel(Skill skill, int level) {
+            applyDecay();
+            boostedLevels[skill.ordinal()] = level;
+        }
+
+        /**
+         * Milliseconds until boosts and drains next move by a level.
+         */
+        public long millisUntilDecay() {
+            applyDecay();
+            return decayAnchor + DECAY_INTERVAL_MILLIS - clock.currentTimeMillis();
+        }
+
+        private void applyDecay() {
+            long now = clock.currentTimeMillis();
+            if (decayAnchor < 0 || now < decayAnchor) {
+                // First read, or the clock was moved back: restart the decay timer
+                decayAnchor = now;
+                return;
+            }
+            long steps = (now - decayAnchor) / DECAY_INTERVAL_MILLIS;
+            if (steps == 0) {
+                return;
+            }
+            decayAnchor += steps * DECAY_INTERVAL_MILLIS;
+            for (Skill skill : SKILLS) {
+                if (!skill.decays()) {
+                    continue;
+                }
+                int i = skill.ordinal();
+                int diff = boostedLevels[i] - levels[i];
+                if (diff > 0) {
+                    boostedLevels[i] -= (int) Math.min(diff, steps);
+                } else if (diff < 0) {
+                    boostedLevels[i] += (int) Math.min(-diff, steps);
+                }
+            }
+        }
+    }
+
+    /**
+     * Inventory items in slot order, one item or stack per slot, up to
+     * {@link #CAPACITY} slots. Every change is reported to the listeners
+     * item by item, so counters built on top (see {@link Consumables})
+     * never need to rescan the inventory.
+     */
     public static class InventoryClient {
+        public static final int CAPACITY = 28;
+
         private final List<KSItem> items = new ArrayList<>();
-        private boolean full;
+        private ItemQuery allItems; // Snapshot of items, null once they change
+        private final List<InventoryListener> listeners = new CopyOnWriteArrayList<>();
+        private TraceRecorder recorder;
+        private InteractionListener interactionListener;
 
         public boolean isFull() {
-            return full;
+            return items.size() >= CAPACITY;
+        }
+
+        public int getFreeSlots() {
+            return Math.max(0, CAPACITY - items.size());
         }
 
-        public void setFull(boolean full) {
-            this.full = full;
+        /**
+         * Whether an item with the given id could be added: there is a free
+         * slot, or the item stacks onto a stack already held.
+         */
+        public boolean canHold(int id) {
+            return items.size() < CAPACITY || ItemDefinitions.isStackable(id) && indexOfId(id) >= 0;
         }
 
+        /**
+         * Replaces every item, one slot per item as given; stacks are not merged.
+         */
         public void setItems(List<KSItem> newItems) {
+            for (int i = 0; i < items.size(); i++) {
+                fireRemoved(items.get(i));
+            }
             items.clear();
             items.addAll(newItems);
+            for (int i = 0; i < items.size(); i++) {
+                fireAdded(items.get(i));
+            }
+            itemsChanged();
         }
 
+        /**
+         * Adds an item to the first free slot, or onto its stack if it stacks
+         * and a stack is held.
+         *
+         * @return false if there was no room for the item
+         */
+        public boolean addItem(KSItem item) {
+            if (ItemDefinitions.isStackable(item.getId())) {
+                int index = indexOfId(item.getId());
+                if (index >= 0) {
+                    KSItem stack = items.get(index);
+                    replaceItem(index, new KSItem(stack.getId(), stack.getName(), stack.getQuantity() + item.getQuantity()));
+                    return true;
+                }
+            }
+            if (isFull()) {
+                return false;
+            }
+            items.add(item);
+            fireAdded(item);
+            itemsChanged();
+            return true;
+        }
+
+        /**
+         * Removes the item at an inventory position.
+         *
+         * @return The removed item
+         */
+        public KSItem removeItem(int index) {
+            KSItem item = items.remove(index);
+            fireRemoved(item);
+            itemsChanged();
+            return item;
+        }
+
+        /**
+         * Replaces the item at an inventory position, as when a potion dose is drunk.
+         *
+         * @return The replaced item
+         */
+        public KSItem replaceItem(int index, KSItem item) {
+            KSItem old = items.set(index, item);
+            fireRemoved(old);
+            fireAdded(item);
+            itemsChanged();
+            return old;
+        }
+
+        public int indexOf(KSItem item) {
+            return items.indexOf(item);
+        }
+
+        /**
+         * Position of the first item with the given id, or -1.
+         */
+        public int indexOfId(int id) {
+            for (int i = 0; i < items.size(); i++) {
+                if (items.get(i).getId() == id) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        public void addListener(InventoryListener listener) {
+            listeners.add(listener);
+        }
+
+        public void removeListener(InventoryListener listener) {
+            listeners.remove(listener);
+        }
+
+        public void setRecorder(TraceRecorder recorder) {
+            this.recorder = recorder;
+        }
+
+        /**
+         * Reports interactions with the items while they are in the inventory.
+         * Only items added afterwards are bound.
+         */
+        public void setInteractionListener(InteractionListener interactionListener) {
+            this.interactionListener = interactionListener;
+        }
+
+        /**
+         * Gets inventory items, optionally only those with one of the given
+         * names. The query is a snapshot, so callers may change the inventory
+         * while iterating it; without names the snapshot is shared until the
+         * inventory next changes.
+         */
         public ItemQuery getItems(String... names) {
             if (names == null || names.length == 0) {
-                return new ItemQuery(items);
+                if (allItems == null) {
+                    allItems = ItemQuery.adopt(new ArrayList<>(items));
+                }
+                return allItems;
             }
             List<String> filters = Arrays.stream(names)
                     .map(name -> name.toLowerCase(Locale.ROOT))
@@ -119,31 +485,298 @@ public abstract class TaskScript {
                     .collect(Collectors.toList());
             return new ItemQuery(matches);
         }
+
+        private void fireAdded(KSItem item) {
+            item.setInteractionListener(interactionListener);
+            for (InventoryListener listener : listeners) {
+                listener.onItemAdded(item);
+            }
+        }
+
+        private void fireRemoved(KSItem item) {
+            item.setInteractionListener(null);
+            for (InventoryListener listener : listeners) {
+                listener.onItemRemoved(item);
+            }
+        }
+
+        /**
+         * Drops the snapshot and records the new items.
+         */
+        private void itemsChanged() {
+            allItems = null;
+            if (recorder != null) {
+                recorder.inventoryItems(items);
+            }
+        }
     }
 
+    /**
+     * Worn equipment, one item per {@link EquipmentSlot}. Slot lookups are
+     * array reads and {@link #isWearing(BitSet)} is a single bitset test
+     * against the ids currently worn.
+     */
     public static class EquipmentClient {
-        private final List<KSItem> items = new ArrayList<>();
+        private static final EquipmentSlot[] SLOTS = EquipmentSlot.values();
+
+        private final KSItem[] slots = new KSItem[SLOTS.length];
+        private final int[] slotIds = new int[SLOTS.length];
+        private final BitSet wornIds = new BitSet();
+        private ItemQuery allItems = new ItemQuery(); // Snapshot of the worn items
+        private final List<EquipmentListener> listeners = new CopyOnWriteArrayList<>();
+        private TraceRecorder recorder;
+
+        public EquipmentClient() {
+            Arrays.fill(slotIds, ItemDefinitions.UNKNOWN);
+        }
 
+        /**
+         * Replaces all worn equipment. Items that cannot be equipped are skipped.
+         */
         public void setItems(List<KSItem> newItems) {
-            items.clear();
-            items.addAll(newItems);
+            for (EquipmentSlot slot : SLOTS) {
+                unequip(slot);
+            }
+            for (KSItem item : newItems) {
+                if (!equip(item)) {
+                    System.out.println("WARNING: Cannot equip unknown item: " + item.getName());
+                }
+            }
         }
 
+        /**
+         * Puts an item on, replacing whatever was in its slot. A two-handed
+         * weapon also takes off the shield, and a shield takes off a
+         * two-handed weapon.
+         *
+         * @return false if the item has no equipment slot
+         */
+        public boolean equip(KSItem item) {
+            EquipmentSlot slot = ItemDefinitions.slotOf(item.getId());
+            if (slot == null) {
+                return false;
+            }
+            if (slot == EquipmentSlot.WEAPON && ItemDefinitions.isTwoHanded(item.getId())) {
+                unequip(EquipmentSlot.SHIELD);
+            } else if (slot == EquipmentSlot.SHIELD && ItemDefinitions.isTwoHanded(slotIds[EquipmentSlot.WEAPON.ordinal()])) {
+                unequip(EquipmentSlot.WEAPON);
+            }
+            unequip(slot);
+            slots[slot.ordinal()] = item;
+            slotIds[slot.ordinal()] = item.getId();
+            wornIds.set(item.getId());
+            rebuildWorn();
+            if (recorder != null) {
+                recorder.equipped(item);
+            }
+            for (EquipmentListener listener : listeners) {
+                listener.onEquip(slot, item);
+            }
+            return true;
+        }
+
+        /**
+         * Takes off the item in a slot.
+         *
+         * @return The removed item, or null if the slot was empty
+         */
+        public KSItem unequip(EquipmentSlot slot) {
+            KSItem item = slots[slot.ordinal()];
+            if (item == null) {
+                return null;
+            }
+            slots[slot.ordinal()] = null;
+            slotIds[slot.ordinal()] = ItemDefinitions.UNKNOWN;
+            wornIds.clear(item.getId());
+            rebuildWorn();
+            if (recorder != null) {
+                recorder.unequipped(slot);
+            }
+            for (EquipmentListener listener : listeners) {
+                listener.onUnequip(slot, item);
+            }
+            return item;
+        }
+
+        /**
+         * Gets the item worn in a slot, or null.
+         */
+        public KSItem getSlot(EquipmentSlot slot) {
+            return slots[slot.ordinal()];
+        }
+
+        /**
+         * Gets the id of the item worn in a slot, or {@link ItemDefinitions#UNKNOWN}.
+         */
+        public int getSlotId(EquipmentSlot slot) {
+            return slotIds[slot.ordinal()];
+        }
+
+        /**
+         * Checks whether any of the ids is worn.
+         *
+         * @param ids Item ids, see {@link ItemDefinitions#idSet(String...)}
+         */
+        public boolean isWearing(BitSet ids) {
+            return wornIds.intersects(ids);
+        }
+
+        /**
+         * Checks whether every one of the ids is worn.
+         */
+        public boolean isWearingAll(BitSet ids) {
+            for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+                if (!wornIds.get(id)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public void addListener(EquipmentListener listener) {
+            listeners.add(listener);
+        }
+
+        public void removeListener(EquipmentListener listener) {
+            listeners.remove(listener);
+        }
+
+        public void setRecorder(TraceRecorder recorder) {
+            this.recorder = recorder;
+        }
+
+        /**
+         * Gets worn items, optionally only those with one of the given names.
+         * The query is a snapshot, so callers may equip while iterating it;
+         * without names the snapshot is shared until the equipment next changes.
+         */
         public ItemQuery getItems(String... names) {
-            return new ItemQuery(items);
+            if (names == null || names.length == 0) {
+                return allItems;
+            }
+            List<KSItem> matches = new ArrayList<>(SLOTS.length);
+            for (KSItem item : slots) {
+                if (item != null && matchesAny(item.getName(), names)) {
+                    matches.add(item);
+                }
+            }
+            return ItemQuery.adopt(matches);
+        }
+
+        private static boolean matchesAny(String itemName, String[] names) {
+            for (String name : names) {
+                if (itemName.equalsIgnoreCase(name)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void rebuildWorn() {
+            List<KSItem> worn = new ArrayList<>(SLOTS.length);
+            for (KSItem item : slots) {
+                if (item != null) {
+                    worn.add(item);
+                }
+            }
+            allItems = ItemQuery.adopt(worn);
         }
     }
 
     public static class GroundItemsClient {
-        private final List<KSGroundItem> items = new ArrayList<>();
+        private final EntityStore items = new EntityStore();
+        private TraceRecorder recorder;
+        private ReactionTracker reactions;
+        private DropTableEstimator dropTable;
 
         public void setItems(List<KSGroundItem> newItems) {
             items.clear();
-            items.addAll(newItems);
+            if (recorder != null) {
+                recorder.groundCleared();
+            }
+            if (reactions != null) {
+                reactions.lootCleared();
+            }
+            // A refresh lists piles that are already there, so none of them is a new drop
+            for (KSGroundItem item : newItems) {
+                insert(item.getName(), item.getX(), item.getY(), item.getQuantity());
+            }
+        }
+
+        /**
+         * Drops an item straight into the store and returns its slot. The
+         * item counts as freshly spawned loot for the drop table.
+         */
+        public int addItem(String name, int x, int y, int quantity) {
+            int slot = insert(name, x, y, quantity);
+            if (dropTable != null) {
+                dropTable.dropped(ItemDefinitions.idOf(name), quantity);
+            }
+            return slot;
+        }
+
+        private int insert(String name, int x, int y, int quantity) {
+            int slot = items.add(items.intern(name), x, y, 0, quantity, 0);
+            if (recorder != null) {
+                recorder.groundItemAdded(name, x, y, quantity, slot);
+            }
+            if (reactions != null) {
+                reactions.lootDropped(slot);
+            }
+            return slot;
+        }
+
+        public void removeItem(int slot) {
+            items.release(slot);
+            if (recorder != null) {
+                recorder.groundItemRemoved(slot);
+            }
+            if (reactions != null) {
+                reactions.lootRemoved(slot);
+            }
+        }
+
+        public void setRecorder(TraceRecorder recorder) {
+            this.recorder = recorder;
+        }
+
+        /**
+         * Reports drops to the reaction tracker and binds the item views
+         * handed out to it, or stops both when null.
+         */
+        public void setReactions(ReactionTracker reactions) {
+            this.reactions = reactions;
+        }
+
+        /**
+         * Reports items spawned with {@link #addItem} to the drop table
+         * estimator, or stops when null. Piles listed by {@link #setItems}
+         * are not reported.
+         */
+        public void setDropTable(DropTableEstimator dropTable) {
+            this.dropTable = dropTable;
+        }
+
+        /**
+         * Column store backing the ground items, for scans that want to read
+         * the primitive columns directly.
+         */
+        public EntityStore getStore() {
+            return items;
+        }
+
+        public KSGroundItem itemAt(int slot) {
+            return new KSGroundItem(items, slot, reactions);
         }
 
         public GroundItemQuery getItems() {
-            return new GroundItemQuery(items);
+            List<KSGroundItem> views = new ArrayList<>(items.size());
+            for (int slot = 0; slot < items.highWater(); slot++) {
+                if (items.isLive(slot)) {
+                    views.add(new KSGroundItem(items, slot, reactions));
+                }
+            }
+            return new GroundItemQuery(views);
         }
     }
 
@@ -153,6 +786,58 @@ public abstract class TaskScript {
         public KSPlayer getLocal() {
             return local;
         }
+
+        public void setRecorder(TraceRecorder recorder) {
+            local.setRecorder(recorder);
+        }
+    }
+
+    /**
+     * Walking layer backed by a {@link PathFinder}. Without region data the
+     * map is treated as open ground. The stub moves the local player straight
+     * to the destination once a path exists.
+     */
+    public static class MovementClient {
+        private final PlayersClient players;
+        private PathFinder pathFinder = new PathFinder(CollisionMap.OPEN);
+        private int[] lastPath;
+
+        public MovementClient(PlayersClient players) {
+            this.players = players;
+        }
+
+        public void setCollisionMap(CollisionMap collisionMap) {
+            this.pathFinder = new PathFinder(collisionMap);
+            this.lastPath = null;
+        }
+
+        public PathFinder getPathFinder() {
+            return pathFinder;
+        }
+
+        /**
+         * Packed waypoints of the most recent successful walk, or null.
+         */
+        public int[] getLastPath() {
+            return lastPath;
+        }
+
+        /**
+         * Walks the local player to a tile on their current plane.
+         *
+         * @return false if no path to the tile exists
+         */
+        public boolean walkTo(int x, int y) {
+            KSPlayer local = players.getLocal();
+            int[] path = pathFinder.findPath(local.getX(), local.getY(), x, y, local.getPlane());
+            if (path == null) {
+                return false;
+            }
+            lastPath = path;
+            local.setX(x);
+            local.setY(y);
+            return true;
+        }
     }
 
     public static class ObjectsClient {
@@ -0,0 +1,357 @@
+package rs.kreme.ksbot.api.stats;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import rs.kreme.ksbot.api.game.GameClock;
+import rs.kreme.ksbot.api.game.ItemDefinitions;
+
+/**
+ * Learns each NPC's drop table from the kills the bot makes.
+ * <p>
+ * Every NPC name gets a kill count, the summed kill time and a
+ * {@link LootLedger} whose count is the number of kills that dropped an
+ * item and whose value is the gp those drops were worth. A drop costs one
+ * ledger update. Drops are attributed the way they show up in the game:
+ * loot appearing within {@value #DROP_WINDOW_MILLIS} ms of a kill belongs
+ * to that kill, and loot appearing while a target is engaged but before its
+ * death has been noticed is held back and credited when the kill arrives.
+ * Loot seen at any other time, and items without a known price, are not
+ * counted. Several piles of the same item from one kill add their value but
+ * count as one drop, so a drop count never exceeds the kill count.
+ * <p>
+ * Drop rates come with Wilson score intervals, which stay sensible for rare
+ * drops and small kill counts. Expected gp per kill sums rate times mean
+ * value per drop over the items seen; its interval sums the per-item
+ * bounds, which is conservative. Gp per hour assumes back-to-back kills at
+ * the observed mean kill time, from the attack click to the death being
+ * noticed, so time spent looting, eating and banking is not included.
+ * <p>
+ * Statistics can be saved to and merged back from a small file: a
+ * {@code KSDT} magic, a version, the NPC count, and per NPC its name, kills,
+ * kill time and item id / drop count / value triples.
+ * <p>
+ * An estimator is not thread-safe; query it from the thread that owns the
+ * context.
+ */
+public final class DropTableEstimator {
+
+    /**
+     * Drop statistics of one NPC.
+     */
+    public static final class NpcDrops {
+        private final String name;
+        private final LootLedger drops = new LootLedger();
+        private long kills;
+        private long killMillis;
+
+        private NpcDrops(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getKills() {
+            return kills;
+        }
+
+        public double getMeanKillMillis() {
+            return kills == 0 ? 0 : (double) killMillis / kills;
+        }
+
+        /**
+         * Drops per item: count is the number of kills that dropped it, value their combined gp.
+         */
+        public LootLedger getDrops() {
+            return drops;
+        }
+
+        /**
+         * Observed fraction of kills that dropped the item.
+         */
+        public double getDropRate(int itemId) {
+            return kills == 0 ? 0 : (double) drops.getCount(itemId) / kills;
+        }
+
+        /**
+         * Lower end of the drop rate's Wilson score interval.
+         */
+        public double getDropRateLower(int itemId, double z) {
+            return wilsonLower(drops.getCount(itemId), kills, z);
+        }
+
+        /**
+         * Upper end of the drop rate's Wilson score interval.
+         */
+        public double getDropRateUpper(int itemId, double z) {
+            return wilsonUpper(drops.getCount(itemId), kills, z);
+        }
+
+        public double getGpPerKill() {
+            return kills == 0 ? 0 : (double) drops.getTotalValue() / kills;
+        }
+
+        /**
+         * Gp per kill with every item at the lower end of its drop rate interval.
+         */
+        public double getGpPerKillLower(double z) {
+            double[] sum = new double[1];
+            drops.forEach((itemId, count, value) -> sum[0] += wilsonLower(count, kills, z) * value / count);
+            return sum[0];
+        }
+
+        /**
+         * Gp per kill with every item at the upper end of its drop rate interval.
+         */
+        public double getGpPerKillUpper(double z) {
+            double[] sum = new double[1];
+            drops.forEach((itemId, count, value) -> sum[0] += wilsonUpper(count, kills, z) * value / count);
+            return sum[0];
+        }
+
+        /**
+         * Gp per hour at back-to-back kills of the observed mean kill time.
+         */
+        public double getGpPerHour() {
+            double meanKillMillis = getMeanKillMillis();
+            return meanKillMillis <= 0 ? 0 : getGpPerKill() * 3_600_000 / meanKillMillis;
+        }
+    }
+
+    // Loot appearing this long after a kill is credited to it
+    public static final long DROP_WINDOW_MILLIS = 3_000;
+
+    // z for a 95% confidence interval
+    public static final double Z_95 = 1.96;
+
+    private static final int MAGIC = 0x4B534454; // "KSDT"
+    private static final int VERSION = 1;
+
+    private final GameClock clock;
+    private final Map<String, NpcDrops> npcs = new HashMap<>();
+
+    // The last kill, which takes loot appearing within the drop window, and the items already credited to it
+    private NpcDrops lastKill;
+    private long lastKillAt;
+    private int[] creditedIds = new int[8];
+    private int creditedCount;
+
+    // The engaged target, and loot that appeared before its death was noticed
+    private NpcDrops target;
+    private int[] pendingIds = new int[8];
+    private long[] pendingValues = new long[8];
+    private int pendingCount;
+
+    public DropTableEstimator(GameClock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * The bot attacked an NPC. Loot appearing from now until its kill is held for it.
+     */
+    public void engaged(String npcName) {
+        target = npcs(npcName);
+        pendingCount = 0;
+    }
+
+    /**
+     * An NPC died.
+     *
+     * @param npcName The NPC's name
+     * @param killMillis Time from the attack to the death being noticed
+     */
+    public void killed(String npcName, long killMillis) {
+        NpcDrops npc = npcs(npcName);
+        npc.kills++;
+        npc.killMillis += Math.max(0, killMillis);
+        creditedCount = 0;
+        if (npc == target) {
+            // Pending items are already one entry per item
+            for (int i = 0; i < pendingCount; i++) {
+                npc.drops.record(pendingIds[i], 1, pendingValues[i]);
+                creditOnce(pendingIds[i]);
+            }
+        }
+        target = null;
+        pendingCount = 0;
+        lastKill = npc;
+        lastKillAt = clock.currentTimeMillis();
+    }
+
+    /**
+     * Loot appeared on the ground.
+     */
+    public void dropped(int itemId, int quantity) {
+        int price = ItemDefinitions.priceOf(itemId);
+        if (price <= 0) {
+            return;
+        }
+        long value = (long) price * Math.max(1, quantity);
+        if (lastKill != null && clock.currentTimeMillis() - lastKillAt <= DROP_WINDOW_MILLIS) {
+            lastKill.drops.record(itemId, creditOnce(itemId) ? 1 : 0, value);
+        } else if (target != null) {
+            for (int i = 0; i < pendingCount; i++) {
+                if (pendingIds[i] == itemId) {
+                    pendingValues[i] += value;
+                    return;
+                }
+            }
+            if (pendingCount == pendingIds.length) {
+                pendingIds = Arrays.copyOf(pendingIds, pendingCount * 2);
+                pendingValues = Arrays.copyOf(pendingValues, pendingCount * 2);
+            }
+            pendingIds[pendingCount] = itemId;
+            pendingValues[pendingCount] = value;
+            pendingCount++;
+        }
+    }
+
+    /**
+     * Gets the statistics of an NPC, or null if it has never been seen.
+     */
+    public NpcDrops get(String npcName) {
+        return npcs.get(key(npcName));
+    }
+
+    /**
+     * Gets every NPC seen, most kills first.
+     */
+    public List<NpcDrops> getNpcs() {
+        List<NpcDrops> all = new ArrayList<>(npcs.values());
+        all.sort((a, b) -> Long.compare(b.kills, a.kills));
+        return all;
+    }
+
+    /**
+     * One report line for an NPC: kills, gp per kill with its 95% interval and gp per hour.
+     */
+    public String format(NpcDrops npc) {
+        return String.format(Locale.ROOT, "Drops, %s: %,d kills | %,.0f gp/kill (%,.0f-%,.0f) | %,.0f gp/hr",
+                npc.name, npc.kills, npc.getGpPerKill(), npc.getGpPerKillLower(Z_95),
+                npc.getGpPerKillUpper(Z_95), npc.getGpPerHour());
+    }
+
+    /**
+     * Adds saved statistics to the ones recorded so far.
+     */
+    public void load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a drop table file: " + file);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported drop table file version " + version + " in " + file);
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                NpcDrops npc = npcs(in.readUTF());
+                npc.kills += in.readLong();
+                npc.killMillis += in.readLong();
+                int items = in.readInt();
+                for (int j = 0; j < items; j++) {
+                    npc.drops.record(in.readInt(), in.readLong(), in.readLong());
+                }
+            }
+        }
+    }
+
+    public void save(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(npcs.size());
+            for (NpcDrops npc : npcs.values()) {
+                out.writeUTF(npc.name);
+                out.writeLong(npc.kills);
+                out.writeLong(npc.killMillis);
+                int items = npc.drops.size();
+                int[] itemIds = new int[items];
+                long[] drops = new long[items];
+                long[] values = new long[items];
+                int[] next = new int[1];
+                npc.drops.forEach((itemId, count, value) -> {
+                    itemIds[next[0]] = itemId;
+                    drops[next[0]] = count;
+                    values[next[0]++] = value;
+                });
+                out.writeInt(items);
+                for (int i = 0; i < items; i++) {
+                    out.writeInt(itemIds[i]);
+                    out.writeLong(drops[i]);
+                    out.writeLong(values[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Lower end of the Wilson score interval for a binomial proportion.
+     */
+    public static double wilsonLower(long successes, long trials, double z) {
+        if (trials == 0) {
+            return 0;
+        }
+        return Math.max(0, wilsonCentre(successes, trials, z) - wilsonHalfWidth(successes, trials, z));
+    }
+
+    /**
+     * Upper end of the Wilson score interval for a binomial proportion.
+     */
+    public static double wilsonUpper(long successes, long trials, double z) {
+        if (trials == 0) {
+            return 1;
+        }
+        return Math.min(1, wilsonCentre(successes, trials, z) + wilsonHalfWidth(successes, trials, z));
+    }
+
+    private static double wilsonCentre(long successes, long trials, double z) {
+        double p = (double) successes / trials;
+        double z2 = z * z;
+        return (p + z2 / (2 * trials)) / (1 + z2 / trials);
+    }
+
+    private static double wilsonHalfWidth(long successes, long trials, double z) {
+        double p = (double) successes / trials;
+        double z2 = z * z;
+        return z * Math.sqrt(p * (1 - p) / trials + z2 / (4.0 * trials * trials)) / (1 + z2 / trials);
+    }
+
+    /**
+     * Marks an item as dropped by the last kill.
+     *
+     * @return true if the kill had not dropped it yet
+     */
+    private boolean creditOnce(int itemId) {
+        for (int i = 0; i < creditedCount; i++) {
+            if (creditedIds[i] == itemId) {
+                return false;
+            }
+        }
+        if (creditedCount == creditedIds.length) {
+            creditedIds = Arrays.copyOf(creditedIds, creditedCount * 2);
+        }
+        creditedIds[creditedCount++] = itemId;
+        return true;
+    }
+
+    private NpcDrops npcs(String npcName) {
+        return npcs.computeIfAbsent(key(npcName), k -> new NpcDrops(npcName));
+    }
+
+    private static String key(String npcName) {
+        return npcName.toLowerCase(Locale.ROOT);
+    }
+}
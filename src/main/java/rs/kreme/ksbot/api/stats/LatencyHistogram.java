@@ -0,0 +1,97 @@
+package rs.kreme.ksbot.api.stats;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of latencies in milliseconds with power-of-two buckets: bucket
+ * 0 holds 0 ms, bucket {@code b} holds {@code 2^(b-1)} to {@code 2^b - 1}
+ * ms, and the last bucket everything from {@value #MAX_TRACKED_MILLIS} ms
+ * up. Recording is a few atomic adds, so the bot thread can record while
+ * another thread reads percentiles; a reader sees each sample either fully
+ * or not at all per counter, which is close enough for reporting.
+ */
+public final class LatencyHistogram {
+
+    public static final long MAX_TRACKED_MILLIS = 1L << 16;
+
+    private static final int BUCKETS = 18;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sumMillis = new AtomicLong();
+    private final AtomicLong maxMillis = new AtomicLong();
+
+    public void record(long millis) {
+        long latency = Math.max(0, millis);
+        counts.incrementAndGet(bucketOf(latency));
+        count.incrementAndGet();
+        sumMillis.addAndGet(latency);
+        maxMillis.accumulateAndGet(latency, Math::max);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMaxMillis() {
+        return maxMillis.get();
+    }
+
+    public double getMeanMillis() {
+        long samples = count.get();
+        return samples == 0 ? 0 : (double) sumMillis.get() / samples;
+    }
+
+    /**
+     * Upper bound of the bucket holding the given percentile, capped at the
+     * largest latency seen.
+     *
+     * @param percentile Between 0 and 100
+     * @return Latency in milliseconds, or 0 without samples
+     */
+    public long percentile(double percentile) {
+        long samples = count.get();
+        if (samples == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(samples * percentile / 100));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= rank) {
+                return Math.min(upperBound(bucket), maxMillis.get());
+            }
+        }
+        return maxMillis.get();
+    }
+
+    public void clear() {
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            counts.set(bucket, 0);
+        }
+        count.set(0);
+        sumMillis.set(0);
+        maxMillis.set(0);
+    }
+
+    /**
+     * One report line: samples, mean, p50, p90, p99 and max.
+     */
+    public String format() {
+        return String.format(Locale.ROOT, "n %d | mean %.0f | p50 %d | p90 %d | p99 %d | max %d ms",
+                getCount(), getMeanMillis(), percentile(50), percentile(90), percentile(99), getMaxMillis());
+    }
+
+    private static int bucketOf(long millis) {
+        if (millis >= MAX_TRACKED_MILLIS) {
+            return BUCKETS - 1;
+        }
+        return 64 - Long.numberOfLeadingZeros(millis);
+    }
+
+    private static long upperBound(int bucket) {
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+}
@@ -0,0 +1,250 @@
+package rs.kreme.ksbot.api.stats;
+
+import java.util.Arrays;
+
+/**
+ * Loot totals per item id: how many were picked up and their gp value.
+ * <p>
+ * Entries live in an open-addressing table of parallel primitive arrays
+ * (linear probing, resized at half load), so recording loot neither boxes
+ * nor allocates once the table has grown. Entries are read back through
+ * {@link #forEach(Visitor)} or {@link #topByValue(int, int[])}. Ledgers of
+ * several bots can be summed with {@link #merge(LootLedger)}. Not
+ * thread-safe; merge copies or finished ledgers when aggregating.
+ */
+public final class LootLedger {
+
+    /**
+     * Receives ledger entries.
+     */
+    public interface Visitor {
+        void visit(int itemId, long count, long value);
+    }
+
+    private static final int EMPTY = Integer.MIN_VALUE;
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private int[] keys;
+    private long[] counts;
+    private long[] values;
+    private int size;
+    private long totalCount;
+    private long totalValue;
+
+    // Scratch heap for topByValue
+    private int[] heap = new int[0];
+
+    public LootLedger() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param expectedItems Number of distinct items expected
+     */
+    public LootLedger(int expectedItems) {
+        allocate(Integer.highestOneBit(Math.max(4, expectedItems * 2 - 1)) << 1);
+    }
+
+    /**
+     * Adds loot to an item's totals.
+     *
+     * @param itemId The item id; must not be {@link Integer#MIN_VALUE}
+     * @param count Number of items picked up
+     * @param value Their combined gp value
+     */
+    public void record(int itemId, long count, long value) {
+        int index = indexFor(itemId);
+        if (keys[index] == EMPTY) {
+            keys[index] = itemId;
+            if (++size * 2 > keys.length) {
+                grow();
+                index = find(itemId);
+            }
+        }
+        counts[index] += count;
+        values[index] += value;
+        totalCount += count;
+        totalValue += value;
+    }
+
+    public long getCount(int itemId) {
+        int index = find(itemId);
+        return index < 0 ? 0 : counts[index];
+    }
+
+    public long getValue(int itemId) {
+        int index = find(itemId);
+        return index < 0 ? 0 : values[index];
+    }
+
+    /**
+     * Number of distinct items.
+     */
+    public int size() {
+        return size;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getTotalValue() {
+        return totalValue;
+    }
+
+    public void forEach(Visitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                visitor.visit(keys[i], counts[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * Finds the most valuable items with a bounded min-heap of {@code n}
+     * entries, in O(size log n).
+     *
+     * @param n Number of items wanted
+     * @param out Receives the item ids, most valuable first; needs room for n
+     * @return The number of ids written, at most n
+     */
+    public int topByValue(int n, int[] out) {
+        if (heap.length < n) {
+            heap = new int[n];
+        }
+        int heapSize = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == EMPTY) {
+                continue;
+            }
+            if (heapSize < n) {
+                heap[heapSize] = i;
+                siftUp(heapSize++);
+            } else if (n > 0 && values[i] > values[heap[0]]) {
+                heap[0] = i;
+                siftDown(0, heapSize);
+            }
+        }
+        // Pop the minimum to the back until the heap is empty
+        int written = heapSize;
+        while (heapSize > 0) {
+            out[--heapSize] = keys[heap[0]];
+            heap[0] = heap[heapSize];
+            siftDown(0, heapSize);
+        }
+        return written;
+    }
+
+    /**
+     * Adds every entry of another ledger to this one.
+     */
+    public void merge(LootLedger other) {
+        for (int i = 0; i < other.keys.length; i++) {
+            if (other.keys[i] != EMPTY) {
+                record(other.keys[i], other.counts[i], other.values[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns an independent copy, e.g. to hand to another thread.
+     */
+    public LootLedger copy() {
+        LootLedger copy = new LootLedger(1);
+        copy.keys = keys.clone();
+        copy.counts = counts.clone();
+        copy.values = values.clone();
+        copy.size = size;
+        copy.totalCount = totalCount;
+        copy.totalValue = totalValue;
+        return copy;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(counts, 0);
+        Arrays.fill(values, 0);
+        size = 0;
+        totalCount = 0;
+        totalValue = 0;
+    }
+
+    private void siftUp(int position) {
+        int entry = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (values[heap[parent]] <= values[entry]) {
+                break;
+            }
+            heap[position] = heap[parent];
+            position = parent;
+        }
+        heap[position] = entry;
+    }
+
+    private void siftDown(int position, int heapSize) {
+        if (heapSize == 0) {
+            return;
+        }
+        int entry = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && values[heap[child + 1]] < values[heap[child]]) {
+                child++;
+            }
+            if (values[heap[child]] >= values[entry]) {
+                break;
+            }
+            heap[position] = heap[child];
+            position = child;
+        }
+        heap[position] = entry;
+    }
+
+    /**
+     * Slot holding the key, or the empty slot where it would go.
+     */
+    private int indexFor(int key) {
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+        while (keys[index] != EMPTY && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private int find(int key) {
+        int index = indexFor(key);
+        return keys[index] == key ? index : -1;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        long[] oldCounts = counts;
+        long[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int index = indexFor(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                counts[index] = oldCounts[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        counts = new long[capacity];
+        values = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,133 @@
+package rs.kreme.ksbot.api.stats;
+
+import java.util.Arrays;
+
+/**
+ * Event counts in one-second buckets over the last hour, for windowed and
+ * smoothed rates.
+ * <p>
+ * The buckets form a ring of {@value #BUCKETS} entries, so a series takes a
+ * fixed 28 KB however long the bot runs; the ring is only allocated when the
+ * first amount is recorded, so metrics a bot never produces cost nothing.
+ * Each {@link RateWindow} keeps a running sum that is updated when an
+ * amount is recorded and when a bucket falls out of the window, which
+ * makes recording and window queries O(1) (advancing the ring costs one
+ * step per elapsed second, at most one full pass after an idle hour). An
+ * exponentially weighted moving average of the per-second amount is
+ * folded in as each second closes.
+ * <p>
+ * Times are in milliseconds from the caller's clock and must not go
+ * backwards; an amount recorded with an older time counts towards the
+ * newest second. Not thread-safe.
+ */
+public final class RateSeries {
+
+    public static final int BUCKETS = 3600;
+
+    private static final RateWindow[] WINDOWS = RateWindow.values();
+    private static final double MILLIS_PER_HOUR = 3_600_000.0;
+
+    private long[] buckets;
+    private final long[] windowSums = new long[WINDOWS.length];
+    private final double alpha;
+    private final long startMillis;
+    private long headSecond;
+    private double ewmaPerSecond;
+    private long total;
+
+    /**
+     * @param startMillis Time the series starts counting from
+     * @param ewmaTimeConstantSeconds Time constant of the moving average
+     */
+    public RateSeries(long startMillis, int ewmaTimeConstantSeconds) {
+        this.startMillis = startMillis;
+        this.headSecond = Math.floorDiv(startMillis, 1000);
+        this.alpha = 1 - Math.exp(-1.0 / ewmaTimeConstantSeconds);
+    }
+
+    public void record(long amount, long timeMillis) {
+        advance(timeMillis);
+        if (buckets == null) {
+            buckets = new long[BUCKETS];
+        }
+        buckets[slot(headSecond)] += amount;
+        for (int w = 0; w < windowSums.length; w++) {
+            windowSums[w] += amount;
+        }
+        total += amount;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Sum recorded within the window ending now.
+     */
+    public long sum(RateWindow window, long nowMillis) {
+        advance(nowMillis);
+        return windowSums[window.ordinal()];
+    }
+
+    /**
+     * Rate per hour over the window, or over the time since the start while
+     * the series is younger than the window.
+     */
+    public double ratePerHour(RateWindow window, long nowMillis) {
+        advance(nowMillis);
+        long covered = headSecond - Math.floorDiv(startMillis, 1000) + 1;
+        long span = Math.min(window.getSeconds(), covered);
+        return windowSums[window.ordinal()] * 3600.0 / span;
+    }
+
+    /**
+     * Exponentially smoothed rate per hour over the closed seconds.
+     */
+    public double ewmaPerHour(long nowMillis) {
+        advance(nowMillis);
+        return ewmaPerSecond * 3600;
+    }
+
+    /**
+     * Average rate per hour since the start. Runs shorter than a second
+     * count as one second.
+     */
+    public double lifetimePerHour(long nowMillis) {
+        return total * MILLIS_PER_HOUR / Math.max(1000, nowMillis - startMillis);
+    }
+
+    private void advance(long nowMillis) {
+        long nowSecond = Math.floorDiv(nowMillis, 1000);
+        long gap = nowSecond - headSecond;
+        if (gap <= 0) {
+            return;
+        }
+        if (buckets == null) {
+            // Nothing recorded yet, so every closed second was zero
+            ewmaPerSecond *= Math.pow(1 - alpha, gap);
+            headSecond = nowSecond;
+            return;
+        }
+        if (gap >= BUCKETS) {
+            // The whole hour expired: close the head second and start over
+            ewmaPerSecond += alpha * (buckets[slot(headSecond)] - ewmaPerSecond);
+            ewmaPerSecond *= Math.pow(1 - alpha, gap - 1);
+            Arrays.fill(buckets, 0);
+            Arrays.fill(windowSums, 0);
+            headSecond = nowSecond;
+            return;
+        }
+        for (long second = headSecond + 1; second <= nowSecond; second++) {
+            ewmaPerSecond += alpha * (buckets[slot(second - 1)] - ewmaPerSecond);
+            for (int w = 0; w < windowSums.length; w++) {
+                windowSums[w] -= buckets[slot(second - WINDOWS[w].getSeconds())];
+            }
+            buckets[slot(second)] = 0;
+        }
+        headSecond = nowSecond;
+    }
+
+    private static int slot(long second) {
+        return Math.floorMod(second, BUCKETS);
+    }
+}
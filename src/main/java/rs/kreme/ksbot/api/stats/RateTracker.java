@@ -0,0 +1,82 @@
+package rs.kreme.ksbot.api.stats;
+
+import java.util.Locale;
+import rs.kreme.ksbot.api.game.GameClock;
+
+/**
+ * One {@link RateSeries} per bot metric, timed by the script's clock.
+ */
+public final class RateTracker {
+
+    public enum Metric {
+        KILLS("Kills"),
+        XP("XP"),
+        LOOT_VALUE("Loot (gp)"),
+        FOOD("Food"),
+        POTIONS("Potions");
+
+        private final String label;
+
+        Metric(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    public static final int DEFAULT_EWMA_SECONDS = 300;
+
+    private final GameClock clock;
+    private final RateSeries[] series = new RateSeries[Metric.values().length];
+
+    public RateTracker(GameClock clock) {
+        this.clock = clock;
+        long now = clock.currentTimeMillis();
+        for (int i = 0; i < series.length; i++) {
+            series[i] = new RateSeries(now, DEFAULT_EWMA_SECONDS);
+        }
+    }
+
+    public void record(Metric metric, long amount) {
+        series[metric.ordinal()].record(amount, clock.currentTimeMillis());
+    }
+
+    public void record(Metric metric, long amount, long timeMillis) {
+        series[metric.ordinal()].record(amount, timeMillis);
+    }
+
+    public long getTotal(Metric metric) {
+        return series[metric.ordinal()].getTotal();
+    }
+
+    public double ratePerHour(Metric metric, RateWindow window) {
+        return series[metric.ordinal()].ratePerHour(window, clock.currentTimeMillis());
+    }
+
+    public double ewmaPerHour(Metric metric) {
+        return series[metric.ordinal()].ewmaPerHour(clock.currentTimeMillis());
+    }
+
+    public double lifetimePerHour(Metric metric) {
+        return series[metric.ordinal()].lifetimePerHour(clock.currentTimeMillis());
+    }
+
+    /**
+     * One report line: total, then per-hour rates over each window, the
+     * smoothed rate and the lifetime average.
+     */
+    public String format(Metric metric) {
+        StringBuilder line = new StringBuilder(96);
+        line.append(metric.getLabel()).append(": ").append(getTotal(metric)).append(" |");
+        for (RateWindow window : RateWindow.values()) {
+            line.append(' ').append(window.getLabel()).append(' ')
+                .append(String.format(Locale.ROOT, "%.0f", ratePerHour(metric, window)));
+        }
+        line.append(" | ewma ").append(String.format(Locale.ROOT, "%.0f", ewmaPerHour(metric)))
+            .append(" | avg ").append(String.format(Locale.ROOT, "%.0f", lifetimePerHour(metric)))
+            .append(" per hour");
+        return line.toString();
+    }
+}
@@ -0,0 +1,27 @@
+package rs.kreme.ksbot.api.stats;
+
+/**
+ * Trailing windows a {@link RateSeries} keeps running sums for.
+ */
+public enum RateWindow {
+    MINUTES_1(60, "1m"),
+    MINUTES_5(300, "5m"),
+    MINUTES_15(900, "15m"),
+    MINUTES_60(3600, "60m");
+
+    private final int seconds;
+    private final String label;
+
+    RateWindow(int seconds, String label) {
+        this.seconds = seconds;
+        this.label = label;
+    }
+
+    public int getSeconds() {
+        return seconds;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
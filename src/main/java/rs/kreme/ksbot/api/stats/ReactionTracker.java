@@ -0,0 +1,167 @@
+package rs.kreme.ksbot.api.stats;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+import rs.kreme.ksbot.api.game.GameClock;
+import rs.kreme.ksbot.api.wrappers.InteractionListener;
+
+/**
+ * Time from a state change the bot should react to until it acts on it,
+ * one {@link LatencyHistogram} per {@link Trigger}.
+ * <p>
+ * The context clients report triggers as they apply state changes: the
+ * bot's eat condition starting to hold as health or the damage taken
+ * changes, special energy rising to the special attack threshold, and loot
+ * appearing on the ground. The eating task reports its meals, the wrappers
+ * report pickups, and the special attack toggle reports itself. A trigger
+ * stays open until its action arrives or the state that caused it goes
+ * away (the eat condition no longer holding, the item despawning); only
+ * the first action after a trigger is counted. Loot is matched by entity
+ * store slot, so each pile gets its own latency.
+ * <p>
+ * Triggers and actions must come from the thread that owns the context;
+ * the histograms can be read from any thread.
+ */
+public final class ReactionTracker implements InteractionListener {
+
+    public enum Trigger {
+        LOW_HEALTH("Eat at low health"),
+        SPEC_ENERGY("Special attack"),
+        LOOT_DROP("Loot pickup");
+
+        private final String label;
+
+        Trigger(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    public static final int DISABLED = -1;
+
+    private static final long NONE = -1;
+
+    private final GameClock clock;
+    private final LatencyHistogram[] histograms = new LatencyHistogram[Trigger.values().length];
+
+    private BooleanSupplier eatCondition;
+    private int specThreshold = DISABLED;
+    private long lowHealthSince = NONE;
+    private long specReadySince = NONE;
+
+    // Drop time per ground item store slot, NONE once taken or gone
+    private long[] droppedAt = new long[0];
+
+    public ReactionTracker(GameClock clock) {
+        this.clock = clock;
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Sets the condition under which the bot should eat, or null to disable
+     * the low health trigger.
+     */
+    public void setEatCondition(BooleanSupplier eatCondition) {
+        this.eatCondition = eatCondition;
+        lowHealthSince = NONE;
+    }
+
+    /**
+     * Sets the special energy at or above which the bot should use its special attack, or {@link #DISABLED}.
+     */
+    public void setSpecThreshold(int specEnergy) {
+        this.specThreshold = specEnergy;
+        specReadySince = NONE;
+    }
+
+    /**
+     * Health or the damage taken changed; checks the eat condition again.
+     */
+    public void healthChanged() {
+        if (eatCondition == null || !eatCondition.getAsBoolean()) {
+            lowHealthSince = NONE;
+        } else if (lowHealthSince == NONE) {
+            lowHealthSince = clock.currentTimeMillis();
+        }
+    }
+
+    /**
+     * The bot ate because its eat condition held.
+     */
+    public void mealEaten() {
+        if (lowHealthSince != NONE) {
+            record(Trigger.LOW_HEALTH, lowHealthSince);
+            lowHealthSince = NONE;
+        }
+    }
+
+    public void specEnergyChanged(int oldEnergy, int newEnergy) {
+        if (specThreshold == DISABLED || newEnergy < specThreshold) {
+            specReadySince = NONE;
+        } else if (oldEnergy < specThreshold && specReadySince == NONE) {
+            specReadySince = clock.currentTimeMillis();
+        }
+    }
+
+    /**
+     * The special attack was switched on.
+     */
+    public void specialEnabled() {
+        if (specReadySince != NONE) {
+            record(Trigger.SPEC_ENERGY, specReadySince);
+            specReadySince = NONE;
+        }
+    }
+
+    public void lootDropped(int slot) {
+        if (slot >= droppedAt.length) {
+            int oldLength = droppedAt.length;
+            droppedAt = Arrays.copyOf(droppedAt, Math.max(slot + 1, oldLength * 2));
+            Arrays.fill(droppedAt, oldLength, droppedAt.length, NONE);
+        }
+        droppedAt[slot] = clock.currentTimeMillis();
+    }
+
+    public void lootRemoved(int slot) {
+        if (slot < droppedAt.length) {
+            droppedAt[slot] = NONE;
+        }
+    }
+
+    /**
+     * Every ground item went away at once.
+     */
+    public void lootCleared() {
+        Arrays.fill(droppedAt, NONE);
+    }
+
+    @Override
+    public void onInteract(String action, int slot) {
+        if ("Take".equals(action)) {
+            if (slot >= 0 && slot < droppedAt.length && droppedAt[slot] != NONE) {
+                record(Trigger.LOOT_DROP, droppedAt[slot]);
+                droppedAt[slot] = NONE;
+            }
+        }
+    }
+
+    public LatencyHistogram getHistogram(Trigger trigger) {
+        return histograms[trigger.ordinal()];
+    }
+
+    /**
+     * One report line for a trigger, see {@link LatencyHistogram#format()}.
+     */
+    public String format(Trigger trigger) {
+        return "Reaction, " + trigger.getLabel() + ": " + getHistogram(trigger).format();
+    }
+
+    private void record(Trigger trigger, long since) {
+        histograms[trigger.ordinal()].record(clock.currentTimeMillis() - since);
+    }
+}
@@ -0,0 +1,56 @@
+package rs.kreme.ksbot.api.trace;
+
+/**
+ * Layout of a state trace file.
+ * <p>
+ * A trace starts with a {@code KSTR} magic, a version, the seed the
+ * script's random source was given, the clock time of the first event and
+ * the event count, all fixed width. The events follow, each an opcode byte
+ * (the {@link #INTERNAL} bit is set when the script itself caused the
+ * change while executing a task), the time since the previous event as a
+ * zigzag varint, and the operands as varints. Strings are written once and
+ * referred to by table index afterwards: an index equal to the current
+ * table size introduces a new string, followed by its UTF-8 length and bytes.
+ */
+final class TraceFormat {
+
+    static final int MAGIC = 0x4B535452; // "KSTR"
+    static final int VERSION = 3;
+    static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 4;
+
+    static final int INTERNAL = 0x80;
+
+    // Combat
+    static final int IN_COMBAT = 1;
+    static final int HEALTH_PERCENT = 2;
+    static final int CURRENT_HEALTH = 3;
+    static final int SPEC_ENERGY = 4;
+    static final int SPEC_ENABLED = 5;
+    static final int ATTACK_STYLE = 6;
+    static final int HIT_DEALT = 7;
+    static final int HIT_TAKEN = 8; // damage, then attacker NPC slot + 1 (0 when unknown)
+    static final int NPCS_CLEARED = 9;
+    static final int NPC_ADDED = 10;
+    static final int NPC_REMOVED = 11;
+    // Prayer
+    static final int PRAYER_POINTS = 12;
+    static final int PRAYER_ON = 13;
+    static final int PRAYER_OFF = 14;
+    // Inventory and equipment; 15 was the inventory-full flag, derived from the items since version 3
+    static final int INVENTORY_ITEMS = 16; // count, then per item id, name and quantity
+    static final int EQUIPPED = 17;
+    static final int UNEQUIPPED = 18;
+    // Ground items
+    static final int GROUND_CLEARED = 19;
+    static final int GROUND_ADDED = 20;
+    static final int GROUND_REMOVED = 21;
+    // Local player
+    static final int PLAYER_X = 22;
+    static final int PLAYER_Y = 23;
+    static final int PLAYER_PLANE = 24;
+    // Script
+    static final int DECISION = 25;
+
+    private TraceFormat() {
+    }
+}
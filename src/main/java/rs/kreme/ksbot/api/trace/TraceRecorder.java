@@ -0,0 +1,343 @@
+package rs.kreme.ksbot.api.trace;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import rs.kreme.ksbot.api.game.Combat;
+import rs.kreme.ksbot.api.game.EquipmentSlot;
+import rs.kreme.ksbot.api.game.GameClock;
+import rs.kreme.ksbot.api.game.Prayer;
+import rs.kreme.ksbot.api.scripts.task.TaskScript.ScriptContext;
+import rs.kreme.ksbot.api.world.EntityStore;
+import rs.kreme.ksbot.api.wrappers.KSItem;
+import rs.kreme.ksbot.api.wrappers.KSPlayer;
+
+/**
+ * Records every state change made to a {@link ScriptContext} into a compact
+ * binary trace, together with the decision the script took on each step.
+ * <p>
+ * {@link #attach(ScriptContext, long)} seeds the context's random source,
+ * writes a snapshot of the current state and registers the recorder with
+ * the clients, which then report each mutation as it happens. Changes the
+ * script makes while a task executes are marked as internal so a replay,
+ * which runs the same task, does not apply them twice. See
+ * {@link TraceFormat} for the layout and {@link TraceReplayer} for playback.
+ * <p>
+ * Events are appended to an in-memory buffer; {@link #save(Path)} writes the
+ * file. A recorder belongs to one context and is not thread-safe.
+ */
+public final class TraceRecorder {
+
+    private static final EquipmentSlot[] SLOTS = EquipmentSlot.values();
+
+    private final Map<String, Integer> strings = new HashMap<>();
+    private byte[] buffer = new byte[4096];
+    private int length;
+    private int events;
+    private GameClock clock;
+    private long seed;
+    private long startMillis;
+    private long lastMillis;
+    private boolean inStep;
+    private long stepMillis;
+
+    /**
+     * Starts recording a context: seeds its random source, snapshots its
+     * current state and hooks the recorder into its clients.
+     */
+    public void attach(ScriptContext ctx, long seed) {
+        this.clock = ctx.clock;
+        this.seed = seed;
+        this.startMillis = clock.currentTimeMillis();
+        this.lastMillis = startMillis;
+        ctx.random.setSeed(seed);
+        snapshot(ctx);
+        ctx.setRecorder(this);
+    }
+
+    /**
+     * Stops recording; the events so far stay available for saving.
+     */
+    public void detach(ScriptContext ctx) {
+        ctx.setRecorder(null);
+    }
+
+    public int eventCount() {
+        return events;
+    }
+
+    /**
+     * Size of the encoded events in bytes, excluding the header.
+     */
+    public int byteCount() {
+        return length;
+    }
+
+    public void save(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(TraceFormat.MAGIC);
+            out.writeInt(TraceFormat.VERSION);
+            out.writeLong(seed);
+            out.writeLong(startMillis);
+            out.writeInt(events);
+            out.write(buffer, 0, length);
+        }
+    }
+
+    /**
+     * Marks the start of a script step; changes until {@link #endStep(int)}
+     * are made by the script itself.
+     */
+    public void beginStep() {
+        inStep = true;
+        stepMillis = clock.currentTimeMillis();
+    }
+
+    /**
+     * Records the decision of a step.
+     *
+     * @param taskIndex Index of the executed task in the script's task list, or -1
+     */
+    public void endStep(int taskIndex) {
+        inStep = false;
+        event(TraceFormat.DECISION, stepMillis);
+        writeVarint(taskIndex + 1);
+    }
+
+    // Combat
+
+    public void inCombat(boolean inCombat) {
+        value(TraceFormat.IN_COMBAT, inCombat ? 1 : 0);
+    }
+
+    public void healthPercent(int healthPercent) {
+        value(TraceFormat.HEALTH_PERCENT, healthPercent);
+    }
+
+    public void currentHealth(int currentHealth) {
+        value(TraceFormat.CURRENT_HEALTH, currentHealth);
+    }
+
+    public void specEnergy(int specEnergy) {
+        value(TraceFormat.SPEC_ENERGY, specEnergy);
+    }
+
+    public void specEnabled(boolean specEnabled) {
+        value(TraceFormat.SPEC_ENABLED, specEnabled ? 1 : 0);
+    }
+
+    public void attackStyle(Combat.AttackStyle attackStyle) {
+        value(TraceFormat.ATTACK_STYLE, attackStyle.ordinal());
+    }
+
+    public void hitDealt(int damage) {
+        value(TraceFormat.HIT_DEALT, damage);
+    }
+
+    public void hitTaken(int attacker, int damage) {
+        value(TraceFormat.HIT_TAKEN, damage);
+        writeVarint(attacker + 1);
+    }
+
+    public void npcsCleared() {
+        event(TraceFormat.NPCS_CLEARED);
+    }
+
+    public void npcAdded(String name, int combatLevel, int x, int y, int hp, int slot) {
+        spawn(TraceFormat.NPC_ADDED, name, combatLevel, x, y, hp, slot);
+    }
+
+    public void npcRemoved(int slot) {
+        value(TraceFormat.NPC_REMOVED, slot);
+    }
+
+    // Prayer
+
+    public void prayerPoints(int prayerPoints) {
+        value(TraceFormat.PRAYER_POINTS, prayerPoints);
+    }
+
+    public void prayerActivated(Prayer.Prayers prayer) {
+        value(TraceFormat.PRAYER_ON, prayer.ordinal());
+    }
+
+    public void prayerDeactivated(Prayer.Prayers prayer) {
+        value(TraceFormat.PRAYER_OFF, prayer.ordinal());
+    }
+
+    // Inventory and equipment
+
+    public void inventoryItems(List<KSItem> items) {
+        event(TraceFormat.INVENTORY_ITEMS);
+        writeVarint(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            writeItem(items.get(i));
+        }
+    }
+
+    public void equipped(KSItem item) {
+        event(TraceFormat.EQUIPPED);
+        writeItem(item);
+    }
+
+    public void unequipped(EquipmentSlot slot) {
+        value(TraceFormat.UNEQUIPPED, slot.ordinal());
+    }
+
+    // Ground items
+
+    public void groundCleared() {
+        event(TraceFormat.GROUND_CLEARED);
+    }
+
+    public void groundItemAdded(String name, int x, int y, int quantity, int slot) {
+        spawn(TraceFormat.GROUND_ADDED, name, 0, x, y, quantity, slot);
+    }
+
+    public void groundItemRemoved(int slot) {
+        value(TraceFormat.GROUND_REMOVED, slot);
+    }
+
+    // Local player
+
+    public void playerX(int x) {
+        value(TraceFormat.PLAYER_X, x);
+    }
+
+    public void playerY(int y) {
+        value(TraceFormat.PLAYER_Y, y);
+    }
+
+    public void playerPlane(int plane) {
+        value(TraceFormat.PLAYER_PLANE, plane);
+    }
+
+    /**
+     * Writes the current state of every recorded client as ordinary events.
+     */
+    private void snapshot(ScriptContext ctx) {
+        Combat combat = ctx.combat;
+        inCombat(combat.inCombat());
+        healthPercent(combat.getHealthPercent());
+        currentHealth(combat.getCurrentHealth());
+        specEnergy(combat.getSpecEnergy());
+        specEnabled(combat.isSpecEnabled());
+        attackStyle(combat.getAttackStyle());
+        npcsCleared();
+        EntityStore npcs = combat.getNpcStore();
+        for (int slot = 0; slot < npcs.highWater(); slot++) {
+            if (npcs.isLive(slot)) {
+                npcAdded(npcs.nameOf(npcs.id(slot)), npcs.level(slot), npcs.x(slot), npcs.y(slot),
+                        npcs.hp(slot), slot);
+            }
+        }
+
+        prayerPoints(ctx.prayer.getPrayerPoints());
+        for (Prayer.Prayers prayer : Prayer.Prayers.values()) {
+            if (ctx.prayer.isPrayerActive(prayer)) {
+                prayerActivated(prayer);
+            } else {
+                prayerDeactivated(prayer);
+            }
+        }
+
+        inventoryItems(ctx.inventory.getItems().results());
+        for (EquipmentSlot slot : SLOTS) {
+            unequipped(slot);
+        }
+        for (EquipmentSlot slot : SLOTS) {
+            KSItem item = ctx.equipment.getSlot(slot);
+            if (item != null) {
+                equipped(item);
+            }
+        }
+
+        groundCleared();
+        EntityStore ground = ctx.groundItems.getStore();
+        for (int slot = 0; slot < ground.highWater(); slot++) {
+            if (ground.isLive(slot)) {
+                groundItemAdded(ground.nameOf(ground.id(slot)), ground.x(slot), ground.y(slot),
+                        ground.hp(slot), slot);
+            }
+        }
+
+        KSPlayer local = ctx.players.getLocal();
+        playerX(local.getX());
+        playerY(local.getY());
+        playerPlane(local.getPlane());
+    }
+
+    private void value(int op, int value) {
+        event(op);
+        writeVarint(zigzag(value));
+    }
+
+    private void spawn(int op, String name, int level, int x, int y, int amount, int slot) {
+        event(op);
+        writeString(name);
+        writeVarint(zigzag(level));
+        writeVarint(zigzag(x));
+        writeVarint(zigzag(y));
+        writeVarint(zigzag(amount));
+        writeVarint(slot);
+    }
+
+    private void event(int op) {
+        event(op, clock.currentTimeMillis());
+    }
+
+    private void event(int op, long timeMillis) {
+        ensure(1 + 10);
+        buffer[length++] = (byte) (inStep ? op | TraceFormat.INTERNAL : op);
+        writeVarint((timeMillis - lastMillis) << 1 ^ (timeMillis - lastMillis) >> 63);
+        lastMillis = timeMillis;
+        events++;
+    }
+
+    private void writeItem(KSItem item) {
+        writeVarint(zigzag(item.getId()));
+        writeString(item.getName());
+        writeVarint(item.getQuantity());
+    }
+
+    private void writeString(String value) {
+        Integer index = strings.get(value);
+        if (index != null) {
+            writeVarint(index);
+            return;
+        }
+        writeVarint(strings.size());
+        strings.put(value, strings.size());
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(utf8.length);
+        ensure(utf8.length);
+        System.arraycopy(utf8, 0, buffer, length, utf8.length);
+        length += utf8.length;
+    }
+
+    private void writeVarint(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[length++] = (byte) value;
+    }
+
+    private static long zigzag(int value) {
+        return (value << 1 ^ value >> 31) & 0xFFFFFFFFL;
+    }
+
+    private void ensure(int bytes) {
+        if (length + bytes > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + bytes));
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package rs.kreme.ksbot.api.trace;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import rs.kreme.ksbot.api.game.Combat;
+import rs.kreme.ksbot.api.game.EquipmentSlot;
+import rs.kreme.ksbot.api.game.Prayer;
+import rs.kreme.ksbot.api.scripts.task.TaskScript;
+import rs.kreme.ksbot.api.scripts.task.TaskScript.ScriptContext;
+import rs.kreme.ksbot.api.wrappers.KSItem;
+
+/**
+ * Drives a {@link TaskScript} from a trace written by {@link TraceRecorder},
+ * as fast as it can.
+ * <p>
+ * The script's clock is switched to virtual time and set to each event's
+ * timestamp, its random source gets the recorded seed, and the recorded
+ * changes are applied to its context in order. At every recorded decision
+ * the script takes one {@link TaskScript#step()} and the task it picks is
+ * compared with the recorded one. Changes the recorded script made itself
+ * are skipped, since the replayed script makes them again.
+ * <p>
+ * Entity slots are translated from the recorded stores to the replayed
+ * ones, so a replay does not depend on the store's free-list order. Slots of
+ * entities the script spawned itself are assumed to match.
+ */
+public final class TraceReplayer {
+
+    private static final EquipmentSlot[] SLOTS = EquipmentSlot.values();
+    private static final Combat.AttackStyle[] STYLES = Combat.AttackStyle.values();
+    private static final Prayer.Prayers[] PRAYERS = Prayer.Prayers.values();
+
+    private final byte[] data;
+    private final long seed;
+    private final long startMillis;
+    private final int eventCount;
+
+    private TraceReplayer(byte[] data, long seed, long startMillis, int eventCount) {
+        this.data = data;
+        this.seed = seed;
+        this.startMillis = startMillis;
+        this.eventCount = eventCount;
+    }
+
+    public static TraceReplayer load(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        if (bytes.length < TraceFormat.HEADER_BYTES) {
+            throw new IOException("Truncated trace: " + file);
+        }
+        ByteBuffer header = ByteBuffer.wrap(bytes, 0, TraceFormat.HEADER_BYTES);
+        if (header.getInt() != TraceFormat.MAGIC) {
+            throw new IOException("Not a state trace: " + file);
+        }
+        int version = header.getInt();
+        if (version != TraceFormat.VERSION) {
+            throw new IOException("Unsupported state trace version " + version + " in " + file);
+        }
+        long seed = header.getLong();
+        long startMillis = header.getLong();
+        int eventCount = header.getInt();
+        return new TraceReplayer(Arrays.copyOfRange(bytes, TraceFormat.HEADER_BYTES, bytes.length),
+                seed, startMillis, eventCount);
+    }
+
+    public int eventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Replays the trace against a started script.
+     *
+     * @param script A script configured like the recorded one, after {@code onStart}
+     * @return What happened during the replay
+     */
+    public Result replay(TaskScript script) {
+        ScriptContext ctx = script.ctx;
+        Cursor in = new Cursor(data);
+        List<String> strings = new ArrayList<>();
+        SlotMap npcSlots = new SlotMap();
+        SlotMap groundSlots = new SlotMap();
+        long time = startMillis;
+        ctx.clock.setVirtualTime(time);
+        ctx.random.setSeed(seed);
+
+        int decisions = 0;
+        int mismatches = 0;
+        int firstMismatch = -1;
+        int skipped = 0;
+        long start = System.nanoTime();
+        for (int event = 0; event < eventCount; event++) {
+            int op = in.readByte();
+            time += unzigzag(in.readVarint());
+            ctx.clock.setVirtualTime(time);
+
+            if ((op & TraceFormat.INTERNAL) != 0) {
+                skipInternal(op & ~TraceFormat.INTERNAL, in, strings, npcSlots, groundSlots);
+                skipped++;
+                continue;
+            }
+
+            switch (op) {
+                case TraceFormat.IN_COMBAT:
+                    ctx.combat.setInCombat(in.readInt() != 0);
+                    break;
+                case TraceFormat.HEALTH_PERCENT:
+                    ctx.combat.setHealthPercent(in.readInt());
+                    break;
+                case TraceFormat.CURRENT_HEALTH:
+                    ctx.combat.setCurrentHealth(in.readInt());
+                    break;
+                case TraceFormat.SPEC_ENERGY:
+                    ctx.combat.setSpecEnergy(in.readInt());
+                    break;
+                case TraceFormat.SPEC_ENABLED:
+                    ctx.combat.setSpecEnabled(in.readInt() != 0);
+                    break;
+                case TraceFormat.ATTACK_STYLE:
+                    ctx.combat.setAttackStyle(STYLES[in.readInt()]);
+                    break;
+                case TraceFormat.HIT_DEALT:
+                    ctx.combat.hitDealt(in.readInt());
+                    break;
+                case TraceFormat.HIT_TAKEN: {
+                    int damage = in.readInt();
+                    int recordedAttacker = (int) in.readVarint() - 1;
+                    ctx.combat.hitTaken(recordedAttacker < 0 ? -1 : npcSlots.get(recordedAttacker), damage);
+                    break;
+                }
+                case TraceFormat.NPCS_CLEARED:
+                    ctx.combat.setAttackableNpcs(null);
+                    npcSlots.clear();
+                    break;
+                case TraceFormat.NPC_ADDED: {
+                    String name = in.readString(strings);
+                    int level = in.readInt();
+                    int x = in.readInt();
+                    int y = in.readInt();
+                    int hp = in.readInt();
+                    int recordedSlot = (int) in.readVarint();
+                    npcSlots.put(recordedSlot, ctx.combat.addAttackableNpc(name, level, x, y, hp));
+                    break;
+                }
+                case TraceFormat.NPC_REMOVED:
+                    ctx.combat.removeAttackableNpc(npcSlots.get(in.readInt()));
+                    break;
+                case TraceFormat.PRAYER_POINTS:
+                    ctx.prayer.setPrayerPoints(in.readInt());
+                    break;
+                case TraceFormat.PRAYER_ON:
+                    ctx.prayer.activatePrayer(PRAYERS[in.readInt()]);
+                    break;
+                case TraceFormat.PRAYER_OFF:
+                    ctx.prayer.deactivatePrayer(PRAYERS[in.readInt()]);
+                    break;
+                case TraceFormat.INVENTORY_ITEMS: {
+                    int count = (int) in.readVarint();
+                    List<KSItem> items = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        items.add(in.readItem(strings));
+                    }
+                    ctx.inventory.setItems(items);
+                    break;
+                }
+                case TraceFormat.EQUIPPED:
+                    ctx.equipment.equip(in.readItem(strings));
+                    break;
+                case TraceFormat.UNEQUIPPED:
+                    ctx.equipment.unequip(SLOTS[in.readInt()]);
+                    break;
+                case TraceFormat.GROUND_CLEARED:
+                    ctx.groundItems.setItems(List.of());
+                    groundSlots.clear();
+                    break;
+                case TraceFormat.GROUND_ADDED: {
+                    String name = in.readString(strings);
+                    in.readInt();
+                    int x = in.readInt();
+                    int y = in.readInt();
+                    int quantity = in.readInt();
+                    int recordedSlot = (int) in.readVarint();
+                    groundSlots.put(recordedSlot, ctx.groundItems.addItem(name, x, y, quantity));
+                    break;
+                }
+                case TraceFormat.GROUND_REMOVED:
+                    ctx.groundItems.removeItem(groundSlots.get(in.readInt()));
+                    break;
+                case TraceFormat.PLAYER_X:
+                    ctx.players.getLocal().setX(in.readInt());
+                    break;
+                case TraceFormat.PLAYER_Y:
+                    ctx.players.getLocal().setY(in.readInt());
+                    break;
+                case TraceFormat.PLAYER_PLANE:
+                    ctx.players.getLocal().setPlane(in.readInt());
+                    break;
+                case TraceFormat.DECISION: {
+                    int expected = (int) in.readVarint() - 1;
+                    script.step();
+                    if (script.getLastDecision() != expected) {
+                        mismatches++;
+                        if (firstMismatch < 0) {
+                            firstMismatch = decisions;
+                        }
+                    }
+                    decisions++;
+                    break;
+                }
+                default:
+                    throw new IllegalStateException("Unknown trace event " + op + " at event " + event);
+            }
+        }
+        return new Result(eventCount, skipped, decisions, mismatches, firstMismatch, System.nanoTime() - start);
+    }
+
+    /**
+     * Reads past an event the recorded script caused, keeping the string
+     * table and slot maps in step with the recording.
+     */
+    private static void skipInternal(int op, Cursor in, List<String> strings, SlotMap npcSlots, SlotMap groundSlots) {
+        switch (op) {
+            case TraceFormat.NPCS_CLEARED:
+            case TraceFormat.GROUND_CLEARED:
+                break;
+            case TraceFormat.NPC_ADDED:
+            case TraceFormat.GROUND_ADDED: {
+                in.readString(strings);
+                in.readVarint();
+                in.readVarint();
+                in.readVarint();
+                in.readVarint();
+                int recordedSlot = (int) in.readVarint();
+                (op == TraceFormat.NPC_ADDED ? npcSlots : groundSlots).put(recordedSlot, recordedSlot);
+                break;
+            }
+            case TraceFormat.INVENTORY_ITEMS: {
+                int count = (int) in.readVarint();
+                for (int i = 0; i < count; i++) {
+                    in.readItem(strings);
+                }
+                break;
+            }
+            case TraceFormat.EQUIPPED:
+                in.readItem(strings);
+                break;
+            case TraceFormat.HIT_TAKEN:
+                in.readVarint();
+                in.readVarint();
+                break;
+            default:
+                in.readVarint();
+                break;
+        }
+    }
+
+    private static long unzigzag(long value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    /**
+     * Outcome of a replay.
+     */
+    public static final class Result {
+        private final int events;
+        private final int skippedEvents;
+        private final int decisions;
+        private final int mismatches;
+        private final int firstMismatch;
+        private final long nanos;
+
+        Result(int events, int skippedEvents, int decisions, int mismatches, int firstMismatch, long nanos) {
+            this.events = events;
+            this.skippedEvents = skippedEvents;
+            this.decisions = decisions;
+            this.mismatches = mismatches;
+            this.firstMismatch = firstMismatch;
+            this.nanos = nanos;
+        }
+
+        public int getEvents() {
+            return events;
+        }
+
+        /**
+         * Events the recorded script caused itself, which the replay re-creates.
+         */
+        public int getSkippedEvents() {
+            return skippedEvents;
+        }
+
+        public int getDecisions() {
+            return decisions;
+        }
+
+        /**
+         * Decisions where the replayed script picked a different task.
+         */
+        public int getMismatches() {
+            return mismatches;
+        }
+
+        /**
+         * Number of the first differing decision, or -1 if all matched.
+         */
+        public int getFirstMismatch() {
+            return firstMismatch;
+        }
+
+        public boolean isIdentical() {
+            return mismatches == 0;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public double decisionsPerSecond() {
+            return decisions / (Math.max(nanos, 1) / 1e9);
+        }
+    }
+
+    /**
+     * Recorded slot -> replayed slot.
+     */
+    private static final class SlotMap {
+        private int[] slots = new int[64];
+
+        void put(int recordedSlot, int slot) {
+            if (recordedSlot >= slots.length) {
+                slots = Arrays.copyOf(slots, Math.max(slots.length * 2, recordedSlot + 1));
+            }
+            slots[recordedSlot] = slot + 1;
+        }
+
+        int get(int recordedSlot) {
+            int slot = recordedSlot < slots.length ? slots[recordedSlot] - 1 : -1;
+            return slot < 0 ? recordedSlot : slot;
+        }
+
+        void clear() {
+            Arrays.fill(slots, 0);
+        }
+    }
+
+    private static final class Cursor {
+        private final byte[] data;
+        private int position;
+
+        Cursor(byte[] data) {
+            this.data = data;
+        }
+
+        int readByte() {
+            return data[position++] & 0xFF;
+        }
+
+        long readVarint() {
+            long value = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        int readInt() {
+            return (int) unzigzag(readVarint());
+        }
+
+        String readString(List<String> strings) {
+            int index = (int) readVarint();
+            if (index < strings.size()) {
+                return strings.get(index);
+            }
+            int length = (int) readVarint();
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            strings.add(value);
+            return value;
+        }
+
+        KSItem readItem(List<String> strings) {
+            int id = readInt();
+            String name = readString(strings);
+            return new KSItem(id, name, (int) readVarint());
+        }
+    }
+}
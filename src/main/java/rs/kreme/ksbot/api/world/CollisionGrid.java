@@ -0,0 +1,136 @@
+package rs.kreme.ksbot.api.world;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Heap-backed collision data for a rectangular area on one plane, typically
+ * one or a few 64x64 regions. Each tile has a flag byte; see
+ * {@link #BLOCKED} and {@link #BLOCKS_PROJECTILE}.
+ * <p>
+ * The file format is a small header ({@code KSCG} magic, version, base x/y,
+ * width, height, plane) followed by one flag byte per tile, row by row.
+ */
+public final class CollisionGrid implements CollisionMap {
+
+    public static final int BLOCKED = 1;
+    public static final int BLOCKS_PROJECTILE = 2;
+
+    private static final int MAGIC = 0x4B534347; // "KSCG"
+    private static final int VERSION = 1;
+
+    private final int baseX;
+    private final int baseY;
+    private final int width;
+    private final int height;
+    private final int plane;
+    private final byte[] flags;
+
+    public CollisionGrid(int baseX, int baseY, int width, int height, int plane) {
+        this(baseX, baseY, width, height, plane, new byte[width * height]);
+    }
+
+    private CollisionGrid(int baseX, int baseY, int width, int height, int plane, byte[] flags) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Grid must not be empty: " + width + "x" + height);
+        }
+        this.baseX = baseX;
+        this.baseY = baseY;
+        this.width = width;
+        this.height = height;
+        this.plane = plane;
+        this.flags = flags;
+    }
+
+    public static CollisionGrid load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a collision grid file: " + file);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported collision grid version " + version + " in " + file);
+            }
+            int baseX = in.readInt();
+            int baseY = in.readInt();
+            int width = in.readInt();
+            int height = in.readInt();
+            int plane = in.readInt();
+            byte[] flags = new byte[width * height];
+            in.readFully(flags);
+            return new CollisionGrid(baseX, baseY, width, height, plane, flags);
+        }
+    }
+
+    public void save(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(baseX);
+            out.writeInt(baseY);
+            out.writeInt(width);
+            out.writeInt(height);
+            out.writeInt(plane);
+            out.write(flags);
+        }
+    }
+
+    @Override
+    public boolean isWalkable(int x, int y, int plane) {
+        int index = indexOf(x, y, plane);
+        return index >= 0 && (flags[index] & BLOCKED) == 0;
+    }
+
+    @Override
+    public boolean blocksProjectile(int x, int y, int plane) {
+        int index = indexOf(x, y, plane);
+        return index < 0 || (flags[index] & BLOCKS_PROJECTILE) != 0;
+    }
+
+    public int getFlags(int x, int y) {
+        int index = indexOf(x, y, plane);
+        return index < 0 ? BLOCKED | BLOCKS_PROJECTILE : flags[index];
+    }
+
+    public void setFlags(int x, int y, int tileFlags) {
+        int index = indexOf(x, y, plane);
+        if (index < 0) {
+            throw new IllegalArgumentException("Tile outside grid: " + x + ", " + y);
+        }
+        flags[index] = (byte) tileFlags;
+    }
+
+    public int getBaseX() {
+        return baseX;
+    }
+
+    public int getBaseY() {
+        return baseY;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getPlane() {
+        return plane;
+    }
+
+    private int indexOf(int x, int y, int tilePlane) {
+        int localX = x - baseX;
+        int localY = y - baseY;
+        if (tilePlane != plane || localX < 0 || localY < 0 || localX >= width || localY >= height) {
+            return -1;
+        }
+        return localY * width + localX;
+    }
+}
@@ -0,0 +1,33 @@
+package rs.kreme.ksbot.api.world;
+
+/**
+ * Read-only view of tile collision data in world coordinates.
+ * Tiles outside the data a map covers are reported as blocked.
+ */
+public interface CollisionMap {
+
+    /**
+     * A map without obstacles, used when no region data has been loaded.
+     */
+    CollisionMap OPEN = new CollisionMap() {
+        @Override
+        public boolean isWalkable(int x, int y, int plane) {
+            return true;
+        }
+
+        @Override
+        public boolean blocksProjectile(int x, int y, int plane) {
+            return false;
+        }
+    };
+
+    /**
+     * Whether a player or NPC may stand on the tile.
+     */
+    boolean isWalkable(int x, int y, int plane);
+
+    /**
+     * Whether the tile stops arrows and spells passing over it.
+     */
+    boolean blocksProjectile(int x, int y, int plane);
+}
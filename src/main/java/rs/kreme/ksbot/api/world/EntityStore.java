@@ -0,0 +1,262 @@
+package rs.kreme.ksbot.api.world;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Column-oriented store for small world entities (NPCs, ground items).
+ * <p>
+ * Every entity lives in a slot and its attributes are held in parallel
+ * {@code int[]} columns so scans touch contiguous primitive memory instead of
+ * chasing object pointers. Released slots are threaded onto a free list and
+ * reused by the next {@link #add}. The meaning of {@code level} and {@code hp}
+ * depends on the owner: NPC stores use them for combat level and hitpoints,
+ * ground item stores use them for plane and stack quantity.
+ * <p>
+ * Entity ids are interned from names through {@link #intern(String)}; a free
+ * slot is marked by an id of {@link #FREE}.
+ */
+public final class EntityStore {
+
+    public static final int FREE = -1;
+    private static final int END_OF_LIST = -1;
+
+    private int[] ids;
+    private int[] xs;
+    private int[] ys;
+    private int[] levels;
+    private int[] hps;
+    private int[] flags;
+    private int[] generations;
+    private int[] nextFree;
+
+    private int highWater;
+    private int size;
+    private int freeHead = END_OF_LIST;
+
+    private final Map<String, Integer> idsByName = new HashMap<>();
+    private final List<String> namesById = new ArrayList<>();
+    private int nameVersion;
+
+    public EntityStore() {
+        this(64);
+    }
+
+    public EntityStore(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        ids = new int[capacity];
+        xs = new int[capacity];
+        ys = new int[capacity];
+        levels = new int[capacity];
+        hps = new int[capacity];
+        flags = new int[capacity];
+        generations = new int[capacity];
+        nextFree = new int[capacity];
+        Arrays.fill(ids, FREE);
+    }
+
+    /**
+     * Adds an entity and returns the slot it was placed in.
+     */
+    public int add(int id, int x, int y, int level, int hp, int entityFlags) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Entity id must be non-negative: " + id);
+        }
+        int slot;
+        if (freeHead != END_OF_LIST) {
+            slot = freeHead;
+            freeHead = nextFree[slot];
+        } else {
+            if (highWater == ids.length) {
+                grow();
+            }
+            slot = highWater++;
+        }
+        ids[slot] = id;
+        xs[slot] = x;
+        ys[slot] = y;
+        levels[slot] = level;
+        hps[slot] = hp;
+        flags[slot] = entityFlags;
+        size++;
+        return slot;
+    }
+
+    /**
+     * Frees a slot so it can be reused. Views created for the old occupant
+     * become invalid because the slot generation is bumped.
+     */
+    public void release(int slot) {
+        if (!isLive(slot)) {
+            return;
+        }
+        ids[slot] = FREE;
+        generations[slot]++;
+        nextFree[slot] = freeHead;
+        freeHead = slot;
+        size--;
+    }
+
+    /**
+     * Releases every slot while keeping the allocated columns and name table.
+     */
+    public void clear() {
+        for (int slot = 0; slot < highWater; slot++) {
+            if (ids[slot] != FREE) {
+                ids[slot] = FREE;
+                generations[slot]++;
+            }
+        }
+        highWater = 0;
+        size = 0;
+        freeHead = END_OF_LIST;
+    }
+
+    public boolean isLive(int slot) {
+        return slot >= 0 && slot < highWater && ids[slot] != FREE;
+    }
+
+    /**
+     * Number of live entities.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Exclusive upper bound for slot iteration; slots below it may be free.
+     */
+    public int highWater() {
+        return highWater;
+    }
+
+    public int id(int slot) {
+        return ids[slot];
+    }
+
+    public int x(int slot) {
+        return xs[slot];
+    }
+
+    public int y(int slot) {
+        return ys[slot];
+    }
+
+    public int level(int slot) {
+        return levels[slot];
+    }
+
+    public int hp(int slot) {
+        return hps[slot];
+    }
+
+    public int flags(int slot) {
+        return flags[slot];
+    }
+
+    public int generation(int slot) {
+        return generations[slot];
+    }
+
+    public void setPosition(int slot, int x, int y) {
+        xs[slot] = x;
+        ys[slot] = y;
+    }
+
+    public void setHp(int slot, int hp) {
+        hps[slot] = hp;
+    }
+
+    public void setFlags(int slot, int entityFlags) {
+        flags[slot] = entityFlags;
+    }
+
+    /**
+     * Returns the id for a name, assigning a new one if it has not been seen.
+     */
+    public int intern(String name) {
+        String key = name.toLowerCase(Locale.ROOT);
+        Integer existing = idsByName.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        int id = namesById.size();
+        namesById.add(name);
+        idsByName.put(key, id);
+        nameVersion++;
+        return id;
+    }
+
+    /**
+     * Returns the id for a name, or {@link #FREE} if it was never interned.
+     */
+    public int idOf(String name) {
+        Integer id = idsByName.get(name.toLowerCase(Locale.ROOT));
+        return id == null ? FREE : id;
+    }
+
+    public String nameOf(int id) {
+        return namesById.get(id);
+    }
+
+    /**
+     * Number of distinct names interned so far; ids are below this value.
+     */
+    public int nameCount() {
+        return namesById.size();
+    }
+
+    /**
+     * Changes whenever a new name is interned so callers can invalidate
+     * lookup tables derived from the name table.
+     */
+    public int nameVersion() {
+        return nameVersion;
+    }
+
+    /**
+     * Builds a membership mask over entity ids for the given names. Names that
+     * were never interned are ignored.
+     */
+    public boolean[] idMask(String... names) {
+        boolean[] mask = new boolean[namesById.size()];
+        for (String name : names) {
+            int id = idOf(name);
+            if (id != FREE) {
+                mask[id] = true;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the first live slot whose id is set in {@code mask}, or -1.
+     */
+    public int findFirst(boolean[] mask) {
+        int[] idColumn = ids;
+        for (int slot = 0; slot < highWater; slot++) {
+            int id = idColumn[slot];
+            if (id != FREE && id < mask.length && mask[id]) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        Arrays.fill(ids, highWater, capacity, FREE);
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        levels = Arrays.copyOf(levels, capacity);
+        hps = Arrays.copyOf(hps, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        generations = Arrays.copyOf(generations, capacity);
+        nextFree = Arrays.copyOf(nextFree, capacity);
+    }
+}
@@ -0,0 +1,130 @@
+package rs.kreme.ksbot.api.world;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import rs.kreme.ksbot.api.wrappers.KSNPC;
+
+/**
+ * Command-line benchmark comparing target scans over a list of NPC objects
+ * with scans over the {@link EntityStore} columns at 10k entities.
+ * <p>
+ * Run with {@code ./gradlew benchmarkEntityStore}. Numbers are indicative
+ * only; there is no warm-up isolation beyond a few discarded rounds.
+ */
+public final class EntityStoreBenchmark {
+
+    private static final int ENTITIES = 10_000;
+    private static final int ROUNDS = 2_000;
+    private static final String[] NAMES = {
+        "Goblin", "Cow", "Chicken", "Guard", "Hill giant", "Moss giant", "Lesser demon", "Black knight"
+    };
+    private static final String[] TARGETS = {"Lesser demon", "Black knight"};
+
+    private EntityStoreBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        long before = usedHeap();
+        List<KSNPC> list = buildList(new Random(42));
+        long listBytes = usedHeap() - before;
+
+        before = usedHeap();
+        EntityStore store = buildStore(new Random(42));
+        long storeBytes = usedHeap() - before;
+
+        boolean[] mask = store.idMask(TARGETS);
+        for (int i = 0; i < 200; i++) {
+            scanList(list);
+            scanStore(store, mask);
+        }
+
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            sink += scanList(list);
+        }
+        long listNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            sink += scanStore(store, mask);
+        }
+        long storeNanos = System.nanoTime() - start;
+
+        System.out.println("=== Entity store benchmark (" + ENTITIES + " NPCs) ===");
+        report("ArrayList<KSNPC>", listNanos, listBytes);
+        report("EntityStore", storeNanos, storeBytes);
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    private static List<KSNPC> buildList(Random random) {
+        List<KSNPC> npcs = new ArrayList<>(ENTITIES);
+        for (int i = 0; i < ENTITIES; i++) {
+            npcs.add(new KSNPC(NAMES[random.nextInt(NAMES.length)], 1 + random.nextInt(100),
+                    3000 + random.nextInt(512), 3000 + random.nextInt(512)));
+        }
+        return npcs;
+    }
+
+    private static EntityStore buildStore(Random random) {
+        EntityStore store = new EntityStore(ENTITIES);
+        for (String name : NAMES) {
+            store.intern(name);
+        }
+        for (int i = 0; i < ENTITIES; i++) {
+            store.add(random.nextInt(NAMES.length), 3000 + random.nextInt(512), 3000 + random.nextInt(512),
+                    1 + random.nextInt(100), 10, 0);
+        }
+        return store;
+    }
+
+    /**
+     * The same scan over NPC objects: a case-insensitive name compare per NPC
+     * without allocating, then pick the strongest match. Like the store scan,
+     * it does no per-NPC lower-casing.
+     */
+    private static int scanList(List<KSNPC> npcs) {
+        int best = -1;
+        int bestLevel = -1;
+        for (int i = 0; i < npcs.size(); i++) {
+            KSNPC npc = npcs.get(i);
+            String name = npc.getName();
+            for (String target : TARGETS) {
+                if (name.equalsIgnoreCase(target) && npc.getCombatLevel() > bestLevel) {
+                    best = i;
+                    bestLevel = npc.getCombatLevel();
+                }
+            }
+        }
+        return best;
+    }
+
+    private static int scanStore(EntityStore store, boolean[] mask) {
+        int best = -1;
+        int bestLevel = -1;
+        for (int slot = 0; slot < store.highWater(); slot++) {
+            int id = store.id(slot);
+            if (id != EntityStore.FREE && mask[id] && store.level(slot) > bestLevel) {
+                best = slot;
+                bestLevel = store.level(slot);
+            }
+        }
+        return best;
+    }
+
+    private static void report(String label, long nanos, long bytes) {
+        double scansPerSecond = ROUNDS / (nanos / 1_000_000_000.0);
+        System.out.printf(Locale.ROOT, "%-18s %,12.0f scans/s   ~%,d KB retained%n",
+                label, scansPerSecond, bytes / 1024);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,115 @@
+package rs.kreme.ksbot.api.world;
+
+/**
+ * Static 2-d tree over packed tiles (see {@link Tiles}) for nearest
+ * neighbour queries. Points are stored in implicit tree order: the median of
+ * each range is its root, split alternately on x and y. Distances are
+ * squared integers, so no floating point is involved.
+ * <p>
+ * Queries keep their state on the stack, so one tree can be shared by any
+ * number of threads.
+ */
+public final class KdTree {
+
+    // Search results pack the squared distance (below 2^29 for in-world
+    // tiles) above the packed tile, so comparing results compares distances
+    private static final long NO_RESULT = (long) Integer.MAX_VALUE << 32 | 0xFFFFFFFFL;
+
+    private final int[] points;
+
+    public KdTree(int[] packedTiles) {
+        this.points = packedTiles.clone();
+        build(0, points.length, 0);
+    }
+
+    public int size() {
+        return points.length;
+    }
+
+    /**
+     * Returns the packed tile nearest to the query on the same plane, or -1
+     * if the tree holds no tile on that plane.
+     */
+    public int nearest(int x, int y, int plane) {
+        long result = search(0, points.length, 0, x, y, plane, NO_RESULT);
+        return result == NO_RESULT ? -1 : (int) result;
+    }
+
+    private long search(int from, int to, int axis, int x, int y, int plane, long best) {
+        if (from >= to) {
+            return best;
+        }
+        int mid = (from + to) >>> 1;
+        int point = points[mid];
+        int dx = Tiles.x(point) - x;
+        int dy = Tiles.y(point) - y;
+        if (Tiles.plane(point) == plane) {
+            long distance = (long) dx * dx + (long) dy * dy;
+            if (distance < best >>> 32) {
+                best = distance << 32 | (point & 0xFFFFFFFFL);
+            }
+        }
+        int split = axis == 0 ? -dx : -dy;
+        int nextAxis = axis ^ 1;
+        if (split < 0) {
+            best = search(from, mid, nextAxis, x, y, plane, best);
+            if ((long) split * split < best >>> 32) {
+                best = search(mid + 1, to, nextAxis, x, y, plane, best);
+            }
+        } else {
+            best = search(mid + 1, to, nextAxis, x, y, plane, best);
+            if ((long) split * split < best >>> 32) {
+                best = search(from, mid, nextAxis, x, y, plane, best);
+            }
+        }
+        return best;
+    }
+
+    private void build(int from, int to, int axis) {
+        if (to - from <= 1) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        select(from, to - 1, mid, axis);
+        build(from, mid, axis ^ 1);
+        build(mid + 1, to, axis ^ 1);
+    }
+
+    /**
+     * Quickselect so that {@code points[k]} holds the median on the axis with
+     * smaller keys to its left and larger keys to its right.
+     */
+    private void select(int left, int right, int k, int axis) {
+        while (right > left) {
+            int pivot = key(points[(left + right) >>> 1], axis);
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (key(points[i], axis) < pivot) {
+                    i++;
+                }
+                while (key(points[j], axis) > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = points[i];
+                    points[i] = points[j];
+                    points[j] = swap;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static int key(int point, int axis) {
+        return axis == 0 ? Tiles.x(point) : Tiles.y(point);
+    }
+}
@@ -0,0 +1,37 @@
+package rs.kreme.ksbot.api.world;
+
+/**
+ * Tile line-of-sight checks for ranged and magic attacks. A line is traced
+ * with Bresenham's algorithm and is clear when no tile strictly between the
+ * two endpoints blocks projectiles.
+ */
+public final class LineOfSight {
+
+    private LineOfSight() {
+    }
+
+    public static boolean isClear(CollisionMap map, int fromX, int fromY, int toX, int toY, int plane) {
+        int dx = Math.abs(toX - fromX);
+        int dy = -Math.abs(toY - fromY);
+        int stepX = fromX < toX ? 1 : -1;
+        int stepY = fromY < toY ? 1 : -1;
+        int error = dx + dy;
+        int x = fromX;
+        int y = fromY;
+        while (x != toX || y != toY) {
+            if ((x != fromX || y != fromY) && map.blocksProjectile(x, y, plane)) {
+                return false;
+            }
+            int doubled = 2 * error;
+            if (doubled >= dy) {
+                error += dy;
+                x += stepX;
+            }
+            if (doubled <= dx) {
+                error += dx;
+                y += stepY;
+            }
+        }
+        return true;
+    }
+}
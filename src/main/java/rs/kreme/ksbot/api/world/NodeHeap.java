@@ -0,0 +1,95 @@
+package rs.kreme.ksbot.api.world;
+
+/**
+ * Binary min-heap of node indices keyed by an int priority, with
+ * decrease-key. All storage is preallocated for a fixed node count so a
+ * search never allocates.
+ */
+final class NodeHeap {
+
+    private final int[] heap;
+    private final int[] keys;
+    private final int[] positions;
+    private int size;
+
+    NodeHeap(int nodeCount) {
+        heap = new int[nodeCount];
+        keys = new int[nodeCount];
+        positions = new int[nodeCount];
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Inserts a node that is not currently in the heap.
+     */
+    void push(int node, int key) {
+        keys[node] = key;
+        heap[size] = node;
+        positions[node] = size;
+        siftUp(size++);
+    }
+
+    /**
+     * Lowers the key of a node that is currently in the heap.
+     */
+    void decrease(int node, int key) {
+        keys[node] = key;
+        siftUp(positions[node]);
+    }
+
+    int pop() {
+        int top = heap[0];
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    private void siftUp(int index) {
+        int node = heap[index];
+        int key = keys[node];
+        while (index > 0) {
+            int parentIndex = (index - 1) >>> 1;
+            int parent = heap[parentIndex];
+            if (keys[parent] <= key) {
+                break;
+            }
+            heap[index] = parent;
+            positions[parent] = index;
+            index = parentIndex;
+        }
+        heap[index] = node;
+        positions[node] = index;
+    }
+
+    private void siftDown(int index) {
+        int node = heap[index];
+        int key = keys[node];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && keys[heap[right]] < keys[heap[child]]) {
+                child = right;
+            }
+            if (keys[heap[child]] >= key) {
+                break;
+            }
+            heap[index] = heap[child];
+            positions[heap[index]] = index;
+            index = child;
+        }
+        heap[index] = node;
+        positions[node] = index;
+    }
+}
@@ -0,0 +1,429 @@
+package rs.kreme.ksbot.api.world;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A* pathfinder with jump-point search over a {@link CollisionMap}.
+ * <p>
+ * Movement is 8-directional and a diagonal step is only allowed when both
+ * adjacent orthogonal tiles are walkable, matching how the game moves
+ * players around corners. Searches run inside a square window centred on
+ * the start and goal. The window's node arrays and open set are scratch
+ * space shared by every path finder on the same thread and allocated on the
+ * first search, so idle bots carry none of it and a search itself only
+ * allocates the returned path.
+ * <p>
+ * Paths are arrays of packed tiles (see {@link Tiles}) holding the start,
+ * every jump point and the goal; consecutive entries are joined by straight
+ * or diagonal lines. Results are cached per (start region, goal) pair and a
+ * cached path is reused when the new start can walk directly onto it.
+ * <p>
+ * Instances are not thread-safe; give each bot its own.
+ */
+public final class PathFinder {
+
+    public static final int DEFAULT_WINDOW = 128;
+    public static final int DEFAULT_CACHE_SIZE = 64;
+
+    private static final int STRAIGHT_COST = 10;
+    private static final int DIAGONAL_COST = 14;
+    private static final int CACHE_JOIN_LOOKAHEAD = 4;
+
+    private final CollisionMap map;
+    private final int maxWindow;
+
+    // Per-thread scratch space, grown to the largest window used on the thread
+    private static final ThreadLocal<SearchSpace> SEARCH_SPACES = new ThreadLocal<>();
+
+    // Scratch space bound for the current search
+    private SearchSpace space;
+    private int[] costs;
+    private int[] parents;
+    private int[] seen;
+    private int[] closed;
+    private NodeHeap open;
+    private final int[] neighbours = new int[16];
+    private int searchId;
+
+    private final Map<Long, int[]> cache;
+
+    // Current search window
+    private int originX;
+    private int originY;
+    private int width;
+    private int height;
+    private int plane;
+    private int goalX;
+    private int goalY;
+
+    public PathFinder(CollisionMap map) {
+        this(map, DEFAULT_WINDOW, DEFAULT_CACHE_SIZE);
+    }
+
+    public PathFinder(CollisionMap map, int maxWindow, int cacheSize) {
+        this.map = map;
+        this.maxWindow = maxWindow;
+        cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, int[]> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    public CollisionMap getMap() {
+        return map;
+    }
+
+    /**
+     * Finds a path, reusing a cached one when possible.
+     *
+     * @return packed waypoints from start to goal, or null if unreachable
+     */
+    public int[] findPath(int startX, int startY, int targetX, int targetY, int tilePlane) {
+        long key = (long) (Tiles.regionId(startX, startY) | tilePlane << 16) << 32
+                | (Tiles.pack(targetX, targetY, tilePlane) & 0xFFFFFFFFL);
+        int[] cached = cache.get(key);
+        if (cached != null) {
+            int[] joined = joinCached(cached, startX, startY, tilePlane);
+            if (joined != null) {
+                return joined;
+            }
+        }
+        int[] path = computePath(startX, startY, targetX, targetY, tilePlane);
+        if (path != null) {
+            cache.put(key, path);
+        }
+        return path;
+    }
+
+    public void clearCache() {
+        cache.clear();
+    }
+
+    /**
+     * Runs a fresh search without consulting the cache.
+     *
+     * @return packed waypoints from start to goal, or null if unreachable
+     */
+    public int[] computePath(int startX, int startY, int targetX, int targetY, int tilePlane) {
+        if (!openWindow(startX, startY, targetX, targetY, tilePlane)) {
+            return null;
+        }
+        if (!map.isWalkable(targetX, targetY, tilePlane)) {
+            return null;
+        }
+        int start = node(startX - originX, startY - originY);
+        int goal = node(targetX - originX, targetY - originY);
+        if (start == goal) {
+            return new int[]{Tiles.pack(startX, startY, tilePlane)};
+        }
+
+        nextSearch();
+        open.clear();
+        costs[start] = 0;
+        parents[start] = -1;
+        seen[start] = searchId;
+        open.push(start, heuristic(start));
+
+        while (!open.isEmpty()) {
+            int current = open.pop();
+            if (current == goal) {
+                return buildPath(goal);
+            }
+            closed[current] = searchId;
+            int x = current % width;
+            int y = current / width;
+            int count = collectNeighbours(current, x, y);
+            for (int i = 0; i < count; i += 2) {
+                int dx = neighbours[i];
+                int dy = neighbours[i + 1];
+                int jumpPoint = jump(x + dx, y + dy, dx, dy);
+                if (jumpPoint < 0 || closed[jumpPoint] == searchId) {
+                    continue;
+                }
+                int cost = costs[current] + distance(current, jumpPoint);
+                if (seen[jumpPoint] != searchId) {
+                    seen[jumpPoint] = searchId;
+                    costs[jumpPoint] = cost;
+                    parents[jumpPoint] = current;
+                    open.push(jumpPoint, cost + heuristic(jumpPoint));
+                } else if (cost < costs[jumpPoint]) {
+                    costs[jumpPoint] = cost;
+                    parents[jumpPoint] = current;
+                    open.decrease(jumpPoint, cost + heuristic(jumpPoint));
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Whether a player could walk from one tile to another by moving
+     * diagonally first and then straight, the way the game paths over open
+     * ground.
+     */
+    public boolean canWalkDirect(int fromX, int fromY, int toX, int toY, int tilePlane) {
+        int x = fromX;
+        int y = fromY;
+        while (x != toX || y != toY) {
+            int dx = Integer.signum(toX - x);
+            int dy = Integer.signum(toY - y);
+            if (dx != 0 && dy != 0
+                    && !(map.isWalkable(x + dx, y, tilePlane) && map.isWalkable(x, y + dy, tilePlane))) {
+                return false;
+            }
+            x += dx;
+            y += dy;
+            if (!map.isWalkable(x, y, tilePlane)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int[] joinCached(int[] cached, int startX, int startY, int tilePlane) {
+        int lookahead = Math.min(cached.length, CACHE_JOIN_LOOKAHEAD);
+        for (int i = 0; i < lookahead; i++) {
+            int waypoint = cached[i];
+            if (canWalkDirect(startX, startY, Tiles.x(waypoint), Tiles.y(waypoint), tilePlane)) {
+                int[] joined = new int[cached.length - i + 1];
+                joined[0] = Tiles.pack(startX, startY, tilePlane);
+                System.arraycopy(cached, i, joined, 1, cached.length - i);
+                return joined;
+            }
+        }
+        return null;
+    }
+
+    private boolean openWindow(int startX, int startY, int targetX, int targetY, int tilePlane) {
+        int spanX = Math.abs(startX - targetX) + 1;
+        int spanY = Math.abs(startY - targetY) + 1;
+        if (spanX > maxWindow || spanY > maxWindow) {
+            return false;
+        }
+        int padX = (maxWindow - spanX) / 2;
+        int padY = (maxWindow - spanY) / 2;
+        originX = Math.min(startX, targetX) - padX;
+        originY = Math.min(startY, targetY) - padY;
+        width = spanX + 2 * padX;
+        height = spanY + 2 * padY;
+        plane = tilePlane;
+        goalX = targetX - originX;
+        goalY = targetY - originY;
+        return true;
+    }
+
+    private void nextSearch() {
+        bindSearchSpace();
+        if (++space.searchId == Integer.MAX_VALUE) {
+            Arrays.fill(seen, 0);
+            Arrays.fill(closed, 0);
+            space.searchId = 1;
+        }
+        searchId = space.searchId;
+    }
+
+    private void bindSearchSpace() {
+        int nodes = maxWindow * maxWindow;
+        SearchSpace current = SEARCH_SPACES.get();
+        if (current == null || current.costs.length < nodes) {
+            current = new SearchSpace(nodes);
+            SEARCH_SPACES.set(current);
+        }
+        if (current != space) {
+            space = current;
+            costs = current.costs;
+            parents = current.parents;
+            seen = current.seen;
+            closed = current.closed;
+            open = current.open;
+        }
+    }
+
+    /**
+     * Node arrays and open set for searches on one thread. The search id
+     * lives here so finders sharing the space never reuse each other's marks.
+     */
+    private static final class SearchSpace {
+        final int[] costs;
+        final int[] parents;
+        final int[] seen;
+        final int[] closed;
+        final NodeHeap open;
+        int searchId;
+
+        SearchSpace(int nodes) {
+            costs = new int[nodes];
+            parents = new int[nodes];
+            seen = new int[nodes];
+            closed = new int[nodes];
+            open = new NodeHeap(nodes);
+        }
+    }
+
+    /**
+     * Writes the pruned successor directions of a node as (dx, dy) pairs.
+     */
+    private int collectNeighbours(int current, int x, int y) {
+        int count = 0;
+        int parent = parents[current];
+        if (parent < 0) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    if ((dx != 0 || dy != 0) && canStep(x, y, dx, dy)) {
+                        neighbours[count++] = dx;
+                        neighbours[count++] = dy;
+                    }
+                }
+            }
+            return count;
+        }
+
+        int dx = Integer.signum(x - parent % width);
+        int dy = Integer.signum(y - parent / width);
+        if (dx != 0 && dy != 0) {
+            boolean vertical = walkable(x, y + dy);
+            boolean horizontal = walkable(x + dx, y);
+            if (vertical) {
+                neighbours[count++] = 0;
+                neighbours[count++] = dy;
+            }
+            if (horizontal) {
+                neighbours[count++] = dx;
+                neighbours[count++] = 0;
+            }
+            if (vertical && horizontal) {
+                neighbours[count++] = dx;
+                neighbours[count++] = dy;
+            }
+        } else if (dx != 0) {
+            boolean up = walkable(x, y + 1);
+            boolean down = walkable(x, y - 1);
+            if (walkable(x + dx, y)) {
+                neighbours[count++] = dx;
+                neighbours[count++] = 0;
+                if (up) {
+                    neighbours[count++] = dx;
+                    neighbours[count++] = 1;
+                }
+                if (down) {
+                    neighbours[count++] = dx;
+                    neighbours[count++] = -1;
+                }
+            }
+            if (up) {
+                neighbours[count++] = 0;
+                neighbours[count++] = 1;
+            }
+            if (down) {
+                neighbours[count++] = 0;
+                neighbours[count++] = -1;
+            }
+        } else {
+            boolean right = walkable(x + 1, y);
+            boolean left = walkable(x - 1, y);
+            if (walkable(x, y + dy)) {
+                neighbours[count++] = 0;
+                neighbours[count++] = dy;
+                if (right) {
+                    neighbours[count++] = 1;
+                    neighbours[count++] = dy;
+                }
+                if (left) {
+                    neighbours[count++] = -1;
+                    neighbours[count++] = dy;
+                }
+            }
+            if (right) {
+                neighbours[count++] = 1;
+                neighbours[count++] = 0;
+            }
+            if (left) {
+                neighbours[count++] = -1;
+                neighbours[count++] = 0;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Follows a direction from the given tile until a jump point, the goal
+     * or an obstacle is reached.
+     *
+     * @return the jump point node, or -1 if the direction is a dead end
+     */
+    private int jump(int x, int y, int dx, int dy) {
+        while (true) {
+            if (!walkable(x, y)) {
+                return -1;
+            }
+            if (x == goalX && y == goalY) {
+                return node(x, y);
+            }
+            if (dx != 0 && dy != 0) {
+                if (jump(x + dx, y, dx, 0) >= 0 || jump(x, y + dy, 0, dy) >= 0) {
+                    return node(x, y);
+                }
+                if (!walkable(x + dx, y) || !walkable(x, y + dy)) {
+                    return -1;
+                }
+            } else if (dx != 0) {
+                if ((walkable(x, y - 1) && !walkable(x - dx, y - 1))
+                        || (walkable(x, y + 1) && !walkable(x - dx, y + 1))) {
+                    return node(x, y);
+                }
+            } else {
+                if ((walkable(x - 1, y) && !walkable(x - 1, y - dy))
+                        || (walkable(x + 1, y) && !walkable(x + 1, y - dy))) {
+                    return node(x, y);
+                }
+            }
+            x += dx;
+            y += dy;
+        }
+    }
+
+    private boolean canStep(int x, int y, int dx, int dy) {
+        if (!walkable(x + dx, y + dy)) {
+            return false;
+        }
+        return dx == 0 || dy == 0 || (walkable(x + dx, y) && walkable(x, y + dy));
+    }
+
+    private boolean walkable(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height
+                && map.isWalkable(originX + x, originY + y, plane);
+    }
+
+    private int node(int x, int y) {
+        return y * width + x;
+    }
+
+    private int heuristic(int node) {
+        return octile(Math.abs(node % width - goalX), Math.abs(node / width - goalY));
+    }
+
+    private int distance(int from, int to) {
+        return octile(Math.abs(from % width - to % width), Math.abs(from / width - to / width));
+    }
+
+    private static int octile(int dx, int dy) {
+        return STRAIGHT_COST * Math.max(dx, dy) + (DIAGONAL_COST - STRAIGHT_COST) * Math.min(dx, dy);
+    }
+
+    private int[] buildPath(int goal) {
+        int length = 0;
+        for (int node = goal; node >= 0; node = parents[node]) {
+            length++;
+        }
+        int[] path = new int[length];
+        int index = length;
+        for (int node = goal; node >= 0; node = parents[node]) {
+            path[--index] = Tiles.pack(originX + node % width, originY + node / width, plane);
+        }
+        return path;
+    }
+}
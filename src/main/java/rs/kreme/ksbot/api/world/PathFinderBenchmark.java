@@ -0,0 +1,89 @@
+package rs.kreme.ksbot.api.world;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Command-line benchmark measuring paths per second over a synthetic
+ * 64x64 region and a 4x4 region map, with and without the path cache.
+ * <p>
+ * Run with {@code ./gradlew benchmarkPathFinder}. The single region is
+ * written to and loaded back from a region data file so the loader is
+ * exercised as well.
+ */
+public final class PathFinderBenchmark {
+
+    private static final int QUERIES = 20_000;
+    private static final int BASE_X = 3136;
+    private static final int BASE_Y = 3136;
+
+    private PathFinderBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path file = Files.createTempFile("region", ".kscg");
+        try {
+            SyntheticMaps.generate(1L, BASE_X, BASE_Y, 1, 1).save(file);
+            CollisionGrid region = CollisionGrid.load(file);
+            System.out.println("=== Path finder benchmark ===");
+            run("64x64 region", region, 64);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+        run("256x256 (4x4 regions)", SyntheticMaps.generate(2L, BASE_X, BASE_Y, 4, 4), 256);
+    }
+
+    private static void run(String label, CollisionGrid grid, int window) {
+        int[] queries = randomQueries(grid, new Random(7));
+        PathFinder finder = new PathFinder(grid, window, PathFinder.DEFAULT_CACHE_SIZE);
+
+        // Warm up
+        for (int i = 0; i < queries.length; i += 2) {
+            finder.computePath(Tiles.x(queries[i]), Tiles.y(queries[i]),
+                    Tiles.x(queries[i + 1]), Tiles.y(queries[i + 1]), 0);
+        }
+
+        int found = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < queries.length; i += 2) {
+            if (finder.computePath(Tiles.x(queries[i]), Tiles.y(queries[i]),
+                    Tiles.x(queries[i + 1]), Tiles.y(queries[i + 1]), 0) != null) {
+                found++;
+            }
+        }
+        long uncached = System.nanoTime() - start;
+
+        // Repeated walks towards a handful of goals, as a bot moving between safe spots would
+        int[] goals = new int[8];
+        for (int i = 0; i < goals.length; i++) {
+            goals[i] = queries[2 * i + 1];
+        }
+        start = System.nanoTime();
+        for (int i = 0; i < queries.length; i += 2) {
+            int goal = goals[(i / 2) % goals.length];
+            finder.findPath(Tiles.x(queries[i]), Tiles.y(queries[i]), Tiles.x(goal), Tiles.y(goal), 0);
+        }
+        long cached = System.nanoTime() - start;
+
+        int paths = queries.length / 2;
+        System.out.printf(Locale.ROOT, "%-22s %,10.0f paths/s uncached (%d/%d reachable), %,10.0f paths/s with cache%n",
+                label, paths / (uncached / 1e9), found, paths, paths / (cached / 1e9));
+    }
+
+    private static int[] randomQueries(CollisionGrid grid, Random random) {
+        int[] queries = new int[QUERIES * 2];
+        for (int i = 0; i < queries.length; i++) {
+            int x;
+            int y;
+            do {
+                x = grid.getBaseX() + random.nextInt(grid.getWidth());
+                y = grid.getBaseY() + random.nextInt(grid.getHeight());
+            } while (!grid.isWalkable(x, y, 0));
+            queries[i] = Tiles.pack(x, y, 0);
+        }
+        return queries;
+    }
+}
@@ -0,0 +1,283 @@
+package rs.kreme.ksbot.api.world;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Memory-mapped world collision data, shared by every bot in the JVM.
+ * <p>
+ * The file holds fixed-size blocks, one per 64x64 region, each packing two
+ * bits per tile for all four planes (the {@link CollisionGrid#BLOCKED} and
+ * {@link CollisionGrid#BLOCKS_PROJECTILE} flags), so a region takes 4 KB. Layout:
+ * {@code KSRS} magic, version, region count, the ascending region ids, then
+ * the blocks in the same order.
+ * <p>
+ * Only the small directory is read when a store is opened. A region's block
+ * is mapped read-only the first time one of its tiles is queried; the pages
+ * live in the OS page cache rather than on the heap. Stores are obtained
+ * through {@link #open(Path)}, which hands every caller the same instance
+ * for a file. Regions missing from the file are reported as blocked.
+ * Lookups are safe to call from any thread.
+ * <p>
+ * Every {@link #open(Path)} is matched by one {@link #close()}; the file is
+ * closed when the last holder closes it, and the next open maps it again.
+ */
+public final class RegionStore implements CollisionMap, AutoCloseable {
+
+    private static final int BLOCKED = CollisionGrid.BLOCKED;
+    private static final int BLOCKS_PROJECTILE = CollisionGrid.BLOCKS_PROJECTILE;
+    private static final int MAGIC = 0x4B535253; // "KSRS"
+    private static final int VERSION = 1;
+    private static final int PLANES = 4;
+    private static final int TILES_PER_PLANE = Tiles.REGION_SIZE * Tiles.REGION_SIZE;
+    private static final int BLOCK_BYTES = PLANES * TILES_PER_PLANE * 2 / 8;
+    private static final int REGION_IDS = 1 << 16;
+
+    private static final ByteBuffer MISSING = ByteBuffer.allocate(0);
+    private static final Map<Path, RegionStore> OPEN_STORES = new ConcurrentHashMap<>();
+
+    private final Path file;
+    private final FileChannel channel;
+    private final int[] regionIds;
+    private final long dataOffset;
+    private final AtomicReferenceArray<ByteBuffer> blocks = new AtomicReferenceArray<>(REGION_IDS);
+    private final AtomicInteger mappedRegions = new AtomicInteger();
+    private int openCount; // Holders of the shared instance, guarded by its OPEN_STORES entry
+
+    private RegionStore(Path file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(12);
+            readFully(header, 0);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("Not a region store: " + file);
+            }
+            int version = header.getInt(4);
+            if (version != VERSION) {
+                throw new IOException("Unsupported region store version " + version + " in " + file);
+            }
+            int count = header.getInt(8);
+            if (count < 0 || count > REGION_IDS) {
+                throw new IOException("Corrupt region count " + count + " in " + file);
+            }
+            ByteBuffer directory = ByteBuffer.allocate(count * 4);
+            readFully(directory, 12);
+            regionIds = new int[count];
+            directory.asIntBuffer().get(regionIds);
+            dataOffset = 12L + count * 4L;
+            if (channel.size() < dataOffset + (long) count * BLOCK_BYTES) {
+                throw new IOException("Truncated region store: " + file);
+            }
+        } catch (IOException | RuntimeException e) {
+            try {
+                channel.close();
+            } catch (IOException closeFailure) {
+                e.addSuppressed(closeFailure);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the shared store for a file, opening it on first use. Each
+     * call must be matched by a {@link #close()}.
+     */
+    public static RegionStore open(Path file) throws IOException {
+        Path key = file.toAbsolutePath().normalize();
+        try {
+            return OPEN_STORES.compute(key, (path, store) -> {
+                if (store == null) {
+                    try {
+                        store = new RegionStore(path);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                store.openCount++;
+                return store;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Writes the regions covered by the grids to a store file. Tiles of a
+     * region that no grid covers are written as blocked.
+     */
+    public static void write(Path file, Collection<CollisionGrid> grids) throws IOException {
+        TreeMap<Integer, byte[]> regions = new TreeMap<>();
+        for (CollisionGrid grid : grids) {
+            int firstRegionX = grid.getBaseX() >> 6;
+            int firstRegionY = grid.getBaseY() >> 6;
+            int lastRegionX = (grid.getBaseX() + grid.getWidth() - 1) >> 6;
+            int lastRegionY = (grid.getBaseY() + grid.getHeight() - 1) >> 6;
+            for (int regionX = firstRegionX; regionX <= lastRegionX; regionX++) {
+                for (int regionY = firstRegionY; regionY <= lastRegionY; regionY++) {
+                    byte[] block = regions.computeIfAbsent(regionX << 8 | regionY, id -> blockedBlock());
+                    copyRegion(grid, regionX << 6, regionY << 6, block);
+                }
+            }
+        }
+
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(12 + regions.size() * 4);
+            header.putInt(MAGIC).putInt(VERSION).putInt(regions.size());
+            for (int regionId : regions.keySet()) {
+                header.putInt(regionId);
+            }
+            header.flip();
+            while (header.hasRemaining()) {
+                out.write(header);
+            }
+            for (byte[] block : regions.values()) {
+                ByteBuffer buffer = ByteBuffer.wrap(block);
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean isWalkable(int x, int y, int plane) {
+        return (tileBits(x, y, plane) & BLOCKED) == 0;
+    }
+
+    @Override
+    public boolean blocksProjectile(int x, int y, int plane) {
+        return (tileBits(x, y, plane) & BLOCKS_PROJECTILE) != 0;
+    }
+
+    /**
+     * Releases one {@link #open(Path)}. The last release forgets the shared
+     * instance and closes the file; regions not mapped by then can no
+     * longer be read from it.
+     */
+    @Override
+    public void close() throws IOException {
+        boolean[] last = new boolean[1];
+        OPEN_STORES.computeIfPresent(file, (path, store) -> {
+            if (store != this) {
+                return store;
+            }
+            last[0] = --openCount == 0;
+            return last[0] ? null : store;
+        });
+        if (last[0]) {
+            channel.close();
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Number of regions in the file.
+     */
+    public int regionCount() {
+        return regionIds.length;
+    }
+
+    /**
+     * Number of regions mapped so far.
+     */
+    public int mappedRegionCount() {
+        return mappedRegions.get();
+    }
+
+    private int tileBits(int x, int y, int plane) {
+        if (x < 0 || y < 0 || plane < 0 || plane >= PLANES) {
+            return BLOCKED | BLOCKS_PROJECTILE;
+        }
+        int regionId = Tiles.regionId(x, y);
+        if (regionId >= REGION_IDS) {
+            return BLOCKED | BLOCKS_PROJECTILE;
+        }
+        ByteBuffer block = blocks.get(regionId);
+        if (block == null) {
+            block = mapRegion(regionId);
+        }
+        if (block == MISSING) {
+            return BLOCKED | BLOCKS_PROJECTILE;
+        }
+        int bit = bitIndex(x & 63, y & 63, plane);
+        return (block.get(bit >>> 3) >>> (bit & 7)) & 0x3;
+    }
+
+    private ByteBuffer mapRegion(int regionId) {
+        int index = Arrays.binarySearch(regionIds, regionId);
+        ByteBuffer block;
+        if (index < 0) {
+            block = MISSING;
+        } else {
+            try {
+                block = channel.map(FileChannel.MapMode.READ_ONLY,
+                        dataOffset + (long) index * BLOCK_BYTES, BLOCK_BYTES);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not map region " + regionId + " of " + file, e);
+            }
+        }
+        if (blocks.compareAndSet(regionId, null, block)) {
+            if (block != MISSING) {
+                mappedRegions.incrementAndGet();
+            }
+            return block;
+        }
+        return blocks.get(regionId);
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, offset);
+            if (read < 0) {
+                throw new IOException("Truncated region store: " + file);
+            }
+            offset += read;
+        }
+        buffer.flip();
+    }
+
+    private static int bitIndex(int localX, int localY, int plane) {
+        return ((plane * Tiles.REGION_SIZE + localY) * Tiles.REGION_SIZE + localX) * 2;
+    }
+
+    private static byte[] blockedBlock() {
+        byte[] block = new byte[BLOCK_BYTES];
+        Arrays.fill(block, (byte) 0xFF);
+        return block;
+    }
+
+    private static void copyRegion(CollisionGrid grid, int regionBaseX, int regionBaseY, byte[] block) {
+        for (int localY = 0; localY < Tiles.REGION_SIZE; localY++) {
+            for (int localX = 0; localX < Tiles.REGION_SIZE; localX++) {
+                int x = regionBaseX + localX;
+                int y = regionBaseY + localY;
+                if (x < grid.getBaseX() || y < grid.getBaseY()
+                        || x >= grid.getBaseX() + grid.getWidth() || y >= grid.getBaseY() + grid.getHeight()) {
+                    continue;
+                }
+                int bits = grid.getFlags(x, y) & (BLOCKED | BLOCKS_PROJECTILE);
+                int bit = bitIndex(localX, localY, grid.getPlane());
+                int index = bit >>> 3;
+                int shift = bit & 7;
+                block[index] = (byte) ((block[index] & ~(0x3 << shift)) | bits << shift);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package rs.kreme.ksbot.api.world;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Command-line benchmark for random-access lookups against a memory-mapped
+ * {@link RegionStore}: first from one thread, then from one thread per core
+ * sharing the same store, as bots hosted in one JVM would.
+ * <p>
+ * Run with {@code ./gradlew benchmarkRegionStore}.
+ */
+public final class RegionStoreBenchmark {
+
+    private static final int REGIONS_WIDE = 16;
+    private static final int BASE_X = 2560;
+    private static final int BASE_Y = 2560;
+    private static final int LOOKUPS = 20_000_000;
+
+    private RegionStoreBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path file = Files.createTempFile("world", ".ksrs");
+        try {
+            RegionStore.write(file, List.of(
+                    SyntheticMaps.generate(11L, BASE_X, BASE_Y, REGIONS_WIDE, REGIONS_WIDE)));
+            try (RegionStore store = RegionStore.open(file)) {
+                System.out.println("=== Region store benchmark (" + store.regionCount() + " regions, "
+                        + Files.size(file) / 1024 + " KB file) ===");
+
+                // Warm up and touch every region once
+                lookups(store, 1L, LOOKUPS / 10);
+                System.out.println("Regions mapped after warm-up: " + store.mappedRegionCount());
+
+                long start = System.nanoTime();
+                long walkable = lookups(store, 2L, LOOKUPS);
+                report("1 thread", LOOKUPS, System.nanoTime() - start, walkable);
+
+                int threads = Runtime.getRuntime().availableProcessors();
+                ExecutorService pool = Executors.newFixedThreadPool(threads);
+                try {
+                    List<Future<Long>> results = new ArrayList<>();
+                    start = System.nanoTime();
+                    for (int i = 0; i < threads; i++) {
+                        long seed = 100L + i;
+                        results.add(pool.submit(() -> lookups(store, seed, LOOKUPS)));
+                    }
+                    walkable = 0;
+                    for (Future<Long> result : results) {
+                        walkable += result.get();
+                    }
+                    report(threads + " threads", (long) LOOKUPS * threads, System.nanoTime() - start, walkable);
+                } finally {
+                    pool.shutdown();
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static long lookups(RegionStore store, long seed, int count) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int span = REGIONS_WIDE * Tiles.REGION_SIZE;
+        long walkable = 0;
+        for (int i = 0; i < count; i++) {
+            int x = BASE_X + random.nextInt(span);
+            int y = BASE_Y + random.nextInt(span);
+            if (store.isWalkable(x, y, 0)) {
+                walkable++;
+            }
+            if (store.blocksProjectile(x, y, 0)) {
+                walkable--;
+            }
+        }
+        return walkable;
+    }
+
+    private static void report(String label, long lookups, long nanos, long checksum) {
+        System.out.printf(Locale.ROOT, "%-12s %,14.0f lookups/s (checksum %d)%n",
+                label, lookups * 2 / (nanos / 1e9), checksum);
+    }
+}
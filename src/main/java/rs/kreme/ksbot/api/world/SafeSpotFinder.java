@@ -0,0 +1,237 @@
+package rs.kreme.ksbot.api.world;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Offline tool that precomputes safe spots for an NPC spawn area.
+ * <p>
+ * A tile is a safe spot when the player can stand on it, it has a clear
+ * line of sight to some spawn tile within attack range, and a melee NPC
+ * roaming from the spawn area can neither reach the tile nor any tile
+ * orthogonally next to it (melee attacks are never diagonal). NPC
+ * reachability is a single flood fill bounded by the chase radius; the
+ * per-tile checks run in parallel on a {@link ForkJoinPool}.
+ * <p>
+ * Usage: {@code SafeSpotFinder <collision grid> <spawnMinX> <spawnMinY>
+ * <spawnMaxX> <spawnMaxY> <attackRange> <chaseRadius> <output index>}.
+ * Without arguments a synthetic region is processed as a demonstration.
+ */
+public final class SafeSpotFinder {
+
+    private static final int SPLIT_THRESHOLD = 256;
+
+    private final CollisionMap map;
+    private final int baseX;
+    private final int baseY;
+    private final int width;
+    private final int height;
+    private final int plane;
+
+    private final int spawnMinX;
+    private final int spawnMinY;
+    private final int spawnMaxX;
+    private final int spawnMaxY;
+    private final int attackRange;
+    private final int chaseRadius;
+
+    private boolean[] npcReachable;
+
+    public SafeSpotFinder(CollisionMap map, int baseX, int baseY, int width, int height, int plane,
+                          int spawnMinX, int spawnMinY, int spawnMaxX, int spawnMaxY,
+                          int attackRange, int chaseRadius) {
+        this.map = map;
+        this.baseX = baseX;
+        this.baseY = baseY;
+        this.width = width;
+        this.height = height;
+        this.plane = plane;
+        this.spawnMinX = spawnMinX;
+        this.spawnMinY = spawnMinY;
+        this.spawnMaxX = spawnMaxX;
+        this.spawnMaxY = spawnMaxY;
+        this.attackRange = attackRange;
+        this.chaseRadius = chaseRadius;
+    }
+
+    /**
+     * Computes the safe spots on the common fork-join pool.
+     *
+     * @return packed tiles in ascending order
+     */
+    public int[] find() {
+        return find(ForkJoinPool.commonPool());
+    }
+
+    public int[] find(ForkJoinPool pool) {
+        npcReachable = floodNpcArea();
+        int[] spots = pool.invoke(new TileRange(0, width * height));
+        Arrays.sort(spots);
+        return spots;
+    }
+
+    /**
+     * Marks every tile an NPC spawned in the area can walk to without
+     * leaving its chase radius.
+     */
+    private boolean[] floodNpcArea() {
+        boolean[] reachable = new boolean[width * height];
+        int[] queue = new int[width * height];
+        int head = 0;
+        int tail = 0;
+        for (int y = spawnMinY; y <= spawnMaxY; y++) {
+            for (int x = spawnMinX; x <= spawnMaxX; x++) {
+                if (inArea(x, y) && map.isWalkable(x, y, plane)) {
+                    int index = index(x, y);
+                    if (!reachable[index]) {
+                        reachable[index] = true;
+                        queue[tail++] = index;
+                    }
+                }
+            }
+        }
+        while (head < tail) {
+            int current = queue[head++];
+            int x = baseX + current % width;
+            int y = baseY + current / width;
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    int nx = x + dx;
+                    int ny = y + dy;
+                    if ((dx == 0 && dy == 0) || !inArea(nx, ny) || !withinChase(nx, ny)) {
+                        continue;
+                    }
+                    int next = index(nx, ny);
+                    if (reachable[next] || !map.isWalkable(nx, ny, plane)) {
+                        continue;
+                    }
+                    if (dx != 0 && dy != 0 && !(map.isWalkable(x + dx, y, plane) && map.isWalkable(x, y + dy, plane))) {
+                        continue;
+                    }
+                    reachable[next] = true;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return reachable;
+    }
+
+    private boolean isSafe(int x, int y) {
+        if (!map.isWalkable(x, y, plane) || npcCanStand(x, y)) {
+            return false;
+        }
+        if (npcCanStand(x + 1, y) || npcCanStand(x - 1, y) || npcCanStand(x, y + 1) || npcCanStand(x, y - 1)) {
+            return false;
+        }
+        int minX = Math.max(spawnMinX, x - attackRange);
+        int maxX = Math.min(spawnMaxX, x + attackRange);
+        int minY = Math.max(spawnMinY, y - attackRange);
+        int maxY = Math.min(spawnMaxY, y + attackRange);
+        for (int ty = minY; ty <= maxY; ty++) {
+            for (int tx = minX; tx <= maxX; tx++) {
+                if (map.isWalkable(tx, ty, plane) && LineOfSight.isClear(map, x, y, tx, ty, plane)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean npcCanStand(int x, int y) {
+        return inArea(x, y) && npcReachable[index(x, y)];
+    }
+
+    private boolean withinChase(int x, int y) {
+        return x >= spawnMinX - chaseRadius && x <= spawnMaxX + chaseRadius
+                && y >= spawnMinY - chaseRadius && y <= spawnMaxY + chaseRadius;
+    }
+
+    private boolean inArea(int x, int y) {
+        return x >= baseX && y >= baseY && x < baseX + width && y < baseY + height;
+    }
+
+    private int index(int x, int y) {
+        return (y - baseY) * width + (x - baseX);
+    }
+
+    /**
+     * Checks a range of tile indices, splitting until ranges are small.
+     */
+    private final class TileRange extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        TileRange(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                int[] found = new int[to - from];
+                int count = 0;
+                for (int i = from; i < to; i++) {
+                    int x = baseX + i % width;
+                    int y = baseY + i / width;
+                    if (isSafe(x, y)) {
+                        found[count++] = Tiles.pack(x, y, plane);
+                    }
+                }
+                return Arrays.copyOf(found, count);
+            }
+            int mid = (from + to) >>> 1;
+            TileRange left = new TileRange(from, mid);
+            left.fork();
+            int[] right = new TileRange(mid, to).compute();
+            int[] leftSpots = left.join();
+            int[] merged = Arrays.copyOf(leftSpots, leftSpots.length + right.length);
+            System.arraycopy(right, 0, merged, leftSpots.length, right.length);
+            return merged;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        CollisionGrid grid;
+        int[] spawn;
+        int attackRange;
+        int chaseRadius;
+        Path output;
+        if (args.length == 0) {
+            grid = SyntheticMaps.generate(3L, 3136, 3136, 1, 1);
+            spawn = new int[]{3160, 3160, 3172, 3172};
+            attackRange = 7;
+            chaseRadius = 3;
+            output = Paths.get("build", "safe-spots.kssi");
+            output.getParent().toFile().mkdirs();
+        } else if (args.length == 8) {
+            grid = CollisionGrid.load(Paths.get(args[0]));
+            spawn = new int[]{
+                Integer.parseInt(args[1]), Integer.parseInt(args[2]),
+                Integer.parseInt(args[3]), Integer.parseInt(args[4])
+            };
+            attackRange = Integer.parseInt(args[5]);
+            chaseRadius = Integer.parseInt(args[6]);
+            output = Paths.get(args[7]);
+        } else {
+            System.out.println("Usage: SafeSpotFinder <collision grid> <spawnMinX> <spawnMinY> <spawnMaxX> "
+                    + "<spawnMaxY> <attackRange> <chaseRadius> <output index>");
+            return;
+        }
+
+        SafeSpotFinder finder = new SafeSpotFinder(grid, grid.getBaseX(), grid.getBaseY(),
+                grid.getWidth(), grid.getHeight(), grid.getPlane(),
+                spawn[0], spawn[1], spawn[2], spawn[3], attackRange, chaseRadius);
+        long start = System.nanoTime();
+        int[] spots = finder.find();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        new SafeSpotIndex(spots).save(output);
+        System.out.println("Found " + spots.length + " safe spots in " + millis + " ms, written to " + output);
+    }
+}
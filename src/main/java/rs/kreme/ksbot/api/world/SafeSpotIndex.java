@@ -0,0 +1,103 @@
+package rs.kreme.ksbot.api.world;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precomputed safe spots for an area, queried through a {@link KdTree}.
+ * <p>
+ * The index file holds a {@code KSSI} magic, a version, the spot count and
+ * then one packed tile (see {@link Tiles}) per spot. Indexes are immutable;
+ * {@link #open(Path)} loads each file once and shares it between bots.
+ */
+public final class SafeSpotIndex {
+
+    private static final int MAGIC = 0x4B535349; // "KSSI"
+    private static final int VERSION = 1;
+
+    private static final Map<Path, SafeSpotIndex> OPEN_INDEXES = new ConcurrentHashMap<>();
+
+    private final int[] spots;
+    private final KdTree tree;
+
+    public SafeSpotIndex(int[] packedSpots) {
+        this.spots = packedSpots.clone();
+        this.tree = new KdTree(spots);
+    }
+
+    /**
+     * Returns the shared index for a file, loading it on first use.
+     */
+    public static SafeSpotIndex open(Path file) throws IOException {
+        Path key = file.toAbsolutePath().normalize();
+        SafeSpotIndex index = OPEN_INDEXES.get(key);
+        if (index == null) {
+            // Two bots may race to load the same file; either copy is fine to keep
+            index = load(key);
+            SafeSpotIndex existing = OPEN_INDEXES.putIfAbsent(key, index);
+            if (existing != null) {
+                index = existing;
+            }
+        }
+        return index;
+    }
+
+    public static SafeSpotIndex load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a safe spot index: " + file);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported safe spot index version " + version + " in " + file);
+            }
+            int[] spots = new int[in.readInt()];
+            for (int i = 0; i < spots.length; i++) {
+                spots[i] = in.readInt();
+            }
+            return new SafeSpotIndex(spots);
+        }
+    }
+
+    public void save(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(spots.length);
+            for (int spot : spots) {
+                out.writeInt(spot);
+            }
+        }
+    }
+
+    public int size() {
+        return spots.length;
+    }
+
+    /**
+     * Packed tile of the nearest safe spot on the plane, or -1 if none.
+     */
+    public int nearest(int x, int y, int plane) {
+        return tree.nearest(x, y, plane);
+    }
+
+    /**
+     * Whether some safe spot lies within {@code radius} tiles (Euclidean).
+     */
+    public boolean isWithin(int x, int y, int plane, int radius) {
+        int spot = tree.nearest(x, y, plane);
+        if (spot < 0) {
+            return false;
+        }
+        long dx = Tiles.x(spot) - x;
+        long dy = Tiles.y(spot) - y;
+        return dx * dx + dy * dy <= (long) radius * radius;
+    }
+}
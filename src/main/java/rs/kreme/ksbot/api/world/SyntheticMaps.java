@@ -0,0 +1,103 @@
+package rs.kreme.ksbot.api.world;
+
+import java.util.Random;
+
+/**
+ * Seeded generators for collision data that looks roughly like a game map:
+ * buildings with doorways, fences with gaps and scattered low obstacles
+ * (rocks, logs) that stop movement but not projectiles. Used by the
+ * benchmarks and scripted runs in place of real region dumps.
+ */
+public final class SyntheticMaps {
+
+    private SyntheticMaps() {
+    }
+
+    /**
+     * Generates {@code regionsWide} by {@code regionsHigh} adjacent 64x64
+     * regions on plane 0 starting at the given base tile.
+     */
+    public static CollisionGrid generate(long seed, int baseX, int baseY, int regionsWide, int regionsHigh) {
+        int width = regionsWide * Tiles.REGION_SIZE;
+        int height = regionsHigh * Tiles.REGION_SIZE;
+        CollisionGrid grid = new CollisionGrid(baseX, baseY, width, height, 0);
+        Random random = new Random(seed);
+        int regions = regionsWide * regionsHigh;
+
+        for (int i = 0; i < regions * 6; i++) {
+            addBuilding(grid, random);
+        }
+        for (int i = 0; i < regions * 4; i++) {
+            addFence(grid, random);
+        }
+        for (int i = 0; i < regions * 40; i++) {
+            addObstacleCluster(grid, random);
+        }
+        return grid;
+    }
+
+    private static void addBuilding(CollisionGrid grid, Random random) {
+        int w = 5 + random.nextInt(8);
+        int h = 5 + random.nextInt(8);
+        int x0 = grid.getBaseX() + random.nextInt(grid.getWidth() - w);
+        int y0 = grid.getBaseY() + random.nextInt(grid.getHeight() - h);
+        int wallFlags = CollisionGrid.BLOCKED | CollisionGrid.BLOCKS_PROJECTILE;
+        for (int x = x0; x < x0 + w; x++) {
+            grid.setFlags(x, y0, wallFlags);
+            grid.setFlags(x, y0 + h - 1, wallFlags);
+        }
+        for (int y = y0; y < y0 + h; y++) {
+            grid.setFlags(x0, y, wallFlags);
+            grid.setFlags(x0 + w - 1, y, wallFlags);
+        }
+        // Doorway on a random side
+        switch (random.nextInt(4)) {
+            case 0:
+                grid.setFlags(x0 + w / 2, y0, 0);
+                break;
+            case 1:
+                grid.setFlags(x0 + w / 2, y0 + h - 1, 0);
+                break;
+            case 2:
+                grid.setFlags(x0, y0 + h / 2, 0);
+                break;
+            default:
+                grid.setFlags(x0 + w - 1, y0 + h / 2, 0);
+                break;
+        }
+    }
+
+    private static void addFence(CollisionGrid grid, Random random) {
+        boolean horizontal = random.nextBoolean();
+        int length = 10 + random.nextInt(30);
+        int x = grid.getBaseX() + random.nextInt(grid.getWidth());
+        int y = grid.getBaseY() + random.nextInt(grid.getHeight());
+        int gap = random.nextInt(length);
+        for (int i = 0; i < length; i++) {
+            int tx = horizontal ? x + i : x;
+            int ty = horizontal ? y : y + i;
+            if (!inside(grid, tx, ty) || Math.abs(i - gap) <= 1) {
+                continue;
+            }
+            grid.setFlags(tx, ty, CollisionGrid.BLOCKED);
+        }
+    }
+
+    private static void addObstacleCluster(CollisionGrid grid, Random random) {
+        int cx = grid.getBaseX() + random.nextInt(grid.getWidth());
+        int cy = grid.getBaseY() + random.nextInt(grid.getHeight());
+        int tiles = 1 + random.nextInt(4);
+        for (int i = 0; i < tiles; i++) {
+            int tx = cx + random.nextInt(3) - 1;
+            int ty = cy + random.nextInt(3) - 1;
+            if (inside(grid, tx, ty)) {
+                grid.setFlags(tx, ty, CollisionGrid.BLOCKED);
+            }
+        }
+    }
+
+    private static boolean inside(CollisionGrid grid, int x, int y) {
+        return x >= grid.getBaseX() && y >= grid.getBaseY()
+                && x < grid.getBaseX() + grid.getWidth() && y < grid.getBaseY() + grid.getHeight();
+    }
+}
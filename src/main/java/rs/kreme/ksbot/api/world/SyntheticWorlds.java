@@ -0,0 +1,96 @@
+package rs.kreme.ksbot.api.world;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import rs.kreme.ksbot.api.scripts.task.TaskScript.ScriptContext;
+import rs.kreme.ksbot.api.wrappers.KSItem;
+import rs.kreme.ksbot.api.wrappers.KSPlayer;
+
+/**
+ * Seeded generators that fill a {@link ScriptContext} with a world of a
+ * given size: attackable NPCs and ground items scattered around the local
+ * player, and a full 28-slot inventory in a random permutation of food,
+ * potions, gear and coins. The same seed and sizes always give the same
+ * world. Used by the scalability check and benchmarks in place of the
+ * handful of entities the demo runner sets up.
+ */
+public final class SyntheticWorlds {
+
+    public static final int INVENTORY_SLOTS = 28;
+
+    private static final String[] NPC_NAMES = {
+        "Goblin", "Cow", "Chicken", "Guard", "Man", "Imp", "Giant rat", "Dark wizard"
+    };
+    private static final String[] GROUND_ITEM_NAMES = {
+        "Coins", "Bones", "Big bones", "Dragon bones", "Rune scimitar", "Rune platebody",
+        "Iron dagger", "Bronze arrow", "Ashes", "Feather", "Raw beef", "Clue scroll"
+    };
+    private static final String[] INVENTORY_NAMES = {
+        "Lobster", "Swordfish", "Shark",
+        "Super attack(4)", "Super strength(3)", "Super defence(2)", "Prayer potion(4)",
+        "Ranging potion(1)", "Magic potion(4)",
+        "Dragon dagger", "Magic shortbow", "Staff of fire", "Mystic robe top", "Black d'hide body",
+        "Coins"
+    };
+
+    private SyntheticWorlds() {
+    }
+
+    /**
+     * Replaces the context's NPCs, ground items and inventory.
+     *
+     * @param seed Seed for every random choice
+     * @param npcs Number of attackable NPCs
+     * @param groundItems Number of ground items
+     */
+    public static void populate(ScriptContext ctx, long seed, int npcs, int groundItems) {
+        Random random = new Random(seed);
+        KSPlayer local = ctx.players.getLocal();
+        int npcRadius = radiusFor(npcs);
+        int itemRadius = radiusFor(groundItems);
+
+        ctx.combat.setAttackableNpcs(null);
+        for (int i = 0; i < npcs; i++) {
+            ctx.combat.addAttackableNpc(NPC_NAMES[random.nextInt(NPC_NAMES.length)], 2 + random.nextInt(60),
+                    local.getX() + random.nextInt(2 * npcRadius + 1) - npcRadius,
+                    local.getY() + random.nextInt(2 * npcRadius + 1) - npcRadius,
+                    5 + random.nextInt(50));
+        }
+
+        ctx.groundItems.setItems(List.of());
+        for (int i = 0; i < groundItems; i++) {
+            ctx.groundItems.addItem(GROUND_ITEM_NAMES[random.nextInt(GROUND_ITEM_NAMES.length)],
+                    local.getX() + random.nextInt(2 * itemRadius + 1) - itemRadius,
+                    local.getY() + random.nextInt(2 * itemRadius + 1) - itemRadius,
+                    1 + random.nextInt(20));
+        }
+
+        ctx.inventory.setItems(inventoryPermutation(random));
+    }
+
+    /**
+     * A full inventory: every known item at least once where room allows,
+     * the rest random picks, in a random order.
+     */
+    public static List<KSItem> inventoryPermutation(Random random) {
+        List<KSItem> items = new ArrayList<>(INVENTORY_SLOTS);
+        for (int i = 0; i < INVENTORY_SLOTS; i++) {
+            String name = i < INVENTORY_NAMES.length
+                    ? INVENTORY_NAMES[i]
+                    : INVENTORY_NAMES[random.nextInt(INVENTORY_NAMES.length)];
+            items.add(new KSItem(name));
+        }
+        Collections.shuffle(items, random);
+        return items;
+    }
+
+    /**
+     * Radius of the square that holds {@code count} entities at about one per
+     * four tiles.
+     */
+    private static int radiusFor(int count) {
+        return Math.max(8, (int) Math.ceil(Math.sqrt(count)));
+    }
+}
@@ -0,0 +1,37 @@
+package rs.kreme.ksbot.api.world;
+
+/**
+ * Helpers for packing tile coordinates into a single int:
+ * two bits of plane, then 14 bits each of x and y.
+ */
+public final class Tiles {
+
+    public static final int REGION_SIZE = 64;
+
+    private Tiles() {
+    }
+
+    public static int pack(int x, int y, int plane) {
+        return (plane & 0x3) << 28 | (x & 0x3FFF) << 14 | (y & 0x3FFF);
+    }
+
+    public static int x(int packed) {
+        return (packed >>> 14) & 0x3FFF;
+    }
+
+    public static int y(int packed) {
+        return packed & 0x3FFF;
+    }
+
+    public static int plane(int packed) {
+        return (packed >>> 28) & 0x3;
+    }
+
+    /**
+     * Id of the 64x64 map region containing the tile, in the usual
+     * {@code regionX << 8 | regionY} form.
+     */
+    public static int regionId(int x, int y) {
+        return (x >> 6) << 8 | (y >> 6);
+    }
+}
@@ -0,0 +1,16 @@
+package rs.kreme.ksbot.api.wrappers;
+
+/**
+ * Receives the interactions a script performs through the wrappers. The
+ * callback runs on the thread that interacted, before the action is sent.
+ */
+public interface InteractionListener {
+
+    /**
+     * The script interacted with an item or entity.
+     *
+     * @param action The action chosen, such as "Eat" or "Take"
+     * @param slot Entity store slot of the target, or -1 for inventory items and detached wrappers
+     */
+    void onInteract(String action, int slot);
+}
@@ -1,24 +1,144 @@
 package rs.kreme.ksbot.api.wrappers;
 
+import rs.kreme.ksbot.api.world.EntityStore;
+
 /**
  * Represents an item lying on the ground.
+ * <p>
+ * Like {@link KSNPC}, a ground item is either a plain value used to seed the
+ * stub context or a flyweight view over an {@link EntityStore} slot, where
+ * the {@code level} column holds the plane and {@code hp} the stack quantity.
+ * Once the item is gone the view is stale: {@link #getName()} returns null
+ * and the numeric getters return -1, rather than reading whatever item has
+ * reused the slot.
  */
 public class KSGroundItem {
+    private final EntityStore store;
+    private final int slot;
+    private final int generation;
+    private final InteractionListener interactionListener;
+
     private final String name;
+    private final int x;
+    private final int y;
+    private final int quantity;
 
     public KSGroundItem() {
         this("Ground item");
     }
 
     public KSGroundItem(String name) {
+        this(name, 0, 0, 1);
+    }
+
+    public KSGroundItem(String name, int x, int y, int quantity) {
+        this.store = null;
+        this.slot = -1;
+        this.generation = 0;
+        this.interactionListener = null;
         this.name = name;
+        this.x = x;
+        this.y = y;
+        this.quantity = quantity;
+    }
+
+    /**
+     * Creates a view over a ground item held in an entity store.
+     */
+    public KSGroundItem(EntityStore store, int slot) {
+        this(store, slot, null);
     }
 
+    /**
+     * Creates a view over a ground item held in an entity store that reports
+     * interactions to a listener.
+     */
+    public KSGroundItem(EntityStore store, int slot, InteractionListener interactionListener) {
+        this.store = store;
+        this.slot = slot;
+        this.generation = store.generation(slot);
+        this.interactionListener = interactionListener;
+        this.name = null;
+        this.x = 0;
+        this.y = 0;
+        this.quantity = 0;
+    }
+
+    /**
+     * @return The name, or null if the item is gone
+     */
     public String getName() {
-        return name;
+        if (store == null) {
+            return name;
+        }
+        return isValid() ? store.nameOf(store.id(slot)) : null;
+    }
+
+    /**
+     * @return The tile x, or -1 if the item is gone
+     */
+    public int getX() {
+        if (store == null) {
+            return x;
+        }
+        return isValid() ? store.x(slot) : -1;
+    }
+
+    /**
+     * @return The tile y, or -1 if the item is gone
+     */
+    public int getY() {
+        if (store == null) {
+            return y;
+        }
+        return isValid() ? store.y(slot) : -1;
+    }
+
+    /**
+     * @return The stack quantity, or -1 if the item is gone
+     */
+    public int getQuantity() {
+        if (store == null) {
+            return quantity;
+        }
+        return isValid() ? store.hp(slot) : -1;
+    }
+
+    /**
+     * Store slot backing this view, or -1 for a detached item.
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Whether this item is still on the ground.
+     */
+    public boolean isValid() {
+        return store == null || (store.isLive(slot) && store.generation(slot) == generation);
     }
 
     public void interact(String action) {
+        if (interactionListener != null) {
+            interactionListener.onInteract(action, slot);
+        }
         // Placeholder for world interaction.
     }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof KSGroundItem) || store == null) {
+            return false;
+        }
+        KSGroundItem item = (KSGroundItem) other;
+        return store == item.store && slot == item.slot && generation == item.generation;
+    }
+
+    @Override
+    public int hashCode() {
+        return store == null ? System.identityHashCode(this) : slot * 31 + generation;
+    }
 }
@@ -1,24 +1,74 @@
 package rs.kreme.ksbot.api.wrappers;
 
+import rs.kreme.ksbot.api.game.ItemDefinitions;
+
 /**
  * Minimal inventory/equipment item representation.
  */
 public class KSItem {
+    private final int id;
     private final String name;
+    private final int quantity;
+    private InteractionListener interactionListener;
 
     public KSItem() {
         this("Item");
     }
 
+    /**
+     * Creates an item whose id is looked up from {@link ItemDefinitions}.
+     */
     public KSItem(String name) {
+        this(ItemDefinitions.idOf(name), name);
+    }
+
+    /**
+     * Creates a stack of an item whose id is looked up from {@link ItemDefinitions}.
+     */
+    public KSItem(String name, int quantity) {
+        this(ItemDefinitions.idOf(name), name, quantity);
+    }
+
+    public KSItem(int id, String name) {
+        this(id, name, 1);
+    }
+
+    public KSItem(int id, String name, int quantity) {
+        this.id = id;
         this.name = name;
+        this.quantity = quantity;
+    }
+
+    /**
+     * Item id, or {@link ItemDefinitions#UNKNOWN} for items without a definition.
+     */
+    public int getId() {
+        return id;
     }
 
     public String getName() {
         return name;
     }
 
+    /**
+     * Number of items in the stack; 1 for items that do not stack.
+     */
+    public int getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * Reports interactions with this item to the listener, or stops
+     * reporting when null. The inventory binds the items it holds.
+     */
+    public void setInteractionListener(InteractionListener interactionListener) {
+        this.interactionListener = interactionListener;
+    }
+
     public void interact(String... actions) {
+        if (interactionListener != null && actions.length > 0) {
+            interactionListener.onInteract(actions[0], -1);
+        }
         // Placeholder for UI interaction.
     }
 }
@@ -1,30 +1,131 @@
 package rs.kreme.ksbot.api.wrappers;
 
+import rs.kreme.ksbot.api.world.EntityStore;
+
 /**
  * Minimal NPC wrapper used for compilation/testing.
+ * <p>
+ * Instances created with a name are plain values used to seed the stub
+ * context. Instances handed out by {@code Combat} are flyweight views over a
+ * slot of an {@link EntityStore} and read every attribute from its columns.
+ * Once the NPC is gone the view is stale: {@link #getName()} returns null
+ * and the numeric getters return -1, rather than reading whatever entity
+ * has reused the slot.
  */
 public class KSNPC {
+    private final EntityStore store;
+    private final int slot;
+    private final int generation;
+
     private final String name;
     private final int combatLevel;
+    private final int x;
+    private final int y;
 
     public KSNPC() {
         this("NPC", 1);
     }
 
     public KSNPC(String name, int combatLevel) {
+        this(name, combatLevel, 0, 0);
+    }
+
+    public KSNPC(String name, int combatLevel, int x, int y) {
+        this.store = null;
+        this.slot = -1;
+        this.generation = 0;
         this.name = name;
         this.combatLevel = combatLevel;
+        this.x = x;
+        this.y = y;
     }
 
+    /**
+     * Creates a view over an NPC held in an entity store.
+     */
+    public KSNPC(EntityStore store, int slot) {
+        this.store = store;
+        this.slot = slot;
+        this.generation = store.generation(slot);
+        this.name = null;
+        this.combatLevel = 0;
+        this.x = 0;
+        this.y = 0;
+    }
+
+    /**
+     * @return The name, or null if the NPC is gone
+     */
     public String getName() {
-        return name;
+        if (store == null) {
+            return name;
+        }
+        return isValid() ? store.nameOf(store.id(slot)) : null;
     }
 
+    /**
+     * @return The combat level, or -1 if the NPC is gone
+     */
     public int getCombatLevel() {
-        return combatLevel;
+        if (store == null) {
+            return combatLevel;
+        }
+        return isValid() ? store.level(slot) : -1;
+    }
+
+    /**
+     * @return The tile x, or -1 if the NPC is gone
+     */
+    public int getX() {
+        if (store == null) {
+            return x;
+        }
+        return isValid() ? store.x(slot) : -1;
+    }
+
+    /**
+     * @return The tile y, or -1 if the NPC is gone
+     */
+    public int getY() {
+        if (store == null) {
+            return y;
+        }
+        return isValid() ? store.y(slot) : -1;
+    }
+
+    /**
+     * Store slot backing this view, or -1 for a detached NPC.
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Whether this NPC still exists. Views become invalid once their slot is
+     * released, even if the slot has since been reused.
+     */
+    public boolean isValid() {
+        return store == null || (store.isLive(slot) && store.generation(slot) == generation);
     }
 
     public void interact(String action) {
         // No-op placeholder
     }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof KSNPC) || store == null) {
+            return false;
+        }
+        KSNPC npc = (KSNPC) other;
+        return store == npc.store && slot == npc.slot && generation == npc.generation;
+    }
+
+    @Override
+    public int hashCode() {
+        return store == null ? System.identityHashCode(this) : slot * 31 + generation;
+    }
 }
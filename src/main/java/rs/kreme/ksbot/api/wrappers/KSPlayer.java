@@ -1,11 +1,15 @@
 package rs.kreme.ksbot.api.wrappers;
 
+import rs.kreme.ksbot.api.trace.TraceRecorder;
+
 /**
  * Minimal local player wrapper with coordinates for safe spot checks.
  */
 public class KSPlayer {
     private int x = 3200;
     private int y = 3200;
+    private int plane = 0;
+    private TraceRecorder recorder;
 
     public int getX() {
         return x;
@@ -13,6 +17,9 @@ public class KSPlayer {
 
     public void setX(int x) {
         this.x = x;
+        if (recorder != null) {
+            recorder.playerX(x);
+        }
     }
 
     public int getY() {
@@ -21,5 +28,26 @@ public class KSPlayer {
 
     public void setY(int y) {
         this.y = y;
+        if (recorder != null) {
+            recorder.playerY(y);
+        }
+    }
+
+    public int getPlane() {
+        return plane;
+    }
+
+    public void setPlane(int plane) {
+        this.plane = plane;
+        if (recorder != null) {
+            recorder.playerPlane(plane);
+        }
+    }
+
+    /**
+     * Reports position changes to the recorder, or stops reporting when null.
+     */
+    public void setRecorder(TraceRecorder recorder) {
+        this.recorder = recorder;
     }
 }